@@ -0,0 +1,45 @@
+#!/usr/bin/env bash
+# Streams a synthetic catalog of N rows into /catalog/import and prints the import report.
+# Rows are generated on the fly and piped straight into curl, so nothing is written to disk.
+#
+# usage: scripts/benchmark-import.sh [rows] [base-url] [csv|ndjson]
+set -euo pipefail
+
+ROWS=${1:-2000000}
+BASE_URL=${2:-http://localhost:8080}
+FORMAT=${3:-csv}
+
+generate() {
+  awk -v rows="$ROWS" -v format="$FORMAT" 'BEGIN {
+    srand(42);
+    split("Electronics,Grocery,Garden,Toys,Books,Sports,Home,Beauty", categories, ",");
+    split("Acme,Globex,Initech,Umbrella,Stark,Wayne,Hooli,Vandelay", brands, ",");
+    if (format == "csv") {
+      print "itemId,itemName,sku,brand,category,msrp,storePrice,ecomPrice,costPrice,quantityInStock,onlineAvailable,storeAvailable,createdAt,averageRating,numberOfReviews,unitsSold,recentSalesCount";
+    }
+    for (i = 1; i <= rows; i++) {
+      msrp = 5 + rand() * 500; price = msrp * (0.7 + rand() * 0.3); cost = price * (0.4 + rand() * 0.4);
+      id = sprintf("BENCH-%08d", i); cat = categories[int(rand() * 8) + 1]; brand = brands[int(rand() * 8) + 1];
+      stock = int(rand() * 500); online = rand() < 0.7 ? "true" : "false"; store = rand() < 0.8 ? "true" : "false";
+      rating = 1 + rand() * 4; reviews = int(rand() * 2000); sold = int(rand() * 10000); recent = int(rand() * 300);
+      if (format == "csv") {
+        printf "%s,Bench Item %d,SKU-%d,%s,%s,%.2f,%.2f,%.2f,%.2f,%d,%s,%s,2024-01-01T00:00:00Z,%.1f,%d,%d,%d\n",
+          id, i, i, brand, cat, msrp, price, price, cost, stock, online, store, rating, reviews, sold, recent;
+      } else {
+        printf "{\"itemId\":\"%s\",\"itemName\":\"Bench Item %d\",\"sku\":\"SKU-%d\",\"brand\":\"%s\",\"category\":\"%s\",\"msrp\":%.2f,\"storePrice\":%.2f,\"ecomPrice\":%.2f,\"costPrice\":%.2f,\"quantityInStock\":%d,\"onlineAvailable\":%s,\"storeAvailable\":%s,\"createdAt\":\"2024-01-01T00:00:00Z\",\"averageRating\":%.1f,\"numberOfReviews\":%d,\"unitsSold\":%d,\"recentSalesCount\":%d}\n",
+          id, i, i, brand, cat, msrp, price, price, cost, stock, online, store, rating, reviews, sold, recent;
+      }
+    }
+  }'
+}
+
+CONTENT_TYPE="text/csv"
+[ "$FORMAT" = "ndjson" ] && CONTENT_TYPE="application/x-ndjson"
+
+echo "Importing $ROWS $FORMAT rows into $BASE_URL ..." >&2
+START=$(date +%s.%N)
+generate | curl -sS -X POST "$BASE_URL/catalog/import?format=$FORMAT" \
+  -H "Content-Type: $CONTENT_TYPE" -H "Transfer-Encoding: chunked" --data-binary @-
+END=$(date +%s.%N)
+echo >&2
+awk -v s="$START" -v e="$END" -v n="$ROWS" 'BEGIN { printf "Client wall time: %.1f s (%.0f rows/s)\n", e - s, n / (e - s) }' >&2
@@ -0,0 +1,78 @@
+#!/usr/bin/env bash
+# Measures time-to-serving (first HTTP answer) and time-to-ready (readiness probe UP, i.e. the
+# catalog is loaded) for the plain jar and the JVM-level startup variants:
+#
+#   baseline      plain jar
+#   cds           AppCDS archive from a training run
+#   cds+aot       AppCDS + Spring AOT bean definitions (-Dspring.aot.enabled=true)
+#
+# Serving comes before seeding in every mode: Tomcat accepts requests before the seeder runs.
+# Seeding on a background thread and lazy bean init were measured too and bought nothing on top
+# (within 1 s of baseline on a single core), so they are not offered.
+#
+# usage: scripts/benchmark-startup.sh [runs-per-mode] [port]
+# Builds the AOT-processed jar (mvn -Paot package) if it is missing.
+set -euo pipefail
+
+RUNS=${1:-3}
+PORT=${2:-18080}
+JAR=${JAR:-target/ai-agent-0.0.1-SNAPSHOT.jar}
+WORK=target/startup
+export OPENAI_API_KEY=${OPENAI_API_KEY:-dummy}
+
+if [[ ! -f "$JAR" ]]; then
+  mvn -B -q -Paot -DskipTests package
+fi
+
+# CDS needs the unpacked layout (plain jar on a fixed classpath), not the nested boot jar.
+rm -rf "$WORK"
+java -Djarmode=tools -jar "$JAR" extract --destination "$WORK" > /dev/null
+APP_JAR="$WORK/$(basename "$JAR")"
+
+echo "Training CDS archive..."
+java -XX:ArchiveClassesAtExit="$WORK/app.jsa" -Dspring.context.exit=onRefresh \
+  -Dspring.aot.enabled=true -jar "$APP_JAR" \
+  --server.port="$PORT" > "$WORK/cds-training.log" 2>&1
+
+now_ms() { date +%s%3N; }
+
+# Prints "<serving-ms> <ready-ms>" for one start of the application.
+measure() {
+  local start serving="" ready="" pid
+  start=$(now_ms)
+  java "$@" --server.port="$PORT" > "$WORK/run.log" 2>&1 &
+  pid=$!
+  for _ in $(seq 1 1200); do
+    local body
+    body=$(curl -s "http://localhost:$PORT/actuator/health/readiness" || true)
+    if [[ -z "$serving" && -n "$body" ]]; then
+      serving=$(( $(now_ms) - start ))
+    fi
+    if [[ "$body" == '{"status":"UP"'* ]]; then
+      ready=$(( $(now_ms) - start ))
+      break
+    fi
+    sleep 0.1
+  done
+  kill "$pid" 2> /dev/null || true
+  wait "$pid" 2> /dev/null || true
+  echo "${serving:-timeout} ${ready:-timeout}"
+}
+
+median() { sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'; }
+
+run_mode() {
+  local name=$1; shift
+  local serving=() ready=()
+  for _ in $(seq 1 "$RUNS"); do
+    read -r s r < <(measure "$@")
+    serving+=("$s"); ready+=("$r")
+  done
+  printf "%-14s %12s %12s\n" "$name" \
+    "$(printf '%s\n' "${serving[@]}" | median)" "$(printf '%s\n' "${ready[@]}" | median)"
+}
+
+printf "%-14s %12s %12s\n" "mode" "serving-ms" "ready-ms"
+run_mode baseline      -jar "$APP_JAR"
+run_mode cds           -XX:SharedArchiveFile="$WORK/app.jsa" -jar "$APP_JAR"
+run_mode cds+aot       -XX:SharedArchiveFile="$WORK/app.jsa" -Dspring.aot.enabled=true -jar "$APP_JAR"
@@ -3,12 +3,18 @@ package com.ai.agent.ai_agent;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+/**
+ * A jar built with {@code -Paot} and run with {@code -Dspring.aot.enabled=true} uses the bean
+ * definitions generated at build time. Every condition was evaluated then, with no profile and the
+ * default properties. Profiles and properties set at launch still configure the beans that exist,
+ * but do not add or remove any: {@code agent.llm.stub.enabled}, {@code agent.item-cache.enabled}
+ * and Spring Boot's own conditional settings, such as {@code spring.jpa.open-in-view}, need a
+ * rebuild to change.
+ */
 @SpringBootApplication
-
 public class AiAgentApplication {
 
 	public static void main(String[] args) {
-		System.out.println("ENV: " + System.getenv("OPENAI_API_KEY"));
 		SpringApplication.run(AiAgentApplication.class, args);
 	}
 
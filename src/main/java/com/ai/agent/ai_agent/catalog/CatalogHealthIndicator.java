@@ -0,0 +1,28 @@
+package com.ai.agent.ai_agent.catalog;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposed as the {@code catalog} health component and included in the readiness group.
+ */
+@Component("catalog")
+public class CatalogHealthIndicator implements HealthIndicator {
+
+    private final CatalogReadiness readiness;
+
+    public CatalogHealthIndicator(CatalogReadiness readiness) {
+        this.readiness = readiness;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = switch (readiness.state()) {
+            case READY -> Health.up().withDetail("loadTimeMs", readiness.loadTime().toMillis());
+            case LOADING -> Health.outOfService();
+            case FAILED -> Health.down();
+        };
+        return builder.withDetail("detail", readiness.detail()).build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.ai.agent.ai_agent.catalog;
+
+import com.ai.agent.ai_agent.utils.CatalogNotReadyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks whether the catalog has finished its initial load. The web server accepts requests
+ * while the seeder is still running; until it completes, catalog-backed endpoints refuse them and
+ * the readiness probe reports the instance as out of service.
+ */
+@Component
+public class CatalogReadiness {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogReadiness.class);
+
+    public enum State {
+        LOADING,
+        READY,
+        FAILED
+    }
+
+    private final long createdNanos = System.nanoTime();
+    private volatile State state = State.LOADING;
+    private volatile String detail = "Initial catalog load has not finished";
+    private volatile Duration loadTime;
+
+    public State state() {
+        return state;
+    }
+
+    public String detail() {
+        return detail;
+    }
+
+    public Duration loadTime() {
+        return loadTime;
+    }
+
+    public boolean isReady() {
+        return state == State.READY;
+    }
+
+    public void markReady(String detail) {
+        this.loadTime = Duration.ofNanos(System.nanoTime() - createdNanos);
+        this.detail = detail;
+        this.state = State.READY;
+        logger.info("Catalog ready after {} ms: {}", loadTime.toMillis(), detail);
+    }
+
+    public void markFailed(String detail) {
+        this.detail = detail;
+        this.state = State.FAILED;
+        logger.error("Catalog load failed after {} ms: {}",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - createdNanos), detail);
+    }
+
+    public void requireReady() {
+        if (state != State.READY) {
+            throw new CatalogNotReadyException("Catalog is not ready yet (" + state + "): " + detail);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.ai.agent.ai_agent.catalog;
+
+import com.ai.agent.ai_agent.event.CatalogBulkLoadedEvent;
+import com.ai.agent.ai_agent.event.ItemChangedEvent;
+import com.ai.agent.ai_agent.event.ItemsImportedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic version of the item catalog, bumped on every item write. Used to key work
+ * that is only valid for a given state of the catalog.
+ */
+@Component
+public class CatalogVersion {
+
+    private final AtomicLong version = new AtomicLong();
+    // Versions restart at zero with the process, so tags handed to clients carry the start time.
+    private final long epoch = System.currentTimeMillis();
+
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * Version string that stays unique across restarts, for use in ETags and other client-held tokens.
+     */
+    public String tag() {
+        return Long.toString(epoch, 36) + '.' + version.get();
+    }
+
+    public long increment() {
+        return version.incrementAndGet();
+    }
+
+    @EventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        increment();
+    }
+
+    /**
+     * Import batches are written over JDBC and raise no {@link ItemChangedEvent}; each committed
+     * batch moves the version on instead of waiting for the end of the import.
+     */
+    @EventListener
+    public void onItemsImported(ItemsImportedEvent event) {
+        increment();
+    }
+
+    @EventListener
+    public void onBulkLoaded(CatalogBulkLoadedEvent event) {
+        increment();
+    }
+}
@@ -0,0 +1,166 @@
+package com.ai.agent.ai_agent.catalog;
+
+import com.ai.agent.ai_agent.entity.ItemEntity;
+import com.ai.agent.ai_agent.repository.ItemCacheRegions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.StatelessSession;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Eviction and metrics for the item regions of the Hibernate second-level cache.
+ * <p>
+ * Writes through JPA keep the cache current by themselves: the entity entry is evicted and
+ * cached query results over {@code items} are dropped on their next read. Writes that bypass JPA,
+ * such as the JDBC catalog import, must call {@link #beforeItemsWrite} before they start and
+ * {@link #evictItems} once they commit, or readers keep seeing the old rows.
+ * <p>
+ * Both go through the update timestamps of the {@code items} table, the same way Hibernate marks
+ * its own writes: a query that read the old rows while the write was running cannot put a result
+ * that later passes as current, which evicting the query regions after the commit alone allows.
+ */
+@Component
+public class ItemCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemCache.class);
+
+    private final SessionFactoryImplementor sessionFactory;
+    private final Cache cache;
+    private final TimestampsCache timestamps;
+    private final String[] itemSpaces;
+    private final Statistics statistics;
+    private final Counter itemEvictions;
+    private final Counter queryEvictions;
+
+    public ItemCache(EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.cache = sessionFactory.getCache();
+        this.timestamps = sessionFactory.getSessionFactoryOptions().isQueryCacheEnabled()
+                ? sessionFactory.getCache().getTimestampsCache()
+                : null;
+        this.itemSpaces = sessionFactory.getMappingMetamodel().getEntityDescriptor(ItemEntity.class).getPropertySpaces();
+        this.statistics = sessionFactory.getStatistics();
+        this.itemEvictions = meterRegistry.counter("agent.item-cache.evictions", "region", ItemCacheRegions.ITEMS);
+        this.queryEvictions = meterRegistry.counter("agent.item-cache.evictions", "region", "queries");
+        if (cache instanceof CacheImplementor caching) {
+            // Query regions are otherwise created by their first query. Hibernate remembers a statistics
+            // lookup for a region that does not exist yet, and that query then fails recording its miss.
+            for (String region : ItemCacheRegions.QUERY_REGIONS) {
+                caching.getQueryResultsCache(region);
+            }
+        }
+        register(meterRegistry, ItemCacheRegions.ITEMS, false);
+        for (String region : ItemCacheRegions.QUERY_REGIONS) {
+            register(meterRegistry, region, true);
+        }
+    }
+
+    /**
+     * Marks the {@code items} table as being written until the next {@link #evictItems}: cached item
+     * query results are not used or kept in the meantime.
+     */
+    public void beforeItemsWrite() {
+        updateTimestamps(TimestampsCache::preInvalidate);
+    }
+
+    /**
+     * Drops the cached state of {@code itemIds} and every cached item query, and ends a write
+     * started with {@link #beforeItemsWrite}. Query results are dropped whole because a changed or
+     * new row can enter or leave any of them.
+     */
+    public void evictItems(Collection<String> itemIds) {
+        updateTimestamps(TimestampsCache::invalidate);
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        for (String itemId : itemIds) {
+            cache.evictEntityData(ItemEntity.class, itemId);
+        }
+        itemEvictions.increment(itemIds.size());
+        for (String region : ItemCacheRegions.QUERY_REGIONS) {
+            cache.evictQueryRegion(region);
+        }
+        queryEvictions.increment(ItemCacheRegions.QUERY_REGIONS.size());
+        logger.debug("Evicted {} items and the item query regions", itemIds.size());
+    }
+
+    private void updateTimestamps(TimestampsUpdate update) {
+        if (timestamps == null) {
+            return;
+        }
+        // The timestamps cache takes a session for its statistics and events only; this one never
+        // opens a connection.
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            update.accept(timestamps, itemSpaces, (SharedSessionContractImplementor) session);
+        }
+    }
+
+    @FunctionalInterface
+    private interface TimestampsUpdate {
+        void accept(TimestampsCache timestamps, String[] spaces, SharedSessionContractImplementor session);
+    }
+
+    /**
+     * Share of lookups in {@code region} answered from the cache, or NaN before the first lookup.
+     */
+    public double hitRatio(String region, boolean query) {
+        CacheRegionStatistics stats = statistics(region, query);
+        if (stats == null) {
+            return Double.NaN;
+        }
+        long hits = stats.getHitCount();
+        long lookups = hits + stats.getMissCount();
+        return lookups == 0 ? Double.NaN : (double) hits / lookups;
+    }
+
+    private void register(MeterRegistry meterRegistry, String region, boolean query) {
+        Gauge.builder("agent.item-cache.hit.ratio", this, itemCache -> itemCache.hitRatio(region, query))
+                .tag("region", region)
+                .register(meterRegistry);
+        requests(meterRegistry, region, "hit", query, CacheRegionStatistics::getHitCount);
+        requests(meterRegistry, region, "miss", query, CacheRegionStatistics::getMissCount);
+        FunctionCounter.builder("agent.item-cache.puts", this,
+                        itemCache -> itemCache.count(region, query, CacheRegionStatistics::getPutCount))
+                .tag("region", region)
+                .register(meterRegistry);
+    }
+
+    private void requests(MeterRegistry meterRegistry, String region, String result, boolean query,
+                          ToDoubleFunction<CacheRegionStatistics> count) {
+        FunctionCounter.builder("agent.item-cache.requests", this, itemCache -> itemCache.count(region, query, count))
+                .tag("region", region)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private double count(String region, boolean query, ToDoubleFunction<CacheRegionStatistics> count) {
+        CacheRegionStatistics stats = statistics(region, query);
+        return stats == null ? 0 : count.applyAsDouble(stats);
+    }
+
+    private CacheRegionStatistics statistics(String region, boolean query) {
+        if (!statistics.isStatisticsEnabled()) {
+            return null;
+        }
+        try {
+            return query ? statistics.getQueryRegionStatistics(region) : statistics.getDomainDataRegionStatistics(region);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+}
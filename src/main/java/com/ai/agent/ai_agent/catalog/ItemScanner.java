@@ -0,0 +1,46 @@
+package com.ai.agent.ai_agent.catalog;
+
+import com.ai.agent.ai_agent.entity.ItemEntity;
+import com.ai.agent.ai_agent.repository.ItemRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Full scans of the items table for the in-memory catalog views. Items are streamed and detached
+ * one by one, so a scan holds only what the consumer keeps rather than a copy of the whole catalog.
+ */
+@Component
+public class ItemScanner {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public ItemScanner(ItemRepository itemRepository, PlatformTransactionManager transactionManager) {
+        this.itemRepository = itemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Passes every item to {@code action}. Items are detached, so they can be kept after the scan.
+     */
+    public void forEach(Consumer<ItemEntity> action) {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<ItemEntity> items = itemRepository.streamAll()) {
+                items.forEach(item -> {
+                    entityManager.detach(item);
+                    action.accept(item);
+                });
+            }
+        });
+    }
+}
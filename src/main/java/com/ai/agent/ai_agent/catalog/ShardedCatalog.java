@@ -0,0 +1,281 @@
+package com.ai.agent.ai_agent.catalog;
+
+import com.ai.agent.ai_agent.catalog.shard.CatalogShard;
+import com.ai.agent.ai_agent.catalog.shard.GroupAggregate;
+import com.ai.agent.ai_agent.catalog.shard.GroupBy;
+import com.ai.agent.ai_agent.catalog.shard.ItemFilter;
+import com.ai.agent.ai_agent.catalog.shard.LocalCatalogShard;
+import com.ai.agent.ai_agent.catalog.shard.Ranking;
+import com.ai.agent.ai_agent.catalog.shard.RemoteCatalogShard;
+import com.ai.agent.ai_agent.entity.ItemEntity;
+import com.ai.agent.ai_agent.event.ItemChangedEvent;
+import com.ai.agent.ai_agent.event.ItemsImportedEvent;
+import com.ai.agent.ai_agent.repository.ItemRepository;
+import com.ai.agent.ai_agent.utils.CatalogBusyException;
+import com.ai.agent.ai_agent.utils.DeadlineContext;
+import com.ai.agent.ai_agent.utils.DeadlineExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Item catalog hash-partitioned by itemId across {@code agent.catalog.shards.count} shards.
+ * Shards are in-process by default; shards listed in {@code agent.catalog.shards.remote}
+ * live on other nodes. Every operation is scattered to all shards in parallel and the
+ * partial results are merged here. Local shards follow JPA writes through {@link ItemChangedEvent}
+ * and bulk imports batch by batch through {@link ItemsImportedEvent}.
+ * <p>
+ * Nodes sharing a catalog must hold the same items, each keeping the ones its shards own: seed
+ * them with the same {@code agent.seed.random-seed}, and set the same
+ * {@code agent.catalog.shards.token} so they accept each other's shard calls.
+ */
+@Component
+public class ShardedCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedCatalog.class);
+
+    private final ItemScanner itemScanner;
+    private final ItemRepository itemRepository;
+    private final ExecutorService shardExecutor;
+    private final MeterRegistry meterRegistry;
+    private final long shardTimeoutMillis;
+    private final CatalogShard[] shards;
+    private final Map<Integer, LocalCatalogShard> localShards = new HashMap<>();
+    private volatile boolean loaded;
+
+    public ShardedCatalog(ItemScanner itemScanner,
+                          ItemRepository itemRepository,
+                          @Qualifier("shardExecutor") ExecutorService shardExecutor,
+                          RestClient.Builder restClientBuilder,
+                          MeterRegistry meterRegistry,
+                          @Value("${agent.catalog.shards.count:4}") int shardCount,
+                          @Value("${agent.catalog.shards.local:}") String localSpec,
+                          @Value("${agent.catalog.shards.remote:}") String remoteSpec,
+                          @Value("${agent.catalog.shards.timeout-ms:10000}") long shardTimeoutMillis,
+                          @Value("${agent.catalog.shards.connect-timeout-ms:1000}") long connectTimeoutMillis,
+                          @Value("${agent.catalog.shards.token:}") String token) {
+        this.itemScanner = itemScanner;
+        this.itemRepository = itemRepository;
+        this.shardExecutor = shardExecutor;
+        this.meterRegistry = meterRegistry;
+        this.shardTimeoutMillis = shardTimeoutMillis;
+        this.shards = new CatalogShard[shardCount];
+
+        Map<Integer, String> remotes = parseRemotes(remoteSpec);
+        Set<Integer> locals = parseIds(localSpec);
+        if (!remotes.isEmpty() && token.isBlank()) {
+            throw new IllegalStateException("agent.catalog.shards.token must be set when remote shards are configured");
+        }
+        // A remote call that hangs must not hold a shard thread past the scatter deadline.
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(Duration.ofMillis(connectTimeoutMillis));
+        requestFactory.setReadTimeout(Duration.ofMillis(shardTimeoutMillis));
+        for (int id = 0; id < shardCount; id++) {
+            if (remotes.containsKey(id)) {
+                shards[id] = new RemoteCatalogShard(id, remotes.get(id), token,
+                        restClientBuilder.clone().requestFactory(requestFactory));
+            } else if (locals.isEmpty() || locals.contains(id)) {
+                LocalCatalogShard shard = new LocalCatalogShard(id);
+                localShards.put(id, shard);
+                shards[id] = shard;
+            }
+        }
+        logger.info("Catalog partitioned into {} shards (local: {}, remote: {})", shardCount, localShards.keySet(), remotes.keySet());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /**
+     * Repopulates the local shards from the database, keeping only the items this node owns.
+     */
+    public synchronized void reload() {
+        long start = System.nanoTime();
+        localShards.values().forEach(LocalCatalogShard::clear);
+        itemScanner.forEach(item -> {
+            LocalCatalogShard shard = localShards.get(shardOf(item.getItemId()));
+            if (shard != null) {
+                shard.put(item);
+            }
+        });
+        loaded = true;
+        int count = localShards.values().stream().mapToInt(LocalCatalogShard::size).sum();
+        logger.info("Loaded {} items into {} local shards in {} ms", count, localShards.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Refreshes the local items of one committed import batch. Imports run far more often than
+     * they touch the whole catalog, so only the batch is read back, never the full table.
+     */
+    @EventListener
+    public void onItemsImported(ItemsImportedEvent event) {
+        List<String> owned = event.itemIds().stream()
+                .filter(itemId -> localShards.containsKey(shardOf(itemId)))
+                .toList();
+        if (owned.isEmpty()) {
+            return;
+        }
+        for (ItemEntity item : itemRepository.findAllById(owned)) {
+            localShards.get(shardOf(item.getItemId())).put(item);
+        }
+    }
+
+    @EventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        // Applied even before the first load: a write committed while reload() is scanning may be
+        // missed by the scan, but not by this event.
+        ItemEntity item = event.item();
+        LocalCatalogShard shard = localShards.get(shardOf(item.getItemId()));
+        if (shard == null) {
+            return;
+        }
+        if (event.type() == ItemChangedEvent.ChangeType.DELETED) {
+            shard.remove(item.getItemId());
+        } else {
+            shard.put(item);
+        }
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Shard owning {@code itemId}. {@link String#hashCode} is fixed by the language spec, so every
+     * node routes an item to the same shard.
+     */
+    public int shardOf(String itemId) {
+        return Math.floorMod(itemId.hashCode(), shards.length);
+    }
+
+    public Optional<LocalCatalogShard> localShard(int id) {
+        ensureLoaded();
+        return Optional.ofNullable(localShards.get(id));
+    }
+
+    public List<ItemEntity> filter(ItemFilter filter, int limit) {
+        List<ItemEntity> result = new ArrayList<>();
+        for (List<ItemEntity> partial : scatter("filter", shard -> shard.filter(filter, limit))) {
+            result.addAll(partial);
+        }
+        return result.size() > limit ? result.subList(0, limit) : result;
+    }
+
+    public List<ItemEntity> topK(Ranking ranking, ItemFilter filter, int k) {
+        List<ItemEntity> merged = new ArrayList<>();
+        for (List<ItemEntity> partial : scatter("top-k", shard -> shard.topK(ranking, filter, k))) {
+            merged.addAll(partial);
+        }
+        merged.sort(ranking.comparator());
+        return merged.size() > k ? merged.subList(0, k) : merged;
+    }
+
+    public Map<String, GroupAggregate> aggregate(GroupBy groupBy, ItemFilter filter) {
+        Map<String, GroupAggregate> merged = new HashMap<>();
+        for (Map<String, GroupAggregate> partial : scatter("aggregate", shard -> shard.aggregate(groupBy, filter))) {
+            partial.forEach((key, aggregate) -> merged.merge(key, aggregate, GroupAggregate::merge));
+        }
+        return merged;
+    }
+
+    private <R> List<R> scatter(String operation, Function<CatalogShard, R> task) {
+        ensureLoaded();
+        long start = System.nanoTime();
+        List<Future<R>> futures = new ArrayList<>(shards.length);
+        try {
+            for (CatalogShard shard : shards) {
+                if (shard != null) {
+                    futures.add(shardExecutor.submit(DeadlineContext.wrap(() -> task.apply(shard))));
+                }
+            }
+        } catch (RejectedExecutionException ex) {
+            futures.forEach(future -> future.cancel(true));
+            meterRegistry.counter("catalog.scatter.rejected", "operation", operation).increment();
+            throw new CatalogBusyException("Catalog is busy, " + operation + " was not run");
+        }
+        List<R> results = new ArrayList<>(futures.size());
+        long timeoutMillis = DeadlineContext.remainingMillis(shardTimeoutMillis);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        try {
+            for (Future<R> future : futures) {
+                results.add(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+        } catch (TimeoutException ex) {
+            futures.forEach(future -> future.cancel(true));
+            throw new DeadlineExceededException("Catalog " + operation + " did not complete within " + timeoutMillis + " ms");
+        } catch (InterruptedException ex) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during catalog " + operation, ex);
+        } catch (ExecutionException ex) {
+            futures.forEach(future -> future.cancel(true));
+            throw new RuntimeException("Catalog " + operation + " failed on a shard", ex.getCause());
+        }
+        meterRegistry.timer("catalog.scatter.latency", "operation", operation)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return results;
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            // Re-checked under the lock so callers that queued behind the first load do not repeat it.
+            synchronized (this) {
+                if (!loaded) {
+                    reload();
+                }
+            }
+        }
+    }
+
+    private static Set<Integer> parseIds(String spec) {
+        Set<Integer> ids = new HashSet<>();
+        Arrays.stream(spec.split(","))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .forEach(value -> ids.add(Integer.parseInt(value)));
+        return ids;
+    }
+
+    private static Map<Integer, String> parseRemotes(String spec) {
+        Map<Integer, String> remotes = new HashMap<>();
+        for (String entry : spec.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            String[] parts = trimmed.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid remote shard entry (expected id=url): " + trimmed);
+            }
+            remotes.put(Integer.parseInt(parts[0].trim()), parts[1].trim());
+        }
+        return remotes;
+    }
+}
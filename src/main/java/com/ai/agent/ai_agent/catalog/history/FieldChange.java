@@ -0,0 +1,16 @@
+package com.ai.agent.ai_agent.catalog.history;
+
+import java.time.Instant;
+
+/**
+ * One logged value of a field. {@code previous} is null for the first value the log has for the
+ * item and field.
+ */
+public record FieldChange(
+        String itemId,
+        HistoryField field,
+        Instant at,
+        Double previous,
+        double value
+) {
+}
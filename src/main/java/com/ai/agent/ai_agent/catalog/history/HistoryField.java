@@ -0,0 +1,54 @@
+package com.ai.agent.ai_agent.catalog.history;
+
+import com.ai.agent.ai_agent.entity.ItemEntity;
+
+import java.util.Locale;
+
+/**
+ * Item attributes whose changes are kept in the {@link ItemChangeLog}. The ordinal is the field
+ * byte stored in each log record, so new fields go at the end.
+ */
+public enum HistoryField {
+    STORE_PRICE("storePrice", "store price"),
+    ECOM_PRICE("ecomPrice", "e-commerce price"),
+    DISCOUNT("discountPercent", "discount %"),
+    STOCK("quantityInStock", "stock");
+
+    private final String attribute;
+    private final String label;
+
+    HistoryField(String attribute, String label) {
+        this.attribute = attribute;
+        this.label = label;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public double valueOf(ItemEntity item) {
+        return switch (this) {
+            case STORE_PRICE -> item.getStorePrice();
+            case ECOM_PRICE -> item.getEcomPrice();
+            case DISCOUNT -> item.getDiscountPercent();
+            case STOCK -> item.getQuantityInStock();
+        };
+    }
+
+    public static HistoryField from(String value) {
+        if (value != null) {
+            String normalized = value.trim().toLowerCase(Locale.ROOT).replace(' ', '_').replace('-', '_');
+            for (HistoryField field : values()) {
+                if (field.name().toLowerCase(Locale.ROOT).equals(normalized)
+                        || field.attribute.toLowerCase(Locale.ROOT).equals(normalized)) {
+                    return field;
+                }
+            }
+            if (normalized.equals("price")) {
+                return STORE_PRICE;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported field: " + value
+                + ". Use store_price, ecom_price, discount or stock.");
+    }
+}
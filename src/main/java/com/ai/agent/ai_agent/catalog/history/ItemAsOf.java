@@ -0,0 +1,16 @@
+package com.ai.agent.ai_agent.catalog.history;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Field values of an item as they were at {@code asOf}, with when each value was set. Fields the
+ * log has no value for at that time are absent.
+ */
+public record ItemAsOf(
+        String itemId,
+        Instant asOf,
+        Map<HistoryField, Double> values,
+        Map<HistoryField, Instant> setAt
+) {
+}
@@ -0,0 +1,820 @@
+package com.ai.agent.ai_agent.catalog.history;
+
+import com.ai.agent.ai_agent.event.CatalogBulkLoadedEvent;
+import com.ai.agent.ai_agent.event.ItemChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * History of item prices, discount and stock. Every change to a {@link HistoryField} seen on the
+ * change feed is appended to a {@link SegmentedLog}; nothing is ever overwritten. In memory there
+ * is only a small index per item: its newest record, and every {@value #CHECKPOINT_INTERVAL}th
+ * record with its time, so a query for time {@code t} starts at the nearest checkpoint after
+ * {@code t} and walks the item's chain backwards from there. Item ids and categories are kept
+ * in a dictionary file next to the log: one entry per item in ordinal order, and one for every
+ * later change of category.
+ * <p>
+ * Compaction rewrites the log into a new generation once it has doubled in size: records older
+ * than the retention period are folded into the last value of each field before the cutoff, and
+ * each item's records are written next to each other. Appends and queries carry on while it runs;
+ * they only wait while the records appended in the meantime are copied over and the new
+ * generation replaces the old one.
+ */
+@Component
+public class ItemChangeLog {
+
+    static final int CHECKPOINT_INTERVAL = 32;
+    static final int RESYNC_CHUNK = 1024;
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemChangeLog.class);
+    private static final HistoryField[] FIELDS = HistoryField.values();
+    private static final Pattern DICTIONARY_FILE = Pattern.compile("items-(\\d{6})\\.dict");
+    private static final Pattern GENERATION_FILE = Pattern.compile("(?:items|changes)-(\\d{6}).*");
+    private static final byte ITEM_ENTRY = 0;
+    private static final byte CATEGORY_ENTRY = 1;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Path directory;
+    private final int segmentBytes;
+    private final long retentionMillis;
+    private final long compactMinBytes;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object compactionLock = new Object();
+    private final Object resyncLock = new Object();
+
+    // Guarded by lock.
+    private SegmentedLog log;
+    private DataOutputStream dictionary;
+    private final Map<String, ItemHistory> items = new HashMap<>();
+    private final List<ItemHistory> byOrdinal = new ArrayList<>();
+    private long lastTimestamp;
+    private long compactedEnd;
+    private long foldedBefore;
+    // Items recorded from the change feed while a resync scans the table; null when none runs.
+    private Set<String> changedDuringResync;
+
+    private final Counter appends;
+    private final Timer compactions;
+
+    public ItemChangeLog(JdbcTemplate jdbcTemplate,
+                         MeterRegistry meterRegistry,
+                         @Value("${agent.history.dir:${java.io.tmpdir}/ai-agent/history}") String directory,
+                         @Value("${agent.history.segment-bytes:16777216}") int segmentBytes,
+                         @Value("${agent.history.retention-days:90}") int retentionDays,
+                         @Value("${agent.history.compact-min-bytes:8388608}") long compactMinBytes,
+                         @Value("${agent.history.reset-on-start:true}") boolean resetOnStart) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.directory = Path.of(directory);
+        this.segmentBytes = Math.max(SegmentedLog.RECORD_BYTES * 1024, segmentBytes);
+        this.retentionMillis = TimeUnit.DAYS.toMillis(retentionDays);
+        this.compactMinBytes = compactMinBytes;
+        this.appends = meterRegistry.counter("agent.history.appends");
+        this.compactions = meterRegistry.timer("agent.history.compactions");
+        try {
+            open(resetOnStart);
+        } catch (IOException ex) {
+            logger.error("Error opening change log in {}", directory, ex);
+            throw new RuntimeException("Failed to open change log", ex);
+        }
+        Gauge.builder("agent.history.records", this, changeLog -> changeLog.log.recordCount())
+                .register(meterRegistry);
+        Gauge.builder("agent.history.memory", this, changeLog -> changeLog.log.mappedBytes())
+                .baseUnit("bytes")
+                .description("Mapped size of the change log segments")
+                .register(meterRegistry);
+        Gauge.builder("agent.history.items", this, ItemChangeLog::itemCount)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        resync();
+    }
+
+    @EventListener
+    public void onBulkLoaded(CatalogBulkLoadedEvent event) {
+        // Bulk writes bypass the entity listener; diff the whole catalog against the log.
+        resync();
+    }
+
+    @EventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        String itemId = event.item().getItemId();
+        lock.writeLock().lock();
+        try {
+            if (changedDuringResync != null) {
+                changedDuringResync.add(itemId);
+            }
+            if (event.type() == ItemChangedEvent.ChangeType.DELETED) {
+                ItemHistory item = items.get(itemId);
+                if (item != null) {
+                    item.deletedAt = nextTimestamp();
+                }
+                return;
+            }
+            double[] values = new double[FIELDS.length];
+            for (HistoryField field : FIELDS) {
+                values[field.ordinal()] = field.valueOf(event.item());
+            }
+            record(itemId, event.item().getCategory(), values, nextTimestamp());
+            dictionary.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to record change of item " + itemId, ex);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Appends a record for every field that differs from what the log last saw, reading the
+     * catalog over JDBC. Items no longer in the catalog are marked deleted. Rows are streamed
+     * without the lock and recorded {@value #RESYNC_CHUNK} at a time, so appends and queries only
+     * wait for one chunk; an item changed on the feed meanwhile keeps that newer change.
+     */
+    public void resync() {
+        synchronized (resyncLock) {
+            long start = System.nanoTime();
+            long before;
+            int known;
+            lock.writeLock().lock();
+            try {
+                before = log.recordCount();
+                known = byOrdinal.size();
+                changedDuringResync = new HashSet<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Set<String> seen = new HashSet<>();
+            List<ResyncRow> chunk = new ArrayList<>(RESYNC_CHUNK);
+            try {
+                jdbcTemplate.query("SELECT item_id, category, store_price, ecom_price, discount_percent, quantity_in_stock FROM items",
+                        resultSet -> {
+                            double[] values = new double[FIELDS.length];
+                            values[HistoryField.STORE_PRICE.ordinal()] = resultSet.getDouble(3);
+                            values[HistoryField.ECOM_PRICE.ordinal()] = resultSet.getDouble(4);
+                            values[HistoryField.DISCOUNT.ordinal()] = resultSet.getDouble(5);
+                            values[HistoryField.STOCK.ordinal()] = resultSet.getInt(6);
+                            chunk.add(new ResyncRow(resultSet.getString(1), resultSet.getString(2), values));
+                            seen.add(resultSet.getString(1));
+                            if (chunk.size() == RESYNC_CHUNK) {
+                                recordChunk(chunk);
+                            }
+                        });
+                recordChunk(chunk);
+                lock.writeLock().lock();
+                try {
+                    // Items registered or changed on the feed since the scan started may be missing
+                    // from it without being deleted.
+                    long timestamp = nextTimestamp();
+                    for (ItemHistory item : byOrdinal.subList(0, known)) {
+                        if (!seen.contains(item.itemId) && item.deletedAt == 0
+                                && !changedDuringResync.contains(item.itemId)) {
+                            item.deletedAt = timestamp;
+                        }
+                    }
+                    logger.info("Change log synchronized with the catalog: {} records appended in {} ms",
+                            log.recordCount() - before, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    changedDuringResync = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    private void recordChunk(List<ResyncRow> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            long timestamp = nextTimestamp();
+            for (ResyncRow row : chunk) {
+                if (!changedDuringResync.contains(row.itemId())) {
+                    record(row.itemId(), row.category(), row.values(), timestamp);
+                }
+            }
+            dictionary.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to synchronize change log", ex);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        chunk.clear();
+    }
+
+    /**
+     * The item's field values as they were at {@code at}, or empty if the log has never seen the item.
+     */
+    public Optional<ItemAsOf> asOf(String itemId, Instant at) {
+        long time = at.toEpochMilli();
+        lock.readLock().lock();
+        try {
+            ItemHistory item = items.get(itemId);
+            if (item == null) {
+                return Optional.empty();
+            }
+            Map<HistoryField, Double> values = new EnumMap<>(HistoryField.class);
+            Map<HistoryField, Instant> setAt = new EnumMap<>(HistoryField.class);
+            for (long offset = item.startAtOrBefore(time, log); offset >= 0 && values.size() < FIELDS.length;
+                 offset = log.previous(offset)) {
+                HistoryField field = log.field(offset);
+                if (!values.containsKey(field)) {
+                    values.put(field, log.value(offset));
+                    setAt.put(field, Instant.ofEpochMilli(log.timestamp(offset)));
+                }
+            }
+            return Optional.of(new ItemAsOf(itemId, at, values, setAt));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Values logged for the item between {@code from} and {@code to} inclusive, oldest first,
+     * each with the value it replaced. {@code field} null means all fields.
+     */
+    public List<FieldChange> changes(String itemId, HistoryField field, Instant from, Instant to) {
+        long fromTime = from.toEpochMilli();
+        long toTime = to.toEpochMilli();
+        lock.readLock().lock();
+        try {
+            ItemHistory item = items.get(itemId);
+            if (item == null) {
+                return List.of();
+            }
+            // Newest first, plus the last value of each field before the range so the first
+            // change in the range knows what it replaced.
+            List<Long> offsets = new ArrayList<>();
+            boolean[] needsPrevious = new boolean[FIELDS.length];
+            int pending = 0;
+            for (long offset = item.startAtOrBefore(toTime, log); offset >= 0; offset = log.previous(offset)) {
+                HistoryField recorded = log.field(offset);
+                if (field != null && recorded != field) {
+                    continue;
+                }
+                if (log.timestamp(offset) >= fromTime) {
+                    offsets.add(offset);
+                    if (!needsPrevious[recorded.ordinal()]) {
+                        needsPrevious[recorded.ordinal()] = true;
+                        pending++;
+                    }
+                } else {
+                    if (needsPrevious[recorded.ordinal()]) {
+                        offsets.add(offset);
+                        needsPrevious[recorded.ordinal()] = false;
+                        pending--;
+                    }
+                    if (pending == 0) {
+                        break;
+                    }
+                }
+            }
+            Double[] last = new Double[FIELDS.length];
+            List<FieldChange> changes = new ArrayList<>();
+            for (int i = offsets.size() - 1; i >= 0; i--) {
+                long offset = offsets.get(i);
+                HistoryField recorded = log.field(offset);
+                long timestamp = log.timestamp(offset);
+                double value = log.value(offset);
+                if (timestamp >= fromTime) {
+                    changes.add(new FieldChange(itemId, recorded, Instant.ofEpochMilli(timestamp), last[recorded.ordinal()], value));
+                }
+                last[recorded.ordinal()] = value;
+            }
+            return changes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * For each item currently in {@code category}, the field's value at {@code from} and at
+     * {@code to} and the number of changes in between. Where the item's history starts after
+     * {@code from}, its first value is the start. Items without a value at {@code to} are left out.
+     */
+    public List<ItemMovement> categoryMovement(String category, HistoryField field, Instant from, Instant to) {
+        long fromTime = from.toEpochMilli();
+        long toTime = to.toEpochMilli();
+        lock.readLock().lock();
+        try {
+            List<ItemMovement> movements = new ArrayList<>();
+            for (ItemHistory item : byOrdinal) {
+                if (item.category == null || !item.category.equalsIgnoreCase(category)
+                        || (item.deletedAt != 0 && item.deletedAt <= fromTime)) {
+                    continue;
+                }
+                double endValue = Double.NaN;
+                double startValue = Double.NaN;
+                int values = 0;
+                for (long offset = item.startAtOrBefore(toTime, log); offset >= 0; offset = log.previous(offset)) {
+                    if (log.field(offset) != field) {
+                        continue;
+                    }
+                    startValue = log.value(offset);
+                    if (values++ == 0) {
+                        endValue = startValue;
+                    }
+                    if (log.timestamp(offset) <= fromTime) {
+                        break;
+                    }
+                }
+                if (values > 0) {
+                    movements.add(new ItemMovement(item.itemId, startValue, endValue, values - 1));
+                }
+            }
+            return movements;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Earliest time the log has complete history from; values before it were folded by compaction
+     * into the last value before it.
+     */
+    public Optional<Instant> foldedBefore() {
+        lock.readLock().lock();
+        try {
+            return foldedBefore == 0 ? Optional.empty() : Optional.of(Instant.ofEpochMilli(foldedBefore));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int itemCount() {
+        lock.readLock().lock();
+        try {
+            return items.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${agent.history.compact-check-ms:60000}")
+    public void compactIfDue() {
+        long grown;
+        lock.readLock().lock();
+        try {
+            grown = log.end() - compactedEnd;
+        } finally {
+            lock.readLock().unlock();
+        }
+        // Rewriting once the log has doubled keeps the cost of compaction proportional to appends.
+        if (grown >= Math.max(compactMinBytes, compactedEnd)) {
+            compact();
+        }
+    }
+
+    /**
+     * Rewrites the log into a new generation, folding records older than the retention period and
+     * dropping items deleted before it.
+     */
+    public void compact() {
+        synchronized (compactionLock) {
+            compactions.record(() -> {
+                try {
+                    rewrite(System.currentTimeMillis() - retentionMillis);
+                } catch (IOException ex) {
+                    logger.error("Error compacting change log in {}", directory, ex);
+                    throw new RuntimeException("Failed to compact change log", ex);
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            log.force();
+            dictionary.close();
+        } catch (IOException ex) {
+            logger.warn("Could not close change log dictionary", ex);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private ItemHistory record(String itemId, String category, double[] values, long timestamp) {
+        ItemHistory item = items.get(itemId);
+        if (item == null) {
+            item = register(itemId, category);
+        } else if (!Objects.equals(item.category, category)) {
+            item.category = category;
+            try {
+                writeCategory(dictionary, item);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Failed to record the category of item " + itemId, ex);
+            }
+        }
+        item.deletedAt = 0;
+        for (HistoryField field : FIELDS) {
+            // The columns are REAL: keep the precision the database keeps, or entity events and
+            // JDBC reads of the same row would disagree.
+            double value = (float) values[field.ordinal()];
+            // NaN for a field never logged, which compares unequal to any value.
+            if (Double.compare(item.current[field.ordinal()], value) != 0) {
+                append(item, field, value, timestamp);
+            }
+        }
+        return item;
+    }
+
+    private ItemHistory register(String itemId, String category) {
+        ItemHistory item = new ItemHistory(byOrdinal.size(), itemId);
+        item.category = category;
+        try {
+            writeItem(dictionary, item);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to add item " + itemId + " to the change log dictionary", ex);
+        }
+        byOrdinal.add(item);
+        items.put(itemId, item);
+        return item;
+    }
+
+    private void append(ItemHistory item, HistoryField field, double value, long timestamp) {
+        item.indexed(log, log.append(timestamp, item.head, value, item.ordinal, field), timestamp, field, value);
+        appends.increment();
+    }
+
+    private long nextTimestamp() {
+        // Never backwards, even if the wall clock is: checkpoint lookups rely on it.
+        lastTimestamp = Math.max(lastTimestamp, System.currentTimeMillis());
+        return lastTimestamp;
+    }
+
+    private void open(boolean reset) throws IOException {
+        Files.createDirectories(directory);
+        long generation = -1;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Matcher matcher = DICTIONARY_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    generation = Math.max(generation, Long.parseLong(matcher.group(1)));
+                }
+            }
+        }
+        if (reset || generation < 0) {
+            deleteGenerationsOtherThan(-1);
+            log = SegmentedLog.create(directory, 0, segmentBytes);
+            dictionary = openDictionary(dictionaryPath(0));
+            return;
+        }
+        // Leftovers of a compaction that did not finish: the one before it, or its unfinished next generation.
+        deleteGenerationsOtherThan(generation);
+        recover(generation);
+    }
+
+    /**
+     * Rebuilds the index by reading the dictionary and then every record of the log in order.
+     */
+    private void recover(long generation) throws IOException {
+        long start = System.nanoTime();
+        Path dictionaryPath = dictionaryPath(generation);
+        byte[] entries = Files.readAllBytes(dictionaryPath);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(entries));
+        int complete = 0;
+        try {
+            while (in.available() > 0) {
+                byte entry = in.readByte();
+                if (entry == ITEM_ENTRY) {
+                    ItemHistory item = new ItemHistory(byOrdinal.size(), in.readUTF());
+                    item.category = readCategory(in);
+                    byOrdinal.add(item);
+                    items.put(item.itemId, item);
+                } else if (entry == CATEGORY_ENTRY) {
+                    int ordinal = in.readInt();
+                    String category = readCategory(in);
+                    byOrdinal.get(ordinal).category = category;
+                } else {
+                    throw new IOException("Unknown entry " + entry + " at " + complete + " in " + dictionaryPath);
+                }
+                complete = entries.length - in.available();
+            }
+        } catch (EOFException ex) {
+            // The process stopped while the entry was written; new entries go after the last whole one.
+            logger.warn("Change log dictionary {} ends in a partial entry at {}; truncating it", dictionaryPath, complete);
+            try (FileChannel channel = FileChannel.open(dictionaryPath, StandardOpenOption.WRITE)) {
+                channel.truncate(complete);
+            }
+        }
+        log = SegmentedLog.open(directory, generation, segmentBytes);
+        for (long offset = 0; offset < log.end(); offset += SegmentedLog.RECORD_BYTES) {
+            int ordinal = log.ordinal(offset);
+            if (ordinal >= byOrdinal.size()) {
+                // Appended after the dictionary was last flushed; cut the log there.
+                logger.warn("Change log record at {} refers to unknown item ordinal {}; ignoring the rest", offset, ordinal);
+                break;
+            }
+            long timestamp = log.timestamp(offset);
+            byOrdinal.get(ordinal).indexed(log, offset, timestamp, log.field(offset), log.value(offset));
+            lastTimestamp = Math.max(lastTimestamp, timestamp);
+        }
+        compactedEnd = log.end();
+        dictionary = openDictionary(dictionaryPath);
+        logger.info("Recovered change log generation {}: {} records for {} items in {} ms", generation,
+                log.recordCount(), items.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Writes the next generation from the chains as they were when it started, without holding the
+     * lock, then takes the write lock to copy the records appended since and swap it in.
+     */
+    private void rewrite(long cutoff) throws IOException {
+        long start = System.nanoTime();
+        SegmentedLog previous;
+        long mark;
+        List<ItemState> states;
+        lock.readLock().lock();
+        try {
+            previous = log;
+            // Every record below the mark is on one of the chains taken here.
+            mark = previous.end();
+            states = new ArrayList<>(byOrdinal.size());
+            for (ItemHistory item : byOrdinal) {
+                states.add(new ItemState(item.itemId, item.category, item.deletedAt, item.head));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        long generation = previous.generation() + 1;
+        SegmentedLog next = SegmentedLog.create(directory, generation, segmentBytes);
+        Path pendingDictionary = directory.resolve(dictionaryPath(generation).getFileName() + ".tmp");
+        DataOutputStream nextDictionary = openDictionary(pendingDictionary);
+        Map<String, ItemHistory> kept = new HashMap<>();
+        List<ItemHistory> keptByOrdinal = new ArrayList<>(states.size());
+        boolean swapped = false;
+        try {
+            long[] chain = new long[64];
+            for (ItemState state : states) {
+                if (state.deletedAt() != 0 && state.deletedAt() < cutoff) {
+                    continue;
+                }
+                int length = 0;
+                for (long offset = state.head(); offset >= 0; offset = previous.previous(offset)) {
+                    if (length == chain.length) {
+                        chain = Arrays.copyOf(chain, length * 2);
+                    }
+                    chain[length++] = offset;
+                }
+                ItemHistory copy = keep(state.itemId(), state.category(), kept, keptByOrdinal, nextDictionary);
+                copy.deletedAt = state.deletedAt();
+
+                // The chain is newest first. The last value of each field before the cutoff stands in
+                // for everything older; written in time order so the new chain stays ordered.
+                long[] folded = new long[FIELDS.length];
+                Arrays.fill(folded, -1);
+                int firstKept = length;
+                while (firstKept > 0 && previous.timestamp(chain[firstKept - 1]) < cutoff) {
+                    long offset = chain[--firstKept];
+                    folded[previous.field(offset).ordinal()] = offset;
+                }
+                Arrays.sort(folded);
+                for (long offset : folded) {
+                    if (offset >= 0) {
+                        copyRecord(previous, next, offset, copy);
+                    }
+                }
+                for (int i = firstKept - 1; i >= 0; i--) {
+                    copyRecord(previous, next, chain[i], copy);
+                }
+            }
+
+            long caughtUp;
+            lock.writeLock().lock();
+            try {
+                caughtUp = previous.end() - mark;
+                // Appended while the rewrite ran; newer than anything copied so far.
+                for (long offset = mark; offset < previous.end(); offset += SegmentedLog.RECORD_BYTES) {
+                    ItemHistory item = byOrdinal.get(previous.ordinal(offset));
+                    ItemHistory copy = kept.get(item.itemId);
+                    if (copy == null) {
+                        copy = keep(item.itemId, item.category, kept, keptByOrdinal, nextDictionary);
+                    }
+                    copyRecord(previous, next, offset, copy);
+                }
+                // Registered, recategorized, deleted or revived while the rewrite ran.
+                for (ItemHistory item : byOrdinal) {
+                    ItemHistory copy = kept.get(item.itemId);
+                    if (copy == null) {
+                        if (item.deletedAt != 0 && item.deletedAt < cutoff) {
+                            continue;
+                        }
+                        copy = keep(item.itemId, item.category, kept, keptByOrdinal, nextDictionary);
+                    } else if (!Objects.equals(copy.category, item.category)) {
+                        copy.category = item.category;
+                        writeCategory(nextDictionary, copy);
+                    }
+                    copy.deletedAt = item.deletedAt;
+                }
+                nextDictionary.flush();
+                // The dictionary marks the generation complete: recovery opens the newest one.
+                Files.move(pendingDictionary, dictionaryPath(generation), StandardCopyOption.ATOMIC_MOVE);
+
+                dictionary.close();
+                log = next;
+                dictionary = nextDictionary;
+                items.clear();
+                items.putAll(kept);
+                byOrdinal.clear();
+                byOrdinal.addAll(keptByOrdinal);
+                compactedEnd = next.end();
+                foldedBefore = Math.max(foldedBefore, cutoff);
+                swapped = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            previous.delete();
+            Files.deleteIfExists(dictionaryPath(previous.generation()));
+            logger.info("Compacted change log: {} -> {} records, {} items, {} appended meanwhile, in {} ms",
+                    previous.recordCount(), next.recordCount(), keptByOrdinal.size(),
+                    caughtUp / SegmentedLog.RECORD_BYTES, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } finally {
+            if (!swapped) {
+                discard(next, nextDictionary, pendingDictionary);
+            }
+        }
+    }
+
+    private static ItemHistory keep(String itemId, String category, Map<String, ItemHistory> kept,
+                                    List<ItemHistory> keptByOrdinal, DataOutputStream dictionary) throws IOException {
+        ItemHistory copy = new ItemHistory(keptByOrdinal.size(), itemId);
+        copy.category = category;
+        keptByOrdinal.add(copy);
+        kept.put(itemId, copy);
+        writeItem(dictionary, copy);
+        return copy;
+    }
+
+    private void discard(SegmentedLog next, DataOutputStream nextDictionary, Path pendingDictionary) {
+        try {
+            nextDictionary.close();
+            next.delete();
+            Files.deleteIfExists(pendingDictionary);
+        } catch (IOException ex) {
+            logger.warn("Could not remove unfinished change log generation {}", next.generation(), ex);
+        }
+    }
+
+    private static void copyRecord(SegmentedLog from, SegmentedLog to, long offset, ItemHistory item) {
+        long timestamp = from.timestamp(offset);
+        HistoryField field = from.field(offset);
+        double value = from.value(offset);
+        item.indexed(to, to.append(timestamp, item.head, value, item.ordinal, field), timestamp, field, value);
+    }
+
+    private static DataOutputStream openDictionary(Path path) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+    }
+
+    private static void writeItem(DataOutputStream dictionary, ItemHistory item) throws IOException {
+        dictionary.writeByte(ITEM_ENTRY);
+        dictionary.writeUTF(item.itemId);
+        dictionary.writeUTF(item.category == null ? "" : item.category);
+    }
+
+    private static void writeCategory(DataOutputStream dictionary, ItemHistory item) throws IOException {
+        dictionary.writeByte(CATEGORY_ENTRY);
+        dictionary.writeInt(item.ordinal);
+        dictionary.writeUTF(item.category == null ? "" : item.category);
+    }
+
+    private static String readCategory(DataInputStream dictionary) throws IOException {
+        String category = dictionary.readUTF();
+        return category.isEmpty() ? null : category;
+    }
+
+    private Path dictionaryPath(long generation) {
+        return directory.resolve(String.format("items-%06d.dict", generation));
+    }
+
+    private void deleteGenerationsOtherThan(long generation) throws IOException {
+        List<Path> stale = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> {
+                String name = file.getFileName().toString();
+                Matcher matcher = GENERATION_FILE.matcher(name);
+                return matcher.matches() && Long.parseLong(matcher.group(1)) != generation;
+            }).forEach(stale::add);
+        }
+        for (Path file : stale) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private record ItemState(String itemId, String category, long deletedAt, long head) {}
+
+    private record ResyncRow(String itemId, String category, double[] values) {}
+
+    /**
+     * Index entry for one item: its newest record, sparse checkpoints into its chain, and the last
+     * logged value of each field.
+     */
+    private static final class ItemHistory {
+
+        private final int ordinal;
+        private final String itemId;
+        private final double[] current = new double[FIELDS.length];
+        private String category;
+        private long deletedAt;
+        private long head = -1;
+        private int records;
+        private long[] checkpointOffsets = new long[0];
+        private long[] checkpointTimes = new long[0];
+        private int checkpoints;
+
+        private ItemHistory(int ordinal, String itemId) {
+            this.ordinal = ordinal;
+            this.itemId = itemId;
+            Arrays.fill(current, Double.NaN);
+        }
+
+        private void indexed(SegmentedLog log, long offset, long timestamp, HistoryField field, double value) {
+            head = offset;
+            current[field.ordinal()] = value;
+            if (++records % CHECKPOINT_INTERVAL == 0) {
+                if (checkpoints == checkpointOffsets.length) {
+                    int capacity = Math.max(4, checkpoints * 2);
+                    checkpointOffsets = Arrays.copyOf(checkpointOffsets, capacity);
+                    checkpointTimes = Arrays.copyOf(checkpointTimes, capacity);
+                }
+                checkpointOffsets[checkpoints] = offset;
+                checkpointTimes[checkpoints] = timestamp;
+                checkpoints++;
+            }
+        }
+
+        /**
+         * Newest record at or before {@code time}: found by walking back from the first checkpoint
+         * after {@code time} rather than from the head.
+         */
+        private long startAtOrBefore(long time, SegmentedLog log) {
+            int low = 0;
+            int high = checkpoints;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (checkpointTimes[mid] <= time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            long offset = low < checkpoints ? log.previous(checkpointOffsets[low]) : head;
+            while (offset >= 0 && log.timestamp(offset) > time) {
+                offset = log.previous(offset);
+            }
+            return offset;
+        }
+    }
+}
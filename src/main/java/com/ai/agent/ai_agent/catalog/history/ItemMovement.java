@@ -0,0 +1,20 @@
+package com.ai.agent.ai_agent.catalog.history;
+
+/**
+ * How one field of an item moved over a period: its value at the start and end, and how many
+ * times it changed in between.
+ */
+public record ItemMovement(
+        String itemId,
+        double startValue,
+        double endValue,
+        int changes
+) {
+
+    public Double changePercent() {
+        if (startValue == 0) {
+            return null;
+        }
+        return (endValue - startValue) / Math.abs(startValue) * 100.0;
+    }
+}
@@ -0,0 +1,172 @@
+package com.ai.agent.ai_agent.catalog.history;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Append-only log of fixed-size change records in memory-mapped segment files. A record is
+ * addressed by its offset in the whole log; each one links to the previous record of the same
+ * item, so an item's history is read backwards from its newest record without touching anything
+ * else. Segment files are preallocated and zero-filled, and a zero timestamp marks the end.
+ *
+ * <pre>
+ *  0  long   timestamp (epoch millis)
+ *  8  long   offset of the item's previous record, or -1
+ * 16  double value
+ * 24  int    item ordinal
+ * 28  byte   {@link HistoryField} ordinal
+ * </pre>
+ *
+ * Appends must be serialized by the caller. Reads may run concurrently with an append for
+ * offsets below {@link #end()}.
+ */
+final class SegmentedLog {
+
+    static final int RECORD_BYTES = 32;
+
+    private static final HistoryField[] FIELDS = HistoryField.values();
+
+    private final Path directory;
+    private final long generation;
+    private final int segmentBytes;
+
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private volatile long end;
+
+    private SegmentedLog(Path directory, long generation, int segmentBytes) {
+        this.directory = directory;
+        this.generation = generation;
+        this.segmentBytes = segmentBytes - segmentBytes % RECORD_BYTES;
+    }
+
+    static SegmentedLog create(Path directory, long generation, int segmentBytes) {
+        return new SegmentedLog(directory, generation, segmentBytes);
+    }
+
+    /**
+     * Maps the existing segments of {@code generation} and finds the end of the log.
+     */
+    static SegmentedLog open(Path directory, long generation, int segmentBytes) throws IOException {
+        SegmentedLog log = new SegmentedLog(directory, generation, segmentBytes);
+        while (Files.exists(log.segmentPath(log.segments.length))) {
+            log.mapSegment(log.segments.length);
+        }
+        long end = (long) log.segments.length * log.segmentBytes;
+        if (log.segments.length > 0) {
+            MappedByteBuffer last = log.segments[log.segments.length - 1];
+            for (int position = 0; position < log.segmentBytes; position += RECORD_BYTES) {
+                if (last.getLong(position) == 0) {
+                    end = (long) (log.segments.length - 1) * log.segmentBytes + position;
+                    break;
+                }
+            }
+        }
+        log.end = end;
+        return log;
+    }
+
+    long generation() {
+        return generation;
+    }
+
+    long end() {
+        return end;
+    }
+
+    long recordCount() {
+        return end / RECORD_BYTES;
+    }
+
+    long mappedBytes() {
+        return (long) segments.length * segmentBytes;
+    }
+
+    long append(long timestamp, long previous, double value, int ordinal, HistoryField field) {
+        long offset = end;
+        int index = (int) (offset / segmentBytes);
+        if (index == segments.length) {
+            try {
+                mapSegment(index);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Failed to create change log segment " + segmentPath(index), ex);
+            }
+        }
+        MappedByteBuffer segment = segments[index];
+        int position = (int) (offset % segmentBytes);
+        segment.putLong(position + 8, previous);
+        segment.putDouble(position + 16, value);
+        segment.putInt(position + 24, ordinal);
+        segment.put(position + 28, (byte) field.ordinal());
+        // Written last: a record with a timestamp is complete.
+        segment.putLong(position, timestamp);
+        end = offset + RECORD_BYTES;
+        return offset;
+    }
+
+    long timestamp(long offset) {
+        return segment(offset).getLong(position(offset));
+    }
+
+    long previous(long offset) {
+        return segment(offset).getLong(position(offset) + 8);
+    }
+
+    double value(long offset) {
+        return segment(offset).getDouble(position(offset) + 16);
+    }
+
+    int ordinal(long offset) {
+        return segment(offset).getInt(position(offset) + 24);
+    }
+
+    HistoryField field(long offset) {
+        return FIELDS[segment(offset).get(position(offset) + 28)];
+    }
+
+    /**
+     * Flushes written pages to disk; the log survives a crash of the process either way.
+     */
+    void force() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Deletes the segment files. Pages stay mapped until the buffers are collected, so readers
+     * still holding this log finish normally.
+     */
+    void delete() throws IOException {
+        for (int index = 0; index < segments.length; index++) {
+            Files.deleteIfExists(segmentPath(index));
+        }
+    }
+
+    private MappedByteBuffer segment(long offset) {
+        return segments[(int) (offset / segmentBytes)];
+    }
+
+    private int position(long offset) {
+        return (int) (offset % segmentBytes);
+    }
+
+    private void mapSegment(int index) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(index),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            MappedByteBuffer[] mapped = Arrays.copyOf(segments, index + 1);
+            mapped[index] = segment;
+            segments = mapped;
+        }
+    }
+
+    private Path segmentPath(int index) {
+        return directory.resolve(String.format("changes-%06d-%06d.log", generation, index));
+    }
+}
@@ -0,0 +1,25 @@
+package com.ai.agent.ai_agent.catalog.location;
+
+import java.util.BitSet;
+
+/**
+ * A set of locations to read stock over: one store, a region, or the whole network.
+ */
+public record LocationScope(String label, BitSet locations) {
+
+    public boolean contains(int location) {
+        return locations.get(location);
+    }
+
+    public int size() {
+        return locations.cardinality();
+    }
+
+    /**
+     * The only location in this scope, or -1 if it has more than one.
+     */
+    public int single() {
+        int first = locations.nextSetBit(0);
+        return first >= 0 && locations.nextSetBit(first + 1) < 0 ? first : -1;
+    }
+}
@@ -0,0 +1,6 @@
+package com.ai.agent.ai_agent.catalog.location;
+
+/**
+ * Stock held across a scope: total units, items carried and items carried but out of stock.
+ */
+public record LocationTotals(String label, int locations, long units, long carriedItems, long outOfStockItems) {}
@@ -0,0 +1,353 @@
+package com.ai.agent.ai_agent.catalog.location;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Sparse item x location stock matrix. Items get dense int ordinals, and each item's row holds
+ * the locations that carry it as a sorted short array with a parallel int array of quantities:
+ * six bytes per stocked cell, nothing for a location that does not carry the item. Per-location
+ * totals are maintained on every write, so store and region summaries never touch the rows.
+ * Locations may be added after construction. Reads run concurrently; writes are exclusive.
+ */
+public final class StockMatrix {
+
+    public static final int NOT_CARRIED = -1;
+    public static final int MAX_LOCATIONS = Short.MAX_VALUE;
+
+    private static final int INITIAL_ITEMS = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Written under the write lock; volatile so that writes can check a location before taking it.
+    private volatile int locationCount;
+
+    // Guarded by lock. Ordinals are never reused; a removed item keeps an empty row.
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private String[] itemIds = new String[INITIAL_ITEMS];
+    private short[][] rowLocations = new short[INITIAL_ITEMS][];
+    private int[][] rowQuantities = new int[INITIAL_ITEMS][];
+    private int itemCount;
+    private long cells;
+    private long[] unitsByLocation;
+    private int[] carriedByLocation;
+    private int[] outOfStockByLocation;
+
+    public StockMatrix(int locationCount) {
+        if (locationCount > MAX_LOCATIONS) {
+            throw new IllegalArgumentException("At most " + MAX_LOCATIONS + " locations are supported");
+        }
+        this.locationCount = locationCount;
+        this.unitsByLocation = new long[locationCount];
+        this.carriedByLocation = new int[locationCount];
+        this.outOfStockByLocation = new int[locationCount];
+    }
+
+    public int locationCount() {
+        return locationCount;
+    }
+
+    /**
+     * Adds a location that carries nothing yet and returns its index, the next one after the
+     * existing locations.
+     */
+    public int addLocation() {
+        lock.writeLock().lock();
+        try {
+            if (locationCount == MAX_LOCATIONS) {
+                throw new IllegalStateException("At most " + MAX_LOCATIONS + " locations are supported");
+            }
+            int location = locationCount;
+            unitsByLocation = Arrays.copyOf(unitsByLocation, location + 1);
+            carriedByLocation = Arrays.copyOf(carriedByLocation, location + 1);
+            outOfStockByLocation = Arrays.copyOf(outOfStockByLocation, location + 1);
+            locationCount = location + 1;
+            return location;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sets the quantity of an item at a location, adding the location to the item's row if it
+     * did not carry the item yet.
+     */
+    public void set(String itemId, int location, int quantity) {
+        checkLocation(location);
+        int stored = Math.max(0, quantity);
+        lock.writeLock().lock();
+        try {
+            int ordinal = ordinal(itemId);
+            short[] locations = rowLocations[ordinal];
+            int[] quantities = rowQuantities[ordinal];
+            int index = Arrays.binarySearch(locations, (short) location);
+            if (index >= 0) {
+                account(location, quantities[index], -1);
+                quantities[index] = stored;
+            } else {
+                int insertAt = -index - 1;
+                short[] newLocations = new short[locations.length + 1];
+                int[] newQuantities = new int[quantities.length + 1];
+                System.arraycopy(locations, 0, newLocations, 0, insertAt);
+                System.arraycopy(quantities, 0, newQuantities, 0, insertAt);
+                newLocations[insertAt] = (short) location;
+                newQuantities[insertAt] = stored;
+                System.arraycopy(locations, insertAt, newLocations, insertAt + 1, locations.length - insertAt);
+                System.arraycopy(quantities, insertAt, newQuantities, insertAt + 1, quantities.length - insertAt);
+                rowLocations[ordinal] = newLocations;
+                rowQuantities[ordinal] = newQuantities;
+                cells++;
+            }
+            account(location, stored, 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces an item's whole row with the first {@code count} cells given, in any order. Used for
+     * bulk loads, where adding cells one at a time would copy the row for every cell.
+     */
+    public void setRow(String itemId, int[] locations, int[] quantities, int count) {
+        // Pack (location, quantity) pairs into longs so that one primitive sort orders the row.
+        long[] packed = new long[count];
+        for (int i = 0; i < count; i++) {
+            checkLocation(locations[i]);
+            packed[i] = (long) locations[i] << 32 | Math.max(0, quantities[i]);
+        }
+        Arrays.sort(packed);
+        short[] rowLocation = new short[count];
+        int[] rowQuantity = new int[count];
+        for (int i = 0; i < count; i++) {
+            rowLocation[i] = (short) (packed[i] >>> 32);
+            rowQuantity[i] = (int) packed[i];
+            if (i > 0 && rowLocation[i] == rowLocation[i - 1]) {
+                throw new IllegalArgumentException("Duplicate location " + rowLocation[i] + " for item " + itemId);
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            int ordinal = ordinal(itemId);
+            short[] previous = rowLocations[ordinal];
+            for (int i = 0; i < previous.length; i++) {
+                account(previous[i], rowQuantities[ordinal][i], -1);
+            }
+            for (int i = 0; i < count; i++) {
+                account(rowLocation[i], rowQuantity[i], 1);
+            }
+            cells += count - previous.length;
+            rowLocations[ordinal] = rowLocation;
+            rowQuantities[ordinal] = rowQuantity;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records that a location no longer carries the item.
+     */
+    public void remove(String itemId, int location) {
+        checkLocation(location);
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(itemId);
+            if (ordinal == null) {
+                return;
+            }
+            short[] locations = rowLocations[ordinal];
+            int[] quantities = rowQuantities[ordinal];
+            int index = Arrays.binarySearch(locations, (short) location);
+            if (index < 0) {
+                return;
+            }
+            account(location, quantities[index], -1);
+            short[] newLocations = new short[locations.length - 1];
+            int[] newQuantities = new int[quantities.length - 1];
+            System.arraycopy(locations, 0, newLocations, 0, index);
+            System.arraycopy(quantities, 0, newQuantities, 0, index);
+            System.arraycopy(locations, index + 1, newLocations, index, locations.length - index - 1);
+            System.arraycopy(quantities, index + 1, newQuantities, index, quantities.length - index - 1);
+            rowLocations[ordinal] = newLocations;
+            rowQuantities[ordinal] = newQuantities;
+            cells--;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeItem(String itemId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(itemId);
+            if (ordinal == null) {
+                return;
+            }
+            short[] locations = rowLocations[ordinal];
+            for (int i = 0; i < locations.length; i++) {
+                account(locations[i], rowQuantities[ordinal][i], -1);
+            }
+            cells -= locations.length;
+            rowLocations[ordinal] = new short[0];
+            rowQuantities[ordinal] = new int[0];
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Units of the item summed over the scope, or {@link #NOT_CARRIED} if no location in the
+     * scope carries it.
+     */
+    public long quantity(String itemId, LocationScope scope) {
+        lock.readLock().lock();
+        try {
+            Integer ordinal = ordinals.get(itemId);
+            return ordinal == null ? NOT_CARRIED : quantity(ordinal, scope, scope.single());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of locations in the scope that carry the item; pass {@code null} for all locations.
+     */
+    public int carryingLocations(String itemId, LocationScope scope) {
+        lock.readLock().lock();
+        try {
+            Integer ordinal = ordinals.get(itemId);
+            if (ordinal == null) {
+                return 0;
+            }
+            short[] locations = rowLocations[ordinal];
+            if (scope == null) {
+                return locations.length;
+            }
+            int count = 0;
+            for (short location : locations) {
+                if (scope.contains(location)) {
+                    count++;
+                }
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Visits every item carried somewhere in the scope with its units summed over the scope.
+     */
+    public void forEach(LocationScope scope, ScopedStockVisitor visitor) {
+        lock.readLock().lock();
+        try {
+            int single = scope.single();
+            for (int ordinal = 0; ordinal < itemCount; ordinal++) {
+                long quantity = quantity(ordinal, scope, single);
+                if (quantity != NOT_CARRIED) {
+                    visitor.visit(itemIds[ordinal], quantity);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public LocationTotals totals(LocationScope scope) {
+        lock.readLock().lock();
+        try {
+            long units = 0;
+            long carried = 0;
+            long outOfStock = 0;
+            for (int location = scope.locations().nextSetBit(0); location >= 0 && location < locationCount;
+                 location = scope.locations().nextSetBit(location + 1)) {
+                units += unitsByLocation[location];
+                carried += carriedByLocation[location];
+                outOfStock += outOfStockByLocation[location];
+            }
+            return new LocationTotals(scope.label(), scope.size(), units, carried, outOfStock);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long cellCount() {
+        lock.readLock().lock();
+        try {
+            return cells;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate heap used by the rows and ordinals, for the memory gauge.
+     */
+    public long retainedBytes() {
+        lock.readLock().lock();
+        try {
+            // Six bytes per cell, two array headers per item row, and a map entry plus id per item.
+            return cells * 6 + (long) itemCount * (2 * 16 + 64) + (long) itemIds.length * 3 * 8
+                    + (long) locationCount * 16;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long quantity(int ordinal, LocationScope scope, int single) {
+        short[] locations = rowLocations[ordinal];
+        int[] quantities = rowQuantities[ordinal];
+        if (single >= 0) {
+            int index = Arrays.binarySearch(locations, (short) single);
+            return index >= 0 ? quantities[index] : NOT_CARRIED;
+        }
+        long total = 0;
+        boolean carried = false;
+        for (int i = 0; i < locations.length; i++) {
+            if (scope.contains(locations[i])) {
+                total += quantities[i];
+                carried = true;
+            }
+        }
+        return carried ? total : NOT_CARRIED;
+    }
+
+    private int ordinal(String itemId) {
+        Integer existing = ordinals.get(itemId);
+        if (existing != null) {
+            return existing;
+        }
+        if (itemCount == itemIds.length) {
+            int capacity = itemIds.length * 2;
+            itemIds = Arrays.copyOf(itemIds, capacity);
+            rowLocations = Arrays.copyOf(rowLocations, capacity);
+            rowQuantities = Arrays.copyOf(rowQuantities, capacity);
+        }
+        int ordinal = itemCount++;
+        itemIds[ordinal] = itemId;
+        rowLocations[ordinal] = new short[0];
+        rowQuantities[ordinal] = new int[0];
+        ordinals.put(itemId, ordinal);
+        return ordinal;
+    }
+
+    private void account(int location, int quantity, int sign) {
+        unitsByLocation[location] += (long) sign * quantity;
+        carriedByLocation[location] += sign;
+        if (quantity == 0) {
+            outOfStockByLocation[location] += sign;
+        }
+    }
+
+    private void checkLocation(int location) {
+        if (location < 0 || location >= locationCount) {
+            throw new IllegalArgumentException("Unknown location index " + location);
+        }
+    }
+
+    @FunctionalInterface
+    public interface ScopedStockVisitor {
+        void visit(String itemId, long quantity);
+    }
+}
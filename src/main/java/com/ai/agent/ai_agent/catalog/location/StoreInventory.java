@@ -0,0 +1,264 @@
+package com.ai.agent.ai_agent.catalog.location;
+
+import com.ai.agent.ai_agent.entity.StoreEntity;
+import com.ai.agent.ai_agent.event.CatalogBulkLoadedEvent;
+import com.ai.agent.ai_agent.event.ItemChangedEvent;
+import com.ai.agent.ai_agent.event.StoreStockChangedEvent;
+import com.ai.agent.ai_agent.repository.StoreRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-store stock for every item, held in a {@link StockMatrix} indexed by store. Loaded from
+ * {@code store_stock} at startup and after bulk loads, then kept current from the store stock
+ * change feed. Tools pass a store ID, store name or region and get a {@link LocationScope} to
+ * read stock over.
+ */
+@Component
+public class StoreInventory {
+
+    private static final Logger logger = LoggerFactory.getLogger(StoreInventory.class);
+
+    private final StoreRepository storeRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Directory directory = Directory.of(List.of());
+    private volatile StockMatrix matrix = new StockMatrix(0);
+    private volatile boolean loaded;
+
+    public StoreInventory(StoreRepository storeRepository, JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.storeRepository = storeRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        Gauge.builder("agent.store-stock.cells", this, inventory -> inventory.matrix.cellCount())
+                .register(meterRegistry);
+        Gauge.builder("agent.store-stock.memory", this, inventory -> inventory.matrix.retainedBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("agent.store-stock.locations", this, inventory -> inventory.directory.stores.size())
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    @EventListener
+    public void onBulkLoaded(CatalogBulkLoadedEvent event) {
+        reload();
+    }
+
+    /**
+     * Rebuilds the store directory and the matrix. Stock is streamed over JDBC rather than loaded
+     * as entities, since there is a row per item per store.
+     */
+    public synchronized void reload() {
+        long start = System.nanoTime();
+        Directory stores = Directory.of(storeRepository.findAll());
+        StockMatrix stock = new StockMatrix(stores.stores.size());
+        RowLoader rows = new RowLoader(stock, stores.stores.size());
+        // Primary key order, so each item's cells arrive together and go in as one row.
+        jdbcTemplate.query("SELECT item_id, store_id, quantity FROM store_stock ORDER BY item_id", resultSet -> {
+            Integer location = stores.indexByStoreId.get(resultSet.getString(2));
+            if (location == null) {
+                rows.skipped++;
+                return;
+            }
+            rows.add(resultSet.getString(1), location, resultSet.getInt(3));
+        });
+        rows.flush();
+        directory = stores;
+        matrix = stock;
+        loaded = true;
+        if (rows.skipped > 0) {
+            logger.warn("Ignored {} store stock rows for unknown stores", rows.skipped);
+        }
+        logger.info("Loaded {} store stock cells across {} stores in {} ms", stock.cellCount(), stores.stores.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @EventListener
+    public synchronized void onStoreStockChanged(StoreStockChangedEvent event) {
+        if (!loaded) {
+            return;
+        }
+        Integer location = directory.indexByStoreId.get(event.storeId());
+        if (location == null) {
+            location = register(event.storeId());
+            if (location == null) {
+                return;
+            }
+        }
+        if (event.type() == ItemChangedEvent.ChangeType.DELETED) {
+            matrix.remove(event.itemId(), location);
+        } else {
+            matrix.set(event.itemId(), location, event.quantity());
+        }
+    }
+
+    /**
+     * Adds a store created after the last load as a new, empty location, leaving the stock of the
+     * others as it is. Returns null if the store does not exist.
+     */
+    private Integer register(String storeId) {
+        Optional<StoreEntity> store = storeRepository.findById(storeId);
+        if (store.isEmpty()) {
+            logger.warn("Ignoring stock change for unknown store {}", storeId);
+            return null;
+        }
+        int location = matrix.addLocation();
+        directory = directory.with(store.get());
+        logger.info("Registered store {} as location {}", storeId, location);
+        return location;
+    }
+
+    @EventListener
+    public synchronized void onItemChanged(ItemChangedEvent event) {
+        if (loaded && event.type() == ItemChangedEvent.ChangeType.DELETED) {
+            matrix.removeItem(event.item().getItemId());
+        }
+    }
+
+    /**
+     * Resolves a store ID, store name or region name, ignoring case. Empty input means no
+     * location filter.
+     */
+    public Optional<LocationScope> resolve(String locationOrRegion) {
+        if (locationOrRegion == null || locationOrRegion.isBlank()) {
+            return Optional.empty();
+        }
+        String key = locationOrRegion.trim().toLowerCase(Locale.ROOT);
+        Directory stores = directory;
+        LocationScope scope = stores.scopes.get(key);
+        if (scope == null) {
+            throw new IllegalArgumentException("Unknown store or region: " + locationOrRegion.trim()
+                    + ". Known regions: " + String.join(", ", stores.regionNames()));
+        }
+        return Optional.of(scope);
+    }
+
+    public long quantity(String itemId, LocationScope scope) {
+        return matrix.quantity(itemId, scope);
+    }
+
+    public int carryingLocations(String itemId, LocationScope scope) {
+        return matrix.carryingLocations(itemId, scope);
+    }
+
+    public void forEach(LocationScope scope, StockMatrix.ScopedStockVisitor visitor) {
+        matrix.forEach(scope, visitor);
+    }
+
+    public LocationTotals totals(LocationScope scope) {
+        return matrix.totals(scope);
+    }
+
+    /**
+     * Totals per region, largest stock first.
+     */
+    public List<LocationTotals> regionTotals() {
+        Directory stores = directory;
+        StockMatrix stock = matrix;
+        List<LocationTotals> totals = new ArrayList<>();
+        for (String region : stores.regionNames()) {
+            totals.add(stock.totals(stores.scopes.get(region.toLowerCase(Locale.ROOT))));
+        }
+        totals.sort(Comparator.comparingLong(LocationTotals::units).reversed());
+        return totals;
+    }
+
+    private static final class RowLoader {
+
+        private final StockMatrix matrix;
+        private final int[] locations;
+        private final int[] quantities;
+        private String itemId;
+        private int count;
+        private long skipped;
+
+        private RowLoader(StockMatrix matrix, int locationCount) {
+            this.matrix = matrix;
+            this.locations = new int[locationCount];
+            this.quantities = new int[locationCount];
+        }
+
+        private void add(String item, int location, int quantity) {
+            if (!item.equals(itemId)) {
+                flush();
+                itemId = item;
+            }
+            locations[count] = location;
+            quantities[count++] = quantity;
+        }
+
+        private void flush() {
+            if (itemId != null) {
+                matrix.setRow(itemId, locations, quantities, count);
+            }
+            count = 0;
+        }
+    }
+
+    /**
+     * Store lookup tables. Stores are indexed by position: storeId order at load, and stores
+     * registered since then after those. A store ID, a store name and a region all resolve to a
+     * scope through one map.
+     */
+    private static final class Directory {
+
+        private final List<StoreEntity> stores;
+        private final Map<String, Integer> indexByStoreId = new HashMap<>();
+        private final Map<String, LocationScope> scopes = new HashMap<>();
+        private final Map<String, BitSet> regions = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        private static Directory of(List<StoreEntity> all) {
+            return new Directory(all.stream().sorted(Comparator.comparing(StoreEntity::getStoreId)).toList());
+        }
+
+        private Directory with(StoreEntity store) {
+            List<StoreEntity> extended = new ArrayList<>(stores);
+            extended.add(store);
+            return new Directory(List.copyOf(extended));
+        }
+
+        private Directory(List<StoreEntity> stores) {
+            this.stores = stores;
+            for (int index = 0; index < stores.size(); index++) {
+                StoreEntity store = stores.get(index);
+                indexByStoreId.put(store.getStoreId(), index);
+                BitSet single = new BitSet();
+                single.set(index);
+                LocationScope scope = new LocationScope("store " + store.getStoreId()
+                        + (store.getName() != null ? " (" + store.getName() + ")" : ""), single);
+                scopes.put(store.getStoreId().toLowerCase(Locale.ROOT), scope);
+                if (store.getName() != null) {
+                    scopes.putIfAbsent(store.getName().toLowerCase(Locale.ROOT), scope);
+                }
+                regions.computeIfAbsent(store.getRegion(), region -> new BitSet()).set(index);
+            }
+            regions.forEach((region, members) ->
+                    scopes.put(region.toLowerCase(Locale.ROOT), new LocationScope("region " + region, members)));
+        }
+
+        private List<String> regionNames() {
+            return new ArrayList<>(regions.keySet());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.ai.agent.ai_agent.catalog.pricing;
+
+import com.ai.agent.ai_agent.entity.ItemEntity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-oriented, immutable copy of the catalog fields the pricing simulation and the item
+ * reports read. Categories and brands are dictionary-encoded so rule matching compares ints.
+ * Obtained from {@link ColumnarCatalog}.
+ */
+public final class CatalogColumns {
+
+    final long version;
+    final int size;
+    final String[] itemIds;
+    final String[] itemNames;
+    final int[] category;
+    final int[] brand;
+    final double[] price;
+    final double[] cost;
+    final int[] demand;
+    final int[] stock;
+    final int[] unitsSold;
+    final String[] categoryNames;
+    final Map<String, Integer> categoryIndex;
+    final Map<String, Integer> brandIndex;
+
+    CatalogColumns(long version, List<ItemEntity> items) {
+        this.version = version;
+        this.size = items.size();
+        this.itemIds = new String[size];
+        this.itemNames = new String[size];
+        this.category = new int[size];
+        this.brand = new int[size];
+        this.price = new double[size];
+        this.cost = new double[size];
+        this.demand = new int[size];
+        this.stock = new int[size];
+        this.unitsSold = new int[size];
+        this.categoryIndex = new HashMap<>();
+        this.brandIndex = new HashMap<>();
+
+        List<String> displayNames = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            ItemEntity item = items.get(i);
+            itemIds[i] = item.getItemId();
+            itemNames[i] = item.getItemName();
+            category[i] = categoryIndex.computeIfAbsent(key(item.getCategory()), k -> {
+                displayNames.add(item.getCategory() == null ? "Uncategorized" : item.getCategory());
+                return categoryIndex.size();
+            });
+            brand[i] = brandIndex.computeIfAbsent(key(item.getBrand()), k -> brandIndex.size());
+            price[i] = item.getStorePrice();
+            cost[i] = item.getCostPrice();
+            demand[i] = item.getRecentSalesCount();
+            stock[i] = item.getQuantityInStock();
+            unitsSold[i] = item.getUnitsSold();
+        }
+        this.categoryNames = displayNames.toArray(new String[0]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String itemName(int i) {
+        return itemNames[i];
+    }
+
+    public double price(int i) {
+        return price[i];
+    }
+
+    public double cost(int i) {
+        return cost[i];
+    }
+
+    static String key(String value) {
+        return value == null ? "" : value.trim().toLowerCase();
+    }
+}
@@ -0,0 +1,9 @@
+package com.ai.agent.ai_agent.catalog.pricing;
+
+public record CategoryImpact(
+        String category,
+        int itemsRepriced,
+        double revenueDelta,
+        double marginDelta,
+        double unitsDelta
+) {}
@@ -0,0 +1,46 @@
+package com.ai.agent.ai_agent.catalog.pricing;
+
+import com.ai.agent.ai_agent.catalog.CatalogVersion;
+import com.ai.agent.ai_agent.catalog.ShardedCatalog;
+import com.ai.agent.ai_agent.catalog.shard.ItemFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The catalog as {@link CatalogColumns}, built once per catalog version from the shards and shared
+ * by every reader of that version, so whole-catalog scans don't each keep their own copy.
+ */
+@Component
+public class ColumnarCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarCatalog.class);
+
+    private final ShardedCatalog catalog;
+    private final CatalogVersion catalogVersion;
+    private volatile CatalogColumns columns;
+
+    public ColumnarCatalog(ShardedCatalog catalog, CatalogVersion catalogVersion) {
+        this.catalog = catalog;
+        this.catalogVersion = catalogVersion;
+    }
+
+    public CatalogColumns current() {
+        long version = catalogVersion.current();
+        CatalogColumns current = columns;
+        if (current != null && current.version == version) {
+            return current;
+        }
+        synchronized (this) {
+            if (columns == null || columns.version != version) {
+                long start = System.nanoTime();
+                columns = new CatalogColumns(version, catalog.filter(ItemFilter.ALL, Integer.MAX_VALUE));
+                logger.debug("Built catalog columns for version {} ({} items) in {} ms", version, columns.size,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+            return columns;
+        }
+    }
+}
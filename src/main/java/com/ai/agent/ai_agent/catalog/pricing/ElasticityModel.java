@@ -0,0 +1,43 @@
+package com.ai.agent.ai_agent.catalog.pricing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Constant-elasticity demand model: {@code demand' = demand * (price' / price) ^ elasticity}.
+ * Elasticities are configured per category with a catalog-wide default.
+ */
+@Component
+public class ElasticityModel {
+
+    private final double defaultElasticity;
+    private final Map<String, Double> categoryElasticity = new HashMap<>();
+
+    public ElasticityModel(@Value("${agent.pricing.elasticity.default:-1.5}") double defaultElasticity,
+                           @Value("${agent.pricing.elasticity.categories:}") String categorySpec) {
+        this.defaultElasticity = defaultElasticity;
+        for (String entry : categorySpec.split(";")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int separator = trimmed.lastIndexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid elasticity entry (expected category:value): " + trimmed);
+            }
+            categoryElasticity.put(CatalogColumns.key(trimmed.substring(0, separator)),
+                    Double.parseDouble(trimmed.substring(separator + 1).trim()));
+        }
+    }
+
+    public double elasticity(String category) {
+        return categoryElasticity.getOrDefault(CatalogColumns.key(category), defaultElasticity);
+    }
+
+    public double demandMultiplier(double elasticity, double priceRatio) {
+        return Math.pow(priceRatio, elasticity);
+    }
+}
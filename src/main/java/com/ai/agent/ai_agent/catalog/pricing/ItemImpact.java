@@ -0,0 +1,11 @@
+package com.ai.agent.ai_agent.catalog.pricing;
+
+public record ItemImpact(
+        String itemId,
+        String itemName,
+        String category,
+        double currentPrice,
+        double newPrice,
+        double revenueDelta,
+        double marginDelta
+) {}
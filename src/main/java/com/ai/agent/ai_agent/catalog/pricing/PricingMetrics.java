@@ -0,0 +1,15 @@
+package com.ai.agent.ai_agent.catalog.pricing;
+
+/**
+ * Revenue, margin and units over the 30-day demand window, plus annualized stock turns.
+ */
+public record PricingMetrics(
+        double revenue,
+        double margin,
+        double unitsSold,
+        double stockTurns
+) {
+    public double marginPercent() {
+        return revenue == 0 ? 0 : margin / revenue * 100.0;
+    }
+}
@@ -0,0 +1,14 @@
+package com.ai.agent.ai_agent.catalog.pricing;
+
+/**
+ * Price change applied to the items matching all non-null conditions.
+ */
+public record PricingRule(
+        String category,
+        String brand,
+        Integer minUnitsSold,
+        Integer maxUnitsSold,
+        Integer minStock,
+        Integer maxStock,
+        double priceChangePercent
+) {}
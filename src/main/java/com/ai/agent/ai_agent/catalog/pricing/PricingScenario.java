@@ -0,0 +1,12 @@
+package com.ai.agent.ai_agent.catalog.pricing;
+
+import java.util.List;
+
+/**
+ * A what-if scenario. Each item is repriced by the first rule it matches; unmatched items keep
+ * their current price.
+ */
+public record PricingScenario(
+        String name,
+        List<PricingRule> rules
+) {}
@@ -0,0 +1,17 @@
+package com.ai.agent.ai_agent.catalog.pricing;
+
+import java.util.List;
+import java.util.Optional;
+
+public record PricingSimulation(
+        String simulationId,
+        long catalogVersion,
+        int itemCount,
+        long elapsedMillis,
+        PricingMetrics baseline,
+        List<ScenarioResult> scenarios
+) {
+    public Optional<ScenarioResult> scenario(String name) {
+        return scenarios.stream().filter(scenario -> scenario.name().equalsIgnoreCase(name)).findFirst();
+    }
+}
@@ -0,0 +1,341 @@
+package com.ai.agent.ai_agent.catalog.pricing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evaluates pricing scenarios over the whole catalog. Every simulation is one fork-join pass over
+ * the shared {@link ColumnarCatalog} columns that evaluates all requested scenarios per item. Results are kept in a bounded cache so follow-up questions can
+ * drill into a previous simulation without recomputing it.
+ */
+@Component
+public class PricingSimulator {
+
+    private static final Logger logger = LoggerFactory.getLogger(PricingSimulator.class);
+
+    private static final double DEMAND_WINDOW_DAYS = 30.0;
+    private static final double DAYS_PER_YEAR = 365.0;
+    private static final int SPLIT_THRESHOLD = 4096;
+    // [0]=revenue, [1]=margin, [2]=units, [3]=items repriced
+    private static final int METRICS = 4;
+
+    private final ColumnarCatalog columnarCatalog;
+    private final ElasticityModel elasticityModel;
+    private final ForkJoinPool pricingPool;
+    private final MeterRegistry meterRegistry;
+    private final int retainedImpacts;
+    private final Map<String, PricingSimulation> cache;
+    private final Map<SimulationKey, String> cacheKeys = new LinkedHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public PricingSimulator(ColumnarCatalog columnarCatalog,
+                            ElasticityModel elasticityModel,
+                            ForkJoinPool pricingPool,
+                            MeterRegistry meterRegistry,
+                            @Value("${agent.pricing.retained-impacts:50}") int retainedImpacts,
+                            @Value("${agent.pricing.cache-size:64}") int cacheSize) {
+        this.columnarCatalog = columnarCatalog;
+        this.elasticityModel = elasticityModel;
+        this.pricingPool = pricingPool;
+        this.meterRegistry = meterRegistry;
+        this.retainedImpacts = retainedImpacts;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PricingSimulation> eldest) {
+                if (size() > cacheSize) {
+                    cacheKeys.values().remove(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Runs the scenarios, or returns the cached simulation when the same scenarios were already
+     * evaluated against the current catalog version.
+     */
+    public PricingSimulation simulate(List<PricingScenario> scenarios) {
+        if (scenarios == null || scenarios.isEmpty()) {
+            throw new IllegalArgumentException("At least one pricing scenario is required");
+        }
+        CatalogColumns snapshot = columnarCatalog.current();
+        SimulationKey key = new SimulationKey(snapshot.version, List.copyOf(scenarios));
+        synchronized (this) {
+            String cachedId = cacheKeys.get(key);
+            if (cachedId != null && cache.containsKey(cachedId)) {
+                meterRegistry.counter("agent.pricing.simulations", "cache", "hit").increment();
+                return cache.get(cachedId);
+            }
+        }
+
+        long start = System.nanoTime();
+        CompiledScenario[] compiled = scenarios.stream()
+                .map(scenario -> compile(scenario, snapshot))
+                .toArray(CompiledScenario[]::new);
+        double[] elasticity = new double[snapshot.categoryNames.length];
+        for (int c = 0; c < elasticity.length; c++) {
+            elasticity[c] = elasticityModel.elasticity(snapshot.categoryNames[c]);
+        }
+
+        Partial total = pricingPool.invoke(new SimulationTask(snapshot, compiled, elasticity, 0, snapshot.size));
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        PricingSimulation simulation = toSimulation("sim-" + sequence.incrementAndGet(), snapshot, compiled, total, elapsedMillis);
+        synchronized (this) {
+            cache.put(simulation.simulationId(), simulation);
+            cacheKeys.put(key, simulation.simulationId());
+        }
+        meterRegistry.counter("agent.pricing.simulations", "cache", "miss").increment();
+        meterRegistry.timer("agent.pricing.simulation.latency").record(elapsedMillis, TimeUnit.MILLISECONDS);
+        logger.info("Simulated {} pricing scenarios over {} items in {} ms ({})",
+                compiled.length, snapshot.size, elapsedMillis, simulation.simulationId());
+        return simulation;
+    }
+
+    public synchronized Optional<PricingSimulation> get(String simulationId) {
+        return Optional.ofNullable(cache.get(simulationId));
+    }
+
+    private static CompiledScenario compile(PricingScenario scenario, CatalogColumns columns) {
+        List<PricingRule> rules = scenario.rules() != null ? scenario.rules() : List.of();
+        CompiledRule[] compiled = new CompiledRule[rules.size()];
+        for (int i = 0; i < rules.size(); i++) {
+            PricingRule rule = rules.get(i);
+            // A cut of 100% or more gives a zero or negative price, which the demand model cannot price.
+            if (!Double.isFinite(rule.priceChangePercent()) || rule.priceChangePercent() <= -100) {
+                throw new IllegalArgumentException("Invalid price change " + rule.priceChangePercent()
+                        + "% in scenario '" + scenario.name() + "': must be a number greater than -100.");
+            }
+            compiled[i] = new CompiledRule(
+                    dictionaryCode(rule.category(), columns.categoryIndex),
+                    dictionaryCode(rule.brand(), columns.brandIndex),
+                    rule.minUnitsSold() != null ? rule.minUnitsSold() : Integer.MIN_VALUE,
+                    rule.maxUnitsSold() != null ? rule.maxUnitsSold() : Integer.MAX_VALUE,
+                    rule.minStock() != null ? rule.minStock() : Integer.MIN_VALUE,
+                    rule.maxStock() != null ? rule.maxStock() : Integer.MAX_VALUE,
+                    1.0 + rule.priceChangePercent() / 100.0);
+        }
+        String name = scenario.name() != null && !scenario.name().isBlank() ? scenario.name() : "scenario";
+        return new CompiledScenario(name, compiled);
+    }
+
+    // -1 matches any value; -2 never matches (value not present in the catalog).
+    private static int dictionaryCode(String value, Map<String, Integer> dictionary) {
+        if (value == null || value.isBlank()) {
+            return -1;
+        }
+        return dictionary.getOrDefault(CatalogColumns.key(value), -2);
+    }
+
+    private PricingSimulation toSimulation(String id, CatalogColumns snapshot, CompiledScenario[] scenarios,
+                                           Partial total, long elapsedMillis) {
+        long totalStock = total.totalStock;
+        PricingMetrics baseline = metrics(sum(total.baseline), totalStock);
+        List<ScenarioResult> results = new ArrayList<>(scenarios.length);
+        for (int s = 0; s < scenarios.length; s++) {
+            double[][] byCategory = total.scenarios[s];
+            List<CategoryImpact> categories = new ArrayList<>();
+            for (int c = 0; c < byCategory.length; c++) {
+                if (byCategory[c][3] > 0) {
+                    categories.add(new CategoryImpact(snapshot.categoryNames[c], (int) byCategory[c][3],
+                            byCategory[c][0] - total.baseline[c][0],
+                            byCategory[c][1] - total.baseline[c][1],
+                            byCategory[c][2] - total.baseline[c][2]));
+                }
+            }
+            categories.sort(Comparator.comparingDouble((CategoryImpact impact) -> Math.abs(impact.revenueDelta())).reversed());
+
+            List<ItemImpact> impacts = new ArrayList<>(total.topImpacts.get(s));
+            impacts.sort(BY_IMPACT.reversed());
+            double[] sum = sum(byCategory);
+            results.add(new ScenarioResult(scenarios[s].name(), (int) sum[3], metrics(sum, totalStock), categories, impacts));
+        }
+        return new PricingSimulation(id, snapshot.version, snapshot.size, elapsedMillis, baseline, results);
+    }
+
+    private static PricingMetrics metrics(double[] sum, long totalStock) {
+        double annualUnits = sum[2] * DAYS_PER_YEAR / DEMAND_WINDOW_DAYS;
+        return new PricingMetrics(sum[0], sum[1], sum[2], totalStock == 0 ? 0 : annualUnits / totalStock);
+    }
+
+    private static double[] sum(double[][] byCategory) {
+        double[] sum = new double[METRICS];
+        for (double[] category : byCategory) {
+            for (int m = 0; m < METRICS; m++) {
+                sum[m] += category[m];
+            }
+        }
+        return sum;
+    }
+
+    private static final Comparator<ItemImpact> BY_IMPACT =
+            Comparator.comparingDouble((ItemImpact impact) -> Math.abs(impact.revenueDelta()))
+                    .thenComparing(ItemImpact::itemId, Comparator.reverseOrder());
+
+    private record CompiledRule(int category, int brand, int minUnitsSold, int maxUnitsSold,
+                                int minStock, int maxStock, double priceMultiplier) {
+        boolean matches(CatalogColumns columns, int i) {
+            return (category == -1 || category == columns.category[i])
+                    && (brand == -1 || brand == columns.brand[i])
+                    && columns.unitsSold[i] >= minUnitsSold && columns.unitsSold[i] <= maxUnitsSold
+                    && columns.stock[i] >= minStock && columns.stock[i] <= maxStock;
+        }
+    }
+
+    private record CompiledScenario(String name, CompiledRule[] rules) {}
+
+    // Compared by value: scenarios are records, so equal requests hit the same cached simulation.
+    private record SimulationKey(long version, List<PricingScenario> scenarios) {}
+
+    /**
+     * Accumulators for one index range: per-category baseline and per-scenario per-category
+     * metrics, plus a bounded min-heap of the most affected items for each scenario.
+     */
+    private final class Partial {
+        private final double[][] baseline;
+        private final double[][][] scenarios;
+        private final List<PriorityQueue<ItemImpact>> topImpacts;
+        private long totalStock;
+
+        private Partial(int scenarioCount, int categoryCount) {
+            this.baseline = new double[categoryCount][METRICS];
+            this.scenarios = new double[scenarioCount][categoryCount][METRICS];
+            this.topImpacts = new ArrayList<>(scenarioCount);
+            for (int s = 0; s < scenarioCount; s++) {
+                topImpacts.add(new PriorityQueue<>(retainedImpacts + 1, BY_IMPACT));
+            }
+        }
+
+        private boolean wouldRetain(int scenario, double revenueDelta) {
+            PriorityQueue<ItemImpact> heap = topImpacts.get(scenario);
+            return heap.size() < retainedImpacts || Math.abs(revenueDelta) >= Math.abs(heap.peek().revenueDelta());
+        }
+
+        private void offer(int scenario, ItemImpact impact) {
+            PriorityQueue<ItemImpact> heap = topImpacts.get(scenario);
+            if (heap.size() < retainedImpacts) {
+                heap.add(impact);
+            } else if (BY_IMPACT.compare(impact, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(impact);
+            }
+        }
+
+        private Partial merge(Partial other) {
+            totalStock += other.totalStock;
+            add(baseline, other.baseline);
+            for (int s = 0; s < scenarios.length; s++) {
+                add(scenarios[s], other.scenarios[s]);
+                for (ItemImpact impact : other.topImpacts.get(s)) {
+                    offer(s, impact);
+                }
+            }
+            return this;
+        }
+
+        private static void add(double[][] target, double[][] source) {
+            for (int c = 0; c < target.length; c++) {
+                for (int m = 0; m < METRICS; m++) {
+                    target[c][m] += source[c][m];
+                }
+            }
+        }
+    }
+
+    private final class SimulationTask extends RecursiveTask<Partial> {
+        private final CatalogColumns columns;
+        private final CompiledScenario[] scenarios;
+        private final double[] elasticity;
+        private final int from;
+        private final int to;
+
+        private SimulationTask(CatalogColumns columns, CompiledScenario[] scenarios, double[] elasticity, int from, int to) {
+            this.columns = columns;
+            this.scenarios = scenarios;
+            this.elasticity = elasticity;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                return computeDirectly();
+            }
+            int mid = (from + to) >>> 1;
+            SimulationTask left = new SimulationTask(columns, scenarios, elasticity, from, mid);
+            left.fork();
+            Partial right = new SimulationTask(columns, scenarios, elasticity, mid, to).compute();
+            return left.join().merge(right);
+        }
+
+        private Partial computeDirectly() {
+            Partial partial = new Partial(scenarios.length, columns.categoryNames.length);
+            for (int i = from; i < to; i++) {
+                int category = columns.category[i];
+                double price = columns.price[i];
+                double cost = columns.cost[i];
+                int stock = Math.max(0, columns.stock[i]);
+                // Sales can't exceed what is on hand.
+                double baseUnits = Math.min(columns.demand[i], stock);
+                double baseRevenue = price * baseUnits;
+                double baseMargin = (price - cost) * baseUnits;
+
+                partial.totalStock += stock;
+                double[] base = partial.baseline[category];
+                base[0] += baseRevenue;
+                base[1] += baseMargin;
+                base[2] += baseUnits;
+
+                for (int s = 0; s < scenarios.length; s++) {
+                    double[] acc = partial.scenarios[s][category];
+                    double multiplier = priceMultiplier(scenarios[s], i);
+                    if (multiplier == 1.0 || price <= 0) {
+                        acc[0] += baseRevenue;
+                        acc[1] += baseMargin;
+                        acc[2] += baseUnits;
+                        continue;
+                    }
+                    double newPrice = price * multiplier;
+                    double units = Math.min(columns.demand[i] * elasticityModel.demandMultiplier(elasticity[category], multiplier), stock);
+                    double revenue = newPrice * units;
+                    double margin = (newPrice - cost) * units;
+                    acc[0] += revenue;
+                    acc[1] += margin;
+                    acc[2] += units;
+                    acc[3]++;
+                    if (partial.wouldRetain(s, revenue - baseRevenue)) {
+                        partial.offer(s, new ItemImpact(columns.itemIds[i], columns.itemNames[i], columns.categoryNames[category],
+                                price, newPrice, revenue - baseRevenue, margin - baseMargin));
+                    }
+                }
+            }
+            return partial;
+        }
+
+        private double priceMultiplier(CompiledScenario scenario, int i) {
+            for (CompiledRule rule : scenario.rules()) {
+                if (rule.matches(columns, i)) {
+                    return rule.priceMultiplier();
+                }
+            }
+            return 1.0;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.ai.agent.ai_agent.catalog.pricing;
+
+import java.util.List;
+
+public record ScenarioResult(
+        String name,
+        int itemsRepriced,
+        PricingMetrics simulated,
+        List<CategoryImpact> categories,
+        List<ItemImpact> topImpacts
+) {}
@@ -0,0 +1,105 @@
+package com.ai.agent.ai_agent.catalog.promo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Static augmented interval tree stored in sorted arrays. Intervals are sorted by start; the tree
+ * is the implicit balanced BST over that array (the root of {@code [lo, hi)} is its midpoint) and
+ * {@code maxEnd[mid]} holds the largest end in that subtree. Overlap queries run in
+ * O(log n + k) for k results. Bounds are inclusive.
+ */
+public final class IntervalIndex<T> {
+
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnd;
+    private final List<T> values;
+
+    private IntervalIndex(long[] starts, long[] ends, List<T> values) {
+        this.starts = starts;
+        this.ends = ends;
+        this.values = values;
+        this.maxEnd = new long[starts.length];
+        buildMaxEnd(0, starts.length);
+    }
+
+    public static <T> IntervalIndex<T> build(List<T> values, ToLongFunction<T> start, ToLongFunction<T> end) {
+        List<T> sorted = new ArrayList<>(values);
+        sorted.sort(Comparator.comparingLong(start::applyAsLong));
+        long[] starts = new long[sorted.size()];
+        long[] ends = new long[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            starts[i] = start.applyAsLong(sorted.get(i));
+            ends[i] = end.applyAsLong(sorted.get(i));
+        }
+        return new IntervalIndex<>(starts, ends, sorted);
+    }
+
+    public int size() {
+        return starts.length;
+    }
+
+    /**
+     * Values whose interval contains {@code point}.
+     */
+    public List<T> stabbing(long point) {
+        return overlapping(point, point);
+    }
+
+    /**
+     * Values whose interval overlaps {@code [from, to]}.
+     */
+    public List<T> overlapping(long from, long to) {
+        List<T> result = new ArrayList<>();
+        // Intervals starting after `to` can't overlap; they form a suffix of the sorted array.
+        int limit = upperBound(to);
+        collect(0, starts.length, limit, from, index -> result.add(values.get(index)));
+        return result;
+    }
+
+    private void collect(int lo, int hi, int limit, long from, IntConsumer sink) {
+        if (lo >= hi || lo >= limit) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (maxEnd[mid] < from) {
+            return;
+        }
+        collect(lo, mid, limit, from, sink);
+        if (mid < limit) {
+            if (ends[mid] >= from) {
+                sink.accept(mid);
+            }
+            collect(mid + 1, hi, limit, from, sink);
+        }
+    }
+
+    private long buildMaxEnd(int lo, int hi) {
+        if (lo >= hi) {
+            return Long.MIN_VALUE;
+        }
+        int mid = (lo + hi) >>> 1;
+        long max = Math.max(ends[mid], Math.max(buildMaxEnd(lo, mid), buildMaxEnd(mid + 1, hi)));
+        maxEnd[mid] = max;
+        return max;
+    }
+
+    // First index whose start is greater than `value`.
+    private int upperBound(long value) {
+        int lo = 0;
+        int hi = starts.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (starts[mid] <= value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
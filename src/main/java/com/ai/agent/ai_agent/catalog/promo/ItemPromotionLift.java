@@ -0,0 +1,14 @@
+package com.ai.agent.ai_agent.catalog.promo;
+
+/**
+ * Average daily units before, during and after one item's promotion window. Post figures and
+ * lifts are null when there is no data for the phase (e.g. the promotion is still running).
+ */
+public record ItemPromotionLift(
+        PromotionWindow window,
+        double preDaily,
+        double duringDaily,
+        Double postDaily,
+        Double lift,
+        Double postLift
+) {}
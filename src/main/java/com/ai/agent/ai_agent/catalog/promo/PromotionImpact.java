@@ -0,0 +1,12 @@
+package com.ai.agent.ai_agent.catalog.promo;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record PromotionImpact(
+        LocalDate from,
+        LocalDate to,
+        int comparisonDays,
+        List<PromotionLift> promotions,
+        List<ItemPromotionLift> items
+) {}
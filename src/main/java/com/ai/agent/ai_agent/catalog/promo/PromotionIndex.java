@@ -0,0 +1,181 @@
+package com.ai.agent.ai_agent.catalog.promo;
+
+import com.ai.agent.ai_agent.catalog.ItemScanner;
+import com.ai.agent.ai_agent.entity.ItemEntity;
+import com.ai.agent.ai_agent.event.ItemChangedEvent;
+import com.ai.agent.ai_agent.event.ItemsImportedEvent;
+import com.ai.agent.ai_agent.repository.ItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interval indexes over item promotion windows, one per promotion plus one across all
+ * promotions. Built from the items table on first use and then kept current from the change
+ * feed: windows of changed items go to a small overlay that queries merge in, and the indexes are
+ * rebuilt from memory once the overlay holds {@value #MAX_PENDING} items.
+ */
+@Component
+public class PromotionIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromotionIndex.class);
+    private static final int MAX_PENDING = 1024;
+    private static final Comparator<PromotionWindow> BY_START = Comparator.comparing(PromotionWindow::start);
+
+    private final ItemScanner itemScanner;
+    private final ItemRepository itemRepository;
+    private final Object buildLock = new Object();
+
+    // Guarded by this.
+    private boolean built;
+    private Map<String, PromotionWindow> indexed = Map.of();
+    private IntervalIndex<PromotionWindow> all = indexOf(List.of());
+    private Map<String, IntervalIndex<PromotionWindow>> byPromotion = Map.of();
+    // Items changed since the indexes were built, with their current window; empty when they have none.
+    private final Map<String, Optional<PromotionWindow>> pending = new HashMap<>();
+
+    public PromotionIndex(ItemScanner itemScanner, ItemRepository itemRepository) {
+        this.itemScanner = itemScanner;
+        this.itemRepository = itemRepository;
+    }
+
+    /**
+     * Windows of {@code promotion} (any promotion when null) active at some point in {@code [from, to]},
+     * ordered by start date.
+     */
+    public List<PromotionWindow> activeDuring(String promotion, LocalDate from, LocalDate to) {
+        if (!isBuilt()) {
+            build();
+        }
+        String key = promotion == null || promotion.isBlank() ? null : key(promotion);
+        long fromDay = from.toEpochDay();
+        long toDay = to.toEpochDay();
+        synchronized (this) {
+            IntervalIndex<PromotionWindow> index = key == null ? all : byPromotion.get(key);
+            List<PromotionWindow> result = new ArrayList<>();
+            if (index != null) {
+                for (PromotionWindow window : index.overlapping(fromDay, toDay)) {
+                    if (!pending.containsKey(window.itemId())) {
+                        result.add(window);
+                    }
+                }
+            }
+            if (pending.isEmpty()) {
+                return result;
+            }
+            for (Optional<PromotionWindow> changed : pending.values()) {
+                changed.filter(window -> key == null || key.equals(key(window.promotion())))
+                        .filter(window -> window.start().toEpochDay() <= toDay && window.end().toEpochDay() >= fromDay)
+                        .ifPresent(result::add);
+            }
+            result.sort(BY_START);
+            return result;
+        }
+    }
+
+    public List<PromotionWindow> activeOn(String promotion, LocalDate date) {
+        return activeDuring(promotion, date, date);
+    }
+
+    @EventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        ItemEntity item = event.item();
+        update(item.getItemId(), event.type() == ItemChangedEvent.ChangeType.DELETED ? null : windowOf(item));
+    }
+
+    @EventListener
+    public void onItemsImported(ItemsImportedEvent event) {
+        Set<String> missing = new HashSet<>(event.itemIds());
+        for (ItemEntity item : itemRepository.findAllById(event.itemIds())) {
+            missing.remove(item.getItemId());
+            update(item.getItemId(), windowOf(item));
+        }
+        missing.forEach(itemId -> update(itemId, null));
+    }
+
+    // Changes are kept even before the first build: the scan may miss a write committed while it runs.
+    private synchronized void update(String itemId, PromotionWindow window) {
+        pending.put(itemId, Optional.ofNullable(window));
+        if (built && pending.size() >= MAX_PENDING) {
+            rebuild(new HashMap<>(indexed));
+        }
+    }
+
+    private synchronized boolean isBuilt() {
+        return built;
+    }
+
+    private void build() {
+        synchronized (buildLock) {
+            if (isBuilt()) {
+                return;
+            }
+            long start = System.nanoTime();
+            Map<String, PromotionWindow> windows = new HashMap<>();
+            itemScanner.forEach(item -> {
+                PromotionWindow window = windowOf(item);
+                if (window != null) {
+                    windows.put(item.getItemId(), window);
+                }
+            });
+            synchronized (this) {
+                rebuild(windows);
+                built = true;
+            }
+            logger.info("Indexed {} promotion windows across {} promotions in {} ms", all.size(), byPromotion.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Rebuilds the indexes from {@code windows} with the pending changes applied on top, and clears them.
+     */
+    private void rebuild(Map<String, PromotionWindow> windows) {
+        pending.forEach((itemId, window) -> {
+            if (window.isPresent()) {
+                windows.put(itemId, window.get());
+            } else {
+                windows.remove(itemId);
+            }
+        });
+        pending.clear();
+        Map<String, List<PromotionWindow>> grouped = new HashMap<>();
+        for (PromotionWindow window : windows.values()) {
+            grouped.computeIfAbsent(key(window.promotion()), k -> new ArrayList<>()).add(window);
+        }
+        Map<String, IntervalIndex<PromotionWindow>> indexes = new HashMap<>(grouped.size() * 2);
+        grouped.forEach((promotion, promotionWindows) -> indexes.put(promotion, indexOf(promotionWindows)));
+        indexed = windows;
+        all = indexOf(new ArrayList<>(windows.values()));
+        byPromotion = indexes;
+    }
+
+    private static PromotionWindow windowOf(ItemEntity item) {
+        if (item.getPromotion() == null || item.getPromoStartDate() == null || item.getPromoEndDate() == null) {
+            return null;
+        }
+        return new PromotionWindow(item.getItemId(), item.getItemName(), item.getPromotion(),
+                item.getPromoStartDate().toLocalDate(), item.getPromoEndDate().toLocalDate());
+    }
+
+    private static IntervalIndex<PromotionWindow> indexOf(List<PromotionWindow> windows) {
+        return IntervalIndex.build(windows, window -> window.start().toEpochDay(), window -> window.end().toEpochDay());
+    }
+
+    private static String key(String promotion) {
+        return promotion.trim().toLowerCase(Locale.ROOT);
+    }
+}
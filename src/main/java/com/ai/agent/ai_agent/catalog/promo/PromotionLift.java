@@ -0,0 +1,14 @@
+package com.ai.agent.ai_agent.catalog.promo;
+
+/**
+ * Lift of one promotion over all its matching items; daily figures are summed across items.
+ */
+public record PromotionLift(
+        String promotion,
+        int items,
+        double preDaily,
+        double duringDaily,
+        double postDaily,
+        Double lift,
+        Double postLift
+) {}
@@ -0,0 +1,11 @@
+package com.ai.agent.ai_agent.catalog.promo;
+
+import java.time.LocalDate;
+
+public record PromotionWindow(
+        String itemId,
+        String itemName,
+        String promotion,
+        LocalDate start,
+        LocalDate end
+) {}
@@ -0,0 +1,17 @@
+package com.ai.agent.ai_agent.catalog.shard;
+
+import com.ai.agent.ai_agent.entity.ItemEntity;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One hash partition of the item catalog. Operations return per-shard partial results that the
+ * coordinator merges.
+ */
+public interface CatalogShard {
+    int id();
+    List<ItemEntity> filter(ItemFilter filter, int limit);
+    List<ItemEntity> topK(Ranking ranking, ItemFilter filter, int k);
+    Map<String, GroupAggregate> aggregate(GroupBy groupBy, ItemFilter filter);
+}
@@ -0,0 +1,30 @@
+package com.ai.agent.ai_agent.catalog.shard;
+
+/**
+ * Partial aggregate for one group on one shard. Partials merge associatively, so the
+ * coordinator only combines one small record per group and shard.
+ */
+public record GroupAggregate(
+        long itemCount,
+        long unitsSold,
+        long stock,
+        double revenue,
+        double costSum,
+        double priceSum
+) {
+    public static final GroupAggregate EMPTY = new GroupAggregate(0, 0, 0, 0.0, 0.0, 0.0);
+
+    public GroupAggregate merge(GroupAggregate other) {
+        return new GroupAggregate(
+                itemCount + other.itemCount,
+                unitsSold + other.unitsSold,
+                stock + other.stock,
+                revenue + other.revenue,
+                costSum + other.costSum,
+                priceSum + other.priceSum);
+    }
+
+    public double marginPercent() {
+        return priceSum == 0 ? 0 : (priceSum - costSum) / priceSum * 100.0;
+    }
+}
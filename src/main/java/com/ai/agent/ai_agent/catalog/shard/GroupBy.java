@@ -0,0 +1,16 @@
+package com.ai.agent.ai_agent.catalog.shard;
+
+import com.ai.agent.ai_agent.entity.ItemEntity;
+
+public enum GroupBy {
+    CATEGORY,
+    BRAND;
+
+    public String keyOf(ItemEntity item) {
+        return this == CATEGORY ? item.getCategory() : item.getBrand();
+    }
+
+    public static GroupBy from(String value) {
+        return GroupBy.valueOf(value.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,43 @@
+package com.ai.agent.ai_agent.catalog.shard;
+
+import com.ai.agent.ai_agent.entity.ItemEntity;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Serializable item predicate, so the same filter can be evaluated by local and remote shards.
+ * Null fields are not applied.
+ */
+public record ItemFilter(
+        Integer maxStock,
+        Integer minStock,
+        Integer minUnitsSold,
+        Integer maxUnitsSold,
+        String category,
+        String brand,
+        ZonedDateTime lastActivityBefore
+) {
+    public static final ItemFilter ALL = new ItemFilter(null, null, null, null, null, null, null);
+
+    public static ItemFilter stockAtMost(int maxStock) {
+        return new ItemFilter(maxStock, null, null, null, null, null, null);
+    }
+
+    public static ItemFilter lowStockHighSales(int maxStock, int minUnitsSold) {
+        return new ItemFilter(maxStock, null, minUnitsSold, null, null, null, null);
+    }
+
+    public boolean matches(ItemEntity item) {
+        if (maxStock != null && item.getQuantityInStock() > maxStock) return false;
+        if (minStock != null && item.getQuantityInStock() < minStock) return false;
+        if (minUnitsSold != null && item.getUnitsSold() < minUnitsSold) return false;
+        if (maxUnitsSold != null && item.getUnitsSold() > maxUnitsSold) return false;
+        if (category != null && !category.equalsIgnoreCase(item.getCategory())) return false;
+        if (brand != null && !brand.equalsIgnoreCase(item.getBrand())) return false;
+        if (lastActivityBefore != null) {
+            ZonedDateTime lastActivity = item.getLastPurchasedAt() != null ? item.getLastPurchasedAt() : item.getCreatedAt();
+            if (lastActivity == null || !lastActivity.isBefore(lastActivityBefore)) return false;
+        }
+        return true;
+    }
+}
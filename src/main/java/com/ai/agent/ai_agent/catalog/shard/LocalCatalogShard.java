@@ -0,0 +1,110 @@
+package com.ai.agent.ai_agent.catalog.shard;
+
+import com.ai.agent.ai_agent.entity.ItemEntity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process partition holding its items in memory.
+ */
+public class LocalCatalogShard implements CatalogShard {
+
+    private final int id;
+    private final Map<String, ItemEntity> items = new ConcurrentHashMap<>();
+
+    public LocalCatalogShard(int id) {
+        this.id = id;
+    }
+
+    @Override
+    public int id() {
+        return id;
+    }
+
+    public void put(ItemEntity item) {
+        items.put(item.getItemId(), item);
+    }
+
+    public void remove(String itemId) {
+        items.remove(itemId);
+    }
+
+    public void clear() {
+        items.clear();
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    public Collection<ItemEntity> items() {
+        return items.values();
+    }
+
+    @Override
+    public List<ItemEntity> filter(ItemFilter filter, int limit) {
+        List<ItemEntity> result = new ArrayList<>();
+        for (ItemEntity item : items.values()) {
+            if (filter.matches(item)) {
+                result.add(item);
+                if (result.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<ItemEntity> topK(Ranking ranking, ItemFilter filter, int k) {
+        if (k <= 0) {
+            return List.of();
+        }
+        Comparator<ItemEntity> order = ranking.comparator();
+        // Max-heap on the ranking order: the head is the worst of the current top K.
+        PriorityQueue<ItemEntity> heap = new PriorityQueue<>(Math.min(k, items.size()) + 1, order.reversed());
+        for (ItemEntity item : items.values()) {
+            if (!filter.matches(item)) {
+                continue;
+            }
+            if (heap.size() < k) {
+                heap.add(item);
+            } else if (order.compare(item, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(item);
+            }
+        }
+        List<ItemEntity> result = new ArrayList<>(heap);
+        result.sort(order);
+        return result;
+    }
+
+    @Override
+    public Map<String, GroupAggregate> aggregate(GroupBy groupBy, ItemFilter filter) {
+        Map<String, double[]> accumulators = new HashMap<>();
+        for (ItemEntity item : items.values()) {
+            if (!filter.matches(item)) {
+                continue;
+            }
+            // [0]=count, [1]=unitsSold, [2]=stock, [3]=revenue, [4]=cost sum, [5]=price sum
+            double[] acc = accumulators.computeIfAbsent(String.valueOf(groupBy.keyOf(item)), key -> new double[6]);
+            acc[0]++;
+            acc[1] += item.getUnitsSold();
+            acc[2] += item.getQuantityInStock();
+            acc[3] += item.getUnitsSold() * item.getStorePrice();
+            acc[4] += item.getCostPrice();
+            acc[5] += item.getStorePrice();
+        }
+        Map<String, GroupAggregate> result = new HashMap<>(accumulators.size() * 2);
+        accumulators.forEach((key, acc) -> result.put(key,
+                new GroupAggregate((long) acc[0], (long) acc[1], (long) acc[2], acc[3], acc[4], acc[5])));
+        return result;
+    }
+}
@@ -0,0 +1,25 @@
+package com.ai.agent.ai_agent.catalog.shard;
+
+import com.ai.agent.ai_agent.entity.ItemEntity;
+
+import java.util.Comparator;
+
+public enum Ranking {
+    UNDERPERFORMING(Comparator.comparingInt(ItemEntity::getUnitsSold)
+            .thenComparingDouble(ItemEntity::getAverageRating)),
+    TOP_PERFORMING(Comparator.comparingInt(ItemEntity::getUnitsSold)
+            .thenComparingDouble(ItemEntity::getAverageRating)
+            .reversed()),
+    MOST_EXPENSIVE(Comparator.comparingDouble(ItemEntity::getStorePrice).reversed());
+
+    private final Comparator<ItemEntity> comparator;
+
+    Ranking(Comparator<ItemEntity> comparator) {
+        // Ties are broken on itemId so the merged top-K is deterministic across shard layouts.
+        this.comparator = comparator.thenComparing(ItemEntity::getItemId);
+    }
+
+    public Comparator<ItemEntity> comparator() {
+        return comparator;
+    }
+}
@@ -0,0 +1,60 @@
+package com.ai.agent.ai_agent.catalog.shard;
+
+import com.ai.agent.ai_agent.entity.ItemEntity;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClient;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Partition hosted by another JVM, reached through its {@code /internal/shards} endpoints. Calls
+ * carry the shared shard token, which the hosting node checks.
+ */
+public class RemoteCatalogShard implements CatalogShard {
+
+    public static final String TOKEN_HEADER = "X-Shard-Token";
+
+    private static final ParameterizedTypeReference<List<ItemEntity>> ITEM_LIST = new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<Map<String, GroupAggregate>> AGGREGATES = new ParameterizedTypeReference<>() {};
+
+    private final int id;
+    private final RestClient restClient;
+
+    public RemoteCatalogShard(int id, String baseUrl, String token, RestClient.Builder builder) {
+        this.id = id;
+        this.restClient = builder.baseUrl(baseUrl + "/internal/shards/" + id)
+                .defaultHeader(TOKEN_HEADER, token)
+                .build();
+    }
+
+    @Override
+    public int id() {
+        return id;
+    }
+
+    @Override
+    public List<ItemEntity> filter(ItemFilter filter, int limit) {
+        return post("/filter", new ShardRequest(filter, null, null, limit), ITEM_LIST);
+    }
+
+    @Override
+    public List<ItemEntity> topK(Ranking ranking, ItemFilter filter, int k) {
+        return post("/top-k", new ShardRequest(filter, ranking, null, k), ITEM_LIST);
+    }
+
+    @Override
+    public Map<String, GroupAggregate> aggregate(GroupBy groupBy, ItemFilter filter) {
+        return post("/aggregate", new ShardRequest(filter, null, groupBy, 0), AGGREGATES);
+    }
+
+    private <T> T post(String path, ShardRequest request, ParameterizedTypeReference<T> type) {
+        return restClient.post()
+                .uri(path)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(request)
+                .retrieve()
+                .body(type);
+    }
+}
@@ -0,0 +1,8 @@
+package com.ai.agent.ai_agent.catalog.shard;
+
+public record ShardRequest(
+        ItemFilter filter,
+        Ranking ranking,
+        GroupBy groupBy,
+        int limit
+) {}
@@ -0,0 +1,254 @@
+package com.ai.agent.ai_agent.catalog.sketch;
+
+import com.ai.agent.ai_agent.catalog.ItemScanner;
+import com.ai.agent.ai_agent.event.CatalogBulkLoadedEvent;
+import com.ai.agent.ai_agent.event.ItemChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Quantile, distinct-count and heavy-hitter sketches over the catalog, kept for the whole catalog,
+ * each category and each brand and updated from the change feed. Queries read a few hundred
+ * retained values at most, so they cost the same whatever the size of the catalog or the scope.
+ * Nothing is kept per item: once the values left behind by updates are a noticeable share of any
+ * group, the next tick rebuilds every group from a streamed scan of the items table, off the lock
+ * that queries take.
+ */
+@Component
+public class CatalogSketches {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSketches.class);
+    private static final String ALL_SCOPE = "all items";
+
+    private final ItemScanner itemScanner;
+    private final double maxStaleFraction;
+    private volatile boolean resyncRequested = true;
+
+    // Guarded by this.
+    private boolean built;
+    private Groups groups = new Groups();
+    // Changes made while a rebuild scans the table, which it may or may not have seen; null when none runs.
+    private List<Change> duringRebuild;
+
+    private final Counter rebuilds;
+
+    public CatalogSketches(ItemScanner itemScanner,
+                           MeterRegistry meterRegistry,
+                           @Value("${agent.sketch.max-stale-fraction:0.05}") double maxStaleFraction) {
+        this.itemScanner = itemScanner;
+        this.maxStaleFraction = maxStaleFraction;
+        this.rebuilds = meterRegistry.counter("agent.sketch.rebuilds");
+        Gauge.builder("agent.sketch.groups", this, CatalogSketches::groupCount)
+                .register(meterRegistry);
+        Gauge.builder("agent.sketch.memory", this, CatalogSketches::retainedBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public synchronized void onItemChanged(ItemChangedEvent event) {
+        Change change = new Change(event.type(), ItemContribution.of(event.item()));
+        if (duringRebuild != null) {
+            duringRebuild.add(change);
+        }
+        if (built) {
+            groups.apply(change);
+        }
+    }
+
+    @EventListener
+    public void onBulkLoaded(CatalogBulkLoadedEvent event) {
+        resyncRequested = true;
+    }
+
+    @Scheduled(fixedDelayString = "${agent.sketch.rebuild-ms:5000}")
+    public void tick() {
+        synchronized (this) {
+            if (!resyncRequested && (!built || !groups.isStale(maxStaleFraction))) {
+                return;
+            }
+            resyncRequested = false;
+            duringRebuild = new ArrayList<>();
+        }
+        long start = System.nanoTime();
+        Groups fresh = new Groups();
+        try {
+            itemScanner.forEach(item -> fresh.add(ItemContribution.of(item)));
+        } catch (RuntimeException ex) {
+            synchronized (this) {
+                duringRebuild = null;
+            }
+            resyncRequested = true;
+            throw ex;
+        }
+        synchronized (this) {
+            // Replayed as revisions: the scan may already hold them, and the next rebuild settles it.
+            duringRebuild.forEach(fresh::revise);
+            duringRebuild = null;
+            groups = fresh;
+            built = true;
+        }
+        rebuilds.increment();
+        logger.info("Built sketches for {} items in {} groups in {} ms", fresh.all.count(), groupCount(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    public synchronized Distribution distribution(SketchMetric metric, String category, String brand,
+                                                  List<Double> fractions, int buckets) {
+        GroupSketch group = group(category, brand);
+        KllSketch sketch = group.quantiles(metric);
+        Map<Double, Double> percentiles = new LinkedHashMap<>();
+        List<Distribution.Bucket> histogram = new ArrayList<>();
+        if (sketch.count() > 0) {
+            for (double fraction : fractions) {
+                percentiles.put(fraction, sketch.quantile(fraction));
+            }
+            double width = (sketch.max() - sketch.min()) / buckets;
+            if (width == 0) {
+                histogram.add(new Distribution.Bucket(sketch.min(), sketch.max(), group.count()));
+            }
+            double previousRank = 0;
+            for (int i = 0; i < buckets && width > 0; i++) {
+                double from = sketch.min() + i * width;
+                double to = i == buckets - 1 ? sketch.max() : from + width;
+                double rank = sketch.rank(to);
+                histogram.add(new Distribution.Bucket(from, to, Math.round((rank - previousRank) * group.count())));
+                previousRank = rank;
+            }
+        }
+        return new Distribution(group.name(), metric, group.count(), sketch.min(), sketch.max(),
+                percentiles, histogram, group.rankError(metric));
+    }
+
+    public synchronized PercentileRank percentileRank(SketchMetric metric, String category, String brand, double value) {
+        GroupSketch group = group(category, brand);
+        KllSketch sketch = group.quantiles(metric);
+        return new PercentileRank(group.name(), metric, value, sketch.count() == 0 ? 0 : sketch.rank(value),
+                group.count(), group.rankError(metric));
+    }
+
+    public synchronized DistinctCount distinctBrands(String category) {
+        return group(category, null).distinctBrands();
+    }
+
+    public synchronized List<HeavyHitter> topBrandsByUnitsSold(String category, int limit) {
+        return group(category, null).topBrands(limit);
+    }
+
+    public synchronized int groupCount() {
+        return 1 + groups.categories.size() + groups.brands.size();
+    }
+
+    public synchronized long retainedBytes() {
+        long bytes = groups.all.retainedBytes();
+        for (GroupSketch group : groups.categories.values()) {
+            bytes += group.retainedBytes();
+        }
+        for (GroupSketch group : groups.brands.values()) {
+            bytes += group.retainedBytes();
+        }
+        return bytes;
+    }
+
+    private GroupSketch group(String category, String brand) {
+        if (!built) {
+            throw new IllegalArgumentException("Catalog statistics are still being computed; try again in a few seconds");
+        }
+        boolean hasCategory = category != null && !category.isBlank();
+        boolean hasBrand = brand != null && !brand.isBlank();
+        if (hasCategory && hasBrand) {
+            throw new IllegalArgumentException("Sketches are kept per category or per brand, not per combination; pass one of them");
+        }
+        if (!hasCategory && !hasBrand) {
+            return groups.all;
+        }
+        GroupSketch group = hasCategory ? groups.categories.get(key(category)) : groups.brands.get(key(brand));
+        if (group == null) {
+            throw new IllegalArgumentException("No items found for " + (hasCategory ? "category " + category : "brand " + brand));
+        }
+        return group;
+    }
+
+    private static String key(String name) {
+        return name == null || name.isBlank() ? "(none)" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Change(ItemChangedEvent.ChangeType type, ItemContribution contribution) {
+    }
+
+    /**
+     * The sketches of every scope. A deleted item's last values are in its event and are taken back
+     * exactly; an update can only add its new values, see {@link GroupSketch#revise}.
+     */
+    private static final class Groups {
+
+        private final GroupSketch all = new GroupSketch(ALL_SCOPE, true);
+        private final Map<String, GroupSketch> categories = new HashMap<>();
+        private final Map<String, GroupSketch> brands = new HashMap<>();
+
+        void add(ItemContribution contribution) {
+            all.add(contribution);
+            groupOf(categories, contribution.category(), true).add(contribution);
+            groupOf(brands, contribution.brand(), false).add(contribution);
+        }
+
+        void revise(Change change) {
+            all.revise(change.contribution());
+            groupOf(categories, change.contribution().category(), true).revise(change.contribution());
+            groupOf(brands, change.contribution().brand(), false).revise(change.contribution());
+        }
+
+        void apply(Change change) {
+            ItemContribution contribution = change.contribution();
+            switch (change.type()) {
+                case CREATED -> add(contribution);
+                case UPDATED -> revise(change);
+                case DELETED -> {
+                    all.retract(contribution);
+                    groupOf(categories, contribution.category(), true).retract(contribution);
+                    groupOf(brands, contribution.brand(), false).retract(contribution);
+                }
+            }
+        }
+
+        /**
+         * Whether any group carries too many left-behind values, or was emptied by deletes.
+         */
+        boolean isStale(double maxStaleFraction) {
+            if (all.isStale(maxStaleFraction)) {
+                return true;
+            }
+            for (GroupSketch group : categories.values()) {
+                if (group.isStale(maxStaleFraction) || group.count() <= 0) {
+                    return true;
+                }
+            }
+            for (GroupSketch group : brands.values()) {
+                if (group.isStale(maxStaleFraction) || group.count() <= 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static GroupSketch groupOf(Map<String, GroupSketch> groups, String name, boolean trackBrands) {
+            String displayName = name == null || name.isBlank() ? "(none)" : name.trim();
+            return groups.computeIfAbsent(key(displayName), key -> new GroupSketch(displayName, trackBrands));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.ai.agent.ai_agent.catalog.sketch;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Count-min sketch over string keys. Counts may be decremented as long as no key's true total
+ * goes negative, so an item's old contribution can be taken back when it changes. Estimates never
+ * undercount, and overcount by at most {@link #errorBound()} with probability 1 - e^-depth.
+ * Until it has seen more than {@code width / 16} keys it keeps exact counts in a map instead, so
+ * small groups neither pay for the counters nor lose accuracy. Not thread-safe.
+ */
+public final class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private Map<String, Long> exact = new HashMap<>();
+    private long[] counters;
+    private long total;
+
+    public CountMinSketch(int depth, int width) {
+        this.depth = depth;
+        this.width = width;
+    }
+
+    public void add(String key, long delta) {
+        total += delta;
+        if (counters == null) {
+            exact.merge(key, delta, (current, change) -> current + change == 0 ? null : current + change);
+            if (exact.size() > width / 16) {
+                densify();
+            }
+            return;
+        }
+        long hash = SketchHash.hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int row = 0; row < depth; row++) {
+            counters[row * width + Math.floorMod(h1 + row * h2, width)] += delta;
+        }
+    }
+
+    public long estimate(String key) {
+        if (counters == null) {
+            return Math.max(0, exact.getOrDefault(key, 0L));
+        }
+        long hash = SketchHash.hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row * width + Math.floorMod(h1 + row * h2, width)]);
+        }
+        return Math.max(0, estimate);
+    }
+
+    public void merge(CountMinSketch other) {
+        if (other.depth != depth || other.width != width) {
+            throw new IllegalArgumentException("Cannot merge count-min sketches of different dimensions");
+        }
+        if (other.counters == null) {
+            other.exact.forEach(this::add);
+            return;
+        }
+        densify();
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+        total += other.total;
+    }
+
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Largest overcount of {@link #estimate(String)} with high probability; zero while counting exactly.
+     */
+    public long errorBound() {
+        return counters == null ? 0 : (long) Math.ceil(Math.E / width * total);
+    }
+
+    public long retainedBytes() {
+        // Roughly 64 bytes per map entry with its key and boxed count.
+        return counters != null ? (long) counters.length * Long.BYTES : exact.size() * 64L;
+    }
+
+    private void densify() {
+        if (counters != null) {
+            return;
+        }
+        counters = new long[depth * width];
+        long exactTotal = total;
+        exact.forEach(this::add);
+        total = exactTotal;
+        exact = null;
+    }
+}
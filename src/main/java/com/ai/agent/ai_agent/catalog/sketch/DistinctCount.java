@@ -0,0 +1,3 @@
+package com.ai.agent.ai_agent.catalog.sketch;
+
+public record DistinctCount(String scope, long estimate, double relativeError) {}
@@ -0,0 +1,22 @@
+package com.ai.agent.ai_agent.catalog.sketch;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximate distribution of one metric within a scope. Percentile keys are fractions (0.5 is
+ * the median); {@code rankError} bounds how far each reported rank may be from the true one.
+ */
+public record Distribution(
+        String scope,
+        SketchMetric metric,
+        long count,
+        double min,
+        double max,
+        Map<Double, Double> percentiles,
+        List<Bucket> histogram,
+        double rankError
+) {
+
+    public record Bucket(double from, double to, long count) {}
+}
@@ -0,0 +1,157 @@
+package com.ai.agent.ai_agent.catalog.sketch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sketches for one scope: the whole catalog, a category or a brand. Quantile and distinct-count
+ * sketches cannot forget a value, and the change feed does not say what an updated item held
+ * before, so an update adds the new values and leaves the old ones behind. Those are counted as
+ * {@code retracted} and the group is rebuilt once they are a noticeable share of it. Brand units
+ * are left as they were counted instead: adding an updated item's units again would count them
+ * twice. Units sold only grow, so a brand is then low by at most the units of its updated items.
+ * Brand scopes skip the brand-level sketches, which would say nothing about a single brand.
+ */
+final class GroupSketch {
+
+    private static final int HLL_PRECISION = 12;
+    private static final int CMS_DEPTH = 4;
+    private static final int CMS_WIDTH = 1024;
+    private static final int MAX_CANDIDATES = 32;
+    private static final int MIN_RETRACTED_FOR_REBUILD = 16;
+
+    private final String name;
+    private final KllSketch[] quantiles = new KllSketch[SketchMetric.values().length];
+    private final HyperLogLog distinctBrands;
+    private final CountMinSketch brandUnits;
+    // Brands that may be heavy hitters, with their estimate when last written; the count-min
+    // sketch alone cannot enumerate its keys.
+    private final Map<String, Long> candidates;
+    private long live;
+    private long retracted;
+    // Units of updated items, which the brand counts may be missing.
+    private long revisedUnits;
+
+    GroupSketch(String name, boolean trackBrands) {
+        this.name = name;
+        for (SketchMetric metric : SketchMetric.values()) {
+            quantiles[metric.ordinal()] = new KllSketch();
+        }
+        this.distinctBrands = trackBrands ? new HyperLogLog(HLL_PRECISION) : null;
+        this.brandUnits = trackBrands ? new CountMinSketch(CMS_DEPTH, CMS_WIDTH) : null;
+        this.candidates = trackBrands ? new HashMap<>() : null;
+    }
+
+    String name() {
+        return name;
+    }
+
+    long count() {
+        return live;
+    }
+
+    boolean tracksBrands() {
+        return brandUnits != null;
+    }
+
+    void add(ItemContribution item) {
+        live++;
+        for (SketchMetric metric : SketchMetric.values()) {
+            quantiles[metric.ordinal()].update(item.value(metric));
+        }
+        if (brandUnits != null && item.brand() != null) {
+            distinctBrands.add(item.brand());
+            brandUnits.add(item.brand(), item.unitsSold());
+            offerCandidate(item.brand());
+        }
+    }
+
+    /**
+     * Adds the new values of an item this group already counts. Its old values stay until the
+     * group is rebuilt, and its old units stay in the brand counts, which widens their error bound.
+     */
+    void revise(ItemContribution item) {
+        retracted++;
+        for (SketchMetric metric : SketchMetric.values()) {
+            quantiles[metric.ordinal()].update(item.value(metric));
+        }
+        if (brandUnits != null && item.brand() != null) {
+            distinctBrands.add(item.brand());
+            revisedUnits += item.unitsSold();
+            offerCandidate(item.brand());
+        }
+    }
+
+    void retract(ItemContribution item) {
+        live--;
+        retracted++;
+        if (brandUnits != null && item.brand() != null) {
+            brandUnits.add(item.brand(), -item.unitsSold());
+            candidates.computeIfPresent(item.brand(), (brand, units) -> brandUnits.estimate(brand));
+        }
+    }
+
+    boolean isStale(double maxStaleFraction) {
+        return retracted >= MIN_RETRACTED_FOR_REBUILD && retracted > maxStaleFraction * live;
+    }
+
+    KllSketch quantiles(SketchMetric metric) {
+        return quantiles[metric.ordinal()];
+    }
+
+    /**
+     * Rank error of quantile answers, including the share of values left behind by changed items.
+     */
+    double rankError(SketchMetric metric) {
+        KllSketch sketch = quantiles(metric);
+        return sketch.rankError() + (sketch.count() == 0 ? 0 : (double) retracted / sketch.count());
+    }
+
+    DistinctCount distinctBrands() {
+        return new DistinctCount(name, distinctBrands.estimate(), distinctBrands.relativeError());
+    }
+
+    List<HeavyHitter> topBrands(int limit) {
+        List<HeavyHitter> result = new ArrayList<>(candidates.size());
+        long errorBound = brandUnits.errorBound();
+        for (String brand : candidates.keySet()) {
+            result.add(new HeavyHitter(brand, brandUnits.estimate(brand), errorBound, revisedUnits));
+        }
+        result.sort(Comparator.comparingLong(HeavyHitter::estimatedUnits).reversed());
+        return result.size() > limit ? result.subList(0, limit) : result;
+    }
+
+    long retainedBytes() {
+        long bytes = 0;
+        for (KllSketch sketch : quantiles) {
+            bytes += sketch.retainedBytes();
+        }
+        if (brandUnits != null) {
+            bytes += distinctBrands.retainedBytes() + brandUnits.retainedBytes();
+        }
+        return bytes;
+    }
+
+    private void offerCandidate(String brand) {
+        long units = brandUnits.estimate(brand);
+        if (candidates.size() < MAX_CANDIDATES || candidates.containsKey(brand)) {
+            candidates.put(brand, units);
+            return;
+        }
+        String weakest = null;
+        long weakestUnits = Long.MAX_VALUE;
+        for (Map.Entry<String, Long> candidate : candidates.entrySet()) {
+            if (candidate.getValue() < weakestUnits) {
+                weakest = candidate.getKey();
+                weakestUnits = candidate.getValue();
+            }
+        }
+        if (units > weakestUnits) {
+            candidates.remove(weakest);
+            candidates.put(brand, units);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.ai.agent.ai_agent.catalog.sketch;
+
+/**
+ * A brand among the top sellers of a scope. {@code estimatedUnits} overcounts by at most
+ * {@code maxOverestimate} with high probability, and undercounts by at most {@code maxUnderestimate},
+ * the units of items updated since the sketches were built.
+ */
+public record HeavyHitter(String brand, long estimatedUnits, long maxOverestimate, long maxUnderestimate) {}
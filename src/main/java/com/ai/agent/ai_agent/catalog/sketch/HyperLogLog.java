@@ -0,0 +1,120 @@
+package com.ai.agent.ai_agent.catalog.sketch;
+
+import java.util.Arrays;
+
+/**
+ * HyperLogLog distinct-count sketch with 2^precision one-byte registers. Until it has seen
+ * {@code 2^precision / 32} distinct values it keeps their hashes instead and counts exactly, so
+ * the many small groups of a catalog cost a few bytes each. Large cardinalities use the raw
+ * estimate and small ones linear counting. Sketches of the same precision can be merged.
+ * Not thread-safe.
+ */
+public final class HyperLogLog {
+
+    private final int precision;
+    private final int sparseLimit;
+    private long[] hashes = new long[4];
+    private int distinctHashes;
+    private byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < 6 || precision > 16) {
+            throw new IllegalArgumentException("HyperLogLog precision must be between 6 and 16");
+        }
+        this.precision = precision;
+        this.sparseLimit = (1 << precision) / 32;
+    }
+
+    public void add(String value) {
+        addHash(SketchHash.hash64(value));
+    }
+
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge HyperLogLog sketches with different precision");
+        }
+        if (other.registers == null) {
+            for (int i = 0; i < other.distinctHashes; i++) {
+                addHash(other.hashes[i]);
+            }
+            return;
+        }
+        densify();
+        for (int i = 0; i < registers.length; i++) {
+            registers[i] = (byte) Math.max(registers[i], other.registers[i]);
+        }
+    }
+
+    public long estimate() {
+        if (registers == null) {
+            return distinctHashes;
+        }
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Math.scalb(1.0, -register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = 0.7213 / (1 + 1.079 / m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Standard error of {@link #estimate()} relative to the true count; zero while counting exactly.
+     */
+    public double relativeError() {
+        return registers == null ? 0 : 1.04 / Math.sqrt(registers.length);
+    }
+
+    public long retainedBytes() {
+        return registers != null ? registers.length : (long) hashes.length * Long.BYTES;
+    }
+
+    private void addHash(long hash) {
+        if (registers != null) {
+            addToRegisters(hash);
+            return;
+        }
+        for (int i = 0; i < distinctHashes; i++) {
+            if (hashes[i] == hash) {
+                return;
+            }
+        }
+        if (distinctHashes == sparseLimit) {
+            densify();
+            addToRegisters(hash);
+            return;
+        }
+        if (distinctHashes == hashes.length) {
+            hashes = Arrays.copyOf(hashes, hashes.length * 2);
+        }
+        hashes[distinctHashes++] = hash;
+    }
+
+    private void densify() {
+        if (registers != null) {
+            return;
+        }
+        registers = new byte[1 << precision];
+        for (int i = 0; i < distinctHashes; i++) {
+            addToRegisters(hashes[i]);
+        }
+        hashes = null;
+        distinctHashes = 0;
+    }
+
+    private void addToRegisters(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        long rest = hash << precision;
+        int rank = rest == 0 ? 64 - precision + 1 : Long.numberOfLeadingZeros(rest) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+}
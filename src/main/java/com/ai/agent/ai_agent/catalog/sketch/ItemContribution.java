@@ -0,0 +1,26 @@
+package com.ai.agent.ai_agent.catalog.sketch;
+
+import com.ai.agent.ai_agent.entity.ItemEntity;
+
+/**
+ * The values one item adds to the sketches, taken when its change event is handled, since the
+ * entity itself may change again before the sketches are rebuilt.
+ */
+record ItemContribution(String category, String brand, double price, double rating, double discount,
+                        double margin, int unitsSold) {
+
+    static ItemContribution of(ItemEntity item) {
+        return new ItemContribution(item.getCategory(), item.getBrand(),
+                SketchMetric.PRICE.valueOf(item), SketchMetric.RATING.valueOf(item),
+                SketchMetric.DISCOUNT.valueOf(item), SketchMetric.MARGIN.valueOf(item), item.getUnitsSold());
+    }
+
+    double value(SketchMetric metric) {
+        return switch (metric) {
+            case PRICE -> price;
+            case RATING -> rating;
+            case DISCOUNT -> discount;
+            case MARGIN -> margin;
+        };
+    }
+}
@@ -0,0 +1,227 @@
+package com.ai.agent.ai_agent.catalog.sketch;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * KLL quantile sketch (Karnin, Lang, Liberty). Values are kept in levels of compactors, where a
+ * value at level h stands for 2^h inserted values. When the sketch is over capacity the lowest
+ * full level is sorted and every other value is promoted, so a sketch holds roughly 3k values
+ * however many are inserted. Sketches of the same k can be merged. Not thread-safe.
+ */
+public final class KllSketch {
+
+    public static final int DEFAULT_K = 200;
+
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+    private static final int MIN_LEVEL_CAPACITY = 8;
+
+    private final int k;
+    private double[][] levels = {new double[MIN_LEVEL_CAPACITY]};
+    private int[] sizes = new int[1];
+    // Level capacities depend on the number of levels, so they are recomputed when one is added.
+    private int[] capacities = {MIN_LEVEL_CAPACITY};
+    private int totalCapacity = MIN_LEVEL_CAPACITY;
+    private int retained;
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    // Sorted view for queries: values with the cumulative weight up to and including each one.
+    private double[] sortedValues;
+    private long[] cumulativeWeights;
+
+    public KllSketch() {
+        this(DEFAULT_K);
+    }
+
+    public KllSketch(int k) {
+        if (k < MIN_LEVEL_CAPACITY) {
+            throw new IllegalArgumentException("k must be at least " + MIN_LEVEL_CAPACITY);
+        }
+        this.k = k;
+        computeCapacities();
+    }
+
+    public void update(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        min = count == 0 ? value : Math.min(min, value);
+        max = count == 0 ? value : Math.max(max, value);
+        count++;
+        append(0, value);
+        if (retained > totalCapacity) {
+            compress();
+        }
+        sortedValues = null;
+    }
+
+    public void merge(KllSketch other) {
+        if (other.k != k) {
+            throw new IllegalArgumentException("Cannot merge KLL sketches with different k");
+        }
+        if (other.count == 0) {
+            return;
+        }
+        for (int level = 0; level < other.levels.length; level++) {
+            for (int i = 0; i < other.sizes[level]; i++) {
+                append(level, other.levels[level][i]);
+            }
+        }
+        min = count == 0 ? other.min : Math.min(min, other.min);
+        max = count == 0 ? other.max : Math.max(max, other.max);
+        count += other.count;
+        while (retained > totalCapacity) {
+            compress();
+        }
+        sortedValues = null;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double min() {
+        return min;
+    }
+
+    public double max() {
+        return max;
+    }
+
+    /**
+     * Value at normalized rank {@code fraction} (0 = minimum, 1 = maximum).
+     */
+    public double quantile(double fraction) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (fraction <= 0) {
+            return min;
+        }
+        if (fraction >= 1) {
+            return max;
+        }
+        sort();
+        long target = (long) Math.ceil(fraction * count);
+        int index = Arrays.binarySearch(cumulativeWeights, target);
+        return sortedValues[index >= 0 ? index : -index - 1];
+    }
+
+    /**
+     * Fraction of inserted values at or below {@code value}.
+     */
+    public double rank(double value) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        sort();
+        int low = 0;
+        int high = sortedValues.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedValues[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low == 0 ? 0 : (double) cumulativeWeights[low - 1] / count;
+    }
+
+    /**
+     * Normalized rank error of answers, at 99% confidence. Zero until the first compaction, while
+     * the sketch still holds every value.
+     */
+    public double rankError() {
+        return levels.length == 1 ? 0 : 2.296 / Math.pow(k, 0.9723);
+    }
+
+    public long retainedBytes() {
+        long bytes = 0;
+        for (double[] level : levels) {
+            bytes += (long) level.length * Double.BYTES;
+        }
+        return bytes;
+    }
+
+    private void ensureLevel(int level) {
+        while (level >= levels.length) {
+            levels = Arrays.copyOf(levels, levels.length + 1);
+            levels[levels.length - 1] = new double[MIN_LEVEL_CAPACITY];
+            sizes = Arrays.copyOf(sizes, sizes.length + 1);
+            computeCapacities();
+        }
+    }
+
+    private void append(int level, double value) {
+        ensureLevel(level);
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], levels[level].length * 2);
+        }
+        levels[level][sizes[level]++] = value;
+        retained++;
+    }
+
+    private void computeCapacities() {
+        capacities = new int[levels.length];
+        totalCapacity = 0;
+        for (int level = 0; level < levels.length; level++) {
+            int depth = levels.length - 1 - level;
+            capacities[level] = Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+            totalCapacity += capacities[level];
+        }
+    }
+
+    /**
+     * Compacts the lowest level that is at capacity: sorts it and promotes the values at either
+     * the odd or the even positions, chosen at random, to the next level with twice the weight.
+     */
+    private void compress() {
+        int level = 0;
+        while (level < levels.length - 1 && sizes[level] < capacities[level]) {
+            level++;
+        }
+        ensureLevel(level + 1);
+        double[] values = levels[level];
+        int size = sizes[level];
+        Arrays.sort(values, 0, size);
+        // With an odd count the smallest value stays behind so that weight is preserved exactly.
+        int keep = size % 2;
+        int offset = ThreadLocalRandom.current().nextBoolean() ? 1 : 0;
+        for (int i = keep + offset; i < size; i += 2) {
+            append(level + 1, values[i]);
+        }
+        sizes[level] = keep;
+        retained -= size - keep;
+    }
+
+    private void sort() {
+        if (sortedValues != null) {
+            return;
+        }
+        for (int level = 0; level < levels.length; level++) {
+            Arrays.sort(levels[level], 0, sizes[level]);
+        }
+        // K-way merge of the sorted levels, carrying each value's weight.
+        double[] values = new double[retained];
+        long[] cumulative = new long[retained];
+        int[] positions = new int[levels.length];
+        long weight = 0;
+        for (int i = 0; i < retained; i++) {
+            int next = -1;
+            for (int level = 0; level < levels.length; level++) {
+                if (positions[level] < sizes[level]
+                        && (next < 0 || levels[level][positions[level]] < levels[next][positions[next]])) {
+                    next = level;
+                }
+            }
+            values[i] = levels[next][positions[next]++];
+            weight += 1L << next;
+            cumulative[i] = weight;
+        }
+        sortedValues = values;
+        cumulativeWeights = cumulative;
+    }
+}
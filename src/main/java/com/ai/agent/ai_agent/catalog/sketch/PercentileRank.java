@@ -0,0 +1,6 @@
+package com.ai.agent.ai_agent.catalog.sketch;
+
+/**
+ * Share of items in a scope whose metric is at or below {@code value}.
+ */
+public record PercentileRank(String scope, SketchMetric metric, double value, double fraction, long count, double rankError) {}
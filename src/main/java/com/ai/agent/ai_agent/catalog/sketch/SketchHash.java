@@ -0,0 +1,24 @@
+package com.ai.agent.ai_agent.catalog.sketch;
+
+/**
+ * 64-bit string hash for the sketches: FNV-1a over the characters, then the MurmurHash3
+ * finalizer so that every output bit depends on every input bit.
+ */
+final class SketchHash {
+
+    private SketchHash() {
+    }
+
+    static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
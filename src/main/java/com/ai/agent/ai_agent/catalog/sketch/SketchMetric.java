@@ -0,0 +1,50 @@
+package com.ai.agent.ai_agent.catalog.sketch;
+
+import com.ai.agent.ai_agent.entity.ItemEntity;
+
+import java.util.Locale;
+
+/**
+ * Item attributes that have a quantile sketch per category and brand.
+ */
+public enum SketchMetric {
+    PRICE("storePrice", "store price"),
+    RATING("averageRating", "average rating"),
+    DISCOUNT("discountPercent", "discount %"),
+    MARGIN("marginPercent", "margin %");
+
+    private final String attribute;
+    private final String label;
+
+    SketchMetric(String attribute, String label) {
+        this.attribute = attribute;
+        this.label = label;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public double valueOf(ItemEntity item) {
+        return switch (this) {
+            case PRICE -> item.getStorePrice();
+            case RATING -> item.getAverageRating();
+            case DISCOUNT -> item.getDiscountPercent();
+            case MARGIN -> item.getStorePrice() == 0 ? 0
+                    : (item.getStorePrice() - item.getCostPrice()) / item.getStorePrice() * 100.0;
+        };
+    }
+
+    public static SketchMetric from(String value) {
+        if (value != null) {
+            String normalized = value.trim().toLowerCase(Locale.ROOT);
+            for (SketchMetric metric : values()) {
+                if (metric.name().toLowerCase(Locale.ROOT).equals(normalized)
+                        || metric.attribute.toLowerCase(Locale.ROOT).equals(normalized)) {
+                    return metric;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unsupported metric: " + value + ". Use price, rating, discount or margin.");
+    }
+}
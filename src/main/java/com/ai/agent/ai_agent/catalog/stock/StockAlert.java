@@ -0,0 +1,18 @@
+package com.ai.agent.ai_agent.catalog.stock;
+
+import java.time.Instant;
+
+public record StockAlert(
+        Type type,
+        String itemId,
+        String itemName,
+        String category,
+        int threshold,
+        int quantity,
+        Instant detectedAt
+) {
+    public enum Type {
+        BELOW,
+        RECOVERED
+    }
+}
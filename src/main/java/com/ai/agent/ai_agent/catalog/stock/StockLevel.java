@@ -0,0 +1,8 @@
+package com.ai.agent.ai_agent.catalog.stock;
+
+public record StockLevel(
+        String itemId,
+        String itemName,
+        String category,
+        int quantity
+) {}
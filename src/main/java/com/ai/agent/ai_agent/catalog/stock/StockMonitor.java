@@ -0,0 +1,286 @@
+package com.ai.agent.ai_agent.catalog.stock;
+
+import com.ai.agent.ai_agent.entity.ItemEntity;
+import com.ai.agent.ai_agent.event.ItemChangedEvent;
+import com.ai.agent.ai_agent.event.ItemsImportedEvent;
+import com.ai.agent.ai_agent.repository.ItemRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Watches stock levels against subscribed thresholds. Item writes are queued from the change
+ * feed and applied on each tick, so a tick only looks at items whose quantity changed since the
+ * previous one; the whole catalog is only read at startup. For a change from {@code old} to
+ * {@code new}, the crossed thresholds are exactly those in {@code [min(old, new), max(old, new))},
+ * found with a range lookup over the subscribed thresholds rather than by testing every subscription.
+ */
+@Component
+public class StockMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockMonitor.class);
+
+    private final ItemRepository itemRepository;
+    private final long debounceNanos;
+    private final long emitterTimeoutMillis;
+    private final long heartbeatNanos;
+
+    private final ConcurrentSkipListMap<Integer, List<StockSubscription>> subscriptions = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, Change> pending = new ConcurrentHashMap<>();
+    private final AtomicLong subscriptionIds = new AtomicLong();
+    private volatile boolean resyncRequested = true;
+
+    // Guarded by this: current level per item, and the same items indexed by quantity.
+    private final Map<String, StockLevel> levels = new HashMap<>();
+    private final NavigableMap<Integer, Set<String>> byQuantity = new TreeMap<>();
+
+    private final Counter changesProcessed;
+    private final Counter belowAlerts;
+    private final Counter recoveredAlerts;
+    private final Counter suppressedAlerts;
+
+    public StockMonitor(ItemRepository itemRepository,
+                        MeterRegistry meterRegistry,
+                        @Value("${agent.stock-monitor.debounce-ms:5000}") long debounceMillis,
+                        @Value("${agent.stock-monitor.emitter-timeout-ms:1800000}") long emitterTimeoutMillis,
+                        @Value("${agent.stock-monitor.heartbeat-ms:15000}") long heartbeatMillis) {
+        this.itemRepository = itemRepository;
+        this.debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.heartbeatNanos = TimeUnit.MILLISECONDS.toNanos(heartbeatMillis);
+        this.changesProcessed = meterRegistry.counter("agent.stock.changes.processed");
+        this.belowAlerts = meterRegistry.counter("agent.stock.alerts", "type", "below");
+        this.recoveredAlerts = meterRegistry.counter("agent.stock.alerts", "type", "recovered");
+        this.suppressedAlerts = meterRegistry.counter("agent.stock.alerts.suppressed");
+        Gauge.builder("agent.stock.subscriptions", this, StockMonitor::subscriptionCount)
+                .register(meterRegistry);
+        Gauge.builder("agent.stock.changes.pending", pending, Map::size)
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        ItemEntity item = event.item();
+        // The entity is mutable, so capture the level as of this write.
+        StockLevel level = event.type() == ItemChangedEvent.ChangeType.DELETED ? null
+                : new StockLevel(item.getItemId(), item.getItemName(), item.getCategory(), item.getQuantityInStock());
+        pending.put(item.getItemId(), new Change(level));
+    }
+
+    /**
+     * Import batches bypass the entity listener, so their items are read back and queued like any
+     * other change instead of comparing the whole catalog.
+     */
+    @EventListener
+    public void onItemsImported(ItemsImportedEvent event) {
+        Set<String> missing = new HashSet<>(event.itemIds());
+        for (ItemEntity item : itemRepository.findAllById(event.itemIds())) {
+            missing.remove(item.getItemId());
+            pending.put(item.getItemId(), new Change(new StockLevel(item.getItemId(), item.getItemName(),
+                    item.getCategory(), item.getQuantityInStock())));
+        }
+        missing.forEach(itemId -> pending.put(itemId, new Change(null)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        // Seeding writes the catalog in bulk during startup; compare it in full once it is done.
+        resyncRequested = true;
+    }
+
+    /**
+     * Opens an SSE stream of crossings of {@code threshold}, optionally limited to one category.
+     */
+    public SseEmitter subscribe(int threshold, String category) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        String id = "stock-sub-" + subscriptionIds.incrementAndGet();
+        StockSubscription subscription = new StockSubscription(id, threshold,
+                category == null || category.isBlank() ? null : category.trim(), emitter, debounceNanos);
+
+        subscriptions.computeIfAbsent(threshold, key -> new CopyOnWriteArrayList<>()).add(subscription);
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(() -> unsubscribe(subscription));
+        emitter.onError(ex -> unsubscribe(subscription));
+
+        subscription.send("subscribed", Map.of("subscriptionId", id, "threshold", threshold,
+                "category", category == null ? "" : category));
+        logger.info("Stock subscription {} opened for threshold {} (category: {})", id, threshold, category);
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${agent.stock-monitor.tick-ms:1000}")
+    public void tick() {
+        Map<StockSubscription, List<StockAlert>> due = new LinkedHashMap<>();
+        synchronized (this) {
+            applyChanges();
+            long now = System.nanoTime();
+            for (List<StockSubscription> atThreshold : subscriptions.values()) {
+                for (StockSubscription subscription : atThreshold) {
+                    due.put(subscription, subscription.takeDue(now));
+                }
+            }
+        }
+        // Sends block on slow clients, so they happen after the lock that changes and queries need is released.
+        long now = System.nanoTime();
+        List<StockSubscription> closed = new ArrayList<>();
+        due.forEach((subscription, alerts) -> {
+            for (StockAlert alert : alerts) {
+                if (!subscription.isClosed() && subscription.send("stock-alert", alert)) {
+                    recordSent(alert);
+                }
+            }
+            subscription.heartbeat(now, heartbeatNanos);
+            if (subscription.isClosed()) {
+                closed.add(subscription);
+            }
+        });
+        closed.forEach(this::unsubscribe);
+    }
+
+    /**
+     * Items whose stock is at or below {@code threshold}, lowest first, read from the quantity
+     * index instead of scanning the catalog.
+     */
+    public synchronized List<StockLevel> itemsAtOrBelow(int threshold) {
+        applyChanges();
+        List<StockLevel> result = new ArrayList<>();
+        for (Set<String> itemIds : byQuantity.headMap(threshold, true).values()) {
+            for (String itemId : itemIds) {
+                result.add(levels.get(itemId));
+            }
+        }
+        return result;
+    }
+
+    public int subscriptionCount() {
+        return subscriptions.values().stream().mapToInt(List::size).sum();
+    }
+
+    private void applyChanges() {
+        if (resyncRequested) {
+            resyncRequested = false;
+            resync();
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        Iterator<Map.Entry<String, Change>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Change> entry = iterator.next();
+            // remove(key, value) keeps a change that raced in after we read this one.
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                apply(entry.getKey(), entry.getValue().level());
+                changesProcessed.increment();
+            }
+        }
+    }
+
+    private void resync() {
+        long start = System.nanoTime();
+        Set<String> seen = new HashSet<>();
+        for (ItemEntity item : itemRepository.findAll()) {
+            seen.add(item.getItemId());
+            apply(item.getItemId(), new StockLevel(item.getItemId(), item.getItemName(),
+                    item.getCategory(), item.getQuantityInStock()));
+        }
+        for (String itemId : new ArrayList<>(levels.keySet())) {
+            if (!seen.contains(itemId)) {
+                apply(itemId, null);
+            }
+        }
+        logger.info("Stock monitor synchronized {} items in {} ms", levels.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void apply(String itemId, StockLevel level) {
+        StockLevel previous = level == null ? levels.remove(itemId) : levels.put(itemId, level);
+        if (previous != null) {
+            unindex(previous);
+        }
+        if (level == null) {
+            return;
+        }
+        index(level);
+        // A new item has no previous level; treat it as stocked so items created low still alert.
+        int oldQuantity = previous == null ? Integer.MAX_VALUE : previous.quantity();
+        int newQuantity = level.quantity();
+        if (oldQuantity == newQuantity || subscriptions.isEmpty()) {
+            return;
+        }
+        StockAlert.Type type = newQuantity < oldQuantity ? StockAlert.Type.BELOW : StockAlert.Type.RECOVERED;
+        NavigableMap<Integer, List<StockSubscription>> crossed =
+                subscriptions.subMap(Math.min(oldQuantity, newQuantity), true, Math.max(oldQuantity, newQuantity), false);
+        if (crossed.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        Instant detectedAt = Instant.now();
+        for (Map.Entry<Integer, List<StockSubscription>> entry : crossed.entrySet()) {
+            StockAlert alert = new StockAlert(type, itemId, level.itemName(), level.category(),
+                    entry.getKey(), newQuantity, detectedAt);
+            for (StockSubscription subscription : entry.getValue()) {
+                if (!subscription.accepts(level)) {
+                    continue;
+                }
+                if (!subscription.onCrossing(alert, now)) {
+                    suppressedAlerts.increment();
+                }
+            }
+        }
+    }
+
+    private void recordSent(StockAlert alert) {
+        (alert.type() == StockAlert.Type.BELOW ? belowAlerts : recoveredAlerts).increment();
+    }
+
+    private void index(StockLevel level) {
+        byQuantity.computeIfAbsent(level.quantity(), key -> new HashSet<>()).add(level.itemId());
+    }
+
+    private void unindex(StockLevel level) {
+        Set<String> itemIds = byQuantity.get(level.quantity());
+        if (itemIds != null) {
+            itemIds.remove(level.itemId());
+            if (itemIds.isEmpty()) {
+                byQuantity.remove(level.quantity());
+            }
+        }
+    }
+
+    private void unsubscribe(StockSubscription subscription) {
+        subscription.close();
+        List<StockSubscription> atThreshold = subscriptions.get(subscription.threshold());
+        if (atThreshold == null || !atThreshold.remove(subscription)) {
+            return;
+        }
+        subscriptions.computeIfPresent(subscription.threshold(), (threshold, list) -> list.isEmpty() ? null : list);
+        logger.info("Stock subscription {} closed", subscription.id());
+    }
+
+    private record Change(StockLevel level) {}
+}
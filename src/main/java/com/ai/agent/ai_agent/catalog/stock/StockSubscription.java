@@ -0,0 +1,111 @@
+package com.ai.agent.ai_agent.catalog.stock;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One SSE subscriber for crossings of a single stock threshold. Crossings are held for the
+ * debounce period; a crossing reversed within that period cancels out and is never sent.
+ * Pending crossings are guarded by the {@link StockMonitor}; sending takes no lock.
+ */
+class StockSubscription {
+
+    private final String id;
+    private final int threshold;
+    private final String category;
+    private final SseEmitter emitter;
+    private final long debounceNanos;
+    private final Map<String, Pending> pending = new HashMap<>();
+    private volatile boolean closed;
+    private volatile long lastSentNanos = System.nanoTime();
+
+    StockSubscription(String id, int threshold, String category, SseEmitter emitter, long debounceNanos) {
+        this.id = id;
+        this.threshold = threshold;
+        this.category = category;
+        this.emitter = emitter;
+        this.debounceNanos = debounceNanos;
+    }
+
+    String id() {
+        return id;
+    }
+
+    int threshold() {
+        return threshold;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    void close() {
+        closed = true;
+    }
+
+    boolean accepts(StockLevel level) {
+        return category == null || category.equalsIgnoreCase(level.category());
+    }
+
+    /**
+     * Queues a crossing; returns false if it cancelled out a pending crossing the other way.
+     */
+    boolean onCrossing(StockAlert alert, long nowNanos) {
+        Pending previous = pending.get(alert.itemId());
+        if (previous != null && previous.alert.type() != alert.type()) {
+            // Flapped back across the threshold before the alert went out.
+            pending.remove(alert.itemId());
+            return false;
+        }
+        pending.put(alert.itemId(), new Pending(alert, nowNanos));
+        return true;
+    }
+
+    /**
+     * Removes and returns the crossings that have been stable for the debounce period.
+     */
+    List<StockAlert> takeDue(long nowNanos) {
+        List<StockAlert> due = new ArrayList<>();
+        Iterator<Pending> iterator = pending.values().iterator();
+        while (iterator.hasNext() && !closed) {
+            Pending entry = iterator.next();
+            if (nowNanos - entry.sinceNanos >= debounceNanos) {
+                iterator.remove();
+                due.add(entry.alert);
+            }
+        }
+        return due;
+    }
+
+    /**
+     * Writes a comment line if nothing was sent recently, so disconnected clients are noticed.
+     */
+    void heartbeat(long nowNanos, long intervalNanos) {
+        if (!closed && nowNanos - lastSentNanos >= intervalNanos) {
+            write(SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    boolean send(String name, Object data) {
+        return write(SseEmitter.event().name(name).data(data));
+    }
+
+    private boolean write(SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+            lastSentNanos = System.nanoTime();
+            return true;
+        } catch (IOException | IllegalStateException ex) {
+            closed = true;
+            return false;
+        }
+    }
+
+    private record Pending(StockAlert alert, long sinceNanos) {}
+}
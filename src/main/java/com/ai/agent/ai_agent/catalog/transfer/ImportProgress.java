@@ -0,0 +1,87 @@
+package com.ai.agent.ai_agent.catalog.transfer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live counters of one import. Readers may snapshot it at any time while the import runs.
+ */
+public class ImportProgress {
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final String importId;
+    private final TransferFormat format;
+    private final int maxErrors;
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong rowsFailed = new AtomicLong();
+    private final List<ImportRowError> errors = new ArrayList<>();
+    private volatile Status status = Status.RUNNING;
+    private volatile long endNanos;
+
+    public ImportProgress(String importId, TransferFormat format, int maxErrors) {
+        this.importId = importId;
+        this.format = format;
+        this.maxErrors = maxErrors;
+    }
+
+    public String importId() {
+        return importId;
+    }
+
+    public Status status() {
+        return status;
+    }
+
+    public long rowsRead() {
+        return rowsRead.get();
+    }
+
+    public long rowsWritten() {
+        return rowsWritten.get();
+    }
+
+    public void rowRead() {
+        rowsRead.incrementAndGet();
+    }
+
+    public void rowsWritten(int count) {
+        rowsWritten.addAndGet(count);
+    }
+
+    public void rowFailed(long line, String itemId, String message) {
+        rowsFailed.incrementAndGet();
+        synchronized (errors) {
+            if (errors.size() < maxErrors) {
+                errors.add(new ImportRowError(line, itemId, message));
+            }
+        }
+    }
+
+    public void finish(Status finalStatus) {
+        endNanos = System.nanoTime();
+        status = finalStatus;
+    }
+
+    public ImportReport snapshot() {
+        long end = status == Status.RUNNING ? System.nanoTime() : endNanos;
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(end - startNanos);
+        long written = rowsWritten.get();
+        double rowsPerSecond = elapsedMillis == 0 ? written : written * 1000.0 / elapsedMillis;
+        List<ImportRowError> errorsCopy;
+        synchronized (errors) {
+            errorsCopy = List.copyOf(errors);
+        }
+        long failed = rowsFailed.get();
+        return new ImportReport(importId, status, format, rowsRead.get(), written, failed,
+                elapsedMillis, Math.round(rowsPerSecond * 10) / 10.0, errorsCopy, failed > errorsCopy.size());
+    }
+}
@@ -0,0 +1,16 @@
+package com.ai.agent.ai_agent.catalog.transfer;
+
+import java.util.List;
+
+public record ImportReport(
+        String importId,
+        ImportProgress.Status status,
+        TransferFormat format,
+        long rowsRead,
+        long rowsWritten,
+        long rowsFailed,
+        long elapsedMillis,
+        double rowsPerSecond,
+        List<ImportRowError> errors,
+        boolean errorsTruncated
+) {}
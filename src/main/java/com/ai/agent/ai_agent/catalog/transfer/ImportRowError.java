@@ -0,0 +1,7 @@
+package com.ai.agent.ai_agent.catalog.transfer;
+
+public record ImportRowError(
+        long line,
+        String itemId,
+        String message
+) {}
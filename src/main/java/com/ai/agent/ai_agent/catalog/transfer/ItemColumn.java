@@ -0,0 +1,167 @@
+package com.ai.agent.ai_agent.catalog.transfer;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Columns of the {@code items} table as they appear in import and export files. Files may use
+ * either the entity field name ({@code storePrice}) or the column name ({@code store_price}).
+ */
+public enum ItemColumn {
+    ITEM_ID("itemId", "item_id", Kind.TEXT),
+    ITEM_NAME("itemName", "item_name", Kind.TEXT),
+    SKU("sku", "sku", Kind.TEXT),
+    BARCODE("barcode", "barcode", Kind.TEXT),
+    BRAND("brand", "brand", Kind.TEXT),
+    CATEGORY("category", "category", Kind.TEXT),
+    MSRP("msrp", "msrp", Kind.DECIMAL),
+    STORE_PRICE("storePrice", "store_price", Kind.DECIMAL),
+    ECOM_PRICE("ecomPrice", "ecom_price", Kind.DECIMAL),
+    COST_PRICE("costPrice", "cost_price", Kind.DECIMAL),
+    DISCOUNT_PERCENT("discountPercent", "discount_percent", Kind.DECIMAL),
+    PROMOTION("promotion", "promotion", Kind.TEXT),
+    PROMO_START_DATE("promoStartDate", "promo_start_date", Kind.TIMESTAMP),
+    PROMO_END_DATE("promoEndDate", "promo_end_date", Kind.TIMESTAMP),
+    QUANTITY_IN_STOCK("quantityInStock", "quantity_in_stock", Kind.INTEGER),
+    ONLINE_AVAILABLE("onlineAvailable", "online_available", Kind.BOOLEAN),
+    STORE_AVAILABLE("storeAvailable", "store_available", Kind.BOOLEAN),
+    CREATED_AT("createdAt", "created_at", Kind.TIMESTAMP),
+    LAST_UPDATED("lastUpdated", "last_updated", Kind.TIMESTAMP),
+    LAST_PURCHASED_AT("lastPurchasedAt", "last_purchased_at", Kind.TIMESTAMP),
+    AVERAGE_RATING("averageRating", "average_rating", Kind.DECIMAL),
+    NUMBER_OF_REVIEWS("numberOfReviews", "number_of_reviews", Kind.INTEGER),
+    UNITS_SOLD("unitsSold", "units_sold", Kind.INTEGER),
+    RECENT_SALES_COUNT("recentSalesCount", "recent_sales_count", Kind.INTEGER);
+
+    private static final Map<String, ItemColumn> BY_NAME = new HashMap<>();
+
+    static {
+        for (ItemColumn column : values()) {
+            BY_NAME.put(normalize(column.field), column);
+        }
+    }
+
+    private final String field;
+    private final String column;
+    private final Kind kind;
+
+    ItemColumn(String field, String column, Kind kind) {
+        this.field = field;
+        this.column = column;
+        this.kind = kind;
+    }
+
+    public String field() {
+        return field;
+    }
+
+    public String column() {
+        return column;
+    }
+
+    public Kind kind() {
+        return kind;
+    }
+
+    /**
+     * Resolves a file header to a column, or returns null for unknown headers.
+     */
+    public static ItemColumn byName(String name) {
+        return name == null ? null : BY_NAME.get(normalize(name));
+    }
+
+    /**
+     * Parses a raw file value. Blank values become null.
+     */
+    public Object parse(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return null;
+        }
+        String value = raw.trim();
+        try {
+            return switch (kind) {
+                case TEXT -> value;
+                case DECIMAL -> Double.parseDouble(value);
+                case INTEGER -> Integer.parseInt(value);
+                case BOOLEAN -> parseBoolean(value);
+                case TIMESTAMP -> parseTimestamp(value);
+            };
+        } catch (NumberFormatException | DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid " + kind.name().toLowerCase(Locale.ROOT) + " for " + field + ": '" + value + "'");
+        }
+    }
+
+    public void bind(PreparedStatement statement, int index, Object value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, switch (kind) {
+                case TEXT -> Types.VARCHAR;
+                case DECIMAL -> Types.DOUBLE;
+                case INTEGER -> Types.INTEGER;
+                case BOOLEAN -> Types.BOOLEAN;
+                case TIMESTAMP -> Types.TIMESTAMP_WITH_TIMEZONE;
+            });
+            return;
+        }
+        switch (kind) {
+            case TEXT -> statement.setString(index, (String) value);
+            case DECIMAL -> statement.setDouble(index, (Double) value);
+            case INTEGER -> statement.setInt(index, (Integer) value);
+            case BOOLEAN -> statement.setBoolean(index, (Boolean) value);
+            case TIMESTAMP -> statement.setObject(index, value, Types.TIMESTAMP_WITH_TIMEZONE);
+        }
+    }
+
+    /**
+     * Reads the column as the string written to export files; null when the column is null.
+     */
+    public String read(ResultSet resultSet, int index) throws SQLException {
+        return switch (kind) {
+            case TEXT -> resultSet.getString(index);
+            case DECIMAL -> Double.toString(resultSet.getDouble(index));
+            case INTEGER -> Integer.toString(resultSet.getInt(index));
+            case BOOLEAN -> Boolean.toString(resultSet.getBoolean(index));
+            case TIMESTAMP -> {
+                OffsetDateTime timestamp = resultSet.getObject(index, OffsetDateTime.class);
+                yield timestamp == null ? null : timestamp.toString();
+            }
+        };
+    }
+
+    private static Boolean parseBoolean(String value) {
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "1", "yes", "y" -> true;
+            case "false", "0", "no", "n" -> false;
+            default -> throw new IllegalArgumentException("Invalid boolean: '" + value + "'");
+        };
+    }
+
+    private static OffsetDateTime parseTimestamp(String value) {
+        if (value.length() == 10) {
+            return LocalDate.parse(value).atStartOfDay().atOffset(ZoneOffset.UTC);
+        }
+        // Accepts offsets ("2024-05-01T10:00:00Z") as well as zone ids ("...+02:00[Europe/Paris]").
+        return ZonedDateTime.parse(value).toOffsetDateTime();
+    }
+
+    private static String normalize(String name) {
+        return name.trim().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    public enum Kind {
+        TEXT,
+        DECIMAL,
+        INTEGER,
+        BOOLEAN,
+        TIMESTAMP
+    }
+}
@@ -0,0 +1,36 @@
+package com.ai.agent.ai_agent.catalog.transfer;
+
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+public enum TransferFormat {
+    CSV(new MediaType("text", "csv")),
+    NDJSON(MediaType.APPLICATION_NDJSON);
+
+    private final MediaType mediaType;
+
+    TransferFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Picks the format from an explicit {@code format} parameter, falling back to the content type.
+     */
+    public static TransferFormat resolve(String format, String contentType) {
+        if (format != null && !format.isBlank()) {
+            return TransferFormat.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        }
+        if (contentType != null) {
+            String type = contentType.toLowerCase(Locale.ROOT);
+            if (type.contains("ndjson") || type.contains("json")) {
+                return NDJSON;
+            }
+        }
+        return CSV;
+    }
+}
@@ -1,5 +1,22 @@
 package com.ai.agent.ai_agent.client;
 
+import com.ai.agent.ai_agent.model.ConversationContext;
+import com.ai.agent.ai_agent.model.ToolResult;
+
+import java.util.function.Consumer;
+
 public interface AIClient {
-    String query(String input);
+    /**
+     * Answers {@code input}. Results of the tools run on the way are handed to {@code toolResults};
+     * the caller decides which conversation sessions keep them.
+     */
+    String query(String input, ConversationContext context, Consumer<ToolResult> toolResults);
+
+    default String query(String input, ConversationContext context) {
+        return query(input, context, toolResult -> { });
+    }
+
+    default String query(String input) {
+        return query(input, ConversationContext.EMPTY);
+    }
 }
@@ -2,12 +2,26 @@ package com.ai.agent.ai_agent.client.impl;
 
 
 import com.ai.agent.ai_agent.client.AIClient;
-import com.ai.agent.ai_agent.mcp.tools.InventoryTools;
-import com.ai.agent.ai_agent.mcp.tools.PricingTools;
+import com.ai.agent.ai_agent.client.tool.SessionRecordingToolCallback;
+import com.ai.agent.ai_agent.client.tool.ToolSelection;
+import com.ai.agent.ai_agent.client.tool.ToolSelector;
+import com.ai.agent.ai_agent.model.ConversationContext;
+import com.ai.agent.ai_agent.model.ConversationTurn;
+import com.ai.agent.ai_agent.model.ToolResult;
 import lombok.RequiredArgsConstructor;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
 import static com.ai.agent.ai_agent.constants.Constants.SYSTEM_PROMPT;
 
 
@@ -15,18 +29,53 @@ import static com.ai.agent.ai_agent.constants.Constants.SYSTEM_PROMPT;
 @RequiredArgsConstructor
 public class OpenAIClientImpl implements AIClient {
 
-    private final InventoryTools inventoryTools;
-    private final PricingTools pricingTools;
+    private final ToolSelector toolSelector;
     private final ChatClient chatClient;
 
     @Override
-    public String query(String userInput) {
-        return chatClient
+    public String query(String userInput, ConversationContext context, Consumer<ToolResult> toolResults) {
+        ToolSelection selection = toolSelector.select(userInput, context);
+        ChatResponse response = call(userInput, context, toolResults, selection);
+        return response == null || response.getResult() == null ? null : response.getResult().getOutput().getText();
+    }
+
+    private ChatResponse call(String userInput, ConversationContext context, Consumer<ToolResult> toolResults,
+                              ToolSelection selection) {
+        Map<String, Object> toolContext = new HashMap<>();
+        toolContext.put(ToolSelection.CONTEXT_KEY, selection);
+        toolContext.put(SessionRecordingToolCallback.TOOL_RESULTS, toolResults);
+        ChatClient.ChatClientRequestSpec request = chatClient
                 .prompt()
-                .system(SYSTEM_PROMPT)
+                .system(buildSystemPrompt(context))
+                .messages(buildHistory(context))
                 .user(userInput)
-                .tools(inventoryTools, pricingTools)
-                .call()
-                .content();
+                .toolCallbacks(selection.callbacks())
+                .toolContext(toolContext);
+        long start = System.nanoTime();
+        ChatResponse response = request.call().chatResponse();
+        toolSelector.recordOutcome(selection, response == null ? null : response.getMetadata().getUsage(),
+                System.nanoTime() - start);
+        return response;
+    }
+
+    private static String buildSystemPrompt(ConversationContext context) {
+        StringBuilder prompt = new StringBuilder(SYSTEM_PROMPT);
+        if (context.summary() != null && !context.summary().isEmpty()) {
+            prompt.append("\nSummary of the earlier conversation:\n").append(context.summary());
+        }
+        if (!context.toolResults().isEmpty()) {
+            prompt.append("\nData already retrieved in this conversation (reuse it instead of fetching it again):\n");
+            context.toolResults().forEach(result -> prompt.append("- ").append(result).append('\n'));
+        }
+        return prompt.toString();
+    }
+
+    private static List<Message> buildHistory(ConversationContext context) {
+        List<Message> history = new ArrayList<>(context.turns().size() * 2);
+        for (ConversationTurn turn : context.turns()) {
+            history.add(new UserMessage(turn.question()));
+            history.add(new AssistantMessage(turn.answer()));
+        }
+        return history;
     }
 }
@@ -0,0 +1,273 @@
+package com.ai.agent.ai_agent.client.impl;
+
+import com.ai.agent.ai_agent.client.AIClient;
+import com.ai.agent.ai_agent.dto.QueryIntent;
+import com.ai.agent.ai_agent.dto.QueryParameters;
+import com.ai.agent.ai_agent.entity.ItemEntity;
+import com.ai.agent.ai_agent.mcp.query.metadata.QueryMetadata;
+import com.ai.agent.ai_agent.model.ConversationContext;
+import com.ai.agent.ai_agent.model.ToolResult;
+import com.ai.agent.ai_agent.mcp.tools.utils.ItemSummaryHelper;
+import com.ai.agent.ai_agent.service.DynamicQueryService;
+import com.ai.agent.ai_agent.service.QueryRouterService;
+import com.ai.agent.ai_agent.utils.CircuitBreaker;
+import com.ai.agent.ai_agent.utils.Deadline;
+import com.ai.agent.ai_agent.utils.DeadlineContext;
+import com.ai.agent.ai_agent.utils.DeadlineExceededException;
+import com.ai.agent.ai_agent.utils.LatencyWindow;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Wraps the model client with a deadline, optional hedged requests and a circuit breaker.
+ * When the model is slow, failing or the circuit is open, the answer is produced
+ * deterministically from the query services instead.
+ */
+@Primary
+@Service
+public class ResilientAIClientImpl implements AIClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResilientAIClientImpl.class);
+
+    private static final String DEGRADED_NOTICE =
+            "The assistant is running in degraded mode; this answer was produced directly from catalog data.\n\n";
+    private static final int MIN_SAMPLES_FOR_P95 = 20;
+
+    private final OpenAIClientImpl delegate;
+    private final QueryRouterService queryRouterService;
+    private final DynamicQueryService queryService;
+    private final ExecutorService llmExecutor;
+    private final MeterRegistry meterRegistry;
+    private final CircuitBreaker circuitBreaker;
+    private final LatencyWindow latencies = new LatencyWindow(256);
+
+    private final Duration modelTimeout;
+    private final long slowCallMillis;
+    private final boolean hedgingEnabled;
+    private final long hedgeDelayMillis;
+
+    public ResilientAIClientImpl(OpenAIClientImpl delegate,
+                                 QueryRouterService queryRouterService,
+                                 DynamicQueryService queryService,
+                                 @Qualifier("llmExecutor") ExecutorService llmExecutor,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${agent.llm.timeout-ms:20000}") long modelTimeoutMillis,
+                                 @Value("${agent.llm.slow-call-ms:10000}") long slowCallMillis,
+                                 @Value("${agent.llm.hedge.enabled:false}") boolean hedgingEnabled,
+                                 @Value("${agent.llm.hedge.delay-ms:0}") long hedgeDelayMillis,
+                                 @Value("${agent.llm.circuit.failure-threshold:5}") int failureThreshold,
+                                 @Value("${agent.llm.circuit.open-ms:30000}") long openMillis) {
+        this.delegate = delegate;
+        this.queryRouterService = queryRouterService;
+        this.queryService = queryService;
+        this.llmExecutor = llmExecutor;
+        this.meterRegistry = meterRegistry;
+        this.modelTimeout = Duration.ofMillis(modelTimeoutMillis);
+        this.slowCallMillis = slowCallMillis;
+        this.hedgingEnabled = hedgingEnabled;
+        this.hedgeDelayMillis = hedgeDelayMillis;
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, Duration.ofMillis(openMillis));
+
+        Gauge.builder("agent.llm.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("0=closed, 1=open, 2=half-open")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String query(String userInput, ConversationContext context, Consumer<ToolResult> toolResults) {
+        if (!circuitBreaker.tryAcquire()) {
+            return degraded(userInput, "circuit_open");
+        }
+
+        Deadline deadline = DeadlineContext.current()
+                .map(current -> current.min(modelTimeout))
+                .orElseGet(() -> Deadline.after(modelTimeout));
+        long start = System.nanoTime();
+        boolean judged = false;
+        try {
+            String answer = callWithHedging(userInput, context, toolResults, deadline);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            latencies.record(elapsedMillis);
+            judged = true;
+            if (elapsedMillis > slowCallMillis) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+            meterRegistry.timer("agent.llm.latency").record(elapsedMillis, TimeUnit.MILLISECONDS);
+            return answer;
+        } catch (DeadlineExceededException ex) {
+            logger.warn("Model call exceeded its deadline");
+            judged = true;
+            circuitBreaker.onFailure();
+            return degraded(userInput, "timeout");
+        } catch (RejectedExecutionException ex) {
+            // Local saturation says nothing about the model, so it leaves the circuit alone.
+            logger.warn("No model call slot available");
+            return degraded(userInput, "busy");
+        } catch (CancellationException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            logger.error("Model call failed", ex);
+            judged = true;
+            circuitBreaker.onFailure();
+            return degraded(userInput, "error");
+        } finally {
+            if (!judged) {
+                // Cancelled or rejected: release a half-open probe so the circuit is not stuck waiting on it.
+                circuitBreaker.onIgnored();
+            }
+        }
+    }
+
+    private String callWithHedging(String userInput, ConversationContext context, Consumer<ToolResult> toolResults,
+                                   Deadline deadline) throws Exception {
+        ExecutorCompletionService<String> completionService = new ExecutorCompletionService<>(llmExecutor);
+        List<Attempt> attempts = new ArrayList<>(2);
+        attempts.add(new Attempt(completionService, userInput, context, deadline));
+
+        boolean hedged = !hedgingEnabled;
+        int pending = 1;
+        Attempt winner = null;
+        Exception lastError = null;
+        try {
+            while (pending > 0) {
+                long wait = hedged ? deadline.remainingMillis() : Math.min(deadline.remainingMillis(), hedgeDelay());
+                Future<String> done = completionService.poll(wait, TimeUnit.MILLISECONDS);
+                if (done == null) {
+                    if (deadline.isExpired()) {
+                        throw new DeadlineExceededException("Model call exceeded deadline");
+                    }
+                    if (!hedged) {
+                        hedged = true;
+                        if (hedge(completionService, userInput, context, deadline, attempts)) {
+                            pending++;
+                            logger.info("Hedging model call after {} ms", hedgeDelay());
+                        }
+                    }
+                    continue;
+                }
+                pending--;
+                try {
+                    String answer = done.get();
+                    winner = attempts.stream().filter(attempt -> attempt.future == done).findFirst().orElseThrow();
+                    winner.commit(deadline, toolResults);
+                    return answer;
+                } catch (ExecutionException ex) {
+                    lastError = ex.getCause() instanceof Exception cause ? cause : ex;
+                    if (!hedged && !deadline.isExpired()) {
+                        hedged = true;
+                        if (hedge(completionService, userInput, context, deadline, attempts)) {
+                            pending++;
+                        }
+                    }
+                }
+            }
+            throw lastError;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for the model");
+        } finally {
+            for (Attempt attempt : attempts) {
+                if (attempt != winner) {
+                    attempt.deadline.cancel("Model call superseded");
+                    attempt.future.cancel(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Submits a second attempt unless the model call pool is full, in which case the first attempt
+     * is left to finish on its own.
+     */
+    private boolean hedge(ExecutorCompletionService<String> completionService, String userInput,
+                          ConversationContext context, Deadline deadline, List<Attempt> attempts) {
+        try {
+            attempts.add(new Attempt(completionService, userInput, context, deadline));
+        } catch (RejectedExecutionException ex) {
+            meterRegistry.counter("agent.llm.hedge.rejected").increment();
+            return false;
+        }
+        meterRegistry.counter("agent.llm.hedged").increment();
+        return true;
+    }
+
+    private long hedgeDelay() {
+        if (hedgeDelayMillis > 0 || latencies.size() < MIN_SAMPLES_FOR_P95) {
+            return hedgeDelayMillis > 0 ? hedgeDelayMillis : slowCallMillis / 2;
+        }
+        return latencies.percentile(95);
+    }
+
+    private String degraded(String userInput, String reason) {
+        meterRegistry.counter("agent.llm.degraded", "reason", reason).increment();
+        Optional<QueryIntent> intent = queryRouterService.classify(userInput);
+        if (intent.isPresent()) {
+            return DEGRADED_NOTICE + queryRouterService.answer(intent.get());
+        }
+
+        List<ItemEntity> topItems = queryService.runDynamicQuery("topPerformingItems", QueryParameters.builder()
+                .minUnitsSold(0)
+                .minAverageRating(0.0)
+                .limit(5)
+                .build());
+        String supported = queryService.getSupportedQueries().stream()
+                .map(QueryMetadata::name)
+                .collect(Collectors.joining(", "));
+        return DEGRADED_NOTICE
+                + "Questions that can be answered right now: " + supported + ".\n\n"
+                + ItemSummaryHelper.summarizeItems("Top Performing Items", topItems);
+    }
+
+    /**
+     * One model call. Its tool results and catalog reads are held apart from the request's until it
+     * wins, so a hedged call that loses leaves nothing behind in the session or the budget.
+     */
+    private final class Attempt {
+
+        private final Deadline deadline;
+        private final List<ToolResult> toolResults = Collections.synchronizedList(new ArrayList<>());
+        private final Future<String> future;
+
+        private Attempt(ExecutorCompletionService<String> completionService, String userInput,
+                        ConversationContext context, Deadline parent) {
+            this.deadline = parent.fork();
+            try {
+                this.future = completionService.submit(
+                        DeadlineContext.wrap(deadline, () -> delegate.query(userInput, context, toolResults::add)));
+            } catch (RejectedExecutionException ex) {
+                deadline.cancel("Model call rejected");
+                throw ex;
+            }
+        }
+
+        private void commit(Deadline parent, Consumer<ToolResult> sink) {
+            parent.budget().ifPresent(budget -> deadline.budget().ifPresent(budget::charge));
+            synchronized (toolResults) {
+                toolResults.forEach(sink);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.ai.agent.ai_agent.client.stub;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for the OpenAI model that injects latency and failures. Used to exercise
+ * deadlines, hedging and the circuit breaker without a network dependency. It never calls a tool,
+ * and reports prompt tokens as a rough four characters per token of the messages and tool schemas.
+ */
+public class StubChatModel implements ChatModel {
+
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final double slowRate;
+    private final long slowLatencyMillis;
+    private final double errorRate;
+
+    public StubChatModel(long latencyMillis, long jitterMillis, double slowRate, long slowLatencyMillis, double errorRate) {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.slowRate = slowRate;
+        this.slowLatencyMillis = slowLatencyMillis;
+        this.errorRate = errorRate;
+    }
+
+    @Override
+    public ChatOptions getDefaultOptions() {
+        // Lets ChatClient pass the offered tools along, as it does to the OpenAI model.
+        return ToolCallingChatOptions.builder().build();
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = random.nextDouble() < slowRate
+                ? slowLatencyMillis
+                : latencyMillis + (jitterMillis > 0 ? random.nextLong(jitterMillis) : 0);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Stub model call interrupted", ex);
+        }
+        if (random.nextDouble() < errorRate) {
+            throw new IllegalStateException("Stub model injected failure");
+        }
+
+        List<Message> instructions = prompt.getInstructions();
+        String userText = instructions.stream()
+                .filter(message -> message.getMessageType() == MessageType.USER)
+                .reduce((first, second) -> second)
+                .map(Message::getText)
+                .orElse("");
+        String answer = "Stub answer for: " + userText;
+        ChatResponseMetadata metadata = ChatResponseMetadata.builder()
+                .usage(new DefaultUsage(promptChars(prompt) / 4, answer.length() / 4))
+                .build();
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(answer))), metadata);
+    }
+
+    private static int promptChars(Prompt prompt) {
+        int chars = 0;
+        for (Message message : prompt.getInstructions()) {
+            chars += message.getText() == null ? 0 : message.getText().length();
+        }
+        if (prompt.getOptions() instanceof ToolCallingChatOptions options) {
+            for (ToolCallback callback : options.getToolCallbacks()) {
+                ToolDefinition definition = callback.getToolDefinition();
+                chars += definition.name().length() + definition.description().length() + definition.inputSchema().length();
+            }
+        }
+        return chars;
+    }
+}
@@ -0,0 +1,76 @@
+package com.ai.agent.ai_agent.client.tool;
+
+import com.ai.agent.ai_agent.catalog.CatalogVersion;
+import com.ai.agent.ai_agent.governor.QueryGovernor;
+import com.ai.agent.ai_agent.mcp.tools.DistributionTools;
+import com.ai.agent.ai_agent.mcp.tools.HistoryTools;
+import com.ai.agent.ai_agent.mcp.tools.InventoryTools;
+import com.ai.agent.ai_agent.mcp.tools.PricingTools;
+import com.ai.agent.ai_agent.utils.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.ai.support.ToolCallbacks;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Tool callbacks handed to the model. Built once from the @Tool beans and wrapped so that
+ * identical concurrent invocations are coalesced, results are held to the request's budget,
+ * and results are kept in the caller's session. Each tool belongs to the group of the bean that
+ * declares it (inventory, pricing, distribution, history).
+ */
+@Component
+public class AgentToolRegistry {
+
+    private final List<ToolCallback> toolCallbacks;
+    private final Map<String, String> toolGroups = new HashMap<>();
+
+    public AgentToolRegistry(InventoryTools inventoryTools,
+                             PricingTools pricingTools,
+                             DistributionTools distributionTools,
+                             HistoryTools historyTools,
+                             CatalogVersion catalogVersion,
+                             QueryGovernor governor,
+                             @Qualifier("singleFlightExecutor") ExecutorService singleFlightExecutor,
+                             MeterRegistry meterRegistry) {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>(singleFlightExecutor);
+        Map<String, Object> toolBeans = new LinkedHashMap<>();
+        toolBeans.put("inventory", inventoryTools);
+        toolBeans.put("pricing", pricingTools);
+        toolBeans.put("distribution", distributionTools);
+        toolBeans.put("history", historyTools);
+        List<ToolCallback> callbacks = new ArrayList<>();
+        toolBeans.forEach((group, bean) -> {
+            for (ToolCallback callback : ToolCallbacks.from(bean)) {
+                toolGroups.put(callback.getToolDefinition().name(), group);
+                callbacks.add(new SelectionTrackingToolCallback(new SessionRecordingToolCallback(new GovernedToolCallback(
+                        new CoalescingToolCallback(callback, singleFlight, catalogVersion), governor))));
+            }
+        });
+        this.toolCallbacks = List.copyOf(callbacks);
+
+        FunctionCounter.builder("agent.singleflight.executions", singleFlight, SingleFlight::executionCount)
+                .tag("layer", "tool").register(meterRegistry);
+        FunctionCounter.builder("agent.singleflight.coalesced", singleFlight, SingleFlight::coalescedCount)
+                .tag("layer", "tool").register(meterRegistry);
+        Gauge.builder("agent.singleflight.inflight", singleFlight, SingleFlight::inFlightCount)
+                .tag("layer", "tool").register(meterRegistry);
+    }
+
+    public List<ToolCallback> getToolCallbacks() {
+        return toolCallbacks;
+    }
+
+    public String getToolGroup(String toolName) {
+        return toolGroups.get(toolName);
+    }
+}
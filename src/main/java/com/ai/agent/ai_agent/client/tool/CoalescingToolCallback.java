@@ -0,0 +1,78 @@
+package com.ai.agent.ai_agent.client.tool;
+
+import com.ai.agent.ai_agent.catalog.CatalogVersion;
+import com.ai.agent.ai_agent.utils.Deadline;
+import com.ai.agent.ai_agent.utils.DeadlineContext;
+import com.ai.agent.ai_agent.utils.SingleFlight;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+/**
+ * Shares one execution between concurrent invocations of the same tool with the same
+ * arguments against the same catalog version.
+ */
+public class CoalescingToolCallback implements ToolCallback {
+
+    private static final ObjectMapper CANONICAL_JSON = JsonMapper.builder()
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .build();
+
+    private final ToolCallback delegate;
+    private final SingleFlight<String, String> singleFlight;
+    private final CatalogVersion catalogVersion;
+
+    public CoalescingToolCallback(ToolCallback delegate, SingleFlight<String, String> singleFlight, CatalogVersion catalogVersion) {
+        this.delegate = delegate;
+        this.singleFlight = singleFlight;
+        this.catalogVersion = catalogVersion;
+    }
+
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return delegate.getToolDefinition();
+    }
+
+    @Override
+    public ToolMetadata getToolMetadata() {
+        return delegate.getToolMetadata();
+    }
+
+    @Override
+    public String call(String toolInput) {
+        return call(toolInput, null);
+    }
+
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        String key = getToolDefinition().name() + '|' + catalogVersion.current() + '|' + normalize(toolInput);
+        Deadline caller = DeadlineContext.current().orElse(null);
+        // The shared execution may outlive this caller, so it only stops when every caller has gone.
+        Deadline shared = caller == null ? null : caller.detach();
+        return singleFlight.executeAndWait(key,
+                DeadlineContext.wrap(shared, () -> delegate.call(toolInput, toolContext)),
+                caller,
+                shared == null ? null : () -> shared.cancel("abandoned"));
+    }
+
+    /**
+     * The arguments re-serialized with sorted keys and no insignificant whitespace, so only
+     * differences in the values themselves give separate executions.
+     */
+    static String normalize(String toolInput) {
+        if (toolInput == null || toolInput.isBlank()) {
+            return "";
+        }
+        try {
+            return CANONICAL_JSON.writeValueAsString(CANONICAL_JSON.readValue(toolInput, Object.class));
+        } catch (JsonProcessingException ex) {
+            // Not JSON: only an identical input shares the result.
+            return toolInput;
+        }
+    }
+}
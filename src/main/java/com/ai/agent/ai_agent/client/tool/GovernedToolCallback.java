@@ -0,0 +1,64 @@
+package com.ai.agent.ai_agent.client.tool;
+
+import com.ai.agent.ai_agent.governor.QueryGovernor;
+import com.ai.agent.ai_agent.utils.CatalogBusyException;
+import com.ai.agent.ai_agent.utils.DeadlineContext;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+/**
+ * Refuses to start a tool once the request is cancelled or out of time, and charges the result
+ * to the request's byte budget before the model sees it. A tool that fails because the catalog
+ * is saturated answers with a "busy" result the model can relay.
+ */
+public class GovernedToolCallback implements ToolCallback {
+
+    private final ToolCallback delegate;
+    private final QueryGovernor governor;
+
+    public GovernedToolCallback(ToolCallback delegate, QueryGovernor governor) {
+        this.delegate = delegate;
+        this.governor = governor;
+    }
+
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return delegate.getToolDefinition();
+    }
+
+    @Override
+    public ToolMetadata getToolMetadata() {
+        return delegate.getToolMetadata();
+    }
+
+    @Override
+    public String call(String toolInput) {
+        return call(toolInput, null);
+    }
+
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        DeadlineContext.checkNotExpired();
+        String result;
+        try {
+            result = delegate.call(toolInput, toolContext);
+        } catch (RuntimeException ex) {
+            if (!isBusy(ex)) {
+                throw ex;
+            }
+            return ParallelToolCallingManager.busyResult(getToolDefinition().name());
+        }
+        return governor.admitResult(getToolDefinition().name(), result);
+    }
+
+    private static boolean isBusy(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CatalogBusyException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,193 @@
+package com.ai.agent.ai_agent.client.tool;
+
+import com.ai.agent.ai_agent.utils.DeadlineContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.model.tool.ToolExecutionResult;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.ToolExecutionException;
+import org.springframework.ai.tool.execution.ToolExecutionExceptionProcessor;
+import org.springframework.ai.tool.resolution.ToolCallbackResolver;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Executes the tool calls of a single model turn concurrently on a bounded executor.
+ * Responses are returned in the order the model requested them, and each call is
+ * bounded by a per-tool timeout, capped by the request deadline. Turns with a single
+ * tool call go through the default manager unchanged. When the executor is saturated a call is
+ * not run and the model gets a "busy" result for it instead.
+ */
+public class ParallelToolCallingManager implements ToolCallingManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelToolCallingManager.class);
+
+    private final ToolCallingManager delegate;
+    private final ToolCallbackResolver toolCallbackResolver;
+    private final ToolExecutionExceptionProcessor exceptionProcessor;
+    private final ExecutorService toolExecutor;
+    private final long toolTimeoutMillis;
+
+    public ParallelToolCallingManager(ToolCallingManager delegate,
+                                      ToolCallbackResolver toolCallbackResolver,
+                                      ToolExecutionExceptionProcessor exceptionProcessor,
+                                      ExecutorService toolExecutor,
+                                      long toolTimeoutMillis) {
+        this.delegate = delegate;
+        this.toolCallbackResolver = toolCallbackResolver;
+        this.exceptionProcessor = exceptionProcessor;
+        this.toolExecutor = toolExecutor;
+        this.toolTimeoutMillis = toolTimeoutMillis;
+    }
+
+    @Override
+    public List<ToolDefinition> resolveToolDefinitions(ToolCallingChatOptions chatOptions) {
+        return delegate.resolveToolDefinitions(chatOptions);
+    }
+
+    @Override
+    public ToolExecutionResult executeToolCalls(Prompt prompt, ChatResponse chatResponse) {
+        AssistantMessage assistantMessage = chatResponse.getResults().stream()
+                .map(Generation::getOutput)
+                .filter(AssistantMessage::hasToolCalls)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No tool call requested by the chat model"));
+
+        List<AssistantMessage.ToolCall> toolCalls = assistantMessage.getToolCalls();
+        if (toolCalls.size() < 2) {
+            return delegate.executeToolCalls(prompt, chatResponse);
+        }
+
+        logger.info("Executing {} tool calls in parallel", toolCalls.size());
+        ToolContext toolContext = buildToolContext(prompt, assistantMessage);
+
+        List<ToolCallback> callbacks = new ArrayList<>(toolCalls.size());
+        List<Future<String>> futures = new ArrayList<>(toolCalls.size());
+        for (AssistantMessage.ToolCall toolCall : toolCalls) {
+            ToolCallback callback = resolveCallback(prompt, toolCall.name());
+            callbacks.add(callback);
+            futures.add(submit(callback, toolCall, toolContext));
+        }
+
+        List<ToolResponseMessage.ToolResponse> responses = new ArrayList<>(toolCalls.size());
+        boolean returnDirect = true;
+        long timeoutMillis = DeadlineContext.remainingMillis(toolTimeoutMillis);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        // A cancelled request stops its tools instead of letting them run to their timeout.
+        Runnable unregister = DeadlineContext.current()
+                .map(current -> current.onCancel(() -> futures.forEach(future -> future.cancel(true))))
+                .orElse(() -> { });
+        try {
+            for (int i = 0; i < toolCalls.size(); i++) {
+                AssistantMessage.ToolCall toolCall = toolCalls.get(i);
+                returnDirect = returnDirect && callbacks.get(i).getToolMetadata().returnDirect();
+                String result = await(toolCall, futures.get(i), deadline, timeoutMillis);
+                responses.add(new ToolResponseMessage.ToolResponse(toolCall.id(), toolCall.name(), result));
+            }
+        } finally {
+            unregister.run();
+        }
+
+        List<Message> conversationHistory = new ArrayList<>(prompt.copy().getInstructions());
+        conversationHistory.add(assistantMessage);
+        conversationHistory.add(new ToolResponseMessage(responses, Map.of()));
+
+        return ToolExecutionResult.builder()
+                .conversationHistory(conversationHistory)
+                .returnDirect(returnDirect)
+                .build();
+    }
+
+    private ToolCallback resolveCallback(Prompt prompt, String toolName) {
+        if (prompt.getOptions() instanceof ToolCallingChatOptions options && options.getToolCallbacks() != null) {
+            for (ToolCallback callback : options.getToolCallbacks()) {
+                if (toolName.equals(callback.getToolDefinition().name())) {
+                    return callback;
+                }
+            }
+        }
+        ToolCallback callback = toolCallbackResolver.resolve(toolName);
+        if (callback == null) {
+            throw new IllegalStateException("No ToolCallback found for tool name: " + toolName);
+        }
+        return callback;
+    }
+
+    private Future<String> submit(ToolCallback callback, AssistantMessage.ToolCall toolCall, ToolContext toolContext) {
+        try {
+            return toolExecutor.submit(DeadlineContext.wrap(() -> invoke(callback, toolCall, toolContext)));
+        } catch (RejectedExecutionException ex) {
+            logger.warn("Tool pool saturated, not running {}", toolCall.name());
+            return CompletableFuture.completedFuture(busyResult(toolCall.name()));
+        }
+    }
+
+    static String busyResult(String toolName) {
+        return "Tool " + toolName + " could not complete because the server is busy. Try again shortly.";
+    }
+
+    private String invoke(ToolCallback callback, AssistantMessage.ToolCall toolCall, ToolContext toolContext) {
+        long start = System.nanoTime();
+        try {
+            return callback.call(toolCall.arguments(), toolContext);
+        } catch (ToolExecutionException ex) {
+            return exceptionProcessor.process(ex);
+        } finally {
+            logger.debug("Tool {} finished in {} ms", toolCall.name(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    private String await(AssistantMessage.ToolCall toolCall, Future<String> future, long deadline, long timeoutMillis) {
+        try {
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            return future.get(remaining, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            logger.warn("Tool {} timed out after {} ms", toolCall.name(), timeoutMillis);
+            return "Tool " + toolCall.name() + " timed out after " + timeoutMillis + " ms.";
+        } catch (CancellationException ex) {
+            throw new CancellationException("Tool " + toolCall.name() + " was cancelled");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Interrupted while waiting for tool " + toolCall.name(), ex);
+        } catch (ExecutionException ex) {
+            logger.error("Tool {} failed", toolCall.name(), ex.getCause());
+            throw new RuntimeException("Failed to execute tool " + toolCall.name(), ex.getCause());
+        }
+    }
+
+    private static ToolContext buildToolContext(Prompt prompt, AssistantMessage assistantMessage) {
+        Map<String, Object> context = Map.of();
+        if (prompt.getOptions() instanceof ToolCallingChatOptions options
+                && options.getToolContext() != null && !options.getToolContext().isEmpty()) {
+            context = new HashMap<>(options.getToolContext());
+            List<Message> history = new ArrayList<>(prompt.copy().getInstructions());
+            history.add(assistantMessage);
+            context.put(ToolContext.TOOL_CALL_HISTORY, history);
+        }
+        return new ToolContext(context);
+    }
+}
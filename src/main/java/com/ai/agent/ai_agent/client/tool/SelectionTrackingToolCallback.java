@@ -0,0 +1,42 @@
+package com.ai.agent.ai_agent.client.tool;
+
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+/**
+ * Notes each call in the query's {@link ToolSelection}, which the {@link ToolSelector} learns
+ * from once the model has answered.
+ */
+public class SelectionTrackingToolCallback implements ToolCallback {
+
+    private final ToolCallback delegate;
+
+    public SelectionTrackingToolCallback(ToolCallback delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return delegate.getToolDefinition();
+    }
+
+    @Override
+    public ToolMetadata getToolMetadata() {
+        return delegate.getToolMetadata();
+    }
+
+    @Override
+    public String call(String toolInput) {
+        return delegate.call(toolInput);
+    }
+
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        if (toolContext != null && toolContext.getContext().get(ToolSelection.CONTEXT_KEY) instanceof ToolSelection selection) {
+            selection.recordCall(getToolDefinition().name());
+        }
+        return delegate.call(toolInput, toolContext);
+    }
+}
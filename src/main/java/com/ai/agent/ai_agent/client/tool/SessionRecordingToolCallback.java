@@ -0,0 +1,51 @@
+package com.ai.agent.ai_agent.client.tool;
+
+import com.ai.agent.ai_agent.model.ToolResult;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+import java.util.function.Consumer;
+
+/**
+ * Hands tool results to the {@link ToolResult} consumer in the tool context. The service that
+ * asked stores them in the sessions of every caller that gets the answer, so follow-up questions
+ * can reuse them instead of running the same tool again.
+ */
+public class SessionRecordingToolCallback implements ToolCallback {
+
+    public static final String TOOL_RESULTS = "toolResults";
+
+    private final ToolCallback delegate;
+
+    public SessionRecordingToolCallback(ToolCallback delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return delegate.getToolDefinition();
+    }
+
+    @Override
+    public ToolMetadata getToolMetadata() {
+        return delegate.getToolMetadata();
+    }
+
+    @Override
+    public String call(String toolInput) {
+        return delegate.call(toolInput);
+    }
+
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        String result = delegate.call(toolInput, toolContext);
+        if (toolContext != null && toolContext.getContext().get(TOOL_RESULTS) instanceof Consumer<?> sink) {
+            @SuppressWarnings("unchecked")
+            Consumer<ToolResult> toolResults = (Consumer<ToolResult>) sink;
+            toolResults.accept(new ToolResult(getToolDefinition().name(), toolInput, result));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,50 @@
+package com.ai.agent.ai_agent.client.tool;
+
+import org.springframework.ai.tool.ToolCallback;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The tools offered to the model for one query, and the ones it went on to call. Passed to the
+ * tools through the tool context under {@link #CONTEXT_KEY} so calls can be recorded.
+ */
+public final class ToolSelection {
+
+    public static final String CONTEXT_KEY = "toolSelection";
+
+    private final List<ToolCallback> callbacks;
+    private final boolean fullSet;
+    private final List<String> terms;
+    private final Set<String> calledTools = ConcurrentHashMap.newKeySet();
+
+    ToolSelection(List<ToolCallback> callbacks, boolean fullSet, List<String> terms) {
+        this.callbacks = callbacks;
+        this.fullSet = fullSet;
+        this.terms = terms;
+    }
+
+    public List<ToolCallback> callbacks() {
+        return callbacks;
+    }
+
+    /**
+     * Whether every tool is offered, because selection is disabled or not confident enough.
+     */
+    public boolean fullSet() {
+        return fullSet;
+    }
+
+    List<String> terms() {
+        return terms;
+    }
+
+    Set<String> calledTools() {
+        return calledTools;
+    }
+
+    void recordCall(String toolName) {
+        calledTools.add(toolName);
+    }
+}
@@ -0,0 +1,344 @@
+package com.ai.agent.ai_agent.client.tool;
+
+import com.ai.agent.ai_agent.model.ConversationContext;
+import com.ai.agent.ai_agent.model.ConversationTurn;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.regex.Pattern;
+
+/**
+ * Picks the tools worth offering the model for a query, so that the prompt does not carry
+ * every tool schema on every model turn. Tools are scored against a keyword index of their
+ * names and descriptions (rarer words count more, words in the name count double), with a
+ * boost for the tool groups the query's vocabulary points at and for tools that answered
+ * queries with the same words before. When no tool scores at least min-score, every tool is
+ * offered; when the best score is below confident-score, the subset is widened to up to twice as
+ * many tools, any that matched at all, since the model is not asked again if the tool it needed
+ * was left out. Which tools
+ * answered is only learned from queries that were offered every tool: from a subset the model can
+ * only confirm the selection, right or wrong.
+ */
+@Component
+public class ToolSelector {
+
+    private static final Logger logger = LoggerFactory.getLogger(ToolSelector.class);
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern CAMEL_CASE = Pattern.compile("(?<=[a-z0-9])(?=[A-Z])");
+
+    private static final double NAME_WEIGHT = 2.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+    private static final double SYNONYM_WEIGHT = 0.7;
+    private static final double PREVIOUS_QUESTION_WEIGHT = 0.3;
+    private static final double GROUP_BOOST = 0.75;
+    private static final int MAX_LEARNED_TERMS = 5000;
+
+    private static final Set<String> STOP_WORDS = stems(
+            "a an the of for in on to and or is are was were be been by with at from as it its this that these those "
+                    + "what which who how many much show me my i we our us you your please can could would will do does did "
+                    + "get give list tell find all any each per item items product products catalog whole than there have has");
+
+    // Query words that mean the same as words in the tool descriptions.
+    private static final Map<String, List<String>> SYNONYMS = synonyms(Map.ofEntries(
+            Map.entry("cheap", "price"), Map.entry("cheapest", "price"), Map.entry("costly", "price expensive"),
+            Map.entry("pricey", "price expensive"), Map.entry("priciest", "price expensive"),
+            Map.entry("restock", "replenishment"), Map.entry("reorder", "replenishment"), Map.entry("replenish", "replenishment"),
+            Map.entry("sell", "sold sales"), Map.entry("selling", "sold sales"), Map.entry("bestseller", "sold sales"),
+            Map.entry("popular", "sold sales"), Map.entry("profit", "margin"), Map.entry("profitable", "margin"),
+            Map.entry("markup", "margin"), Map.entry("inventory", "stock"), Map.entry("quantity", "stock"),
+            Map.entry("sale", "promotion"), Map.entry("deal", "promotion"), Map.entry("offer", "promotion"),
+            Map.entry("promo", "promotion"), Map.entry("historical", "history"), Map.entry("trend", "history"),
+            Map.entry("median", "percentiles"), Map.entry("quartile", "percentiles"), Map.entry("spread", "distribution"),
+            Map.entry("slow", "aging slow movers"), Map.entry("worst", "underperforming"), Map.entry("predict", "forecast"),
+            Map.entry("shop", "store"), Map.entry("branch", "store"), Map.entry("elastic", "elasticity"),
+            Map.entry("whatif", "simulate scenarios")));
+
+    // Words that point at a tool group even when they match no single tool.
+    private static final Map<String, Set<String>> GROUP_TERMS = Map.of(
+            "inventory", stems("stock inventory restock reorder replenish store region warehouse sold sales selling "
+                    + "forecast demand aging slow underperforming performance units"),
+            "pricing", stems("price pricing margin profit cost discount promotion promo sale revenue expensive cheap "
+                    + "elasticity scenario simulate simulation markup"),
+            "distribution", stems("distribution percentile median quartile histogram share spread distinct brands percentage"),
+            "history", stems("history historical ago last yesterday week month was were before previous changed "
+                    + "trend past since earlier"));
+
+    private final List<ToolCallback> tools;
+    private final String[] toolGroups;
+    // Term -> weight for each tool, by tool index.
+    private final Map<String, double[]> index = new HashMap<>();
+    // Term -> number of queries with that term in which the model called each tool.
+    private final Map<String, AtomicIntegerArray> usage = new ConcurrentHashMap<>();
+    private final Map<String, Integer> toolIndexes = new HashMap<>();
+
+    private final boolean enabled;
+    private final int maxTools;
+    private final double minScore;
+    private final double confidentScore;
+    private final double relativeScore;
+    private final double usageWeight;
+
+    private final MeterRegistry meterRegistry;
+    private final Counter subsetSelections;
+    private final Counter fullSelections;
+    private final Counter widenedSelections;
+    private final DistributionSummary offeredTools;
+    private final Timer selectionLatency;
+
+    public ToolSelector(AgentToolRegistry toolRegistry,
+                        MeterRegistry meterRegistry,
+                        @Value("${agent.tools.selection.enabled:true}") boolean enabled,
+                        @Value("${agent.tools.selection.max-tools:6}") int maxTools,
+                        @Value("${agent.tools.selection.min-score:3.0}") double minScore,
+                        @Value("${agent.tools.selection.confident-score:6.0}") double confidentScore,
+                        @Value("${agent.tools.selection.relative-score:0.35}") double relativeScore,
+                        @Value("${agent.tools.selection.usage-weight:2.0}") double usageWeight) {
+        this.tools = toolRegistry.getToolCallbacks();
+        this.enabled = enabled;
+        this.maxTools = Math.max(1, maxTools);
+        this.minScore = minScore;
+        this.confidentScore = confidentScore;
+        this.relativeScore = relativeScore;
+        this.usageWeight = usageWeight;
+        this.meterRegistry = meterRegistry;
+
+        int count = tools.size();
+        this.toolGroups = new String[count];
+        Map<String, double[]> weights = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            ToolDefinition definition = tools.get(i).getToolDefinition();
+            toolIndexes.put(definition.name(), i);
+            toolGroups[i] = toolRegistry.getToolGroup(definition.name());
+            for (String term : terms(CAMEL_CASE.matcher(definition.name()).replaceAll(" "))) {
+                weights.computeIfAbsent(term, key -> new double[count])[i] = NAME_WEIGHT;
+            }
+            for (String term : terms(definition.description())) {
+                double[] termWeights = weights.computeIfAbsent(term, key -> new double[count]);
+                termWeights[i] = Math.max(termWeights[i], DESCRIPTION_WEIGHT);
+            }
+        }
+        weights.forEach((term, termWeights) -> {
+            int documents = 0;
+            for (double weight : termWeights) {
+                if (weight > 0) documents++;
+            }
+            double idf = Math.log(1.0 + (double) count / documents);
+            for (int i = 0; i < count; i++) {
+                termWeights[i] *= idf;
+            }
+            index.put(term, termWeights);
+        });
+
+        this.subsetSelections = meterRegistry.counter("agent.tools.selections", "outcome", "subset");
+        this.fullSelections = meterRegistry.counter("agent.tools.selections", "outcome", "full");
+        this.widenedSelections = meterRegistry.counter("agent.tools.selection.widened");
+        this.offeredTools = DistributionSummary.builder("agent.tools.offered").register(meterRegistry);
+        this.selectionLatency = meterRegistry.timer("agent.tools.selection.latency");
+        logger.info("Indexed {} tools ({} terms)", count, index.size());
+    }
+
+    public ToolSelection select(String userInput, ConversationContext context) {
+        long start = System.nanoTime();
+        ToolSelection selection = enabled ? score(userInput, context) : full(List.of());
+        selectionLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        (selection.fullSet() ? fullSelections : subsetSelections).increment();
+        offeredTools.record(selection.callbacks().size());
+        return selection;
+    }
+
+    /**
+     * Records how long the model took with the tools offered and the prompt tokens it reported,
+     * and learns which tools answered the query's words.
+     */
+    public void recordOutcome(ToolSelection selection, Usage modelUsage, long elapsedNanos) {
+        String offered = selection.fullSet() ? "full" : "subset";
+        meterRegistry.timer("agent.llm.call.latency", "tools", offered).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        // Summed over the tool-calling turns of the query; models that report no usage are left out.
+        if (modelUsage != null && modelUsage.getPromptTokens() != null && modelUsage.getPromptTokens() > 0) {
+            DistributionSummary.builder("agent.llm.prompt.tokens")
+                    .description("Prompt tokens the model reported for a query")
+                    .baseUnit("tokens")
+                    .tag("tools", offered)
+                    .register(meterRegistry)
+                    .record(modelUsage.getPromptTokens());
+        }
+        if (!selection.fullSet() || selection.calledTools().isEmpty()) {
+            return;
+        }
+        for (String term : selection.terms()) {
+            AtomicIntegerArray counts = usage.get(term);
+            if (counts == null) {
+                if (usage.size() >= MAX_LEARNED_TERMS) continue;
+                counts = usage.computeIfAbsent(term, key -> new AtomicIntegerArray(tools.size()));
+            }
+            for (String tool : selection.calledTools()) {
+                Integer toolIndex = toolIndexes.get(tool);
+                if (toolIndex != null) counts.incrementAndGet(toolIndex);
+            }
+        }
+    }
+
+    private ToolSelection score(String userInput, ConversationContext context) {
+        Map<String, Double> queryTerms = new LinkedHashMap<>();
+        Set<String> groups = new HashSet<>();
+        addTerms(queryTerms, groups, userInput, 1.0);
+        List<String> ownTerms = List.copyOf(queryTerms.keySet());
+
+        double[] scores = new double[tools.size()];
+        addScores(scores, queryTerms);
+        double top = 0;
+        for (int i = 0; i < scores.length; i++) {
+            if (groups.contains(toolGroups[i])) scores[i] += GROUP_BOOST;
+            top = Math.max(top, scores[i]);
+        }
+        if (top < minScore) {
+            logger.debug("Offering all tools; best score {} is below {} for: {}", top, minScore, userInput);
+            return full(ownTerms);
+        }
+        if (!context.turns().isEmpty()) {
+            // The previous question only shifts the ranking, e.g. for "and by brand?".
+            Map<String, Double> previousTerms = new HashMap<>();
+            ConversationTurn previous = context.turns().get(context.turns().size() - 1);
+            addTerms(previousTerms, new HashSet<>(), previous.question(), PREVIOUS_QUESTION_WEIGHT);
+            addScores(scores, previousTerms);
+            for (double score : scores) {
+                top = Math.max(top, score);
+            }
+        }
+
+        // A best score close to min-score is a weak signal: widen the subset to every tool that
+        // matched at all rather than risk leaving out the tool the question needs.
+        boolean confident = top >= confidentScore;
+        double cutoff = confident ? top * relativeScore : Double.MIN_VALUE;
+        int limit = confident ? maxTools : maxTools * 2;
+        List<Integer> ranked = new ArrayList<>();
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] >= cutoff) ranked.add(i);
+        }
+        if (ranked.size() >= tools.size()) {
+            return full(ownTerms);
+        }
+        ranked.sort(Comparator.comparingDouble((Integer i) -> scores[i]).reversed());
+        List<ToolCallback> selected = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i : ranked.subList(0, Math.min(limit, ranked.size()))) {
+            selected.add(tools.get(i));
+        }
+        if (!confident) {
+            widenedSelections.increment();
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Offering {} of {} tools for: {} -> {}", selected.size(), tools.size(), userInput,
+                    selected.stream().map(callback -> callback.getToolDefinition().name()).toList());
+        }
+        return new ToolSelection(List.copyOf(selected), false, ownTerms);
+    }
+
+    private void addScores(double[] scores, Map<String, Double> terms) {
+        terms.forEach((term, weight) -> {
+            double[] termWeights = index.get(term);
+            if (termWeights != null) {
+                for (int i = 0; i < scores.length; i++) {
+                    scores[i] += weight * termWeights[i];
+                }
+            }
+            AtomicIntegerArray counts = usage.get(term);
+            if (counts != null) {
+                int total = 0;
+                for (int i = 0; i < counts.length(); i++) {
+                    total += counts.get(i);
+                }
+                for (int i = 0; i < scores.length; i++) {
+                    scores[i] += weight * usageWeight * counts.get(i) / (total + 2.0);
+                }
+            }
+        });
+    }
+
+    private ToolSelection full(List<String> terms) {
+        return new ToolSelection(tools, true, terms);
+    }
+
+    private static void addTerms(Map<String, Double> queryTerms, Set<String> groups, String text, double weight) {
+        if (text == null) {
+            return;
+        }
+        for (String word : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+            if (word.isEmpty()) continue;
+            String term = stem(word);
+            GROUP_TERMS.forEach((group, terms) -> {
+                if (terms.contains(term)) groups.add(group);
+            });
+            if (STOP_WORDS.contains(term)) continue;
+            queryTerms.merge(term, weight, Math::max);
+            for (String synonym : SYNONYMS.getOrDefault(term, List.of())) {
+                queryTerms.merge(synonym, weight * SYNONYM_WEIGHT, Math::max);
+            }
+        }
+    }
+
+    private static Set<String> terms(String text) {
+        Set<String> terms = new HashSet<>();
+        for (String word : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+            if (word.isEmpty()) continue;
+            String term = stem(word);
+            if (!STOP_WORDS.contains(term)) terms.add(term);
+        }
+        return terms;
+    }
+
+    /**
+     * Crude suffix stripping so that price, prices, priced and pricing meet on one term.
+     */
+    static String stem(String word) {
+        String stem = word;
+        if (stem.length() > 4 && stem.endsWith("ies")) {
+            stem = stem.substring(0, stem.length() - 3) + "y";
+        } else if (stem.length() > 5 && stem.endsWith("ing")) {
+            stem = stem.substring(0, stem.length() - 3);
+        } else if (stem.length() > 4 && stem.endsWith("ed")) {
+            stem = stem.substring(0, stem.length() - 2);
+        } else if (stem.length() > 3 && stem.endsWith("s") && !stem.endsWith("ss")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        if (stem.length() > 3 && stem.endsWith("e")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        return stem;
+    }
+
+    private static Set<String> stems(String words) {
+        Set<String> stems = new HashSet<>();
+        for (String word : words.split(" ")) {
+            stems.add(stem(word));
+        }
+        return Set.copyOf(stems);
+    }
+
+    private static Map<String, List<String>> synonyms(Map<String, String> synonyms) {
+        Map<String, List<String>> stemmed = new HashMap<>();
+        synonyms.forEach((word, targets) -> stemmed.put(stem(word), List.copyOf(stems(targets))));
+        return Map.copyOf(stemmed);
+    }
+}
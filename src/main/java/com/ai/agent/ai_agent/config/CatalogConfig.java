@@ -0,0 +1,41 @@
+package com.ai.agent.ai_agent.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+@EnableScheduling
+public class CatalogConfig {
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService shardExecutor(
+            @Value("${agent.catalog.shards.parallelism:${agent.catalog.shards.count:4}}") int parallelism,
+            @Value("${agent.catalog.shards.queue-capacity:256}") int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        // Scatter calls are issued from tool threads, so this pool is kept separate from toolExecutor
+        // to avoid tools waiting on work queued behind themselves. A full queue rejects the scatter, which
+        // fails fast as busy rather than running shard work on the caller past the shard timeout.
+        return new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "catalog-shard-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ForkJoinPool pricingPool(@Value("${agent.pricing.parallelism:0}") int parallelism) {
+        // Dedicated pool so long simulations don't occupy the common pool used by parallel streams.
+        return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+}
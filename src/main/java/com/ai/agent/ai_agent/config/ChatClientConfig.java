@@ -1,9 +1,24 @@
 package com.ai.agent.ai_agent.config;
 
+import com.ai.agent.ai_agent.client.tool.ParallelToolCallingManager;
+import io.micrometer.observation.ObservationRegistry;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.tool.execution.ToolExecutionExceptionProcessor;
+import org.springframework.ai.tool.resolution.ToolCallbackResolver;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Configuration
 public class ChatClientConfig {
 
@@ -11,4 +26,77 @@ public class ChatClientConfig {
     public ChatClient chatClient(ChatClient.Builder builder) {
         return builder.build();
     }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService toolExecutor(
+            @Value("${agent.tools.parallelism:4}") int parallelism,
+            @Value("${agent.tools.queue-capacity:64}") int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        // A saturated pool rejects the call, which is answered with a "busy" tool result. Running it on the
+        // model thread instead would put the tool outside agent.tools.timeout-ms.
+        return new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "tool-exec-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService singleFlightExecutor(@Value("${agent.singleflight.max-threads:64}") int maxThreads) {
+        AtomicInteger counter = new AtomicInteger();
+        // No queue: work that cannot get a thread is rejected and SingleFlight runs it on the caller.
+        return new ThreadPoolExecutor(0, maxThreads, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "single-flight-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService askExecutor(@Value("${agent.ask.max-concurrency:64}") int maxConcurrency,
+                                       @Value("${agent.ask.queue-capacity:256}") int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        // /ask runs here instead of on the servlet thread so the container can report disconnects.
+        // A full queue is rejected and answered with 503.
+        return new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "ask-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService llmExecutor(@Value("${agent.llm.max-concurrency:32}") int maxConcurrency) {
+        AtomicInteger counter = new AtomicInteger();
+        // A full pool rejects the call, which is answered in degraded mode instead of queueing without
+        // bound. Rejections are local saturation and do not count against the model's circuit breaker.
+        return new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(maxConcurrency),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "llm-call-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Bean
+    public ToolCallingManager toolCallingManager(ToolCallbackResolver toolCallbackResolver,
+                                                 ToolExecutionExceptionProcessor toolExecutionExceptionProcessor,
+                                                 ObjectProvider<ObservationRegistry> observationRegistry,
+                                                 @Qualifier("toolExecutor") ExecutorService toolExecutor,
+                                                 @Value("${agent.tools.timeout-ms:15000}") long toolTimeoutMillis) {
+        ToolCallingManager sequential = ToolCallingManager.builder()
+                .observationRegistry(observationRegistry.getIfUnique(() -> ObservationRegistry.NOOP))
+                .toolCallbackResolver(toolCallbackResolver)
+                .toolExecutionExceptionProcessor(toolExecutionExceptionProcessor)
+                .build();
+        return new ParallelToolCallingManager(sequential, toolCallbackResolver,
+                toolExecutionExceptionProcessor, toolExecutor, toolTimeoutMillis);
+    }
 }
@@ -1,15 +1,25 @@
 package com.ai.agent.ai_agent.config;
 
+import com.ai.agent.ai_agent.catalog.CatalogReadiness;
 import com.ai.agent.ai_agent.entity.ItemEntity;
+import com.ai.agent.ai_agent.entity.StoreEntity;
+import com.ai.agent.ai_agent.event.CatalogBulkLoadedEvent;
 import com.ai.agent.ai_agent.repository.ItemRepository;
+import com.ai.agent.ai_agent.repository.StoreRepository;
 import lombok.extern.slf4j.Slf4j;
 import net.datafaker.Faker;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Date;
+import java.time.LocalDate;
 import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
@@ -20,78 +30,175 @@ public class DataSeeder {
 
     private static final int TOTAL_ITEMS = 5000;
     private static final int BATCH_SIZE = 500;
+    private static final List<String> REGIONS = List.of("Northeast", "Mid-Atlantic", "Southeast", "Great Lakes",
+            "Midwest", "Plains", "Southwest", "Mountain", "Pacific Northwest", "California");
 
     @Bean
-    public CommandLineRunner seedDatabase(ItemRepository itemRepository) {
+    public CommandLineRunner seedDatabase(ItemRepository itemRepository,
+                                          StoreRepository storeRepository,
+                                          JdbcTemplate jdbcTemplate,
+                                          CatalogReadiness readiness,
+                                          ApplicationEventPublisher eventPublisher,
+                                          @Value("${agent.seed.sales-history-days:60}") int salesHistoryDays,
+                                          @Value("${agent.seed.stores:800}") int storeCount,
+                                          @Value("${agent.seed.store-coverage:0.05}") double storeCoverage,
+                                          @Value("${agent.seed.random-seed:}") String randomSeed,
+                                          @Value("${agent.catalog.shards.remote:}") String remoteShards) {
+        if (randomSeed.isBlank() && !remoteShards.isBlank()) {
+            // Every node would seed its own random catalog, and the shards would partition different data.
+            throw new IllegalStateException("agent.seed.random-seed must be set when remote shards are configured");
+        }
         return args -> {
             if (itemRepository.count() > 0) {
                 log.info("ℹ️ Database already seeded. Skipping.");
+                readiness.markReady("Database already seeded");
                 return;
             }
-
-            Faker faker = new Faker();
-            Random random = new Random();
-            List<ItemEntity> batch = new ArrayList<>();
-
-            for (int i = 1; i <= TOTAL_ITEMS; i++) {
-                double msrp = faker.number().randomDouble(2, 30, 500);
-                double storePrice = Math.max(1.0, msrp - faker.number().randomDouble(2, 1, 50));
-                double ecomPrice = Math.max(1.0, storePrice - faker.number().randomDouble(2, 0, 15));
-                double discount = Math.round(((msrp - storePrice) / msrp) * 10000.0) / 100.0;
-
-                boolean onlineOnly = random.nextBoolean();
-                boolean storeOnly = !onlineOnly && random.nextBoolean();
-                boolean onlineAvailable = onlineOnly || (!storeOnly && random.nextBoolean());
-                boolean storeAvailable = storeOnly || (!onlineOnly && random.nextBoolean());
-
-                ZonedDateTime now = ZonedDateTime.now();
-                ZonedDateTime promoStart = now.minusDays(faker.number().numberBetween(0, 5));
-                ZonedDateTime promoEnd = promoStart.plusDays(faker.number().numberBetween(1, 10));
-
-                int unitsSold = faker.number().numberBetween(0, 5000);
-                int recentSales = faker.number().numberBetween(0, Math.min(unitsSold, 300));
-
-                batch.add(ItemEntity.builder()
-                        .itemId("ITEM" + String.format("%05d", i))
-                        .itemName(faker.commerce().productName())
-                        .sku("SKU" + faker.number().digits(8))
-                        .barcode(faker.code().ean13())
-                        .brand(faker.company().name())
-                        .category(faker.commerce().department())
-                        .msrp(msrp)
-                        .storePrice(storePrice)
-                        .ecomPrice(ecomPrice)
-                        .costPrice(storePrice * (0.6 + 0.2 * Math.random()))
-                        .discountPercent(discount)
-                        .promotion(faker.company().buzzword())
-                        .promoStartDate(promoStart)
-                        .promoEndDate(promoEnd)
-                        .quantityInStock(faker.number().numberBetween(0, 500))
-                        .onlineAvailable(onlineAvailable)
-                        .storeAvailable(storeAvailable)
-                        .createdAt(now.minusDays(faker.number().numberBetween(5, 30)))
-                        .lastUpdated(now.minusHours(faker.number().numberBetween(1, 72)))
-                        .lastPurchasedAt(now.minusDays(faker.number().numberBetween(1, 10)))
-                        .averageRating(Math.round((faker.number().randomDouble(1, 2, 5)) * 10.0) / 10.0)
-                        .numberOfReviews(faker.number().numberBetween(0, 1000))
-                        .unitsSold(unitsSold)
-                        .recentSalesCount(recentSales)
-                        .build());
-
-                if (batch.size() == BATCH_SIZE) {
-                    saveBatch(itemRepository, batch);
-                    batch.clear();
-                }
+            try {
+                seed(itemRepository, storeRepository, jdbcTemplate, salesHistoryDays, storeCount, storeCoverage, randomSeed);
+                // Daily sales and store stock go in over JDBC, so tell catalog listeners to rebuild once.
+                eventPublisher.publishEvent(new CatalogBulkLoadedEvent("seed", TOTAL_ITEMS));
+                readiness.markReady("Seeded " + TOTAL_ITEMS + " items");
+            } catch (Exception ex) {
+                readiness.markFailed("Seeding failed: " + ex.getMessage());
+                throw ex;
             }
+        };
+    }
+
+    private void seed(ItemRepository itemRepository, StoreRepository storeRepository, JdbcTemplate jdbcTemplate,
+                      int salesHistoryDays, int storeCount, double storeCoverage, String randomSeed) {
+        // With a fixed seed every node generates the same catalog, down to the dates, as long as
+        // the nodes are seeded on the same day.
+        Random random = randomSeed.isBlank() ? new Random() : new Random(Long.parseLong(randomSeed.trim()));
+        Faker faker = new Faker(random);
+        ZonedDateTime now = randomSeed.isBlank() ? ZonedDateTime.now() : ZonedDateTime.now().truncatedTo(ChronoUnit.DAYS);
+        List<ItemEntity> batch = new ArrayList<>();
+        List<StoreEntity> stores = seedStores(storeRepository, faker, storeCount);
+
+        for (int i = 1; i <= TOTAL_ITEMS; i++) {
+            double msrp = faker.number().randomDouble(2, 30, 500);
+            double storePrice = Math.max(1.0, msrp - faker.number().randomDouble(2, 1, 50));
+            double ecomPrice = Math.max(1.0, storePrice - faker.number().randomDouble(2, 0, 15));
+            double discount = Math.round(((msrp - storePrice) / msrp) * 10000.0) / 100.0;
 
-            if (!batch.isEmpty()) {
+            boolean onlineOnly = random.nextBoolean();
+            boolean storeOnly = !onlineOnly && random.nextBoolean();
+            boolean onlineAvailable = onlineOnly || (!storeOnly && random.nextBoolean());
+            boolean storeAvailable = storeOnly || (!onlineOnly && random.nextBoolean());
+
+            // Spread windows over the sales history so some promotions have already ended.
+            ZonedDateTime promoStart = now.minusDays(faker.number().numberBetween(0, Math.max(1, salesHistoryDays - 30)));
+            ZonedDateTime promoEnd = promoStart.plusDays(faker.number().numberBetween(1, 14));
+
+            int unitsSold = faker.number().numberBetween(0, 5000);
+            int recentSales = faker.number().numberBetween(0, Math.min(unitsSold, 300));
+
+            batch.add(ItemEntity.builder()
+                    .itemId("ITEM" + String.format("%05d", i))
+                    .itemName(faker.commerce().productName())
+                    .sku("SKU" + faker.number().digits(8))
+                    .barcode(faker.code().ean13())
+                    .brand(faker.company().name())
+                    .category(faker.commerce().department())
+                    .msrp(msrp)
+                    .storePrice(storePrice)
+                    .ecomPrice(ecomPrice)
+                    .costPrice(storePrice * (0.6 + 0.2 * random.nextDouble()))
+                    .discountPercent(discount)
+                    .promotion(faker.company().buzzword())
+                    .promoStartDate(promoStart)
+                    .promoEndDate(promoEnd)
+                    .quantityInStock(faker.number().numberBetween(0, 500))
+                    .onlineAvailable(onlineAvailable)
+                    .storeAvailable(storeAvailable)
+                    .createdAt(now.minusDays(faker.number().numberBetween(5, 30)))
+                    .lastUpdated(now.minusHours(faker.number().numberBetween(1, 72)))
+                    .lastPurchasedAt(now.minusDays(faker.number().numberBetween(1, 10)))
+                    .averageRating(Math.round((faker.number().randomDouble(1, 2, 5)) * 10.0) / 10.0)
+                    .numberOfReviews(faker.number().numberBetween(0, 1000))
+                    .unitsSold(unitsSold)
+                    .recentSalesCount(recentSales)
+                    .build());
+
+            if (batch.size() == BATCH_SIZE) {
                 saveBatch(itemRepository, batch);
+                seedDailySales(jdbcTemplate, batch, salesHistoryDays, random);
+                seedStoreStock(jdbcTemplate, batch, stores, storeCoverage, random);
+                batch.clear();
             }
+        }
 
-            log.info("Seeded {} items to the database.", TOTAL_ITEMS);
-            log.info("H2 Console available at: http://localhost:8080/h2-console");
-            log.info("JDBC URL: jdbc:h2:mem:aiagentdb");
-        };
+        if (!batch.isEmpty()) {
+            saveBatch(itemRepository, batch);
+            seedDailySales(jdbcTemplate, batch, salesHistoryDays, random);
+            seedStoreStock(jdbcTemplate, batch, stores, storeCoverage, random);
+        }
+
+        log.info("Seeded {} items to the database.", TOTAL_ITEMS);
+        log.info("H2 Console available at: http://localhost:8080/h2-console");
+        log.info("JDBC URL: jdbc:h2:mem:aiagentdb");
+    }
+
+    /**
+     * Generates per-day sales around each item's recent sales rate, with an uplift while its
+     * promotion is active. Written over JDBC because the row count is items x days.
+     */
+    private void seedDailySales(JdbcTemplate jdbcTemplate, List<ItemEntity> items, int days, Random random) {
+        LocalDate today = LocalDate.now();
+        List<Object[]> rows = new ArrayList<>(items.size() * days);
+        for (ItemEntity item : items) {
+            double dailyRate = item.getRecentSalesCount() / 30.0;
+            double promoUplift = 1.2 + random.nextDouble() * 0.8;
+            LocalDate promoStart = item.getPromoStartDate().toLocalDate();
+            LocalDate promoEnd = item.getPromoEndDate().toLocalDate();
+            for (int d = days - 1; d >= 0; d--) {
+                LocalDate date = today.minusDays(d);
+                boolean onPromo = !date.isBefore(promoStart) && !date.isAfter(promoEnd);
+                double expected = dailyRate * (onPromo ? promoUplift : 1.0);
+                int units = (int) Math.round(expected * (0.5 + random.nextDouble()));
+                rows.add(new Object[]{item.getItemId(), Date.valueOf(date), units});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO item_daily_sales (item_id, sales_date, units_sold) VALUES (?, ?, ?)", rows);
+    }
+
+    private List<StoreEntity> seedStores(StoreRepository storeRepository, Faker faker, int storeCount) {
+        List<StoreEntity> stores = new ArrayList<>(storeCount);
+        for (int i = 1; i <= storeCount; i++) {
+            String city = faker.address().city();
+            stores.add(StoreEntity.builder()
+                    .storeId("STORE" + String.format("%04d", i))
+                    .name(city + " #" + i)
+                    .city(city)
+                    .region(REGIONS.get((i - 1) % REGIONS.size()))
+                    .build());
+        }
+        storeRepository.saveAll(stores);
+        log.info("Seeded {} stores in {} regions.", storeCount, Math.min(storeCount, REGIONS.size()));
+        return stores;
+    }
+
+    /**
+     * Stocks each store-available item at a random share of the stores. Written over JDBC because
+     * the row count is items x stores carrying them.
+     */
+    private void seedStoreStock(JdbcTemplate jdbcTemplate, List<ItemEntity> items, List<StoreEntity> stores,
+                                double coverage, Random random) {
+        List<Object[]> rows = new ArrayList<>();
+        for (ItemEntity item : items) {
+            if (!item.isStoreAvailable()) {
+                continue;
+            }
+            for (StoreEntity store : stores) {
+                if (random.nextDouble() < coverage) {
+                    // About one in ten carrying stores is sold out.
+                    int quantity = random.nextInt(10) == 0 ? 0 : 1 + random.nextInt(60);
+                    rows.add(new Object[]{item.getItemId(), store.getStoreId(), quantity});
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO store_stock (item_id, store_id, quantity) VALUES (?, ?, ?)", rows);
     }
 
     @Transactional
@@ -0,0 +1,61 @@
+package com.ai.agent.ai_agent.config;
+
+import com.ai.agent.ai_agent.repository.ItemCacheRegions;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level and query cache for items, held in process by Caffeine. Every region is
+ * created here with its own size bound; Hibernate refuses to start if it asks for one that is not.
+ */
+@Configuration
+@ConditionalOnProperty(name = "agent.item-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class ItemCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager itemCacheManager(@Value("${agent.item-cache.items.max-size:10000}") long maxItems,
+                                         @Value("${agent.item-cache.queries.max-size:1000}") long maxQueries) {
+        CaffeineCachingProvider provider = new CaffeineCachingProvider();
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+        cacheManager.createCache(ItemCacheRegions.ITEMS, region(OptionalLong.of(maxItems)));
+        for (String queryRegion : ItemCacheRegions.QUERY_REGIONS) {
+            cacheManager.createCache(queryRegion, region(OptionalLong.of(maxQueries)));
+        }
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, region(OptionalLong.of(maxQueries)));
+        // Query results are checked against the last write time of each table, so these entries must never be dropped.
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, region(OptionalLong.empty()));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer itemCacheProperties(CacheManager itemCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+            properties.put(ConfigSettings.CACHE_MANAGER, itemCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            // Region hit and miss counts behind the agent.item-cache metrics.
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(OptionalLong maximumSize) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(maximumSize);
+        // Hibernate caches its own disassembled state, so copying entries on every read and write buys nothing.
+        configuration.setStoreByValue(false);
+        return configuration;
+    }
+}
@@ -0,0 +1,54 @@
+package com.ai.agent.ai_agent.config;
+
+import com.ai.agent.ai_agent.client.tool.AgentToolRegistry;
+import com.ai.agent.ai_agent.governor.QueryGovernor;
+import com.ai.agent.ai_agent.mcp.server.PagingToolCallback;
+import com.ai.agent.ai_agent.mcp.server.ToolResultPages;
+import com.ai.agent.ai_agent.mcp.tools.ResultPageTools;
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.springframework.ai.support.ToolCallbacks;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.ToolCallbackProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serves the retail tools to MCP clients through the Spring AI MCP server: over SSE alongside
+ * the REST API, or over stdio with the mcp-stdio profile.
+ */
+@Configuration
+public class McpServerConfig {
+
+    /**
+     * The same governed, coalesced tools the model uses, with large results paged.
+     */
+    @Bean
+    public ToolCallbackProvider retailToolCallbacks(AgentToolRegistry toolRegistry,
+                                                    ResultPageTools resultPageTools,
+                                                    ToolResultPages pages,
+                                                    QueryGovernor governor,
+                                                    @Value("${agent.request.timeout-ms:30000}") long timeoutMillis) {
+        List<ToolCallback> callbacks = new ArrayList<>();
+        for (ToolCallback callback : toolRegistry.getToolCallbacks()) {
+            callbacks.add(new PagingToolCallback(callback, pages, governor, Duration.ofMillis(timeoutMillis)));
+        }
+        callbacks.addAll(List.of(ToolCallbacks.from(resultPageTools)));
+        return ToolCallbackProvider.from(callbacks);
+    }
+
+    @Bean
+    public List<McpServerFeatures.SyncResourceSpecification> toolResultResources(ToolResultPages pages) {
+        McpSchema.Resource page = new McpSchema.Resource(ToolResultPages.URI_PREFIX + "{cursor}", "tool-result-page",
+                "One page of a tool result too large to return at once; the cursor is printed at the end of the previous page",
+                "text/plain", null);
+        return List.of(new McpServerFeatures.SyncResourceSpecification(page, (exchange, request) ->
+                new McpSchema.ReadResourceResult(List.of(new McpSchema.TextResourceContents(
+                        request.uri(), "text/plain", pages.pageForResource(request.uri()))))));
+    }
+}
@@ -0,0 +1,43 @@
+package com.ai.agent.ai_agent.config;
+
+import com.ai.agent.ai_agent.governor.GovernedDataSource;
+import com.ai.agent.ai_agent.governor.QueryGovernor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class QueryGovernorConfig {
+
+    /**
+     * Wraps the primary data source, the one JPA and JdbcTemplate use, in a {@link GovernedDataSource}.
+     * Other data sources are left as they are, and the wrapper unwraps to the pool, so actuator
+     * health and pool metrics still find it.
+     */
+    @Bean
+    public static BeanPostProcessor governedDataSourcePostProcessor(ObjectProvider<QueryGovernor> governor,
+                                                                    ConfigurableListableBeanFactory beanFactory) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof GovernedDataSource)
+                        && isPrimary(beanFactory, beanName)) {
+                    return new GovernedDataSource(dataSource, governor);
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static boolean isPrimary(ConfigurableListableBeanFactory beanFactory, String beanName) {
+        if (!beanFactory.containsBeanDefinition(beanName)) {
+            return false;
+        }
+        String[] dataSources = beanFactory.getBeanNamesForType(DataSource.class, true, false);
+        return dataSources.length == 1 || beanFactory.getBeanDefinition(beanName).isPrimary();
+    }
+}
@@ -0,0 +1,24 @@
+package com.ai.agent.ai_agent.config;
+
+import com.ai.agent.ai_agent.client.stub.StubChatModel;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+@Configuration
+@ConditionalOnProperty(name = "agent.llm.stub.enabled", havingValue = "true")
+public class StubModelConfig {
+
+    @Bean
+    @Primary
+    public ChatModel stubChatModel(@Value("${agent.llm.stub.latency-ms:200}") long latencyMillis,
+                                   @Value("${agent.llm.stub.jitter-ms:100}") long jitterMillis,
+                                   @Value("${agent.llm.stub.slow-rate:0.05}") double slowRate,
+                                   @Value("${agent.llm.stub.slow-latency-ms:10000}") long slowLatencyMillis,
+                                   @Value("${agent.llm.stub.error-rate:0.0}") double errorRate) {
+        return new StubChatModel(latencyMillis, jitterMillis, slowRate, slowLatencyMillis, errorRate);
+    }
+}
@@ -1,45 +1,134 @@
 package com.ai.agent.ai_agent.controller;
 
 
-import com.ai.agent.ai_agent.client.AIClient;
+import com.ai.agent.ai_agent.catalog.CatalogReadiness;
+import com.ai.agent.ai_agent.catalog.CatalogVersion;
+import com.ai.agent.ai_agent.dto.ItemPage;
 import com.ai.agent.ai_agent.dto.QueryParameters;
-import com.ai.agent.ai_agent.entity.ItemEntity;
 import com.ai.agent.ai_agent.model.QueryRequest;
 import com.ai.agent.ai_agent.model.QueryResponse;
+import com.ai.agent.ai_agent.service.AgentService;
 import com.ai.agent.ai_agent.service.CustomQueryBuilderService;
+import com.ai.agent.ai_agent.utils.Deadline;
+import com.ai.agent.ai_agent.utils.DeadlineContext;
+import com.ai.agent.ai_agent.utils.QueryDigest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.util.List;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/ask")
 public class AgentController {
 
+    // Lets the service's own deadline fire first, so the client gets its degraded answer or 504.
+    private static final long ASYNC_TIMEOUT_MARGIN_MILLIS = 5000;
+
     @Autowired
-    private AIClient aiClient;
+    private AgentService agentService;
 
     @Autowired
     private CustomQueryBuilderService customQueryBuilderService;
 
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private CatalogReadiness catalogReadiness;
+
+    @Autowired
+    @Qualifier("askExecutor")
+    private ExecutorService askExecutor;
+
+    @Value("${agent.request.timeout-ms:30000}")
+    private long requestTimeoutMillis;
 
     @PostMapping
-    public QueryResponse askAgent(@RequestBody QueryRequest request) {
-        String result = aiClient.query(request.getQuery());
-        return QueryResponse.builder()
+    public DeferredResult<QueryResponse> askAgent(@RequestBody QueryRequest request) {
+        catalogReadiness.requireReady();
+        return ask(request, result -> QueryResponse.builder()
                 .answer(result)
-                .build();
+                .build());
     }
 
     @PostMapping("/query-items")
-    public ResponseEntity<String> queryItems(@RequestBody QueryRequest request) {
-        String response = aiClient.query(request.getQuery());
-        return ResponseEntity.ok(response);
+    public DeferredResult<ResponseEntity<String>> queryItems(@RequestBody QueryRequest request) {
+        catalogReadiness.requireReady();
+        return ask(request, ResponseEntity::ok);
+    }
+
+    /**
+     * Runs the request off the servlet thread. If the client disconnects or the async request
+     * times out, the request's deadline is cancelled, which stops its database statements and
+     * tool calls instead of letting them run for nobody.
+     */
+    private <T> DeferredResult<T> ask(QueryRequest request, Function<String, T> toResponse) {
+        Deadline deadline = Deadline.after(Duration.ofMillis(requestTimeoutMillis));
+        DeferredResult<T> result = new DeferredResult<>(requestTimeoutMillis + ASYNC_TIMEOUT_MARGIN_MILLIS);
+        result.onError(ex -> deadline.cancel("disconnect"));
+        result.onTimeout(() -> deadline.cancel("timeout"));
+        try {
+            askExecutor.execute(() -> {
+                try {
+                    String answer = DeadlineContext.wrap(deadline, () -> agentService.ask(request)).call();
+                    result.setResult(toResponse.apply(answer));
+                } catch (Exception ex) {
+                    result.setErrorResult(ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many concurrent requests");
+        }
+        return result;
     }
 
     @PostMapping("/custom-query")
-    public List<ItemEntity> runCustomQuery(@RequestBody QueryParameters params) {
-        return customQueryBuilderService.runCustomQuery(params);
+    public ResponseEntity<ItemPage> runCustomQuery(@RequestBody QueryParameters params,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return customQuery(params, ifNoneMatch);
+    }
+
+    @GetMapping("/custom-query")
+    public ResponseEntity<ItemPage> getCustomQuery(@ModelAttribute QueryParameters params,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return customQuery(params, ifNoneMatch);
+    }
+
+    /**
+     * The ETag covers the catalog version and the full request, cursor included, so an unchanged
+     * catalog is answered with 304 before any query runs.
+     */
+    private ResponseEntity<ItemPage> customQuery(QueryParameters params, String ifNoneMatch) {
+        catalogReadiness.requireReady();
+        String etag = "W/\"" + catalogVersion.tag() + '-' + QueryDigest.of(params) + '"';
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        ItemPage page = customQueryBuilderService.runCustomQuery(params);
+        return ResponseEntity.ok().eTag(etag).body(page);
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = etag.substring(2);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || trimmed.equals(etag) || trimmed.equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
\ No newline at end of file
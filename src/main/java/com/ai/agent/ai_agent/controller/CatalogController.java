@@ -0,0 +1,54 @@
+package com.ai.agent.ai_agent.controller;
+
+import com.ai.agent.ai_agent.catalog.transfer.ImportReport;
+import com.ai.agent.ai_agent.catalog.transfer.TransferFormat;
+import com.ai.agent.ai_agent.service.CatalogTransferService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/catalog")
+public class CatalogController {
+
+    @Autowired
+    private CatalogTransferService catalogTransferService;
+
+    /**
+     * Streams a CSV or NDJSON catalog dump from the request body into {@code items}.
+     * Use {@code curl --data-binary @items.csv} so the file is not buffered client side.
+     */
+    @PostMapping("/import")
+    public ImportReport importItems(InputStream body,
+                                    @RequestParam(required = false) String format,
+                                    @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType) {
+        return catalogTransferService.importItems(body, TransferFormat.resolve(format, contentType));
+    }
+
+    @GetMapping("/imports")
+    public List<ImportReport> listImports() {
+        return catalogTransferService.listImports();
+    }
+
+    @GetMapping("/imports/{importId}")
+    public ResponseEntity<ImportReport> getImport(@PathVariable String importId) {
+        return ResponseEntity.of(catalogTransferService.getImport(importId));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportItems(@RequestParam(defaultValue = "csv") String format) {
+        TransferFormat transferFormat = TransferFormat.resolve(format, null);
+        StreamingResponseBody body = output -> catalogTransferService.exportItems(output, transferFormat);
+        return ResponseEntity.ok()
+                .contentType(transferFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"items." + transferFormat.name().toLowerCase(Locale.ROOT) + "\"")
+                .body(body);
+    }
+}
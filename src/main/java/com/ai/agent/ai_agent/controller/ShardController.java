@@ -0,0 +1,80 @@
+package com.ai.agent.ai_agent.controller;
+
+import com.ai.agent.ai_agent.catalog.ShardedCatalog;
+import com.ai.agent.ai_agent.catalog.shard.GroupAggregate;
+import com.ai.agent.ai_agent.catalog.shard.ItemFilter;
+import com.ai.agent.ai_agent.catalog.shard.LocalCatalogShard;
+import com.ai.agent.ai_agent.catalog.shard.RemoteCatalogShard;
+import com.ai.agent.ai_agent.catalog.shard.ShardRequest;
+import com.ai.agent.ai_agent.entity.ItemEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Node-to-node endpoints serving the catalog shards hosted by this instance. Callers must present
+ * {@code agent.catalog.shards.token}; without a configured token the endpoints refuse every call.
+ */
+@RestController
+@RequestMapping("/internal/shards")
+public class ShardController {
+
+    @Autowired
+    private ShardedCatalog shardedCatalog;
+
+    @Value("${agent.catalog.shards.token:}")
+    private String token;
+
+    @PostMapping("/{id}/filter")
+    public List<ItemEntity> filter(@PathVariable int id, @RequestBody ShardRequest request,
+                                   @RequestHeader(name = RemoteCatalogShard.TOKEN_HEADER, required = false) String presented) {
+        authorize(presented);
+        return shard(id).filter(filterOf(request), request.limit());
+    }
+
+    @PostMapping("/{id}/top-k")
+    public List<ItemEntity> topK(@PathVariable int id, @RequestBody ShardRequest request,
+                                 @RequestHeader(name = RemoteCatalogShard.TOKEN_HEADER, required = false) String presented) {
+        authorize(presented);
+        if (request.ranking() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ranking is required");
+        }
+        return shard(id).topK(request.ranking(), filterOf(request), request.limit());
+    }
+
+    @PostMapping("/{id}/aggregate")
+    public Map<String, GroupAggregate> aggregate(@PathVariable int id, @RequestBody ShardRequest request,
+                                                 @RequestHeader(name = RemoteCatalogShard.TOKEN_HEADER, required = false) String presented) {
+        authorize(presented);
+        if (request.groupBy() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "groupBy is required");
+        }
+        return shard(id).aggregate(request.groupBy(), filterOf(request));
+    }
+
+    private void authorize(String presented) {
+        if (token.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Shard endpoints are disabled on this node");
+        }
+        if (presented == null || !MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8),
+                presented.getBytes(StandardCharsets.UTF_8))) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid shard token");
+        }
+    }
+
+    private LocalCatalogShard shard(int id) {
+        return shardedCatalog.localShard(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Shard " + id + " is not hosted on this node"));
+    }
+
+    private static ItemFilter filterOf(ShardRequest request) {
+        return request.filter() != null ? request.filter() : ItemFilter.ALL;
+    }
+}
@@ -0,0 +1,25 @@
+package com.ai.agent.ai_agent.controller;
+
+import com.ai.agent.ai_agent.catalog.stock.StockMonitor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/stock")
+public class StockAlertController {
+
+    @Autowired
+    private StockMonitor stockMonitor;
+
+    /**
+     * Server-sent events for items crossing {@code threshold}: a {@code stock-alert} event with
+     * type BELOW when stock drops to the threshold or lower, RECOVERED when it rises above it.
+     */
+    @GetMapping(value = "/alerts", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestParam int threshold,
+                                @RequestParam(required = false) String category) {
+        return stockMonitor.subscribe(threshold, category);
+    }
+}
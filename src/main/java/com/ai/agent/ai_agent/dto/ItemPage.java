@@ -0,0 +1,17 @@
+package com.ai.agent.ai_agent.dto;
+
+import com.ai.agent.ai_agent.entity.ItemEntity;
+
+import java.util.List;
+
+/**
+ * One page of a custom query. {@code nextCursor} is null on the last page. When a count was
+ * requested, {@code approximateCount} is exact if {@code countExact} is true and otherwise a
+ * lower bound.
+ */
+public record ItemPage(
+        List<ItemEntity> items,
+        String nextCursor,
+        Long approximateCount,
+        Boolean countExact
+) {}
@@ -0,0 +1,7 @@
+package com.ai.agent.ai_agent.dto;
+
+public record QueryIntent(
+        String type,
+        double confidence,
+        QueryParameters params
+) {}
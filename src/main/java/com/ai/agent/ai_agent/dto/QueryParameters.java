@@ -6,7 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class QueryParameters {
@@ -20,4 +20,7 @@ public class QueryParameters {
     private String sortBy;
     private String sortOrder;
     private Integer limit;
+    // Continuation token from a previous ItemPage; only valid with the same filters and sort.
+    private String cursor;
+    private Boolean includeCount;
 }
@@ -0,0 +1,32 @@
+package com.ai.agent.ai_agent.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Units sold per item per day. The primary key (item_id, sales_date) doubles as the index for
+ * per-item date range lookups.
+ */
+@Entity
+@Table(name = "item_daily_sales")
+@IdClass(DailySalesId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailySalesEntity {
+
+    @Id
+    private String itemId;
+
+    @Id
+    private LocalDate salesDate;
+
+    @Column(nullable = false, columnDefinition = "INTEGER DEFAULT 0")
+    private int unitsSold;
+}
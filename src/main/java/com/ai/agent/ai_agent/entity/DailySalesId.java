@@ -0,0 +1,16 @@
+package com.ai.agent.ai_agent.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailySalesId implements Serializable {
+    private String itemId;
+    private LocalDate salesDate;
+}
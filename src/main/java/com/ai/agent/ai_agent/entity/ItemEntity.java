@@ -1,15 +1,29 @@
 package com.ai.agent.ai_agent.entity;
 
+import com.ai.agent.ai_agent.entity.listener.ItemEntityListener;
+import com.ai.agent.ai_agent.repository.ItemCacheRegions;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.CacheLayout;
+import org.hibernate.annotations.QueryCacheLayout;
 
 import java.time.ZonedDateTime;
 
 @Entity
 @Table(name = "items")
+@EntityListeners(ItemEntityListener.class)
+@Cacheable
+// Entries are only filled from reads and are evicted on write: the REAL columns round prices, so the
+// state written by the application is not what a load returns.
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = ItemCacheRegions.ITEMS)
+// Cached query results hold ids only; the rows are read from the entity region, so each item is cached once.
+// A hit loads items missing from that region one SELECT at a time: the region must cover the catalog.
+@QueryCacheLayout(layout = CacheLayout.SHALLOW)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
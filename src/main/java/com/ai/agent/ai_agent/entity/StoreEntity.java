@@ -0,0 +1,28 @@
+package com.ai.agent.ai_agent.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A physical store. Stores are grouped into regions for aggregated stock questions.
+ */
+@Entity
+@Table(name = "stores")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StoreEntity {
+
+    @Id
+    private String storeId;
+
+    private String name;
+    private String city;
+
+    @Column(nullable = false)
+    private String region;
+}
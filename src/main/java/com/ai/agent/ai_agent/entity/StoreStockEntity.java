@@ -0,0 +1,32 @@
+package com.ai.agent.ai_agent.entity;
+
+import com.ai.agent.ai_agent.entity.listener.StoreStockEntityListener;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Units of an item on hand at one store. A row exists only for stores that carry the item, so a
+ * zero quantity means out of stock there, and no row means the store does not stock it at all.
+ */
+@Entity
+@Table(name = "store_stock")
+@IdClass(StoreStockId.class)
+@EntityListeners(StoreStockEntityListener.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StoreStockEntity {
+
+    @Id
+    private String itemId;
+
+    @Id
+    private String storeId;
+
+    @Column(nullable = false, columnDefinition = "INTEGER DEFAULT 0")
+    private int quantity;
+}
@@ -0,0 +1,15 @@
+package com.ai.agent.ai_agent.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoreStockId implements Serializable {
+    private String itemId;
+    private String storeId;
+}
@@ -0,0 +1,32 @@
+package com.ai.agent.ai_agent.entity.listener;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Publishes entity change events once the write is committed. JPA callbacks run at flush time,
+ * before commit, so publishing from them directly would let listeners record rolled-back writes
+ * and see state no other reader can see yet. Writes outside a transaction publish immediately.
+ */
+class AfterCommitPublisher {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    AfterCommitPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    void publish(Object event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eventPublisher.publishEvent(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eventPublisher.publishEvent(event);
+            }
+        });
+    }
+}
@@ -0,0 +1,38 @@
+package com.ai.agent.ai_agent.entity.listener;
+
+import com.ai.agent.ai_agent.entity.ItemEntity;
+import com.ai.agent.ai_agent.event.ItemChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns JPA writes on {@link ItemEntity} into {@link ItemChangedEvent}s, which is the change feed
+ * the in-memory catalog structures listen to. Events go out after the write commits.
+ */
+@Component
+public class ItemEntityListener {
+
+    private final AfterCommitPublisher eventPublisher;
+
+    public ItemEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = new AfterCommitPublisher(eventPublisher);
+    }
+
+    @PostPersist
+    public void onPersist(ItemEntity item) {
+        eventPublisher.publish(new ItemChangedEvent(ItemChangedEvent.ChangeType.CREATED, item));
+    }
+
+    @PostUpdate
+    public void onUpdate(ItemEntity item) {
+        eventPublisher.publish(new ItemChangedEvent(ItemChangedEvent.ChangeType.UPDATED, item));
+    }
+
+    @PostRemove
+    public void onRemove(ItemEntity item) {
+        eventPublisher.publish(new ItemChangedEvent(ItemChangedEvent.ChangeType.DELETED, item));
+    }
+}
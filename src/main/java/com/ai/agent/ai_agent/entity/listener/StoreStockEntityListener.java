@@ -0,0 +1,43 @@
+package com.ai.agent.ai_agent.entity.listener;
+
+import com.ai.agent.ai_agent.entity.StoreStockEntity;
+import com.ai.agent.ai_agent.event.ItemChangedEvent;
+import com.ai.agent.ai_agent.event.StoreStockChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns JPA writes on {@link StoreStockEntity} into {@link StoreStockChangedEvent}s for the
+ * in-memory stock matrix. Events go out after the write commits.
+ */
+@Component
+public class StoreStockEntityListener {
+
+    private final AfterCommitPublisher eventPublisher;
+
+    public StoreStockEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = new AfterCommitPublisher(eventPublisher);
+    }
+
+    @PostPersist
+    public void onPersist(StoreStockEntity stock) {
+        publish(ItemChangedEvent.ChangeType.CREATED, stock);
+    }
+
+    @PostUpdate
+    public void onUpdate(StoreStockEntity stock) {
+        publish(ItemChangedEvent.ChangeType.UPDATED, stock);
+    }
+
+    @PostRemove
+    public void onRemove(StoreStockEntity stock) {
+        publish(ItemChangedEvent.ChangeType.DELETED, stock);
+    }
+
+    private void publish(ItemChangedEvent.ChangeType type, StoreStockEntity stock) {
+        eventPublisher.publish(new StoreStockChangedEvent(type, stock.getItemId(), stock.getStoreId(), stock.getQuantity()));
+    }
+}
@@ -0,0 +1,10 @@
+package com.ai.agent.ai_agent.event;
+
+/**
+ * Published after rows were written to {@code items} outside JPA (bulk import), where no
+ * per-item {@link ItemChangedEvent}s are raised. Listeners should rebuild from the database.
+ */
+public record CatalogBulkLoadedEvent(
+        String source,
+        long rowsWritten
+) {}
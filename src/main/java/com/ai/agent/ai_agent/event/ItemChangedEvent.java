@@ -0,0 +1,14 @@
+package com.ai.agent.ai_agent.event;
+
+import com.ai.agent.ai_agent.entity.ItemEntity;
+
+public record ItemChangedEvent(
+        ChangeType type,
+        ItemEntity item
+) {
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
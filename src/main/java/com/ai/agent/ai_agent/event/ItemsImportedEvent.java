@@ -0,0 +1,12 @@
+package com.ai.agent.ai_agent.event;
+
+import java.util.List;
+
+/**
+ * Published after each committed batch of a bulk import, with the ids of the rows it wrote.
+ * Lets in-memory views refresh just those items instead of rebuilding from the database.
+ */
+public record ItemsImportedEvent(
+        String importId,
+        List<String> itemIds
+) {}
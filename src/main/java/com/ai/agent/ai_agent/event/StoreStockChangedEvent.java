@@ -0,0 +1,9 @@
+package com.ai.agent.ai_agent.event;
+
+public record StoreStockChangedEvent(
+        ItemChangedEvent.ChangeType type,
+        String itemId,
+        String storeId,
+        int quantity
+) {
+}
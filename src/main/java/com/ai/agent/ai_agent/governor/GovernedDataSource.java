@@ -0,0 +1,154 @@
+package com.ai.agent.ai_agent.governor;
+
+import com.ai.agent.ai_agent.utils.Deadline;
+import com.ai.agent.ai_agent.utils.DeadlineContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Optional;
+
+/**
+ * Applies the current request's deadline to every JDBC statement: the query timeout is set to
+ * the time the request has left, and cancelling the request's deadline calls
+ * {@link Statement#cancel()} on statements that are still running. Statements created outside a
+ * request are left alone.
+ */
+public class GovernedDataSource extends DelegatingDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(GovernedDataSource.class);
+
+    // Resolved on first use: the data source is created long before the metrics the governor needs.
+    private final ObjectProvider<QueryGovernor> governor;
+
+    public GovernedDataSource(DataSource target, ObjectProvider<QueryGovernor> governor) {
+        super(target);
+        this.governor = governor;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return governed(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return governed(super.getConnection(username, password));
+    }
+
+    private Connection governed(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        // Identity semantics for the proxy itself; Hibernate keeps statements in hash maps.
+        if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+            return args[0] == null ? false : Proxy.isProxyClass(args[0].getClass())
+                    ? Proxy.getInvocationHandler(args[0]) instanceof Handler handler && handler.target() == target
+                    : target.equals(args[0]);
+        }
+        if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+            return System.identityHashCode(target);
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private interface Handler extends InvocationHandler {
+        Object target();
+    }
+
+    private final class ConnectionHandler implements Handler {
+
+        private final Connection target;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object target() {
+            return target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Class<?> statementType = switch (method.getName()) {
+                case "createStatement" -> Statement.class;
+                case "prepareStatement" -> PreparedStatement.class;
+                case "prepareCall" -> CallableStatement.class;
+                default -> null;
+            };
+            if (statementType == null) {
+                return GovernedDataSource.invoke(target, method, args);
+            }
+            Optional<Deadline> deadline = DeadlineContext.current();
+            if (deadline.isEmpty()) {
+                return GovernedDataSource.invoke(target, method, args);
+            }
+            if (deadline.get().isExpired()) {
+                throw new SQLTimeoutException("Request " + (deadline.get().isCancelled() ? "cancelled" : "deadline exceeded")
+                        + " before the statement was issued");
+            }
+            Statement statement = (Statement) GovernedDataSource.invoke(target, method, args);
+            statement.setQueryTimeout(governor.getObject().statementTimeoutSeconds());
+            StatementHandler handler = new StatementHandler(statement, deadline.get());
+            return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{statementType}, handler);
+        }
+    }
+
+    private final class StatementHandler implements Handler {
+
+        private final Statement target;
+        private final Deadline deadline;
+        private final Runnable unregister;
+
+        private StatementHandler(Statement target, Deadline deadline) {
+            this.target = target;
+            this.deadline = deadline;
+            this.unregister = deadline.onCancel(this::cancel);
+        }
+
+        @Override
+        public Object target() {
+            return target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("close")) {
+                unregister.run();
+            }
+            try {
+                return GovernedDataSource.invoke(target, method, args);
+            } catch (SQLTimeoutException ex) {
+                governor.getObject().recordStatementAborted(deadline.isCancelled());
+                throw ex;
+            }
+        }
+
+        private void cancel() {
+            try {
+                target.cancel();
+            } catch (SQLException ex) {
+                logger.debug("Could not cancel statement", ex);
+            }
+        }
+    }
+}
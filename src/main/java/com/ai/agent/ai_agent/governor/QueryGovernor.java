@@ -0,0 +1,119 @@
+package com.ai.agent.ai_agent.governor;
+
+import com.ai.agent.ai_agent.utils.Deadline;
+import com.ai.agent.ai_agent.utils.DeadlineContext;
+import com.ai.agent.ai_agent.utils.QueryBudget;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Per-request limits on catalog reads. Every /ask request gets a {@link QueryBudget} of rows and
+ * tool-result bytes, carried on its {@link Deadline}; reads made on behalf of the request are cut
+ * off once the budget is spent, and JDBC statements are bounded by the remaining time (see
+ * {@link GovernedDataSource}). Work outside a request (imports, exports, seeding) is not governed.
+ */
+@Component
+public class QueryGovernor {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryGovernor.class);
+
+    private final MeterRegistry meterRegistry;
+    private final long maxRows;
+    private final long maxResultBytes;
+    private final long statementTimeoutMillis;
+
+    public QueryGovernor(MeterRegistry meterRegistry,
+                         @Value("${agent.governor.max-rows:1000}") long maxRows,
+                         @Value("${agent.governor.max-result-bytes:32768}") long maxResultBytes,
+                         @Value("${agent.governor.statement-timeout-ms:10000}") long statementTimeoutMillis) {
+        this.meterRegistry = meterRegistry;
+        this.maxRows = maxRows;
+        this.maxResultBytes = maxResultBytes;
+        this.statementTimeoutMillis = statementTimeoutMillis;
+    }
+
+    public QueryBudget newBudget() {
+        return new QueryBudget(maxRows, maxResultBytes);
+    }
+
+    /**
+     * How many rows to fetch for a read that wants {@code requested}: at most one more than the
+     * budget has left, so {@link #admitRows} can tell whether the budget cut the result short.
+     */
+    public int fetchLimit(int requested) {
+        return budget()
+                .map(budget -> (int) Math.min(requested, Math.min(Integer.MAX_VALUE - 1, budget.remainingRows()) + 1))
+                .orElse(requested);
+    }
+
+    /**
+     * Charges {@code rows} to the current request and drops whatever does not fit.
+     */
+    public <T> List<T> admitRows(String operation, List<T> rows) {
+        Optional<QueryBudget> budget = budget();
+        if (budget.isEmpty() || rows.isEmpty()) {
+            return rows;
+        }
+        int granted = (int) budget.get().takeRows(rows.size());
+        if (granted == rows.size()) {
+            return rows;
+        }
+        meterRegistry.counter("agent.governor.throttled", "resource", "rows").increment();
+        logger.warn("Row budget exhausted in {}: returning {} of {} rows", operation, granted, rows.size());
+        return rows.subList(0, granted);
+    }
+
+    /**
+     * Charges a tool result to the current request's byte budget, truncating it if needed.
+     */
+    public String admitResult(String toolName, String result) {
+        Optional<QueryBudget> budget = budget();
+        if (budget.isEmpty() || result == null) {
+            return result;
+        }
+        byte[] bytes = result.getBytes(StandardCharsets.UTF_8);
+        int granted = (int) budget.get().takeBytes(bytes.length);
+        if (granted == bytes.length) {
+            return result;
+        }
+        meterRegistry.counter("agent.governor.throttled", "resource", "bytes").increment();
+        logger.warn("Result budget exhausted by tool {}: returning {} of {} bytes", toolName, granted, bytes.length);
+        // Cut before a character that does not fit whole rather than leave half of it behind.
+        int end = granted;
+        while (end > 0 && (bytes[end] & 0xC0) == 0x80) {
+            end--;
+        }
+        String truncated = new String(bytes, 0, end, StandardCharsets.UTF_8);
+        return truncated + "\n[Result truncated: the request's result budget of " + maxResultBytes
+                + " bytes is used up. Narrow the query or ask for fewer items.]";
+    }
+
+    /**
+     * Statement timeout for a statement issued now, in whole seconds as JDBC requires, or 0 when
+     * the current thread is not working on a request.
+     */
+    int statementTimeoutSeconds() {
+        return DeadlineContext.current()
+                .map(deadline -> (int) Math.max(1, (Math.min(deadline.remainingMillis(), statementTimeoutMillis) + 999) / 1000))
+                .orElse(0);
+    }
+
+    public void recordCancelled(String reason) {
+        meterRegistry.counter("agent.governor.cancelled", "reason", reason).increment();
+    }
+
+    void recordStatementAborted(boolean cancelled) {
+        meterRegistry.counter("agent.governor.statements.aborted", "cause", cancelled ? "cancelled" : "timeout").increment();
+    }
+
+    private static Optional<QueryBudget> budget() {
+        return DeadlineContext.current().flatMap(Deadline::budget);
+    }
+}
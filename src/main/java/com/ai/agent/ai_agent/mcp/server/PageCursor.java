@@ -0,0 +1,38 @@
+package com.ai.agent.ai_agent.mcp.server;
+
+import com.ai.agent.ai_agent.utils.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of one page within a stored tool result. Encoded as an opaque URL-safe token that is
+ * also the last segment of the page's resource URI.
+ */
+public record PageCursor(String resultId, int page) {
+
+    private static final String VERSION = "p1";
+
+    public String encode() {
+        String raw = String.join("|", VERSION, resultId, Integer.toString(page));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String token) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        String[] parts = raw.split("\\|");
+        if (parts.length != 3 || !VERSION.equals(parts[0])) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        try {
+            return new PageCursor(parts[1], Integer.parseInt(parts[2]));
+        } catch (NumberFormatException ex) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+    }
+}
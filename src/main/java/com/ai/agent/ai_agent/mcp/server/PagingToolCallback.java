@@ -0,0 +1,65 @@
+package com.ai.agent.ai_agent.mcp.server;
+
+import com.ai.agent.ai_agent.governor.QueryGovernor;
+import com.ai.agent.ai_agent.utils.Deadline;
+import com.ai.agent.ai_agent.utils.DeadlineContext;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+import org.springframework.ai.util.json.JsonParser;
+
+import java.time.Duration;
+
+/**
+ * Runs a tool for an MCP client: the call gets its own deadline and query budget, since there is
+ * no /ask request around it, and results larger than a page are handed back one page at a time. String results
+ * come back from the tool as JSON string literals; they are unquoted so clients get plain text
+ * and pages can be cut at line breaks.
+ */
+public class PagingToolCallback implements ToolCallback {
+
+    private final ToolCallback delegate;
+    private final ToolResultPages pages;
+    private final QueryGovernor governor;
+    private final Duration timeout;
+
+    public PagingToolCallback(ToolCallback delegate, ToolResultPages pages, QueryGovernor governor, Duration timeout) {
+        this.delegate = delegate;
+        this.pages = pages;
+        this.governor = governor;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return delegate.getToolDefinition();
+    }
+
+    @Override
+    public ToolMetadata getToolMetadata() {
+        return delegate.getToolMetadata();
+    }
+
+    @Override
+    public String call(String toolInput) {
+        return call(toolInput, null);
+    }
+
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        String result;
+        try {
+            Deadline deadline = Deadline.after(timeout).withBudget(governor.newBudget());
+            result = DeadlineContext.wrap(deadline, () -> delegate.call(toolInput, toolContext)).call();
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new RuntimeException("Failed to run tool " + getToolDefinition().name(), ex);
+        }
+        if (result != null && result.startsWith("\"")) {
+            result = JsonParser.fromJson(result, String.class);
+        }
+        return pages.firstPage(getToolDefinition().name(), result);
+    }
+}
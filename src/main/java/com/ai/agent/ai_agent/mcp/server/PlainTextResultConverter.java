@@ -0,0 +1,16 @@
+package com.ai.agent.ai_agent.mcp.server;
+
+import org.springframework.ai.tool.execution.ToolCallResultConverter;
+
+import java.lang.reflect.Type;
+
+/**
+ * Returns a String tool result as is rather than as a JSON string literal.
+ */
+public class PlainTextResultConverter implements ToolCallResultConverter {
+
+    @Override
+    public String convert(Object result, Type returnType) {
+        return result == null ? "" : result.toString();
+    }
+}
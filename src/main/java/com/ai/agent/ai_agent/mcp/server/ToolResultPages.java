@@ -0,0 +1,199 @@
+package com.ai.agent.ai_agent.mcp.server;
+
+import com.ai.agent.ai_agent.utils.InvalidCursorException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tool results too large for one MCP response. The result is split into pages on line boundaries;
+ * the caller gets the first page right away and the rest stay here, reachable by cursor through
+ * the {@code nextResultPage} tool or as resources under {@link #URI_PREFIX}. Results are dropped
+ * oldest first once they expire, max-results is reached or they hold more than max-stored-bytes.
+ */
+@Component
+public class ToolResultPages {
+
+    public static final String URI_PREFIX = "retail://tool-results/";
+
+    private static final Logger logger = LoggerFactory.getLogger(ToolResultPages.class);
+
+    private final int pageChars;
+    private final int maxResults;
+    private final long maxStoredBytes;
+    private final long ttlNanos;
+
+    // Guarded by results; insertion order is creation order, so expired results are at the head.
+    private final Map<String, PagedResult> results = new LinkedHashMap<>();
+    private long storedBytes;
+
+    private final Counter pagedResults;
+    private final Counter toolPages;
+    private final Counter resourcePages;
+    private final Counter expiredCursors;
+
+    public ToolResultPages(MeterRegistry meterRegistry,
+                           @Value("${agent.mcp.page-chars:8000}") int pageChars,
+                           @Value("${agent.mcp.max-results:500}") int maxResults,
+                           @Value("${agent.mcp.max-stored-bytes:33554432}") long maxStoredBytes,
+                           @Value("${agent.mcp.result-ttl-ms:900000}") long ttlMillis) {
+        this.pageChars = Math.max(256, pageChars);
+        this.maxResults = Math.max(1, maxResults);
+        this.maxStoredBytes = maxStoredBytes;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.pagedResults = meterRegistry.counter("agent.mcp.results.paged");
+        this.toolPages = meterRegistry.counter("agent.mcp.pages.served", "via", "tool");
+        this.resourcePages = meterRegistry.counter("agent.mcp.pages.served", "via", "resource");
+        this.expiredCursors = meterRegistry.counter("agent.mcp.cursors.expired");
+        Gauge.builder("agent.mcp.results.stored", this, ToolResultPages::storedCount)
+                .register(meterRegistry);
+        Gauge.builder("agent.mcp.results.memory", this, ToolResultPages::storedBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns {@code result} unchanged when it fits in one page; otherwise stores it and returns
+     * its first page, ending with the cursor of the next one.
+     */
+    public String firstPage(String toolName, String result) {
+        if (result == null || result.length() <= pageChars) {
+            return result;
+        }
+        List<String> pages = split(result, pageChars);
+        String resultId = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+        PagedResult paged = new PagedResult(toolName, pages, System.nanoTime(), bytes(result));
+        if (paged.bytes() > maxStoredBytes) {
+            logger.warn("{} result of {} chars is too large to keep; returning its first page only", toolName, result.length());
+            return pages.get(0) + "\n\n[Result truncated: the rest of this " + toolName
+                    + " result is too large to keep. Narrow the query to see more.]";
+        }
+        synchronized (results) {
+            evict(paged.createdAt(), paged.bytes());
+            results.put(resultId, paged);
+            storedBytes += paged.bytes();
+        }
+        pagedResults.increment();
+        logger.info("Paged {} result of {} chars into {} pages (result {})", toolName, result.length(), pages.size(), resultId);
+        return render(resultId, paged, 0);
+    }
+
+    public String pageForTool(String cursor) {
+        String page = page(cursor);
+        toolPages.increment();
+        return page;
+    }
+
+    public String pageForResource(String uri) {
+        if (uri == null || !uri.startsWith(URI_PREFIX)) {
+            throw new InvalidCursorException("Unknown resource: " + uri);
+        }
+        String page = page(uri.substring(URI_PREFIX.length()));
+        resourcePages.increment();
+        return page;
+    }
+
+    public int storedCount() {
+        synchronized (results) {
+            return results.size();
+        }
+    }
+
+    public long storedBytes() {
+        synchronized (results) {
+            return storedBytes;
+        }
+    }
+
+    private String page(String token) {
+        PageCursor cursor = PageCursor.decode(token);
+        PagedResult paged;
+        synchronized (results) {
+            evict(System.nanoTime(), 0);
+            paged = results.get(cursor.resultId());
+        }
+        if (paged == null) {
+            expiredCursors.increment();
+            throw new InvalidCursorException("This result has expired; run the original tool again");
+        }
+        if (cursor.page() < 0 || cursor.page() >= paged.pages().size()) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        return render(cursor.resultId(), paged, cursor.page());
+    }
+
+    /**
+     * Drops expired results, then the oldest ones until there is room for one more result of
+     * {@code incomingBytes}.
+     */
+    private void evict(long now, long incomingBytes) {
+        Iterator<PagedResult> iterator = results.values().iterator();
+        while (iterator.hasNext()) {
+            PagedResult oldest = iterator.next();
+            if (results.size() < maxResults && storedBytes + incomingBytes <= maxStoredBytes
+                    && now - oldest.createdAt() < ttlNanos) {
+                return;
+            }
+            iterator.remove();
+            storedBytes -= oldest.bytes();
+        }
+    }
+
+    // Upper bound: a string holds at most two bytes per char.
+    private static long bytes(String result) {
+        return 2L * result.length();
+    }
+
+    private static String render(String resultId, PagedResult paged, int page) {
+        int pageCount = paged.pages().size();
+        StringBuilder out = new StringBuilder(paged.pages().get(page).length() + 200)
+                .append(paged.pages().get(page));
+        out.append("\n\n[Page ").append(page + 1).append(" of ").append(pageCount)
+                .append(" of the ").append(paged.toolName()).append(" result.");
+        if (page + 1 < pageCount) {
+            String next = new PageCursor(resultId, page + 1).encode();
+            out.append(" Next page: call nextResultPage with cursor \"").append(next)
+                    .append("\" or read resource ").append(URI_PREFIX).append(next).append(']');
+        } else {
+            out.append(" End of result.]");
+        }
+        return out.toString();
+    }
+
+    /**
+     * Splits {@code text} into pages of at most {@code pageChars}, cutting after the last line
+     * break that fits so rows are not split across pages.
+     */
+    static List<String> split(String text, int pageChars) {
+        List<String> pages = new ArrayList<>();
+        int start = 0;
+        while (start < text.length()) {
+            int end = Math.min(text.length(), start + pageChars);
+            if (end < text.length()) {
+                int lineEnd = text.lastIndexOf('\n', end - 1);
+                if (lineEnd > start) {
+                    end = lineEnd + 1;
+                } else if (Character.isHighSurrogate(text.charAt(end - 1))) {
+                    end--;
+                }
+            }
+            pages.add(text.substring(start, end));
+            start = end;
+        }
+        return pages;
+    }
+
+    private record PagedResult(String toolName, List<String> pages, long createdAt, long bytes) {}
+}
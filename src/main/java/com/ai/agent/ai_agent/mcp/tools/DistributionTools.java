@@ -0,0 +1,108 @@
+package com.ai.agent.ai_agent.mcp.tools;
+
+import com.ai.agent.ai_agent.catalog.sketch.CatalogSketches;
+import com.ai.agent.ai_agent.catalog.sketch.DistinctCount;
+import com.ai.agent.ai_agent.catalog.sketch.SketchMetric;
+import com.ai.agent.ai_agent.mcp.tools.utils.ItemSummaryHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Distribution questions answered from the catalog sketches instead of scanning or listing items.
+ */
+@Component
+public class DistributionTools {
+
+    private static final Logger logger = LoggerFactory.getLogger(DistributionTools.class);
+    private static final List<Double> DEFAULT_PERCENTILES = List.of(0.1, 0.25, 0.5, 0.75, 0.9, 0.99);
+    private static final int DEFAULT_BUCKETS = 8;
+    private static final int MAX_BUCKETS = 50;
+    private static final int MAX_BRANDS = 32;
+
+    private final CatalogSketches sketches;
+
+    public DistributionTools(CatalogSketches sketches) {
+        this.sketches = sketches;
+    }
+
+    @Tool(name = "metricDistribution", description = "Percentiles (median, quartiles, P90, ...) and a histogram of store price, average rating, discount percent or margin percent across the whole catalog, one category or one brand. Approximate, with the rank error stated.")
+    public String metricDistribution(
+            @ToolParam(description = "Metric: price, rating, discount or margin") String metric,
+            @ToolParam(description = "Category to restrict to; leave empty for all categories", required = false) String category,
+            @ToolParam(description = "Brand to restrict to; leave empty for all brands. Use either category or brand, not both.", required = false) String brand,
+            @ToolParam(description = "Percentiles to report, from 0 to 100 (e.g. 50 for the median); defaults to 10, 25, 50, 75, 90, 99", required = false) List<Double> percentiles,
+            @ToolParam(description = "Number of histogram buckets; defaults to 8", required = false) Integer buckets
+    ) {
+        logger.info("Computing {} distribution for category: {}, brand: {}", metric, category, brand);
+        try {
+            List<Double> fractions = percentiles == null || percentiles.isEmpty() ? DEFAULT_PERCENTILES
+                    : percentiles.stream().map(percent -> Math.max(0, Math.min(100, percent)) / 100.0).toList();
+            int bucketCount = buckets == null || buckets <= 0 ? DEFAULT_BUCKETS : Math.min(buckets, MAX_BUCKETS);
+            return ItemSummaryHelper.summarizeDistribution(
+                    sketches.distribution(SketchMetric.from(metric), category, brand, fractions, bucketCount));
+        } catch (IllegalArgumentException ex) {
+            return ex.getMessage();
+        } catch (Exception ex) {
+            logger.error("Error computing {} distribution", metric, ex);
+            throw new RuntimeException("Failed to compute distribution", ex);
+        }
+    }
+
+    @Tool(name = "percentileRank", description = "Share of items whose store price, average rating, discount percent or margin percent is at or below a value, across the whole catalog, one category or one brand (e.g. what share of Electronics costs under $50)")
+    public String percentileRank(
+            @ToolParam(description = "Metric: price, rating, discount or margin") String metric,
+            @ToolParam(description = "Value to rank") double value,
+            @ToolParam(description = "Category to restrict to; leave empty for all categories", required = false) String category,
+            @ToolParam(description = "Brand to restrict to; leave empty for all brands. Use either category or brand, not both.", required = false) String brand
+    ) {
+        logger.info("Computing percentile rank of {} {} for category: {}, brand: {}", metric, value, category, brand);
+        try {
+            return ItemSummaryHelper.summarizePercentileRank(
+                    sketches.percentileRank(SketchMetric.from(metric), category, brand, value));
+        } catch (IllegalArgumentException ex) {
+            return ex.getMessage();
+        } catch (Exception ex) {
+            logger.error("Error computing percentile rank of {} {}", metric, value, ex);
+            throw new RuntimeException("Failed to compute percentile rank", ex);
+        }
+    }
+
+    @Tool(name = "distinctBrandCount", description = "Approximate number of distinct brands in a category or in the whole catalog")
+    public String distinctBrandCount(
+            @ToolParam(description = "Category; leave empty for the whole catalog", required = false) String category
+    ) {
+        logger.info("Counting distinct brands for category: {}", category);
+        try {
+            DistinctCount count = sketches.distinctBrands(category);
+            return ItemSummaryHelper.summarizeDistinctCount(count);
+        } catch (IllegalArgumentException ex) {
+            return ex.getMessage();
+        } catch (Exception ex) {
+            logger.error("Error counting distinct brands for category: {}", category, ex);
+            throw new RuntimeException("Failed to count distinct brands", ex);
+        }
+    }
+
+    @Tool(name = "topBrandsByUnitsSold", description = "Brands selling the most units in a category or in the whole catalog")
+    public String topBrandsByUnitsSold(
+            @ToolParam(description = "Category; leave empty for the whole catalog", required = false) String category,
+            @ToolParam(description = "Number of brands to return; at most 32", required = false) Integer limit
+    ) {
+        logger.info("Finding top brands by units sold for category: {}", category);
+        try {
+            int count = limit == null || limit <= 0 ? 10 : Math.min(limit, MAX_BRANDS);
+            String scope = category == null || category.isBlank() ? "all items" : category.trim();
+            return ItemSummaryHelper.summarizeHeavyHitters(scope, sketches.topBrandsByUnitsSold(category, count));
+        } catch (IllegalArgumentException ex) {
+            return ex.getMessage();
+        } catch (Exception ex) {
+            logger.error("Error finding top brands for category: {}", category, ex);
+            throw new RuntimeException("Failed to find top brands by units sold", ex);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.ai.agent.ai_agent.mcp.tools;
+
+import com.ai.agent.ai_agent.catalog.history.FieldChange;
+import com.ai.agent.ai_agent.catalog.history.HistoryField;
+import com.ai.agent.ai_agent.catalog.history.ItemAsOf;
+import com.ai.agent.ai_agent.catalog.history.ItemChangeLog;
+import com.ai.agent.ai_agent.catalog.history.ItemMovement;
+import com.ai.agent.ai_agent.entity.ItemEntity;
+import com.ai.agent.ai_agent.mcp.tools.utils.ItemSummaryHelper;
+import com.ai.agent.ai_agent.repository.ItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Historical price, discount and stock questions answered from the {@link ItemChangeLog}.
+ */
+@Component
+public class HistoryTools {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoryTools.class);
+    private static final Duration DEFAULT_PERIOD = Duration.ofDays(7);
+    private static final int MAX_CHANGES = 100;
+    private static final int MAX_MOVERS = 10;
+
+    private final ItemChangeLog changeLog;
+    private final ItemRepository itemRepository;
+
+    public HistoryTools(ItemChangeLog changeLog, ItemRepository itemRepository) {
+        this.changeLog = changeLog;
+        this.itemRepository = itemRepository;
+    }
+
+    @Tool(name = "itemValuesAsOf", description = "Store price, e-commerce price, discount and stock of an item as they were at a past date or time (e.g. what was the price last Tuesday)")
+    public String itemValuesAsOf(
+            @ToolParam(description = "Item ID") String itemId,
+            @ToolParam(description = "Date (yyyy-MM-dd, meaning the end of that day), date-time (yyyy-MM-ddTHH:mm) or a time ago such as 3d, 12h or 30m") String asOf
+    ) {
+        logger.info("Reading item {} as of {}", itemId, asOf);
+        try {
+            Instant at = parseTime(asOf, true);
+            Optional<ItemAsOf> values = changeLog.asOf(itemId.trim(), at);
+            if (values.isEmpty()) {
+                return "No history for item " + itemId + ".";
+            }
+            return ItemSummaryHelper.summarizeItemAsOf(itemName(itemId.trim()), values.get(), changeLog.foldedBefore());
+        } catch (IllegalArgumentException ex) {
+            return ex.getMessage();
+        } catch (Exception ex) {
+            logger.error("Error reading item {} as of {}", itemId, asOf, ex);
+            throw new RuntimeException("Failed to read item history", ex);
+        }
+    }
+
+    @Tool(name = "itemFieldHistory", description = "Changes to an item's store price, e-commerce price, discount or stock over a period, oldest first, with the trend (start, end, low, high)")
+    public String itemFieldHistory(
+            @ToolParam(description = "Item ID") String itemId,
+            @ToolParam(description = "Field: store_price, ecom_price, discount or stock") String field,
+            @ToolParam(description = "Start: date (yyyy-MM-dd), date-time or a time ago such as 7d; defaults to 7 days ago", required = false) String from,
+            @ToolParam(description = "End: date (yyyy-MM-dd, meaning the end of that day), date-time or a time ago; defaults to now", required = false) String to
+    ) {
+        logger.info("Reading {} history of item {} from {} to {}", field, itemId, from, to);
+        try {
+            HistoryField historyField = HistoryField.from(field);
+            Instant end = to == null || to.isBlank() ? Instant.now() : parseTime(to, true);
+            Instant start = from == null || from.isBlank() ? end.minus(DEFAULT_PERIOD) : parseTime(from, false);
+            List<FieldChange> changes = changeLog.changes(itemId.trim(), historyField, start, end);
+            Optional<Double> startValue = changeLog.asOf(itemId.trim(), start)
+                    .map(values -> values.values().get(historyField));
+            return ItemSummaryHelper.summarizeFieldHistory(itemName(itemId.trim()), historyField, start, end,
+                    startValue.orElse(null), changes, MAX_CHANGES);
+        } catch (IllegalArgumentException ex) {
+            return ex.getMessage();
+        } catch (Exception ex) {
+            logger.error("Error reading {} history of item {}", field, itemId, ex);
+            throw new RuntimeException("Failed to read item history", ex);
+        }
+    }
+
+    @Tool(name = "categoryFieldMovement", description = "How store price, e-commerce price, discount or stock moved across a category between two dates: items changed, average change and the biggest increases and decreases")
+    public String categoryFieldMovement(
+            @ToolParam(description = "Category") String category,
+            @ToolParam(description = "Field: store_price, ecom_price, discount or stock") String field,
+            @ToolParam(description = "Start: date (yyyy-MM-dd), date-time or a time ago such as 7d; defaults to 7 days ago", required = false) String from,
+            @ToolParam(description = "End: date (yyyy-MM-dd, meaning the end of that day), date-time or a time ago; defaults to now", required = false) String to
+    ) {
+        logger.info("Reading {} movement in category {} from {} to {}", field, category, from, to);
+        try {
+            HistoryField historyField = HistoryField.from(field);
+            Instant end = to == null || to.isBlank() ? Instant.now() : parseTime(to, true);
+            Instant start = from == null || from.isBlank() ? end.minus(DEFAULT_PERIOD) : parseTime(from, false);
+            List<ItemMovement> movements = changeLog.categoryMovement(category.trim(), historyField, start, end);
+            List<String> moverIds = ItemSummaryHelper.topMovers(movements, MAX_MOVERS).stream().map(ItemMovement::itemId).toList();
+            Map<String, String> names = itemRepository.findAllById(moverIds).stream()
+                    .collect(Collectors.toMap(ItemEntity::getItemId, ItemEntity::getItemName));
+            return ItemSummaryHelper.summarizeCategoryMovement(category.trim(), historyField, start, end, movements, names, MAX_MOVERS);
+        } catch (IllegalArgumentException ex) {
+            return ex.getMessage();
+        } catch (Exception ex) {
+            logger.error("Error reading {} movement in category {}", field, category, ex);
+            throw new RuntimeException("Failed to read category history", ex);
+        }
+    }
+
+    private String itemName(String itemId) {
+        return itemRepository.findById(itemId)
+                .map(item -> item.getItemName() + " (" + itemId + ")")
+                .orElse(itemId);
+    }
+
+    /**
+     * Parses a date, date-time, ISO instant or a time ago such as {@code 3d}, {@code 12h} or
+     * {@code 30m}. A bare date is the start of the day, or its end when {@code endOfDay}.
+     */
+    static Instant parseTime(String value, boolean endOfDay) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("A date or time is required.");
+        }
+        String text = value.trim().toLowerCase(Locale.ROOT);
+        if (text.equals("now")) {
+            return Instant.now();
+        }
+        if (text.matches("\\d+[dhm]")) {
+            long amount = Long.parseLong(text.substring(0, text.length() - 1));
+            Duration ago = switch (text.charAt(text.length() - 1)) {
+                case 'd' -> Duration.ofDays(amount);
+                case 'h' -> Duration.ofHours(amount);
+                default -> Duration.ofMinutes(amount);
+            };
+            return Instant.now().minus(ago);
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        try {
+            if (text.length() == 10) {
+                LocalDate date = LocalDate.parse(text);
+                return endOfDay ? date.plusDays(1).atStartOfDay(zone).toInstant().minusMillis(1) : date.atStartOfDay(zone).toInstant();
+            }
+            if (text.endsWith("z")) {
+                return Instant.parse(value.trim());
+            }
+            return LocalDateTime.parse(value.trim()).atZone(zone).toInstant();
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Unrecognized date or time: " + value
+                    + ". Use yyyy-MM-dd, yyyy-MM-ddTHH:mm or a time ago such as 7d.");
+        }
+    }
+}
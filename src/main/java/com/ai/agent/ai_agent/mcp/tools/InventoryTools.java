@@ -1,8 +1,22 @@
 package com.ai.agent.ai_agent.mcp.tools;
 
+import com.ai.agent.ai_agent.catalog.ShardedCatalog;
+import com.ai.agent.ai_agent.catalog.location.LocationScope;
+import com.ai.agent.ai_agent.catalog.location.LocationTotals;
+import com.ai.agent.ai_agent.catalog.location.StockMatrix;
+import com.ai.agent.ai_agent.catalog.location.StoreInventory;
+import com.ai.agent.ai_agent.catalog.shard.GroupAggregate;
+import com.ai.agent.ai_agent.catalog.shard.GroupBy;
+import com.ai.agent.ai_agent.catalog.shard.ItemFilter;
+import com.ai.agent.ai_agent.catalog.shard.Ranking;
+import com.ai.agent.ai_agent.catalog.stock.StockLevel;
+import com.ai.agent.ai_agent.catalog.stock.StockMonitor;
 import com.ai.agent.ai_agent.dto.QueryParameters;
 import com.ai.agent.ai_agent.entity.ItemEntity;
+import com.ai.agent.ai_agent.governor.QueryGovernor;
 import com.ai.agent.ai_agent.mcp.tools.utils.ItemSummaryHelper;
+import com.ai.agent.ai_agent.mcp.tools.utils.ReportWriter;
+import com.ai.agent.ai_agent.mcp.tools.utils.RowLayout;
 import com.ai.agent.ai_agent.repository.ItemRepository;
 import com.ai.agent.ai_agent.service.DynamicQueryService;
 import org.slf4j.Logger;
@@ -12,63 +26,127 @@ import org.springframework.ai.tool.annotation.ToolParam;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.StringJoiner;
-import java.util.function.Predicate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.stream.Collectors;
 
 @Component
 public class InventoryTools {
 
     private static final Logger logger = LoggerFactory.getLogger(InventoryTools.class);
+    private static final int MAX_LOCATION_ALERTS = 100;
+    private static final int LOOKUP_BATCH_SIZE = 500;
+
+    private static final RowLayout REPLENISHMENT_ROW = RowLayout.compile(
+            "%s (Current stock: %d, Sales/day: %.2f): Recommend ordering %d units to cover %d days of stock.");
+    private static final RowLayout AGING_ROW = RowLayout.compile("%s (Stock: %d, Days in stock: %d, Last purchased: ");
+    private static final RowLayout FORECAST_ROW = RowLayout.compile("%s: Avg daily sales: %.2f → Forecast: %d units\n");
+    private static final RowLayout STOCK_ALERT_ROW = RowLayout.compile("%s (Current stock: %d)\n");
+    private static final RowLayout LOCATION_HEADER = RowLayout.compile("%-40s %-8s %-12s %-14s %-14s\n");
+    private static final RowLayout LOCATION_ROW = RowLayout.compile("%-40s %-8d %-12d %-14d %-14d\n");
+    private static final RowLayout PERFORMANCE_HEADER = RowLayout.compile("%-25s %-12s %-12s %-12s\n");
+    private static final RowLayout PERFORMANCE_ROW = RowLayout.compile("%-25s %-12d $%-11.2f %-12d\n");
     private final ItemRepository itemRepository;
     private final DynamicQueryService queryService;
-
-    public InventoryTools(ItemRepository itemRepository, DynamicQueryService queryService) {
+    private final ShardedCatalog catalog;
+    private final StockMonitor stockMonitor;
+    private final QueryGovernor governor;
+    private final StoreInventory storeInventory;
+
+    public InventoryTools(ItemRepository itemRepository, DynamicQueryService queryService,
+                          ShardedCatalog catalog, StockMonitor stockMonitor, QueryGovernor governor,
+                          StoreInventory storeInventory) {
         this.itemRepository = itemRepository;
         this.queryService = queryService;
+        this.catalog = catalog;
+        this.stockMonitor = stockMonitor;
+        this.governor = governor;
+        this.storeInventory = storeInventory;
     }
 
-    private List<ItemEntity> getFilteredItems(Predicate<ItemEntity> filter) {
-        return itemRepository.findAll().stream().filter(filter).collect(Collectors.toList());
+    /**
+     * Items matching {@code filter}, bounded by the request's row budget. The limit is sent to every
+     * shard, so no shard returns more rows than the request could use.
+     */
+    private List<ItemEntity> getFilteredItems(String operation, ItemFilter filter) {
+        return governor.admitRows(operation, catalog.filter(filter, governor.fetchLimit(Integer.MAX_VALUE)));
     }
 
-    @Tool(name = "getItemsWithLowStockAndHighSales", description = "Get items with low stock but high sales")
+    @Tool(name = "getItemsWithLowStockAndHighSales", description = "Get items with low stock but high sales, optionally judging stock at one store or region. quantityInStock in the result is always network stock.")
     public List<ItemEntity> getItemsWithLowStockAndHighSales(
             @ToolParam(description = "Maximum quantity in stock") int maxStock,
-            @ToolParam(description = "Minimum number of units sold") int minUnitsSold
+            @ToolParam(description = "Minimum number of units sold") int minUnitsSold,
+            @ToolParam(description = "Store ID, store name or region to check stock at; leave empty for network stock", required = false) String location
     ) {
-        logger.info("Fetching items with low stock (maxStock: {}) and high sales (minUnitsSold: {})", maxStock, minUnitsSold);
+        logger.info("Fetching items with low stock (maxStock: {}) and high sales (minUnitsSold: {}) at location: {}", maxStock, minUnitsSold, location);
         try {
-            return getFilteredItems(item -> item.getQuantityInStock() <= maxStock && item.getUnitsSold() >= minUnitsSold);
+            Optional<LocationScope> scope = storeInventory.resolve(location);
+            // Best sellers first, so a request's row budget keeps the items that matter most.
+            List<ItemEntity> items;
+            if (scope.isEmpty()) {
+                items = catalog.topK(Ranking.TOP_PERFORMING,
+                        ItemFilter.lowStockHighSales(maxStock, minUnitsSold), governor.fetchLimit(Integer.MAX_VALUE));
+            } else {
+                List<String> lowStock = new ArrayList<>();
+                storeInventory.forEach(scope.get(), (itemId, quantity) -> {
+                    if (quantity <= maxStock) {
+                        lowStock.add(itemId);
+                    }
+                });
+                items = bestSellers(lowStock, minUnitsSold, governor.fetchLimit(Integer.MAX_VALUE));
+            }
+            return governor.admitRows("getItemsWithLowStockAndHighSales", items);
+        } catch (IllegalArgumentException ex) {
+            throw ex;
         } catch (Exception ex) {
             logger.error("Error fetching items with low stock and high sales", ex);
             throw new RuntimeException("Failed to fetch items with low stock and high sales", ex);
         }
     }
 
+    /**
+     * The {@code limit} best sellers among {@code itemIds} with at least {@code minUnitsSold} units
+     * sold. Items are read in batches and only the current best are kept.
+     */
+    private List<ItemEntity> bestSellers(List<String> itemIds, int minUnitsSold, int limit) {
+        Comparator<ItemEntity> ranking = Ranking.TOP_PERFORMING.comparator();
+        // Weakest kept item at the head, so it is the one a better item displaces.
+        PriorityQueue<ItemEntity> best = new PriorityQueue<>(ranking.reversed());
+        for (int from = 0; from < itemIds.size(); from += LOOKUP_BATCH_SIZE) {
+            List<String> batch = itemIds.subList(from, Math.min(itemIds.size(), from + LOOKUP_BATCH_SIZE));
+            for (ItemEntity item : itemRepository.findAllById(batch)) {
+                if (item.getUnitsSold() >= minUnitsSold) {
+                    best.add(item);
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+        }
+        List<ItemEntity> result = new ArrayList<>(best);
+        result.sort(ranking);
+        return result;
+    }
+
     @Tool(name = "getUnderperformingItems", description = "Returns the bottom N items ranked by low sales and low reviews. Always returns results, even if no explicit threshold is provided.")
     public String getUnderperformingItems(
             @ToolParam(description = "Number of items to return") Integer limit
     ) {
         logger.info("Fetching bottom-performing items (limit: {})", limit);
         try {
-            List<ItemEntity> items = itemRepository.findAll();
+            int itemLimit = (limit != null && limit > 0) ? limit : 5;
+
+            // Each shard returns its own bottom N; the coordinator merges them into the global bottom N.
+            List<ItemEntity> worstItems = catalog.topK(Ranking.UNDERPERFORMING, ItemFilter.ALL, itemLimit);
 
-            if (items.isEmpty()) {
+            if (worstItems.isEmpty()) {
                 return "No item data available.";
             }
 
-            int itemLimit = (limit != null && limit > 0) ? limit : 5;
-
-            List<ItemEntity> worstItems = items.stream()
-                    .sorted(Comparator
-                            .comparingInt(ItemEntity::getUnitsSold)
-                            .thenComparingDouble(ItemEntity::getAverageRating))
-                    .limit(itemLimit)
-                    .collect(Collectors.toList());
-
             return ItemSummaryHelper.summarizeUnderperformingItems(worstItems);
         } catch (Exception ex) {
             logger.error("Error fetching underperforming items", ex);
@@ -131,41 +209,56 @@ public class InventoryTools {
         }
     }
 
-    @Tool(name = "recommendStockReplenishment", description = "Recommend items to restock and suggested quantities")
+    @Tool(name = "recommendStockReplenishment", description = "Recommend items to restock and suggested quantities, for the whole network or for one store or region")
     public String recommendStockReplenishment(
             @ToolParam(description = "Minimum days of stock to maintain") int minDaysOfStock,
-            @ToolParam(description = "Sales lookback period in days") int salesLookbackDays
+            @ToolParam(description = "Sales lookback period in days") int salesLookbackDays,
+            @ToolParam(description = "Store ID, store name or region to replenish; leave empty for network stock", required = false) String location
     ) {
-        logger.info("Recommending stock replenishment for minDaysOfStock={}, salesLookbackDays={}", minDaysOfStock, salesLookbackDays);
+        logger.info("Recommending stock replenishment for minDaysOfStock={}, salesLookbackDays={}, location={}", minDaysOfStock, salesLookbackDays, location);
         if (minDaysOfStock <= 0 || salesLookbackDays <= 0) {
             return "Both minDaysOfStock and salesLookbackDays must be greater than zero.";
         }
-        try {
-            List<ItemEntity> items = itemRepository.findAll();
-            StringJoiner joiner = new StringJoiner("\n");
+        try (ReportWriter out = ReportWriter.open()) {
+            Optional<LocationScope> scope = storeInventory.resolve(location);
+            List<ItemEntity> items = getFilteredItems("recommendStockReplenishment", new ItemFilter(null, null, 1, null, null, null, null));
             int count = 0;
 
             for (ItemEntity item : items) {
                 int recentUnitsSold = item.getUnitsSold(); // Ideally, use sales in lookback period
                 double dailySales = (double) recentUnitsSold / salesLookbackDays;
+                long currentStock = item.getQuantityInStock();
+                if (scope.isPresent()) {
+                    currentStock = storeInventory.quantity(item.getItemId(), scope.get());
+                    if (currentStock == StockMatrix.NOT_CARRIED) continue;
+                    // Sales are recorded per item, not per store, so split them evenly across the stores carrying it.
+                    dailySales = dailySales * storeInventory.carryingLocations(item.getItemId(), scope.get())
+                            / storeInventory.carryingLocations(item.getItemId(), null);
+                }
                 if (dailySales <= 0) continue;
 
-                int currentStock = item.getQuantityInStock();
                 int daysOfStockLeft = (int) Math.floor(currentStock / dailySales);
 
                 if (daysOfStockLeft < minDaysOfStock) {
                     int recommendedQty = (int) Math.ceil((minDaysOfStock * dailySales) - currentStock);
                     if (recommendedQty > 0) {
-                        joiner.add(String.format(
-                                "%s (Current stock: %d, Sales/day: %.2f): Recommend ordering %d units to cover %d days of stock.",
-                                item.getItemName(), currentStock, dailySales, recommendedQty, minDaysOfStock
-                        ));
+                        if (count > 0) out.append('\n');
+                        out.row(REPLENISHMENT_ROW)
+                                .cell(item.getItemName())
+                                .cell(currentStock)
+                                .cell(dailySales)
+                                .cell(recommendedQty)
+                                .cell(minDaysOfStock)
+                                .end();
                         count++;
                     }
                 }
             }
-            if (count == 0) return "All items have sufficient stock.";
-            return "Stock Replenishment Recommendations (" + count + " items):\n" + joiner;
+            String where = scope.map(value -> " at " + value.label()).orElse("");
+            if (count == 0) return "All items have sufficient stock" + where + ".";
+            return "Stock Replenishment Recommendations" + where + " (" + count + " items):\n" + out;
+        } catch (IllegalArgumentException ex) {
+            return ex.getMessage();
         } catch (Exception ex) {
             logger.error("Error recommending stock replenishment", ex);
             throw new RuntimeException("Failed to recommend stock replenishment", ex);
@@ -177,9 +270,10 @@ public class InventoryTools {
             @ToolParam(description = "Minimum days in stock to consider as slow moving") int minDaysInStock
     ) {
         logger.info("Generating inventory aging report for items in stock over {} days", minDaysInStock);
-        try {
-            List<ItemEntity> items = itemRepository.findAll();
-            StringBuilder report = new StringBuilder("Inventory Aging Report (Items in stock >= " + minDaysInStock + " days):\n");
+        try (ReportWriter report = ReportWriter.open()) {
+            var cutoff = java.time.ZonedDateTime.now().minusDays(minDaysInStock).plusSeconds(1);
+            List<ItemEntity> items = getFilteredItems("inventoryAgingReport", new ItemFilter(null, 1, null, null, null, null, cutoff));
+            report.append("Inventory Aging Report (Items in stock >= ").append(minDaysInStock).append(" days):\n");
             int count = 0;
             var now = java.time.ZonedDateTime.now();
 
@@ -189,11 +283,12 @@ public class InventoryTools {
                 if (lastActivity == null) continue;
                 long daysInStock = java.time.temporal.ChronoUnit.DAYS.between(lastActivity, now);
                 if (daysInStock >= minDaysInStock) {
-                    report.append(String.format(
-                            "%s (Stock: %d, Days in stock: %d, Last purchased: %s)\n",
-                            item.getItemName(), item.getQuantityInStock(), daysInStock,
-                            lastActivity.toLocalDate()
-                    ));
+                    report.row(AGING_ROW)
+                            .cell(item.getItemName())
+                            .cell(item.getQuantityInStock())
+                            .cell(daysInStock)
+                            .end()
+                            .date(lastActivity.toLocalDate()).append(")\n");
                     count++;
                 }
             }
@@ -213,7 +308,7 @@ public class InventoryTools {
         logger.info("Forecasting demand for: {}, over next {} days", itemOrCategory, forecastDays);
         final int lookbackDays = 30; // Simulated window
 
-        try {
+        try (ReportWriter sb = ReportWriter.open()) {
             List<ItemEntity> items;
             ItemEntity item = itemRepository.findById(itemOrCategory).orElse(null);
 
@@ -226,22 +321,19 @@ public class InventoryTools {
                 }
             }
 
-            StringBuilder sb = new StringBuilder("Demand Forecast for '" + itemOrCategory + "' (" + forecastDays + " days):\n");
+            sb.append("Demand Forecast for '").append(itemOrCategory).append("' (").append(forecastDays).append(" days):\n");
 
             for (ItemEntity i : items) {
                 int recentSales = i.getRecentSalesCount();
                 if (recentSales <= 0) {
-                    sb.append(String.format("%s: No recent sales. Forecast not available.\n", i.getItemName()));
+                    sb.append(i.getItemName()).append(": No recent sales. Forecast not available.\n");
                     continue;
                 }
 
                 double avgDailySales = (double) recentSales / lookbackDays;
                 int forecast = (int) Math.round(avgDailySales * forecastDays);
 
-                sb.append(String.format(
-                        "%s: Avg daily sales: %.2f → Forecast: %d units\n",
-                        i.getItemName(), avgDailySales, forecast
-                ));
+                sb.row(FORECAST_ROW).cell(i.getItemName()).cell(avgDailySales).cell(forecast).end();
             }
 
             return sb.toString();
@@ -252,24 +344,87 @@ public class InventoryTools {
         }
     }
 
-    @Tool(name = "outOfStockAlert", description = "Alert when items are out of stock or below a threshold")
+    @Tool(name = "outOfStockAlert", description = "Alert when items are out of stock or below a threshold, across the network or at one store or region")
     public String outOfStockAlert(
-            @ToolParam(description = "Stock threshold") int threshold
+            @ToolParam(description = "Stock threshold") int threshold,
+            @ToolParam(description = "Store ID, store name or region to check; leave empty for network stock", required = false) String location
     ) {
-        logger.info("Checking for items with stock below threshold: {}", threshold);
+        logger.info("Checking for items with stock below threshold: {} at location: {}", threshold, location);
         try {
-            List<ItemEntity> items = getFilteredItems(item -> item.getQuantityInStock() <= threshold);
+            Optional<LocationScope> scope = storeInventory.resolve(location);
+            if (scope.isPresent()) {
+                return locationStockAlert(threshold, scope.get());
+            }
+            List<StockLevel> items = stockMonitor.itemsAtOrBelow(threshold);
             if (items.isEmpty()) return "All items are above the stock threshold.";
-            StringBuilder alert = new StringBuilder("Out-of-Stock Alert (Threshold: " + threshold + "):\n");
-            items.forEach(item -> alert.append(String.format(
-                    "%s (Current stock: %d)\n", item.getItemName(), item.getQuantityInStock())));
-            return alert.toString();
+            try (ReportWriter alert = ReportWriter.open()) {
+                alert.append("Out-of-Stock Alert (Threshold: ").append(threshold).append("):\n");
+                items.forEach(item -> alert.row(STOCK_ALERT_ROW).cell(item.itemName()).cell(item.quantity()).end());
+                return alert.toString();
+            }
+        } catch (IllegalArgumentException ex) {
+            return ex.getMessage();
         } catch (Exception ex) {
             logger.error("Error generating out-of-stock alert", ex);
             throw new RuntimeException("Failed to generate out-of-stock alert", ex);
         }
     }
 
+    @Tool(name = "locationStockSummary", description = "Summarize store stock for one store or region (units on hand, items carried, items out of stock), or per region when no location is given")
+    public String locationStockSummary(
+            @ToolParam(description = "Store ID, store name or region; leave empty for a per-region summary", required = false) String location
+    ) {
+        logger.info("Summarizing store stock for location: {}", location);
+        try {
+            Optional<LocationScope> scope = storeInventory.resolve(location);
+            List<LocationTotals> totals = scope.map(value -> List.of(storeInventory.totals(value)))
+                    .orElseGet(storeInventory::regionTotals);
+            if (totals.isEmpty()) return "No stores are configured.";
+            try (ReportWriter sb = ReportWriter.open()) {
+                sb.append("Store Stock Summary:\n");
+                sb.row(LOCATION_HEADER).cell("Location").cell("Stores").cell("Units").cell("Items Carried").cell("Out of Stock").end();
+                for (LocationTotals total : totals) {
+                    sb.row(LOCATION_ROW)
+                            .cell(total.label()).cell(total.locations()).cell(total.units())
+                            .cell(total.carriedItems()).cell(total.outOfStockItems())
+                            .end();
+                }
+                return sb.toString();
+            }
+        } catch (IllegalArgumentException ex) {
+            return ex.getMessage();
+        } catch (Exception ex) {
+            logger.error("Error summarizing store stock for location: {}", location, ex);
+            throw new RuntimeException("Failed to summarize store stock", ex);
+        }
+    }
+
+    /**
+     * Items carried in the scope whose stock there, summed over its stores, is at or below the
+     * threshold, lowest first.
+     */
+    private String locationStockAlert(int threshold, LocationScope scope) {
+        List<Map.Entry<String, Long>> low = new ArrayList<>();
+        storeInventory.forEach(scope, (itemId, quantity) -> {
+            if (quantity <= threshold) low.add(Map.entry(itemId, quantity));
+        });
+        if (low.isEmpty()) return "All items carried at " + scope.label() + " are above the stock threshold.";
+        low.sort(Map.Entry.comparingByValue());
+        List<Map.Entry<String, Long>> shown = low.size() > MAX_LOCATION_ALERTS ? low.subList(0, MAX_LOCATION_ALERTS) : low;
+        Map<String, String> names = itemRepository.findAllById(shown.stream().map(Map.Entry::getKey).toList()).stream()
+                .collect(Collectors.toMap(ItemEntity::getItemId, ItemEntity::getItemName));
+        try (ReportWriter alert = ReportWriter.open()) {
+            alert.append("Out-of-Stock Alert at ").append(scope.label())
+                    .append(" (Threshold: ").append(threshold).append(", ").append(low.size()).append(" items):\n");
+            shown.forEach(entry -> alert.row(STOCK_ALERT_ROW)
+                    .cell(names.getOrDefault(entry.getKey(), entry.getKey())).cell(entry.getValue()).end());
+            if (low.size() > shown.size()) {
+                alert.append("... and ").append(low.size() - shown.size()).append(" more.\n");
+            }
+            return alert.toString();
+        }
+    }
+
     @Tool(name = "categoryBrandPerformanceSummary", description = "Summarize sales, revenue, and stock by category or brand")
     public String categoryBrandPerformanceSummary(
             @ToolParam(description = "Group by: category or brand") String groupBy
@@ -278,29 +433,14 @@ public class InventoryTools {
         if (!"category".equalsIgnoreCase(groupBy) && !"brand".equalsIgnoreCase(groupBy)) {
             return "Invalid groupBy value. Use 'category' or 'brand'.";
         }
-        try {
-            List<ItemEntity> items = itemRepository.findAll();
-            java.util.Map<String, int[]> summary = new java.util.HashMap<>();
-            java.util.Map<String, Double> revenueMap = new java.util.HashMap<>();
-
-            for (ItemEntity item : items) {
-                String key = "category".equalsIgnoreCase(groupBy) ? item.getCategory() : item.getBrand();
-                int[] metrics = summary.getOrDefault(key, new int[2]); // [0]=unitsSold, [1]=stock
-                metrics[0] += item.getUnitsSold();
-                metrics[1] += item.getQuantityInStock();
-                summary.put(key, metrics);
-
-                double revenue = item.getUnitsSold() * item.getStorePrice();
-                revenueMap.put(key, revenueMap.getOrDefault(key, 0.0) + revenue);
-            }
+        try (ReportWriter sb = ReportWriter.open()) {
+            Map<String, GroupAggregate> summary = catalog.aggregate(GroupBy.from(groupBy), ItemFilter.ALL);
 
-            StringBuilder sb = new StringBuilder("Performance Summary by " + groupBy + ":\n");
-            sb.append(String.format("%-25s %-12s %-12s %-12s\n", groupBy, "Units Sold", "Revenue", "Stock"));
+            sb.append("Performance Summary by ").append(groupBy).append(":\n");
+            sb.row(PERFORMANCE_HEADER).cell(groupBy).cell("Units Sold").cell("Revenue").cell("Stock").end();
             for (var entry : summary.entrySet()) {
-                String key = entry.getKey();
-                int[] metrics = entry.getValue();
-                double revenue = revenueMap.getOrDefault(key, 0.0);
-                sb.append(String.format("%-25s %-12d $%-11.2f %-12d\n", key, metrics[0], revenue, metrics[1]));
+                GroupAggregate metrics = entry.getValue();
+                sb.row(PERFORMANCE_ROW).cell(entry.getKey()).cell(metrics.unitsSold()).cell(metrics.revenue()).cell(metrics.stock()).end();
             }
             return sb.toString();
         } catch (Exception ex) {
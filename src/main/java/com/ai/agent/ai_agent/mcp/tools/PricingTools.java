@@ -1,7 +1,25 @@
 package com.ai.agent.ai_agent.mcp.tools;
 
+import com.ai.agent.ai_agent.catalog.ShardedCatalog;
+import com.ai.agent.ai_agent.catalog.pricing.CatalogColumns;
+import com.ai.agent.ai_agent.catalog.pricing.ColumnarCatalog;
+import com.ai.agent.ai_agent.catalog.pricing.PricingRule;
+import com.ai.agent.ai_agent.catalog.pricing.PricingScenario;
+import com.ai.agent.ai_agent.catalog.pricing.PricingSimulation;
+import com.ai.agent.ai_agent.catalog.pricing.PricingSimulator;
+import com.ai.agent.ai_agent.catalog.pricing.ScenarioResult;
+import com.ai.agent.ai_agent.catalog.promo.PromotionImpact;
+import com.ai.agent.ai_agent.catalog.promo.PromotionIndex;
+import com.ai.agent.ai_agent.catalog.promo.PromotionWindow;
+import com.ai.agent.ai_agent.catalog.shard.GroupAggregate;
+import com.ai.agent.ai_agent.catalog.shard.GroupBy;
+import com.ai.agent.ai_agent.catalog.shard.ItemFilter;
 import com.ai.agent.ai_agent.entity.ItemEntity;
+import com.ai.agent.ai_agent.mcp.tools.utils.ItemSummaryHelper;
+import com.ai.agent.ai_agent.mcp.tools.utils.ReportWriter;
+import com.ai.agent.ai_agent.mcp.tools.utils.RowLayout;
 import com.ai.agent.ai_agent.repository.ItemRepository;
+import com.ai.agent.ai_agent.service.PromotionAnalyticsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.tool.annotation.Tool;
@@ -10,16 +28,35 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @Component
 public class PricingTools {
 
     private static final Logger logger = LoggerFactory.getLogger(PricingTools.class);
-    private final ItemRepository itemRepository;
+    private static final int MAX_PROMOTION_ITEMS = 20;
 
-    public PricingTools(ItemRepository itemRepository) {
+    private static final RowLayout EXPENSIVE_ITEM_ROW = RowLayout.compile("%d. %s ($%.2f) — Brand: %s, Category: %s\n");
+    private static final RowLayout MARGIN_HEADER = RowLayout.compile("%-25s %-12s %-12s %-12s\n");
+    private static final RowLayout MARGIN_ROW = RowLayout.compile("%-25s $%-11.2f $%-11.2f %-11.2f%%\n");
+    private final ItemRepository itemRepository;
+    private final ShardedCatalog catalog;
+    private final PricingSimulator pricingSimulator;
+    private final ColumnarCatalog columnarCatalog;
+    private final PromotionIndex promotionIndex;
+    private final PromotionAnalyticsService promotionAnalyticsService;
+
+    public PricingTools(ItemRepository itemRepository, ShardedCatalog catalog, PricingSimulator pricingSimulator,
+                        ColumnarCatalog columnarCatalog, PromotionIndex promotionIndex,
+                        PromotionAnalyticsService promotionAnalyticsService) {
         this.itemRepository = itemRepository;
+        this.catalog = catalog;
+        this.pricingSimulator = pricingSimulator;
+        this.columnarCatalog = columnarCatalog;
+        this.promotionIndex = promotionIndex;
+        this.promotionAnalyticsService = promotionAnalyticsService;
     }
 
     @Tool(name = "topExpensiveItems", description = "Get the top N most expensive items filtered by availability")
@@ -58,92 +95,129 @@ public class PricingTools {
                 return "No items found for availability: " + availability;
             }
 
-            StringBuilder summary = new StringBuilder("Top " + count + " most expensive items (" + availability + "):\n");
-            for (int i = 0; i < items.size(); i++) {
-                ItemEntity item = items.get(i);
-                summary.append(String.format(
-                        "%d. %s ($%.2f) — Brand: %s, Category: %s\n",
-                        i + 1,
-                        item.getItemName(),
-                        item.getStorePrice(),
-                        item.getBrand(),
-                        item.getCategory()
-                ));
+            try (ReportWriter summary = ReportWriter.open()) {
+                summary.append("Top ").append(count).append(" most expensive items (").append(availability).append("):\n");
+                for (int i = 0; i < items.size(); i++) {
+                    ItemEntity item = items.get(i);
+                    summary.row(EXPENSIVE_ITEM_ROW)
+                            .cell(i + 1)
+                            .cell(item.getItemName())
+                            .cell(item.getStorePrice())
+                            .cell(item.getBrand())
+                            .cell(item.getCategory())
+                            .end();
+                }
+                return summary.toString();
             }
-            return summary.toString();
         } catch (Exception ex) {
             logger.error("Error summarizing top expensive items. Count: {}, Availability: {}", count, availability, ex);
             throw new RuntimeException("Failed to summarize top expensive items", ex);
         }
     }
 
-    @Tool(name = "optimizePrices", description = "Suggest optimal prices for items based on sales and stock levels")
+    @Tool(name = "optimizePrices", description = "Suggest price changes across the whole catalog based on sales and stock levels, with the projected revenue and margin impact")
     public String optimizePrices(
             @ToolParam(description = "Minimum sales to consider as high") int highSalesThreshold,
             @ToolParam(description = "Maximum stock to consider as low") int lowStockThreshold,
             @ToolParam(description = "Percentage to increase price for high demand (e.g. 10 for 10%)") double increasePercent,
             @ToolParam(description = "Percentage to decrease price for low demand (e.g. 10 for 10%)") double decreasePercent,
-            @ToolParam(description = "Maximum number of items to analyze") int limit
+            @ToolParam(description = "Maximum number of items to list") int limit
     ) {
         logger.info("Optimizing prices with highSalesThreshold={}, lowStockThreshold={}, increasePercent={}, decreasePercent={}, limit={}",
                 highSalesThreshold, lowStockThreshold, increasePercent, decreasePercent, limit);
         try {
-            List<ItemEntity> items = itemRepository.findAll(PageRequest.of(0, limit)).getContent();
-            StringBuilder result = new StringBuilder("Price Optimization Suggestions:\n");
-            for (ItemEntity item : items) {
-                String suggestion;
-                double newPrice = item.getStorePrice();
-                int stock = item.getQuantityInStock();
-                if (item.getUnitsSold() >= highSalesThreshold && stock <= lowStockThreshold) {
-                    newPrice = item.getStorePrice() * (1 + increasePercent / 100.0);
-                    suggestion = String.format("Increase price to $%.2f", newPrice);
-                } else if (item.getUnitsSold() < highSalesThreshold && stock > lowStockThreshold) {
-                    newPrice = item.getStorePrice() * (1 - decreasePercent / 100.0);
-                    suggestion = String.format("Decrease price to $%.2f", newPrice);
-                } else {
-                    suggestion = "Keep current price";
-                }
-                result.append(String.format("%s (Current: $%.2f, Sales: %d, Stock: %d): %s\n",
-                        item.getItemName(), item.getStorePrice(), item.getUnitsSold(), stock, suggestion));
-            }
-            return result.toString();
+            PricingScenario scenario = new PricingScenario("Price optimization", List.of(
+                    new PricingRule(null, null, highSalesThreshold, null, null, lowStockThreshold, increasePercent),
+                    new PricingRule(null, null, null, highSalesThreshold - 1, lowStockThreshold + 1, null, -decreasePercent)));
+            PricingSimulation simulation = pricingSimulator.simulate(List.of(scenario));
+            return ItemSummaryHelper.summarizePricingSimulation(simulation, limit > 0 ? limit : 10);
         } catch (Exception ex) {
             logger.error("Error optimizing prices", ex);
             throw new RuntimeException("Failed to optimize prices", ex);
         }
     }
 
-    @Tool(name = "analyzeDiscountPromotionImpact", description = "Analyze the impact of discounts or promotions on sales and inventory turnover")
+    @Tool(name = "simulatePricingScenarios", description = "Simulate one or more what-if pricing scenarios across the whole catalog using per-category price elasticity. Returns revenue, margin, units and stock-turn changes per scenario and the most affected items.")
+    public String simulatePricingScenarios(
+            @ToolParam(description = "Scenarios to compare. Each scenario has a name and ordered rules; an item gets the price change of the first rule it matches. Rule conditions left null match everything.") List<PricingScenario> scenarios,
+            @ToolParam(description = "Number of most affected items to list per scenario", required = false) Integer topItems
+    ) {
+        logger.info("Simulating {} pricing scenarios", scenarios != null ? scenarios.size() : 0);
+        try {
+            PricingSimulation simulation = pricingSimulator.simulate(scenarios);
+            return ItemSummaryHelper.summarizePricingSimulation(simulation, topItems != null && topItems > 0 ? topItems : 5);
+        } catch (IllegalArgumentException ex) {
+            return ex.getMessage();
+        } catch (Exception ex) {
+            logger.error("Error simulating pricing scenarios", ex);
+            throw new RuntimeException("Failed to simulate pricing scenarios", ex);
+        }
+    }
+
+    @Tool(name = "pricingSimulationDetails", description = "Show the per-category breakdown and most affected items of a scenario from a previous pricing simulation")
+    public String pricingSimulationDetails(
+            @ToolParam(description = "Simulation ID returned by a previous simulation, e.g. sim-3") String simulationId,
+            @ToolParam(description = "Scenario name; defaults to the first scenario", required = false) String scenarioName,
+            @ToolParam(description = "Number of most affected items to list", required = false) Integer topItems
+    ) {
+        logger.info("Fetching pricing simulation details for {} scenario {}", simulationId, scenarioName);
+        try {
+            PricingSimulation simulation = pricingSimulator.get(simulationId).orElse(null);
+            if (simulation == null) {
+                return "Pricing simulation " + simulationId + " is not available; run the simulation again.";
+            }
+            ScenarioResult scenario = scenarioName == null || scenarioName.isBlank()
+                    ? simulation.scenarios().get(0)
+                    : simulation.scenario(scenarioName).orElse(null);
+            if (scenario == null) {
+                return "Scenario '" + scenarioName + "' not found in " + simulationId + ".";
+            }
+            return ItemSummaryHelper.summarizeScenarioDetails(simulation, scenario, topItems != null && topItems > 0 ? topItems : 10);
+        } catch (Exception ex) {
+            logger.error("Error fetching pricing simulation details for {}", simulationId, ex);
+            throw new RuntimeException("Failed to fetch pricing simulation details", ex);
+        }
+    }
+
+    @Tool(name = "analyzeDiscountPromotionImpact", description = "Analyze the sales lift of a promotion from daily sales: average daily units before, during and after each item's promotion window")
     public String analyzeDiscountPromotionImpact(
-            @ToolParam(description = "Promotion name or code") String promotion,
-            @ToolParam(description = "Time window in days") int days
+            @ToolParam(description = "Promotion name or code; leave empty for all promotions", required = false) String promotion,
+            @ToolParam(description = "Time window in days: promotions active in the last N days are analyzed, and N days before/after each window are used for comparison") int days
     ) {
         logger.info("Analyzing impact of promotion: {}, over last {} days", promotion, days);
+        if (days <= 0) {
+            return "days must be greater than zero.";
+        }
         try {
-            List<ItemEntity> items = itemRepository.findAll(); // Filter by promotion if possible
-            StringBuilder sb = new StringBuilder("Promotion Impact Analysis for '" + promotion + "' (Last " + days + " days):\n");
-            sb.append(String.format("%-25s %-18s %-18s %-18s\n", "Item", "Prev Daily Sales", "Promo Daily Sales", "Change (%)"));
-
-            for (ItemEntity item : items) {
-                // Mock: Assume all sales in last 2*days, and promotion active in last 'days'
-                int totalSales = item.getUnitsSold();
-                int promoSales = (int) (totalSales * 0.6); // Assume 60% of sales during promo
-                int prevSales = totalSales - promoSales;
-
-                double prevDaily = prevSales / (double) days;
-                double promoDaily = promoSales / (double) days;
-                double change = prevDaily == 0 ? 100.0 : ((promoDaily - prevDaily) / prevDaily) * 100.0;
-
-                sb.append(String.format("%-25s %-18.2f %-18.2f %-17.1f%%\n",
-                        item.getItemName(), prevDaily, promoDaily, change));
-            }
-            return sb.toString();
+            LocalDate today = LocalDate.now();
+            PromotionImpact impact = promotionAnalyticsService.analyzeImpact(promotion, today.minusDays(days), today, days);
+            String title = promotion == null || promotion.isBlank() ? "all promotions" : "'" + promotion + "'";
+            return ItemSummaryHelper.summarizePromotionImpact(title, impact, MAX_PROMOTION_ITEMS);
         } catch (Exception ex) {
             logger.error("Error analyzing promotion impact", ex);
             throw new RuntimeException("Failed to analyze promotion impact", ex);
         }
     }
 
+    @Tool(name = "itemsOnPromotion", description = "List items whose promotion is active on a date or at any time within a date range")
+    public String itemsOnPromotion(
+            @ToolParam(description = "Promotion name or code; leave empty for any promotion", required = false) String promotion,
+            @ToolParam(description = "Start date (yyyy-MM-dd); defaults to today", required = false) String fromDate,
+            @ToolParam(description = "End date (yyyy-MM-dd); defaults to the start date", required = false) String toDate,
+            @ToolParam(description = "Maximum number of items to list", required = false) Integer limit
+    ) {
+        logger.info("Listing items on promotion {} between {} and {}", promotion, fromDate, toDate);
+        try {
+            LocalDate from = fromDate == null || fromDate.isBlank() ? LocalDate.now() : LocalDate.parse(fromDate.trim());
+            LocalDate to = toDate == null || toDate.isBlank() ? from : LocalDate.parse(toDate.trim());
+            List<PromotionWindow> windows = promotionIndex.activeDuring(promotion, from, to);
+            return ItemSummaryHelper.summarizePromotionWindows(promotion, from, to, windows, limit != null && limit > 0 ? limit : 20);
+        } catch (Exception ex) {
+            logger.error("Error listing items on promotion {}", promotion, ex);
+            throw new RuntimeException("Failed to list items on promotion", ex);
+        }
+    }
+
     @Tool(name = "marginAnalyzer", description = "Calculate and report profit margins by item, category, or brand")
     public String marginAnalyzer(
             @ToolParam(description = "Group by: item, category, or brand") String groupBy
@@ -152,35 +226,24 @@ public class PricingTools {
         if (!"item".equalsIgnoreCase(groupBy) && !"category".equalsIgnoreCase(groupBy) && !"brand".equalsIgnoreCase(groupBy)) {
             return "Invalid groupBy value. Use 'item', 'category', or 'brand'.";
         }
-        try {
-            List<ItemEntity> items = itemRepository.findAll();
-            StringBuilder sb = new StringBuilder("Profit Margin Analysis by " + groupBy + ":\n");
+        try (ReportWriter sb = ReportWriter.open()) {
+            sb.append("Profit Margin Analysis by ").append(groupBy).append(":\n");
 
             if ("item".equalsIgnoreCase(groupBy)) {
-                sb.append(String.format("%-25s %-12s %-12s %-12s\n", "Item", "Cost", "Price", "Margin (%)"));
-                for (ItemEntity item : items) {
-                    double cost = item.getCostPrice();
-                    double price = item.getStorePrice();
+                CatalogColumns items = columnarCatalog.current();
+                sb.row(MARGIN_HEADER).cell("Item").cell("Cost").cell("Price").cell("Margin (%)").end();
+                for (int i = 0; i < items.size(); i++) {
+                    double cost = items.cost(i);
+                    double price = items.price(i);
                     double margin = price == 0 ? 0 : (price - cost) / price * 100.0;
-                    sb.append(String.format("%-25s $%-11.2f $%-11.2f %-11.2f%%\n",
-                            item.getItemName(), cost, price, margin));
+                    sb.row(MARGIN_ROW).cell(items.itemName(i)).cell(cost).cell(price).cell(margin).end();
                 }
             } else {
-                java.util.Map<String, double[]> groupMap = new java.util.HashMap<>();
-                for (ItemEntity item : items) {
-                    String key = "category".equalsIgnoreCase(groupBy) ? item.getCategory() : item.getBrand();
-                    double[] vals = groupMap.getOrDefault(key, new double[2]); // [0]=cost sum, [1]=price sum
-                    vals[0] += item.getCostPrice();
-                    vals[1] += item.getStorePrice();
-                    groupMap.put(key, vals);
-                }
-                sb.append(String.format("%-25s %-12s %-12s %-12s\n", groupBy, "Total Cost", "Total Price", "Margin (%)"));
-                for (var entry : groupMap.entrySet()) {
-                    String key = entry.getKey();
-                    double[] vals = entry.getValue();
-                    double margin = vals[1] == 0 ? 0 : (vals[1] - vals[0]) / vals[1] * 100.0;
-                    sb.append(String.format("%-25s $%-11.2f $%-11.2f %-11.2f%%\n",
-                            key, vals[0], vals[1], margin));
+                Map<String, GroupAggregate> groups = catalog.aggregate(GroupBy.from(groupBy), ItemFilter.ALL);
+                sb.row(MARGIN_HEADER).cell(groupBy).cell("Total Cost").cell("Total Price").cell("Margin (%)").end();
+                for (var entry : groups.entrySet()) {
+                    GroupAggregate group = entry.getValue();
+                    sb.row(MARGIN_ROW).cell(entry.getKey()).cell(group.costSum()).cell(group.priceSum()).cell(group.marginPercent()).end();
                 }
             }
             return sb.toString();
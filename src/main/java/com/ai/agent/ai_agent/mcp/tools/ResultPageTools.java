@@ -0,0 +1,42 @@
+package com.ai.agent.ai_agent.mcp.tools;
+
+import com.ai.agent.ai_agent.mcp.server.PlainTextResultConverter;
+import com.ai.agent.ai_agent.mcp.server.ToolResultPages;
+import com.ai.agent.ai_agent.utils.InvalidCursorException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.stereotype.Component;
+
+/**
+ * Continues tool results that were too large for one MCP response. Only offered to MCP clients;
+ * the model behind /ask gets results in full, held to the request's budget.
+ */
+@Component
+public class ResultPageTools {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResultPageTools.class);
+
+    private final ToolResultPages pages;
+
+    public ResultPageTools(ToolResultPages pages) {
+        this.pages = pages;
+    }
+
+    @Tool(name = "nextResultPage", description = "Fetches the next page of a tool result that was too large to return at once, using the cursor printed at the end of the previous page",
+            resultConverter = PlainTextResultConverter.class)
+    public String nextResultPage(
+            @ToolParam(description = "Cursor from the end of the previous page") String cursor
+    ) {
+        logger.info("Fetching result page for cursor: {}", cursor);
+        try {
+            return pages.pageForTool(cursor);
+        } catch (InvalidCursorException ex) {
+            return ex.getMessage();
+        } catch (Exception ex) {
+            logger.error("Error fetching result page for cursor: {}", cursor, ex);
+            throw new RuntimeException("Failed to fetch result page", ex);
+        }
+    }
+}
@@ -1,36 +1,78 @@
 package com.ai.agent.ai_agent.mcp.tools.utils;
 
+import com.ai.agent.ai_agent.catalog.history.FieldChange;
+import com.ai.agent.ai_agent.catalog.history.HistoryField;
+import com.ai.agent.ai_agent.catalog.history.ItemAsOf;
+import com.ai.agent.ai_agent.catalog.history.ItemMovement;
+import com.ai.agent.ai_agent.catalog.pricing.CategoryImpact;
+import com.ai.agent.ai_agent.catalog.pricing.ItemImpact;
+import com.ai.agent.ai_agent.catalog.pricing.PricingMetrics;
+import com.ai.agent.ai_agent.catalog.pricing.PricingSimulation;
+import com.ai.agent.ai_agent.catalog.pricing.ScenarioResult;
+import com.ai.agent.ai_agent.catalog.promo.ItemPromotionLift;
+import com.ai.agent.ai_agent.catalog.promo.PromotionImpact;
+import com.ai.agent.ai_agent.catalog.promo.PromotionLift;
+import com.ai.agent.ai_agent.catalog.promo.PromotionWindow;
+import com.ai.agent.ai_agent.catalog.sketch.DistinctCount;
+import com.ai.agent.ai_agent.catalog.sketch.Distribution;
+import com.ai.agent.ai_agent.catalog.sketch.HeavyHitter;
+import com.ai.agent.ai_agent.catalog.sketch.PercentileRank;
 import com.ai.agent.ai_agent.entity.ItemEntity;
 
 import java.lang.reflect.Field;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 public class ItemSummaryHelper {
 
+    private static final ZoneId HISTORY_ZONE = ZoneId.systemDefault();
+
+    private static final RowLayout ITEM_ROW = RowLayout.compile(
+            "%d. Item Name: \"%s\", Item ID: \"%s\", SKU: \"%s\", Category: \"%s\", Units Sold: %d, Average Rating: %.1f\n");
+    private static final RowLayout GROUPED_ITEM_ROW = RowLayout.compile(
+            "%d. \"%s\" (ID: %s, Sold: %d, Rating: %.1f, Price: $%.2f)\n");
+    private static final RowLayout UNDERPERFORMING_ROW = RowLayout.compile(
+            "%d. %s (Units Sold: %d, Avg Rating: %.2f, Price: $%.2f)\n");
+    private static final RowLayout SCENARIO_ROW = RowLayout.compile(
+            "\n== %s == (%d items repriced)\nRevenue $%.2f (%+.2f, %+.1f%%), Margin $%.2f (%+.2f, %+.1f%%), Units %.0f (%+.0f), Stock turns %.2f/yr (%+.2f)\n");
+    private static final RowLayout CATEGORY_IMPACT_ROW = RowLayout.compile(
+            "- %s: %d items, Revenue %+.2f, Margin %+.2f, Units %+.0f\n");
+    private static final RowLayout ITEM_IMPACT_ROW = RowLayout.compile(
+            "%d. %s (ID: %s, %s): $%.2f -> $%.2f, Revenue %+.2f, Margin %+.2f\n");
+    private static final RowLayout PROMOTION_HEADER = RowLayout.compile("%-25s %-8s %-12s %-12s %-12s %-10s %-10s\n");
+    private static final RowLayout PROMOTION_ROW = RowLayout.compile("%-25s %-8d %-12.2f %-12.2f %-12.2f %-10s %-10s\n");
+    private static final RowLayout PROMOTION_ITEM_HEADER = RowLayout.compile("%-25s %-18s %-24s %-10s %-10s %-10s %-10s\n");
+    private static final RowLayout PROMOTION_ITEM_ROW = RowLayout.compile("%-25s %-18s %-24s %-10.2f %-10.2f %-10s %-10s\n");
+    private static final RowLayout PROMOTION_WINDOW_ROW = RowLayout.compile("%d. %s (ID: %s, Promotion: %s, ");
+    private static final RowLayout HISTOGRAM_ROW = RowLayout.compile("%10.2f - %-10.2f %d items\n");
+
     public static String summarizeItems(String title, List<ItemEntity> items) {
         if (items == null || items.isEmpty()) {
             return "No items found for: " + title;
         }
 
-        StringBuilder summary = new StringBuilder(title + ":\n");
-
-        for (int i = 0; i < items.size(); i++) {
-            ItemEntity item = items.get(i);
-            summary.append(String.format(
-                    "%d. Item Name: \"%s\", Item ID: \"%s\", SKU: \"%s\", Category: \"%s\", Units Sold: %d, Average Rating: %.1f\n",
-                    i + 1,
-                    item.getItemName(),
-                    item.getItemId(),
-                    item.getSku(),
-                    item.getCategory(),
-                    item.getUnitsSold(),
-                    item.getAverageRating()
-            ));
+        try (ReportWriter out = ReportWriter.open()) {
+            out.append(title).append(":\n");
+            for (int i = 0; i < items.size(); i++) {
+                ItemEntity item = items.get(i);
+                out.row(ITEM_ROW)
+                        .cell(i + 1)
+                        .cell(item.getItemName())
+                        .cell(item.getItemId())
+                        .cell(item.getSku())
+                        .cell(item.getCategory())
+                        .cell(item.getUnitsSold())
+                        .cell(item.getAverageRating())
+                        .end();
+            }
+            return out.toString();
         }
-
-        return summary.toString();
     }
 
     public static String summarizeGroupedByDynamic(List<ItemEntity> items, String groupByField) {
@@ -54,25 +96,24 @@ public class ItemSummaryHelper {
                     }
                 }));
 
-        StringBuilder result = new StringBuilder("Grouped by '" + normalizedField + "':\n");
-
-        grouped.forEach((key, group) -> {
-            result.append("\n== ").append(key).append(" ==\n");
-            for (int i = 0; i < group.size(); i++) {
-                ItemEntity item = group.get(i);
-                result.append(String.format(
-                        "%d. \"%s\" (ID: %s, Sold: %d, Rating: %.1f, Price: $%.2f)\n",
-                        i + 1,
-                        item.getItemName(),
-                        item.getItemId(),
-                        item.getUnitsSold(),
-                        item.getAverageRating(),
-                        item.getStorePrice()
-                ));
-            }
-        });
-
-        return result.toString();
+        try (ReportWriter out = ReportWriter.open()) {
+            out.append("Grouped by '").append(normalizedField).append("':\n");
+            grouped.forEach((key, group) -> {
+                out.append("\n== ").append(key).append(" ==\n");
+                for (int i = 0; i < group.size(); i++) {
+                    ItemEntity item = group.get(i);
+                    out.row(GROUPED_ITEM_ROW)
+                            .cell(i + 1)
+                            .cell(item.getItemName())
+                            .cell(item.getItemId())
+                            .cell(item.getUnitsSold())
+                            .cell(item.getAverageRating())
+                            .cell(item.getStorePrice())
+                            .end();
+                }
+            });
+            return out.toString();
+        }
     }
 
     public static String summarizeUnderperformingItems(List<ItemEntity> items) {
@@ -80,18 +121,366 @@ public class ItemSummaryHelper {
             return "No underperforming items found.";
         }
 
-        StringBuilder sb = new StringBuilder("📉 Underperforming Items:\n");
-        int index = 1;
-        for (ItemEntity item : items) {
-            sb.append(String.format(
-                    "%d. %s (Units Sold: %d, Avg Rating: %.2f, Price: $%.2f)\n",
-                    index++,
-                    item.getItemName(),
-                    item.getUnitsSold(),
-                    item.getAverageRating(),
-                    item.getStorePrice()
-            ));
+        try (ReportWriter out = ReportWriter.open()) {
+            out.append("📉 Underperforming Items:\n");
+            int index = 1;
+            for (ItemEntity item : items) {
+                out.row(UNDERPERFORMING_ROW)
+                        .cell(index++)
+                        .cell(item.getItemName())
+                        .cell(item.getUnitsSold())
+                        .cell(item.getAverageRating())
+                        .cell(item.getStorePrice())
+                        .end();
+            }
+            return out.toString();
+        }
+    }
+
+    public static String summarizePricingSimulation(PricingSimulation simulation, int topItems) {
+        PricingMetrics baseline = simulation.baseline();
+        try (ReportWriter out = ReportWriter.open()) {
+            out.append("Pricing Simulation ").append(simulation.simulationId())
+                    .append(" (").append(simulation.itemCount()).append(" items, 30-day demand window):\nBaseline: Revenue ")
+                    .money(baseline.revenue()).append(", Margin ").money(baseline.margin())
+                    .append(" (").fixed(baseline.marginPercent(), 1).append("%), Units ").fixed(baseline.unitsSold(), 0)
+                    .append(", Stock turns ").fixed(baseline.stockTurns(), 2).append("/yr\n");
+            for (ScenarioResult scenario : simulation.scenarios()) {
+                PricingMetrics simulated = scenario.simulated();
+                out.row(SCENARIO_ROW)
+                        .cell(scenario.name()).cell(scenario.itemsRepriced())
+                        .cell(simulated.revenue()).cell(simulated.revenue() - baseline.revenue())
+                        .cell(percentChange(baseline.revenue(), simulated.revenue()))
+                        .cell(simulated.margin()).cell(simulated.margin() - baseline.margin())
+                        .cell(percentChange(baseline.margin(), simulated.margin()))
+                        .cell(simulated.unitsSold()).cell(simulated.unitsSold() - baseline.unitsSold())
+                        .cell(simulated.stockTurns()).cell(simulated.stockTurns() - baseline.stockTurns())
+                        .end();
+                appendItemImpacts(out, scenario.topImpacts(), topItems);
+            }
+            out.append("\nUse simulation ID ").append(simulation.simulationId()).append(" for per-category details.\n");
+            return out.toString();
+        }
+    }
+
+    public static String summarizeScenarioDetails(PricingSimulation simulation, ScenarioResult scenario, int topItems) {
+        try (ReportWriter out = ReportWriter.open()) {
+            out.append("Scenario '").append(scenario.name()).append("' of ").append(simulation.simulationId())
+                    .append(" by category:\n");
+            if (scenario.categories().isEmpty()) {
+                out.append("No items were repriced.\n");
+            }
+            for (CategoryImpact category : scenario.categories()) {
+                out.row(CATEGORY_IMPACT_ROW)
+                        .cell(category.category()).cell(category.itemsRepriced())
+                        .cell(category.revenueDelta()).cell(category.marginDelta()).cell(category.unitsDelta())
+                        .end();
+            }
+            appendItemImpacts(out, scenario.topImpacts(), topItems);
+            return out.toString();
+        }
+    }
+
+    private static void appendItemImpacts(ReportWriter out, List<ItemImpact> impacts, int topItems) {
+        int count = Math.min(topItems, impacts.size());
+        if (count == 0) {
+            return;
+        }
+        out.append("Most affected items:\n");
+        for (int i = 0; i < count; i++) {
+            ItemImpact impact = impacts.get(i);
+            out.row(ITEM_IMPACT_ROW)
+                    .cell(i + 1).cell(impact.itemName()).cell(impact.itemId()).cell(impact.category())
+                    .cell(impact.currentPrice()).cell(impact.newPrice()).cell(impact.revenueDelta()).cell(impact.marginDelta())
+                    .end();
+        }
+    }
+
+    public static String summarizePromotionImpact(String title, PromotionImpact impact, int maxItems) {
+        if (impact.items().isEmpty()) {
+            return "No promotions for " + title + " were active between " + impact.from() + " and " + impact.to() + ".";
+        }
+        try (ReportWriter out = ReportWriter.open()) {
+            out.append("Promotion Impact Analysis for ").append(title)
+                    .append(" (active ").date(impact.from()).append(" to ").date(impact.to())
+                    .append(", compared with ").append(impact.comparisonDays()).append(" days before/after):\n");
+            out.row(PROMOTION_HEADER)
+                    .cell("Promotion").cell("Items").cell("Pre/day").cell("During/day").cell("Post/day").cell("Lift").cell("Post lift")
+                    .end();
+            for (PromotionLift promotion : impact.promotions()) {
+                out.row(PROMOTION_ROW)
+                        .cell(promotion.promotion()).cell(promotion.items())
+                        .cell(promotion.preDaily()).cell(promotion.duringDaily()).cell(promotion.postDaily())
+                        .cell(lift(out, promotion.lift())).cell(lift(out, promotion.postLift()))
+                        .end();
+            }
+            int count = Math.min(maxItems, impact.items().size());
+            out.append("\nTop ").append(count).append(" of ").append(impact.items().size()).append(" items by lift:\n");
+            out.row(PROMOTION_ITEM_HEADER)
+                    .cell("Item").cell("Promotion").cell("Window").cell("Pre/day").cell("During/day").cell("Post/day").cell("Lift")
+                    .end();
+            for (int i = 0; i < count; i++) {
+                ItemPromotionLift item = impact.items().get(i);
+                out.row(PROMOTION_ITEM_ROW)
+                        .cell(item.window().itemName()).cell(item.window().promotion())
+                        .cell(out.scratch().date(item.window().start()).append("..").date(item.window().end()))
+                        .cell(item.preDaily()).cell(item.duringDaily())
+                        .cell(item.postDaily() == null ? "n/a" : out.scratch().fixed(item.postDaily(), 2))
+                        .cell(lift(out, item.lift()))
+                        .end();
+            }
+            return out.toString();
+        }
+    }
+
+    public static String summarizePromotionWindows(String promotion, LocalDate from, LocalDate to,
+                                                   List<PromotionWindow> windows, int maxItems) {
+        String title = promotion == null || promotion.isBlank() ? "any promotion" : "promotion '" + promotion + "'";
+        String period = from.equals(to) ? "on " + from : "between " + from + " and " + to;
+        if (windows.isEmpty()) {
+            return "No items have " + title + " active " + period + ".";
+        }
+        try (ReportWriter out = ReportWriter.open()) {
+            out.append(windows.size()).append(" items have ").append(title).append(" active ").append(period).append(":\n");
+            int count = Math.min(maxItems, windows.size());
+            for (int i = 0; i < count; i++) {
+                PromotionWindow window = windows.get(i);
+                out.row(PROMOTION_WINDOW_ROW)
+                        .cell(i + 1).cell(window.itemName()).cell(window.itemId()).cell(window.promotion())
+                        .end()
+                        .date(window.start()).append(" to ").date(window.end()).append(")\n");
+            }
+            if (windows.size() > count) {
+                out.append("... and ").append(windows.size() - count).append(" more.\n");
+            }
+            return out.toString();
+        }
+    }
+
+    public static String summarizeDistribution(Distribution distribution) {
+        if (distribution.count() == 0) {
+            return "No items in " + distribution.scope() + ".";
+        }
+        try (ReportWriter out = ReportWriter.open()) {
+            out.append("Distribution of ").append(distribution.metric().label()).append(" for ").append(distribution.scope())
+                    .append(" (").append(distribution.count()).append(" items, approximate, rank error ±")
+                    .fixed(distribution.rankError() * 100.0, 1).append("%):\n");
+            out.append("Min: ").fixed(distribution.min(), 2).append(", Max: ").fixed(distribution.max(), 2).append('\n');
+            distribution.percentiles().forEach((fraction, value) -> {
+                out.append('P');
+                appendPercent(out, fraction);
+                out.append(": ").fixed(value, 2).append('\n');
+            });
+            if (!distribution.histogram().isEmpty()) {
+                out.append("Histogram:\n");
+                for (Distribution.Bucket bucket : distribution.histogram()) {
+                    out.row(HISTOGRAM_ROW).cell(bucket.from()).cell(bucket.to()).cell(bucket.count()).end();
+                }
+            }
+            return out.toString();
+        }
+    }
+
+    public static String summarizePercentileRank(PercentileRank rank) {
+        if (rank.count() == 0) {
+            return "No items in " + rank.scope() + ".";
+        }
+        try (ReportWriter out = ReportWriter.open()) {
+            return out.fixed(rank.fraction() * 100.0, 1).append("% of ").append(rank.scope())
+                    .append(" (about ").append(Math.round(rank.fraction() * rank.count())).append(" of ").append(rank.count())
+                    .append(" items) have ").append(rank.metric().label()).append(" at or below ").fixed(rank.value(), 2)
+                    .append(" (approximate, rank error ±").fixed(rank.rankError() * 100.0, 1).append("%).")
+                    .toString();
+        }
+    }
+
+    public static String summarizeDistinctCount(DistinctCount count) {
+        try (ReportWriter out = ReportWriter.open()) {
+            return out.append(count.scope()).append(" has about ").append(count.estimate())
+                    .append(" distinct brands (±").fixed(count.relativeError() * 100.0, 1).append("%).")
+                    .toString();
+        }
+    }
+
+    public static String summarizeHeavyHitters(String scope, List<HeavyHitter> brands) {
+        if (brands.isEmpty()) {
+            return "No brand sales found for " + scope + ".";
+        }
+        try (ReportWriter out = ReportWriter.open()) {
+            out.append("Top ").append(brands.size()).append(" brands by units sold in ").append(scope)
+                    .append(" (estimates may be high by up to ").append(brands.get(0).maxOverestimate()).append(" units");
+            if (brands.get(0).maxUnderestimate() > 0) {
+                out.append(" or low by up to ").append(brands.get(0).maxUnderestimate()).append(" units");
+            }
+            out.append("):\n");
+            for (int i = 0; i < brands.size(); i++) {
+                HeavyHitter brand = brands.get(i);
+                out.append(i + 1).append(". ").append(brand.brand()).append(": ~").append(brand.estimatedUnits()).append(" units\n");
+            }
+            return out.toString();
+        }
+    }
+
+    public static String summarizeItemAsOf(String item, ItemAsOf values, Optional<Instant> foldedBefore) {
+        try (ReportWriter out = ReportWriter.open()) {
+            if (values.values().isEmpty()) {
+                out.append("No history for ").append(item).append(" as of ").dateTime(values.asOf(), HISTORY_ZONE);
+                foldedBefore.ifPresent(time -> out.append("; history before ").dateTime(time, HISTORY_ZONE).append(" has been compacted"));
+                return out.append('.').toString();
+            }
+            out.append(item).append(" as of ").dateTime(values.asOf(), HISTORY_ZONE).append(":\n");
+            values.values().forEach((field, value) -> {
+                out.append(field.label()).append(": ");
+                appendValue(out, field, value);
+                out.append(" (since ").dateTime(values.setAt().get(field), HISTORY_ZONE).append(")\n");
+            });
+            return out.toString();
         }
-        return sb.toString();
     }
-}
\ No newline at end of file
+
+    public static String summarizeFieldHistory(String item, HistoryField field, Instant from, Instant to,
+                                               Double startValue, List<FieldChange> changes, int maxChanges) {
+        try (ReportWriter out = ReportWriter.open()) {
+            if (changes.isEmpty()) {
+                if (startValue == null) {
+                    out.append("No ").append(field.label()).append(" history for ").append(item).append(" from ");
+                    appendPeriod(out, from, to);
+                    return out.append('.').toString();
+                }
+                out.append("The ").append(field.label()).append(" of ").append(item).append(" did not change from ");
+                appendPeriod(out, from, to);
+                out.append("; it stayed at ");
+                appendValue(out, field, startValue);
+                return out.append('.').toString();
+            }
+            double low = startValue != null ? startValue : changes.get(0).value();
+            double high = low;
+            for (FieldChange change : changes) {
+                low = Math.min(low, change.value());
+                high = Math.max(high, change.value());
+            }
+            double end = changes.get(changes.size() - 1).value();
+            out.append(field.label()).append(" history of ").append(item).append(" from ");
+            appendPeriod(out, from, to);
+            out.append(" (").append(changes.size()).append(" changes):\nStart: ");
+            if (startValue == null) {
+                out.append("n/a");
+            } else {
+                appendValue(out, field, startValue);
+            }
+            out.append(", End: ");
+            appendValue(out, field, end);
+            out.append(", Low: ");
+            appendValue(out, field, low);
+            out.append(", High: ");
+            appendValue(out, field, high);
+            if (startValue != null && startValue != 0) {
+                out.append(" (net ").signed(percentChange(startValue, end), 1).append("%)");
+            }
+            out.append('\n');
+            List<FieldChange> shown = changes.size() > maxChanges ? changes.subList(changes.size() - maxChanges, changes.size()) : changes;
+            if (shown.size() < changes.size()) {
+                out.append("Latest ").append(shown.size()).append(" changes:\n");
+            }
+            for (FieldChange change : shown) {
+                out.dateTime(change.at(), HISTORY_ZONE).append(": ");
+                if (change.previous() == null) {
+                    out.append("(first recorded)");
+                } else {
+                    appendValue(out, field, change.previous());
+                }
+                out.append(" -> ");
+                appendValue(out, field, change.value());
+                out.append('\n');
+            }
+            return out.toString();
+        }
+    }
+
+    /**
+     * Items with a value at both ends of the period, largest absolute percent change first.
+     */
+    public static List<ItemMovement> topMovers(List<ItemMovement> movements, int limit) {
+        return movements.stream()
+                .filter(movement -> movement.changePercent() != null && movement.changePercent() != 0)
+                .sorted(Comparator.comparingDouble((ItemMovement movement) -> Math.abs(movement.changePercent())).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public static String summarizeCategoryMovement(String category, HistoryField field, Instant from, Instant to,
+                                                   List<ItemMovement> movements, Map<String, String> names, int maxMovers) {
+        try (ReportWriter out = ReportWriter.open()) {
+            if (movements.isEmpty()) {
+                out.append("No ").append(field.label()).append(" history for category ").append(category).append(" from ");
+                appendPeriod(out, from, to);
+                return out.append('.').toString();
+            }
+            int changed = 0;
+            int increased = 0;
+            int decreased = 0;
+            double startTotal = 0;
+            double endTotal = 0;
+            for (ItemMovement movement : movements) {
+                if (movement.changes() > 0) changed++;
+                if (movement.endValue() > movement.startValue()) increased++;
+                if (movement.endValue() < movement.startValue()) decreased++;
+                startTotal += movement.startValue();
+                endTotal += movement.endValue();
+            }
+            out.append(field.label()).append(" movement in ").append(category).append(" from ");
+            appendPeriod(out, from, to);
+            out.append(":\nItems: ").append(movements.size()).append(", changed at least once: ").append(changed)
+                    .append(", higher at the end: ").append(increased).append(", lower at the end: ").append(decreased)
+                    .append("\nAverage ").append(field.label()).append(": ");
+            appendValue(out, field, startTotal / movements.size());
+            out.append(" -> ");
+            appendValue(out, field, endTotal / movements.size());
+            out.append(" (").signed(percentChange(startTotal, endTotal), 1).append("%)\n");
+            List<ItemMovement> movers = topMovers(movements, maxMovers);
+            if (!movers.isEmpty()) {
+                out.append("Biggest moves:\n");
+                for (ItemMovement movement : movers) {
+                    out.append(names.getOrDefault(movement.itemId(), movement.itemId())).append(" (").append(movement.itemId()).append("): ");
+                    appendValue(out, field, movement.startValue());
+                    out.append(" -> ");
+                    appendValue(out, field, movement.endValue());
+                    out.append(" (").signed(movement.changePercent(), 1).append("%, ").append(movement.changes()).append(" changes)\n");
+                }
+            }
+            return out.toString();
+        }
+    }
+
+    private static void appendValue(ReportWriter out, HistoryField field, double value) {
+        switch (field) {
+            case STORE_PRICE, ECOM_PRICE -> out.money(value);
+            case DISCOUNT -> out.fixed(value, 1).append('%');
+            case STOCK -> out.append(Math.round(value));
+        }
+    }
+
+    private static void appendPeriod(ReportWriter out, Instant from, Instant to) {
+        out.dateTime(from, HISTORY_ZONE).append(" to ").dateTime(to, HISTORY_ZONE);
+    }
+
+    private static void appendPercent(ReportWriter out, double fraction) {
+        double percent = fraction * 100.0;
+        if (percent == Math.rint(percent)) {
+            out.append(Math.round(percent));
+        } else {
+            out.append(Double.toString(percent));
+        }
+    }
+
+    /**
+     * {@code %+.1f%%} of the lift, or {@code n/a}, in the writer's scratch buffer.
+     */
+    private static CharSequence lift(ReportWriter out, Double lift) {
+        return lift == null ? "n/a" : out.scratch().signed(lift * 100.0, 1).append('%');
+    }
+
+    private static double percentChange(double before, double after) {
+        return before == 0 ? 0 : (after - before) / Math.abs(before) * 100.0;
+    }
+}
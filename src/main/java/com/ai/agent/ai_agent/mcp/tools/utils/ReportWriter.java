@@ -0,0 +1,255 @@
+package com.ai.agent.ai_agent.mcp.tools.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Text buffer for tool output. Numbers and dates are written digit by digit, without boxing or
+ * parsing a format string; rows with a fixed layout go through {@link #row(RowLayout)}.
+ * Output matches {@link String#format}: {@link #fixed} rounds half up like {@code %.Nf}.
+ * <p>
+ * Each thread reuses one buffer. Open it in a try-with-resources block and take the result with
+ * {@link #toString()} before it closes:
+ * <pre>
+ * try (ReportWriter out = ReportWriter.open()) {
+ *     out.append("Total: ").money(total).append('\n');
+ *     return out.toString();
+ * }
+ * </pre>
+ * A writer opened while the thread's buffer is in use is a fresh, unpooled one.
+ */
+public final class ReportWriter implements Appendable, CharSequence, AutoCloseable {
+
+    private static final int INITIAL_CHARS = 4096;
+    // Buffers that grew past this are dropped on close rather than kept for the next report.
+    private static final int MAX_RETAINED_CHARS = 1024 * 1024;
+    private static final int MAX_DECIMALS = 9;
+    // Largest scaled value whose fractional part is still exact enough to round by.
+    private static final double MAX_SCALED = 1e15;
+    private static final long[] POW10 = new long[MAX_DECIMALS + 1];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    private static final ThreadLocal<ReportWriter> POOL = ThreadLocal.withInitial(() -> new ReportWriter(true));
+
+    private final boolean pooled;
+    private StringBuilder buffer = new StringBuilder(INITIAL_CHARS);
+    private boolean inUse;
+    private RowLayout.Row row;
+    private ReportWriter scratch;
+
+    private ReportWriter(boolean pooled) {
+        this.pooled = pooled;
+    }
+
+    public static ReportWriter open() {
+        ReportWriter writer = POOL.get();
+        if (writer.inUse) {
+            writer = new ReportWriter(false);
+        }
+        writer.inUse = true;
+        return writer;
+    }
+
+    @Override
+    public ReportWriter append(CharSequence text) {
+        buffer.append(text);
+        return this;
+    }
+
+    @Override
+    public ReportWriter append(CharSequence text, int start, int end) {
+        buffer.append(text, start, end);
+        return this;
+    }
+
+    @Override
+    public ReportWriter append(char c) {
+        buffer.append(c);
+        return this;
+    }
+
+    public ReportWriter append(long value) {
+        buffer.append(value);
+        return this;
+    }
+
+    /**
+     * {@code %.Nf}: {@code value} rounded half up to {@code decimals} places.
+     */
+    public ReportWriter fixed(double value, int decimals) {
+        appendFixed(buffer, value, decimals, false);
+        return this;
+    }
+
+    /**
+     * {@code %+.Nf}: like {@link #fixed} with a leading {@code +} on values that are not negative.
+     */
+    public ReportWriter signed(double value, int decimals) {
+        appendFixed(buffer, value, decimals, true);
+        return this;
+    }
+
+    /**
+     * {@code $%.2f}.
+     */
+    public ReportWriter money(double value) {
+        buffer.append('$');
+        appendFixed(buffer, value, 2, false);
+        return this;
+    }
+
+    /**
+     * {@code yyyy-MM-dd}, as {@link LocalDate#toString()}.
+     */
+    public ReportWriter date(LocalDate date) {
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            buffer.append(date);
+            return this;
+        }
+        appendPadded(buffer, year, 4);
+        buffer.append('-');
+        appendPadded(buffer, date.getMonthValue(), 2);
+        buffer.append('-');
+        appendPadded(buffer, date.getDayOfMonth(), 2);
+        return this;
+    }
+
+    /**
+     * {@code yyyy-MM-dd HH:mm} in {@code zone}.
+     */
+    public ReportWriter dateTime(Instant time, ZoneId zone) {
+        long seconds = time.getEpochSecond() + zone.getRules().getOffset(time).getTotalSeconds();
+        date(LocalDate.ofEpochDay(Math.floorDiv(seconds, 86400)));
+        int secondOfDay = (int) Math.floorMod(seconds, 86400);
+        buffer.append(' ');
+        appendPadded(buffer, secondOfDay / 3600, 2);
+        buffer.append(':');
+        appendPadded(buffer, secondOfDay / 60 % 60, 2);
+        return this;
+    }
+
+    /**
+     * Starts a row of {@code layout}. The row is reused, so finish it with
+     * {@link RowLayout.Row#end()} before starting the next one.
+     */
+    public RowLayout.Row row(RowLayout layout) {
+        if (row == null) {
+            row = new RowLayout.Row(this);
+        }
+        return row.start(layout);
+    }
+
+    /**
+     * An empty side buffer for composing a single cell, such as a number with a suffix. Its content
+     * is valid until the next call.
+     */
+    public ReportWriter scratch() {
+        if (scratch == null) {
+            scratch = new ReportWriter(false);
+        }
+        scratch.buffer.setLength(0);
+        return scratch;
+    }
+
+    StringBuilder buffer() {
+        return buffer;
+    }
+
+    @Override
+    public int length() {
+        return buffer.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return buffer.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return buffer.subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return buffer.toString();
+    }
+
+    @Override
+    public void close() {
+        if (!pooled) {
+            return;
+        }
+        if (buffer.capacity() > MAX_RETAINED_CHARS) {
+            buffer = new StringBuilder(INITIAL_CHARS);
+        } else {
+            buffer.setLength(0);
+        }
+        inUse = false;
+    }
+
+    static void appendFixed(StringBuilder out, double value, int decimals, boolean plus) {
+        if (decimals < 0 || decimals > MAX_DECIMALS || !Double.isFinite(value)) {
+            out.append(String.format((plus ? "%+." : "%.") + decimals + "f", value));
+            return;
+        }
+        // Like Formatter: -0.0 and values that round to zero keep their minus sign.
+        boolean negative = Double.compare(value, 0.0) < 0;
+        double scaled = Math.abs(value) * POW10[decimals];
+        long units;
+        if (scaled >= MAX_SCALED) {
+            units = -1;
+        } else {
+            units = (long) scaled;
+            double fraction = scaled - units;
+            // Formatter rounds the shortest decimal form of the value half up. Away from a tie the
+            // binary value rounds the same way; at a tie fall back to the decimal form.
+            if (Math.abs(fraction - 0.5) <= 2 * Math.ulp(scaled)) {
+                units = -1;
+            } else if (fraction > 0.5) {
+                units++;
+            }
+        }
+        if (units < 0) {
+            String rounded = new BigDecimal(Double.toString(value)).setScale(decimals, RoundingMode.HALF_UP)
+                    .abs().toPlainString();
+            out.append(negative ? "-" : plus ? "+" : "").append(rounded);
+            return;
+        }
+        if (negative) {
+            out.append('-');
+        } else if (plus) {
+            out.append('+');
+        }
+        long divisor = POW10[decimals];
+        out.append(units / divisor);
+        if (decimals > 0) {
+            out.append('.');
+            appendPadded(out, units % divisor, decimals);
+        }
+    }
+
+    static void appendLong(StringBuilder out, long value, boolean plus) {
+        if (plus && value >= 0) {
+            out.append('+');
+        }
+        out.append(value);
+    }
+
+    private static void appendPadded(StringBuilder out, long value, int digits) {
+        for (int i = digits - 1; i > 0 && value < POW10[i]; i--) {
+            out.append('0');
+        }
+        out.append(value);
+    }
+}
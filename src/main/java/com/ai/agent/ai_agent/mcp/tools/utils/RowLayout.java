@@ -0,0 +1,179 @@
+package com.ai.agent.ai_agent.mcp.tools.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A row format compiled once from a {@link String#format} pattern and filled cell by cell
+ * through {@link ReportWriter#row(RowLayout)}. The supported subset is {@code %s}, {@code %d}
+ * and {@code %f} with the {@code -} and {@code +} flags, a width and a precision, plus
+ * {@code %%} and {@code %n}; the output is the same as {@code String.format} would give.
+ * <pre>
+ * private static final RowLayout MARGIN_ROW = RowLayout.compile("%-25s $%-11.2f %-11.2f%%\n");
+ * out.row(MARGIN_ROW).cell(name).cell(price).cell(margin).end();
+ * </pre>
+ */
+public final class RowLayout {
+
+    private final String pattern;
+    // literals[i] precedes column i; the last one ends the row.
+    private final String[] literals;
+    private final Column[] columns;
+
+    private RowLayout(String pattern, String[] literals, Column[] columns) {
+        this.pattern = pattern;
+        this.literals = literals;
+        this.columns = columns;
+    }
+
+    public static RowLayout compile(String pattern) {
+        List<String> literals = new ArrayList<>();
+        List<Column> columns = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i++);
+            if (c != '%') {
+                literal.append(c);
+                continue;
+            }
+            if (i == pattern.length()) {
+                throw new IllegalArgumentException("Pattern ends with %: " + pattern);
+            }
+            boolean left = false;
+            boolean plus = false;
+            for (; i < pattern.length() && (pattern.charAt(i) == '-' || pattern.charAt(i) == '+'); i++) {
+                if (pattern.charAt(i) == '-') left = true;
+                else plus = true;
+            }
+            int width = 0;
+            for (; i < pattern.length() && Character.isDigit(pattern.charAt(i)); i++) {
+                width = width * 10 + pattern.charAt(i) - '0';
+            }
+            int precision = -1;
+            if (i < pattern.length() && pattern.charAt(i) == '.') {
+                precision = 0;
+                for (i++; i < pattern.length() && Character.isDigit(pattern.charAt(i)); i++) {
+                    precision = precision * 10 + pattern.charAt(i) - '0';
+                }
+            }
+            if (i == pattern.length()) {
+                throw new IllegalArgumentException("Incomplete conversion in pattern: " + pattern);
+            }
+            char conversion = pattern.charAt(i++);
+            switch (conversion) {
+                case '%' -> literal.append('%');
+                case 'n' -> literal.append(System.lineSeparator());
+                case 's', 'd', 'f' -> {
+                    if (conversion == 's' && (plus || precision >= 0)
+                            || conversion == 'd' && precision >= 0) {
+                        throw new IllegalArgumentException("Unsupported flags for %" + conversion + " in pattern: " + pattern);
+                    }
+                    literals.add(literal.toString());
+                    literal.setLength(0);
+                    columns.add(new Column(conversion, left, plus, width, conversion == 'f' && precision < 0 ? 6 : precision));
+                }
+                default -> throw new IllegalArgumentException("Unsupported conversion %" + conversion + " in pattern: " + pattern);
+            }
+        }
+        literals.add(literal.toString());
+        return new RowLayout(pattern, literals.toArray(String[]::new), columns.toArray(Column[]::new));
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+
+    private record Column(char conversion, boolean left, boolean plus, int width, int precision) {}
+
+    /**
+     * Cursor over the cells of one row, owned and reused by its {@link ReportWriter}.
+     */
+    public static final class Row {
+
+        private final ReportWriter writer;
+        private RowLayout layout;
+        private int column;
+
+        Row(ReportWriter writer) {
+            this.writer = writer;
+        }
+
+        Row start(RowLayout layout) {
+            this.layout = layout;
+            this.column = 0;
+            return this;
+        }
+
+        public Row cell(CharSequence value) {
+            StringBuilder out = next('s');
+            int start = out.length();
+            out.append(value);
+            pad(out, start);
+            return this;
+        }
+
+        public Row cell(long value) {
+            Column current = layout.columns[column];
+            StringBuilder out = next(current.conversion() == 's' ? 's' : 'd');
+            int start = out.length();
+            ReportWriter.appendLong(out, value, current.plus());
+            pad(out, start);
+            return this;
+        }
+
+        public Row cell(double value) {
+            Column current = layout.columns[column];
+            StringBuilder out = next('f');
+            int start = out.length();
+            ReportWriter.appendFixed(out, value, current.precision(), current.plus());
+            pad(out, start);
+            return this;
+        }
+
+        public ReportWriter end() {
+            if (column != layout.columns.length) {
+                throw new IllegalStateException("Row of '" + layout + "' ended after " + column + " of "
+                        + layout.columns.length + " cells");
+            }
+            writer.buffer().append(layout.literals[column]);
+            return writer;
+        }
+
+        private StringBuilder next(char conversion) {
+            if (column >= layout.columns.length) {
+                throw new IllegalStateException("Too many cells for row '" + layout + "'");
+            }
+            if (layout.columns[column].conversion() != conversion) {
+                throw new IllegalStateException("Cell " + (column + 1) + " of '" + layout + "' is %"
+                        + layout.columns[column].conversion() + ", not %" + conversion);
+            }
+            return writer.buffer().append(layout.literals[column]);
+        }
+
+        /**
+         * Pads the cell written from {@code start} to the column width, shifting it right in place
+         * unless the column is left-aligned.
+         */
+        private void pad(StringBuilder out, int start) {
+            Column current = layout.columns[column++];
+            int length = out.length() - start;
+            int padding = current.width() - length;
+            if (padding <= 0) {
+                return;
+            }
+            for (int i = 0; i < padding; i++) {
+                out.append(' ');
+            }
+            if (!current.left()) {
+                for (int i = length - 1; i >= 0; i--) {
+                    out.setCharAt(start + padding + i, out.charAt(start + i));
+                }
+                for (int i = 0; i < padding; i++) {
+                    out.setCharAt(start + i, ' ');
+                }
+            }
+        }
+    }
+}
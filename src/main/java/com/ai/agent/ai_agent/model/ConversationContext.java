@@ -0,0 +1,27 @@
+package com.ai.agent.ai_agent.model;
+
+import java.util.List;
+
+public record ConversationContext(
+        String sessionId,
+        String summary,
+        List<ConversationTurn> turns,
+        List<String> toolResults
+) {
+    public static final ConversationContext EMPTY = new ConversationContext(null, "", List.of(), List.of());
+
+    public boolean isEmpty() {
+        return (summary == null || summary.isEmpty()) && turns.isEmpty() && toolResults.isEmpty();
+    }
+
+    public int estimatedTokens() {
+        int chars = summary == null ? 0 : summary.length();
+        for (ConversationTurn turn : turns) {
+            chars += turn.question().length() + turn.answer().length();
+        }
+        for (String toolResult : toolResults) {
+            chars += toolResult.length();
+        }
+        return chars / 4;
+    }
+}
@@ -0,0 +1,6 @@
+package com.ai.agent.ai_agent.model;
+
+public record ConversationTurn(
+        String question,
+        String answer
+) {}
@@ -0,0 +1,7 @@
+package com.ai.agent.ai_agent.model;
+
+public record ToolResult(
+        String toolName,
+        String arguments,
+        String result
+) {}
@@ -0,0 +1,19 @@
+package com.ai.agent.ai_agent.repository;
+
+import com.ai.agent.ai_agent.entity.DailySalesEntity;
+import com.ai.agent.ai_agent.entity.DailySalesId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface DailySalesRepository extends JpaRepository<DailySalesEntity, DailySalesId> {
+
+    @Query("SELECT s FROM DailySalesEntity s WHERE s.itemId IN :itemIds AND s.salesDate BETWEEN :from AND :to")
+    List<DailySalesEntity> findByItemIdsBetween(@Param("itemIds") Collection<String> itemIds,
+                                                @Param("from") LocalDate from,
+                                                @Param("to") LocalDate to);
+}
@@ -0,0 +1,36 @@
+package com.ai.agent.ai_agent.repository;
+
+import java.util.List;
+
+/**
+ * Second-level cache regions for {@link com.ai.agent.ai_agent.entity.ItemEntity} and the
+ * {@link ItemRepository} queries. Query regions are split by what their results depend on, so
+ * each can be sized and evicted on its own.
+ */
+public final class ItemCacheRegions {
+
+    /**
+     * Item entities by id.
+     */
+    public static final String ITEMS = "catalog.items";
+
+    /**
+     * Top-N by store price within an online/store availability bucket.
+     */
+    public static final String AVAILABILITY_QUERIES = "catalog.items.availability";
+
+    /**
+     * Rankings by units sold, rating and stock.
+     */
+    public static final String PERFORMANCE_QUERIES = "catalog.items.performance";
+
+    /**
+     * Items of one category.
+     */
+    public static final String CATEGORY_QUERIES = "catalog.items.category";
+
+    public static final List<String> QUERY_REGIONS = List.of(AVAILABILITY_QUERIES, PERFORMANCE_QUERIES, CATEGORY_QUERIES);
+
+    private ItemCacheRegions() {
+    }
+}
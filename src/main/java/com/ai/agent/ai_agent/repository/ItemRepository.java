@@ -1,31 +1,59 @@
 package com.ai.agent.ai_agent.repository;
 
 import com.ai.agent.ai_agent.entity.ItemEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ItemRepository extends JpaRepository<ItemEntity, String> {
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ItemCacheRegions.AVAILABILITY_QUERIES)
+    })
     @Query("SELECT i FROM ItemEntity i WHERE i.onlineAvailable = true AND i.storeAvailable = false ORDER BY i.storePrice DESC")
     List<ItemEntity> findOnlineOnlyItemsByStorePriceDesc(Pageable pageable);
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ItemCacheRegions.AVAILABILITY_QUERIES)
+    })
     @Query("SELECT i FROM ItemEntity i WHERE i.storeAvailable = true AND i.onlineAvailable = false ORDER BY i.storePrice DESC")
     List<ItemEntity> findStoreOnlyItemsByStorePriceDesc(Pageable pageable);
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ItemCacheRegions.AVAILABILITY_QUERIES)
+    })
     @Query("SELECT i FROM ItemEntity i WHERE i.storeAvailable = true AND i.onlineAvailable = true ORDER BY i.storePrice DESC")
     List<ItemEntity> findOnlineAndStoreItemsByStorePriceDesc(Pageable pageable);
 
-    @Query("SELECT i FROM ItemEntity i WHERE i.quantityInStock < :maxStock AND i.unitsSold > :minUnitsSold ORDER BY i.unitsSold DESC")
-    List<ItemEntity> findItemsWithLowStockAndHighSales(@Param("maxStock") int maxStock, @Param("minUnitsSold") int minUnitsSold);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ItemCacheRegions.PERFORMANCE_QUERIES)
+    })
+    @Query("SELECT i FROM ItemEntity i WHERE i.quantityInStock < :maxStock AND (:minUnitsSold IS NULL OR i.unitsSold > :minUnitsSold) ORDER BY i.unitsSold DESC")
+    List<ItemEntity> findItemsWithLowStockAndHighSales(@Param("maxStock") int maxStock, @Param("minUnitsSold") Integer minUnitsSold, Pageable pageable);
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ItemCacheRegions.PERFORMANCE_QUERIES)
+    })
     @Query("SELECT i FROM ItemEntity i WHERE i.unitsSold <= :maxUnitsSold AND i.averageRating <= :maxAverageRating ORDER BY i.unitsSold ASC, i.averageRating ASC")
-    List<ItemEntity> findUnderperformingItems(@Param("maxUnitsSold") int maxUnitsSold, @Param("maxAverageRating") double maxAverageRating);
+    List<ItemEntity> findUnderperformingItems(@Param("maxUnitsSold") int maxUnitsSold, @Param("maxAverageRating") double maxAverageRating, Pageable pageable);
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ItemCacheRegions.PERFORMANCE_QUERIES)
+    })
     @Query("SELECT i FROM ItemEntity i WHERE i.unitsSold >= :minUnitsSold AND i.averageRating >= :minAverageRating ORDER BY i.unitsSold DESC, i.averageRating DESC")
     List<ItemEntity> findTopPerformingItems(
             @Param("minUnitsSold") int minUnitsSold,
@@ -33,7 +61,21 @@ public interface ItemRepository extends JpaRepository<ItemEntity, String> {
             Pageable pageable
     );
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ItemCacheRegions.CATEGORY_QUERIES)
+    })
     List<ItemEntity> findByCategoryIgnoreCase(String category);
 
+    /**
+     * Every item, read in fetch-size batches. Must be consumed inside a transaction; bypasses the
+     * second-level cache so a full scan does not push out the entries that reads keep warm.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("SELECT i FROM ItemEntity i")
+    Stream<ItemEntity> streamAll();
 
 }
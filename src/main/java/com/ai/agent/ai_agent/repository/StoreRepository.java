@@ -0,0 +1,7 @@
+package com.ai.agent.ai_agent.repository;
+
+import com.ai.agent.ai_agent.entity.StoreEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface StoreRepository extends JpaRepository<StoreEntity, String> {
+}
@@ -0,0 +1,8 @@
+package com.ai.agent.ai_agent.repository;
+
+import com.ai.agent.ai_agent.entity.StoreStockEntity;
+import com.ai.agent.ai_agent.entity.StoreStockId;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface StoreStockRepository extends JpaRepository<StoreStockEntity, StoreStockId> {
+}
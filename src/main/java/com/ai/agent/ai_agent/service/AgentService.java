@@ -0,0 +1,7 @@
+package com.ai.agent.ai_agent.service;
+
+import com.ai.agent.ai_agent.model.QueryRequest;
+
+public interface AgentService {
+    String ask(QueryRequest request);
+}
@@ -0,0 +1,16 @@
+package com.ai.agent.ai_agent.service;
+
+import com.ai.agent.ai_agent.catalog.transfer.ImportReport;
+import com.ai.agent.ai_agent.catalog.transfer.TransferFormat;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Optional;
+
+public interface CatalogTransferService {
+    ImportReport importItems(InputStream input, TransferFormat format);
+    Optional<ImportReport> getImport(String importId);
+    List<ImportReport> listImports();
+    void exportItems(OutputStream output, TransferFormat format);
+}
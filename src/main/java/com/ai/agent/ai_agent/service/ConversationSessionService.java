@@ -0,0 +1,9 @@
+package com.ai.agent.ai_agent.service;
+
+import com.ai.agent.ai_agent.model.ConversationContext;
+
+public interface ConversationSessionService {
+    ConversationContext getContext(String userId);
+    void recordTurn(String userId, String question, String answer);
+    void recordToolResult(String userId, String toolName, String arguments, String result);
+}
@@ -0,0 +1,9 @@
+package com.ai.agent.ai_agent.service;
+
+import com.ai.agent.ai_agent.catalog.promo.PromotionImpact;
+
+import java.time.LocalDate;
+
+public interface PromotionAnalyticsService {
+    PromotionImpact analyzeImpact(String promotion, LocalDate from, LocalDate to, int comparisonDays);
+}
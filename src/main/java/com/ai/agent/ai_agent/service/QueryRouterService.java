@@ -0,0 +1,11 @@
+package com.ai.agent.ai_agent.service;
+
+import com.ai.agent.ai_agent.dto.QueryIntent;
+
+import java.util.Optional;
+
+public interface QueryRouterService {
+    Optional<QueryIntent> classify(String query);
+    Optional<String> route(String query);
+    String answer(QueryIntent intent);
+}
@@ -0,0 +1,149 @@
+package com.ai.agent.ai_agent.service.impl;
+
+import com.ai.agent.ai_agent.catalog.CatalogVersion;
+import com.ai.agent.ai_agent.client.AIClient;
+import com.ai.agent.ai_agent.governor.QueryGovernor;
+import com.ai.agent.ai_agent.model.ConversationContext;
+import com.ai.agent.ai_agent.model.QueryRequest;
+import com.ai.agent.ai_agent.model.ToolResult;
+import com.ai.agent.ai_agent.service.AgentService;
+import com.ai.agent.ai_agent.service.ConversationSessionService;
+import com.ai.agent.ai_agent.service.QueryRouterService;
+import com.ai.agent.ai_agent.utils.Deadline;
+import com.ai.agent.ai_agent.utils.DeadlineContext;
+import com.ai.agent.ai_agent.utils.DeadlineExceededException;
+import com.ai.agent.ai_agent.utils.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class AgentServiceImpl implements AgentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgentServiceImpl.class);
+
+    private final AIClient aiClient;
+    private final QueryRouterService queryRouterService;
+    private final ConversationSessionService sessionService;
+    private final CatalogVersion catalogVersion;
+    private final QueryGovernor governor;
+    private final MeterRegistry meterRegistry;
+    private final SingleFlight<String, AskResult> askFlight;
+    private final boolean routerEnabled;
+    private final Duration requestTimeout;
+
+    public AgentServiceImpl(AIClient aiClient,
+                            QueryRouterService queryRouterService,
+                            ConversationSessionService sessionService,
+                            CatalogVersion catalogVersion,
+                            QueryGovernor governor,
+                            MeterRegistry meterRegistry,
+                            @Qualifier("singleFlightExecutor") ExecutorService singleFlightExecutor,
+                            @Value("${agent.router.enabled:true}") boolean routerEnabled,
+                            @Value("${agent.request.timeout-ms:30000}") long requestTimeoutMillis) {
+        this.aiClient = aiClient;
+        this.queryRouterService = queryRouterService;
+        this.sessionService = sessionService;
+        this.catalogVersion = catalogVersion;
+        this.governor = governor;
+        this.meterRegistry = meterRegistry;
+        this.askFlight = new SingleFlight<>(singleFlightExecutor);
+        this.routerEnabled = routerEnabled;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMillis);
+
+        FunctionCounter.builder("agent.singleflight.executions", askFlight, SingleFlight::executionCount)
+                .tag("layer", "ask").register(meterRegistry);
+        FunctionCounter.builder("agent.singleflight.coalesced", askFlight, SingleFlight::coalescedCount)
+                .tag("layer", "ask").register(meterRegistry);
+        Gauge.builder("agent.singleflight.inflight", askFlight, SingleFlight::inFlightCount)
+                .tag("layer", "ask").register(meterRegistry);
+    }
+
+    @Override
+    public String ask(QueryRequest request) {
+        String query = request.getQuery();
+        long start = System.nanoTime();
+
+        ConversationContext context = sessionService.getContext(request.getUserId());
+        // Queries with conversation history are only identical within the same session. Without history,
+        // callers from different sessions share one answer: nothing in it is tied to the first caller's
+        // session, and each caller stores the answer and its tool results in its own session below.
+        String key = normalize(query) + '|' + catalogVersion.current()
+                + (context.isEmpty() ? "" : '|' + context.sessionId() + '|' + context.hashCode());
+
+        // The caller's deadline may be cancelled by the web layer when the client disconnects; that
+        // only detaches this caller. The shared answer has its own deadline and budget and is
+        // cancelled once no caller is waiting for it.
+        Deadline caller = DeadlineContext.current()
+                .map(current -> current.min(requestTimeout))
+                .orElseGet(() -> Deadline.after(requestTimeout));
+        Deadline shared = Deadline.after(requestTimeout).withBudget(governor.newBudget());
+        AskResult result;
+        try {
+            result = askFlight.executeAndWait(key, DeadlineContext.wrap(shared, () -> answer(query, context)), caller,
+                    () -> shared.cancel("abandoned"));
+        } catch (CancellationException ex) {
+            governor.recordCancelled(caller.isCancelled() ? caller.cancelReason() : "interrupted");
+            throw ex;
+        } catch (DeadlineExceededException ex) {
+            governor.recordCancelled("deadline");
+            throw ex;
+        }
+        for (ToolResult toolResult : result.toolResults()) {
+            sessionService.recordToolResult(request.getUserId(), toolResult.toolName(), toolResult.arguments(),
+                    toolResult.result());
+        }
+        sessionService.recordTurn(request.getUserId(), query, result.answer());
+
+        meterRegistry.counter("agent.ask.requests", "path", result.path()).increment();
+        meterRegistry.timer("agent.ask.latency", "path", result.path()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result.answer();
+    }
+
+    private AskResult answer(String query, ConversationContext context) {
+        Optional<String> routed = routerEnabled ? tryRoute(query) : Optional.empty();
+        if (routed.isPresent()) {
+            return new AskResult(routed.get(), "routed", List.of());
+        }
+        meterRegistry.summary("agent.session.context.tokens").record(context.estimatedTokens());
+        List<ToolResult> toolResults = Collections.synchronizedList(new ArrayList<>());
+        String answer = aiClient.query(query, context, toolResults::add);
+        return new AskResult(answer, "llm", List.copyOf(toolResults));
+    }
+
+    private Optional<String> tryRoute(String query) {
+        try {
+            return queryRouterService.route(query);
+        } catch (Exception ex) {
+            logger.warn("Local routing failed, falling back to the model. Query: {}", query, ex);
+            return Optional.empty();
+        }
+    }
+
+    private static String normalize(String query) {
+        if (query == null) {
+            return "";
+        }
+        return query.toLowerCase(Locale.ROOT)
+                .replaceAll("\\s+", " ")
+                .replaceAll("[?.!\\s]+$", "")
+                .trim();
+    }
+
+    private record AskResult(String answer, String path, List<ToolResult> toolResults) {}
+}
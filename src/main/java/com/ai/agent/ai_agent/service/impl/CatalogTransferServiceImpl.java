@@ -0,0 +1,506 @@
+package com.ai.agent.ai_agent.service.impl;
+
+import com.ai.agent.ai_agent.catalog.ItemCache;
+import com.ai.agent.ai_agent.catalog.transfer.CsvRecordReader;
+import com.ai.agent.ai_agent.catalog.transfer.ImportProgress;
+import com.ai.agent.ai_agent.catalog.transfer.ImportReport;
+import com.ai.agent.ai_agent.catalog.transfer.ItemColumn;
+import com.ai.agent.ai_agent.catalog.transfer.TransferFormat;
+import com.ai.agent.ai_agent.event.CatalogBulkLoadedEvent;
+import com.ai.agent.ai_agent.event.ItemsImportedEvent;
+import com.ai.agent.ai_agent.service.CatalogTransferService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Streams catalog files in and out of the {@code items} table over plain JDBC. Imports are parsed
+ * record by record and written as batched upserts, one transaction per batch; a batch that fails
+ * is replayed row by row so only the offending rows are rejected. An upsert writes only the
+ * columns a record provides: fields missing from an NDJSON record and blank CSV cells keep the
+ * stored value, while an explicit JSON null writes NULL. A new item gets the schema's column
+ * defaults for what it leaves out, which is 0 or false for the required numeric and flag columns
+ * only because {@link com.ai.agent.ai_agent.entity.ItemEntity} declares them; against a schema
+ * without those defaults, new items must provide every required column or the row is rejected.
+ * Cached item queries are held off while a batch is written, and its items are evicted from the
+ * {@link ItemCache} once it commits and announced with an {@link ItemsImportedEvent}. Exports read
+ * through a forward-only cursor, so memory use is independent of catalog size.
+ */
+@Service
+public class CatalogTransferServiceImpl implements CatalogTransferService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogTransferServiceImpl.class);
+
+    private static final int MAX_RETAINED_IMPORTS = 20;
+    private static final List<ItemColumn> ALL_COLUMNS = List.of(ItemColumn.values());
+    private static final int ITEM_ID = ItemColumn.ITEM_ID.ordinal();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ItemCache itemCache;
+    private final MeterRegistry meterRegistry;
+    private final Counter rowsWritten;
+    private final Counter rowsFailed;
+    private final int batchSize;
+    private final int maxErrors;
+    private final int fetchSize;
+    private final long progressInterval;
+    private final Map<String, ImportProgress> imports = new LinkedHashMap<>();
+
+    public CatalogTransferServiceImpl(JdbcTemplate jdbcTemplate,
+                                      PlatformTransactionManager transactionManager,
+                                      ObjectMapper objectMapper,
+                                      ApplicationEventPublisher eventPublisher,
+                                      ItemCache itemCache,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${agent.catalog.import.batch-size:1000}") int batchSize,
+                                      @Value("${agent.catalog.import.max-errors:1000}") int maxErrors,
+                                      @Value("${agent.catalog.import.progress-interval:100000}") long progressInterval,
+                                      @Value("${agent.catalog.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.itemCache = itemCache;
+        this.meterRegistry = meterRegistry;
+        this.rowsWritten = meterRegistry.counter("catalog.import.rows", "result", "written");
+        this.rowsFailed = meterRegistry.counter("catalog.import.rows", "result", "failed");
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+        this.progressInterval = progressInterval;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public ImportReport importItems(InputStream input, TransferFormat format) {
+        ImportProgress progress = register(format);
+        logger.info("Starting {} catalog import {}", format, progress.importId());
+        ImportProgress.Status status = ImportProgress.Status.FAILED;
+        try {
+            if (format == TransferFormat.CSV) {
+                importCsv(input, progress);
+            } else {
+                importNdjson(input, progress);
+            }
+            status = ImportProgress.Status.COMPLETED;
+        } catch (IOException ex) {
+            logger.error("Catalog import {} aborted after {} rows", progress.importId(), progress.rowsRead(), ex);
+            throw new UncheckedIOException("Failed to read catalog import " + progress.importId(), ex);
+        } catch (RuntimeException ex) {
+            logger.error("Catalog import {} aborted after {} rows", progress.importId(), progress.rowsRead(), ex);
+            throw ex;
+        } finally {
+            progress.finish(status);
+            ImportReport report = progress.snapshot();
+            meterRegistry.timer("catalog.import.duration", "status", status.name().toLowerCase())
+                    .record(report.elapsedMillis(), TimeUnit.MILLISECONDS);
+            if (report.rowsWritten() > 0) {
+                eventPublisher.publishEvent(new CatalogBulkLoadedEvent("import:" + report.importId(), report.rowsWritten()));
+            }
+            logger.info("Catalog import {} {}: {} rows read, {} written, {} failed in {} ms ({} rows/s)",
+                    report.importId(), status, report.rowsRead(), report.rowsWritten(), report.rowsFailed(),
+                    report.elapsedMillis(), report.rowsPerSecond());
+        }
+        return progress.snapshot();
+    }
+
+    @Override
+    public synchronized Optional<ImportReport> getImport(String importId) {
+        return Optional.ofNullable(imports.get(importId)).map(ImportProgress::snapshot);
+    }
+
+    @Override
+    public synchronized List<ImportReport> listImports() {
+        return imports.values().stream().map(ImportProgress::snapshot).collect(Collectors.toList());
+    }
+
+    @Override
+    public void exportItems(OutputStream output, TransferFormat format) {
+        String sql = "SELECT " + ALL_COLUMNS.stream().map(ItemColumn::column).collect(Collectors.joining(", "))
+                + " FROM items ORDER BY item_id";
+        long start = System.nanoTime();
+        long[] rows = new long[1];
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 64 * 1024);
+            RowWriter rowWriter = format == TransferFormat.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer, objectMapper);
+            rowWriter.begin();
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                return statement;
+            }, (RowCallbackHandler) resultSet -> {
+                try {
+                    rowWriter.write(resultSet);
+                    rows[0]++;
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            rowWriter.end();
+            writer.flush();
+        } catch (IOException | UncheckedIOException ex) {
+            logger.error("Catalog export aborted after {} rows", rows[0], ex);
+            throw new RuntimeException("Failed to export catalog", ex);
+        }
+        logger.info("Exported {} catalog rows as {} in {} ms", rows[0], format,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void importCsv(InputStream input, ImportProgress progress) throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<String> header = reader.next();
+        if (header == null) {
+            return;
+        }
+        // Only columns present in the header are written, so partial files update just those columns.
+        ItemColumn[] target = new ItemColumn[header.size()];
+        long seen = 0;
+        int itemIdField = header.size();
+        for (int i = 0; i < header.size(); i++) {
+            ItemColumn column = ItemColumn.byName(header.get(i));
+            if (column == null) {
+                logger.warn("Import {}: ignoring unknown column '{}'", progress.importId(), header.get(i));
+            } else if ((seen & bit(column)) == 0) {
+                target[i] = column;
+                seen |= bit(column);
+                if (column == ItemColumn.ITEM_ID) {
+                    itemIdField = i;
+                }
+            }
+        }
+        if (itemIdField == header.size()) {
+            throw new IllegalArgumentException("CSV header must contain an itemId column");
+        }
+
+        BatchWriter batch = new BatchWriter(progress);
+        List<String> record;
+        while ((record = reader.next()) != null) {
+            progress.rowRead();
+            long line = reader.recordLine();
+            Object[] values = new Object[ALL_COLUMNS.size()];
+            long present = 0;
+            try {
+                if (record.size() != header.size()) {
+                    throw new IllegalArgumentException("Expected " + header.size() + " fields but found " + record.size());
+                }
+                for (int i = 0; i < target.length; i++) {
+                    // CSV cannot tell an empty value from a missing one, so blank cells are left out.
+                    if (target[i] != null && !record.get(i).isBlank()) {
+                        values[target[i].ordinal()] = target[i].parse(record.get(i));
+                        present |= bit(target[i]);
+                    }
+                }
+            } catch (IllegalArgumentException ex) {
+                reject(progress, line, itemIdField < record.size() ? record.get(itemIdField) : null, ex.getMessage());
+                continue;
+            }
+            batch.add(line, values, present);
+        }
+        batch.flush();
+    }
+
+    private void importNdjson(InputStream input, ImportProgress progress) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024);
+        BatchWriter batch = new BatchWriter(progress);
+        String text;
+        long line = 0;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            progress.rowRead();
+            Object[] values = new Object[ALL_COLUMNS.size()];
+            long present = 0;
+            try {
+                JsonNode node = objectMapper.readTree(text);
+                if (!node.isObject()) {
+                    throw new IllegalArgumentException("Expected a JSON object");
+                }
+                for (ItemColumn column : ALL_COLUMNS) {
+                    JsonNode value = node.has(column.field()) ? node.get(column.field()) : node.get(column.column());
+                    if (value != null) {
+                        values[column.ordinal()] = value.isNull() ? null : column.parse(value.asText());
+                        present |= bit(column);
+                    }
+                }
+            } catch (IOException | IllegalArgumentException ex) {
+                reject(progress, line, values[ITEM_ID], ex.getMessage());
+                continue;
+            }
+            batch.add(line, values, present);
+        }
+        batch.flush();
+    }
+
+    private void reject(ImportProgress progress, long line, Object itemId, String message) {
+        progress.rowFailed(line, itemId == null ? null : itemId.toString(), message);
+        rowsFailed.increment();
+    }
+
+    private synchronized ImportProgress register(TransferFormat format) {
+        ImportProgress progress = new ImportProgress(UUID.randomUUID().toString(), format, maxErrors);
+        imports.put(progress.importId(), progress);
+        Iterator<ImportProgress> iterator = imports.values().iterator();
+        while (imports.size() > MAX_RETAINED_IMPORTS && iterator.hasNext()) {
+            if (iterator.next().status() != ImportProgress.Status.RUNNING) {
+                iterator.remove();
+            }
+        }
+        return progress;
+    }
+
+    private static long bit(ItemColumn column) {
+        return 1L << column.ordinal();
+    }
+
+    private static List<ItemColumn> columnsOf(long present) {
+        return ALL_COLUMNS.stream().filter(column -> (present & bit(column)) != 0).collect(Collectors.toList());
+    }
+
+    private static String upsertSql(List<ItemColumn> columns) {
+        String names = columns.stream().map(ItemColumn::column).collect(Collectors.joining(", "));
+        String placeholders = String.join(", ", Collections.nCopies(columns.size(), "?"));
+        return "MERGE INTO items (" + names + ") KEY (item_id) VALUES (" + placeholders + ")";
+    }
+
+    /**
+     * Accumulates parsed rows and writes them once {@code batchSize} rows are buffered, in one
+     * transaction and one JDBC batch per distinct set of provided columns.
+     */
+    private final class BatchWriter {
+        private final ImportProgress progress;
+        private final Map<Long, String> sqlByColumns = new HashMap<>();
+        private final List<Long> lines = new ArrayList<>();
+        private final List<Object[]> rows = new ArrayList<>();
+        private final List<Long> presence = new ArrayList<>();
+
+        private BatchWriter(ImportProgress progress) {
+            this.progress = progress;
+        }
+
+        private void add(long line, Object[] values, long present) {
+            if (values[ITEM_ID] == null) {
+                reject(progress, line, null, "itemId is required");
+                return;
+            }
+            lines.add(line);
+            rows.add(values);
+            presence.add(present);
+            if (rows.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            long before = progress.rowsWritten();
+            Map<Long, List<Integer>> groups = new LinkedHashMap<>();
+            for (int i = 0; i < rows.size(); i++) {
+                groups.computeIfAbsent(presence.get(i), key -> new ArrayList<>()).add(i);
+            }
+            // Cached item queries are held off from the first statement until the batch is evicted.
+            itemCache.beforeItemsWrite();
+            try {
+                transactionTemplate.executeWithoutResult(status -> groups.forEach((present, indexes) -> {
+                    List<ItemColumn> columns = columnsOf(present);
+                    jdbcTemplate.batchUpdate(sql(present), new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement statement, int i) throws SQLException {
+                            bind(statement, columns, rows.get(indexes.get(i)));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return indexes.size();
+                        }
+                    });
+                }));
+                progress.rowsWritten(rows.size());
+                rowsWritten.increment(rows.size());
+            } catch (DataAccessException ex) {
+                logger.debug("Batch failed, retrying {} rows individually", rows.size(), ex);
+                retryIndividually();
+            } finally {
+                evictWritten();
+            }
+            rows.clear();
+            lines.clear();
+            presence.clear();
+            if (progress.rowsWritten() / progressInterval != before / progressInterval) {
+                ImportReport report = progress.snapshot();
+                logger.info("Import {}: {} rows read, {} written, {} failed ({} rows/s)", report.importId(),
+                        report.rowsRead(), report.rowsWritten(), report.rowsFailed(), report.rowsPerSecond());
+            }
+        }
+
+        private void evictWritten() {
+            List<String> itemIds = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                itemIds.add((String) row[ITEM_ID]);
+            }
+            itemCache.evictItems(itemIds);
+            eventPublisher.publishEvent(new ItemsImportedEvent(progress.importId(), itemIds));
+        }
+
+        private void retryIndividually() {
+            for (int i = 0; i < rows.size(); i++) {
+                Object[] row = rows.get(i);
+                List<ItemColumn> columns = columnsOf(presence.get(i));
+                try {
+                    jdbcTemplate.update(sql(presence.get(i)), statement -> bind(statement, columns, row));
+                    progress.rowsWritten(1);
+                    rowsWritten.increment();
+                } catch (DataAccessException ex) {
+                    reject(progress, lines.get(i), row[ITEM_ID],
+                            NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+                }
+            }
+        }
+
+        private String sql(long present) {
+            return sqlByColumns.computeIfAbsent(present, key -> upsertSql(columnsOf(key)));
+        }
+
+        private void bind(PreparedStatement statement, List<ItemColumn> columns, Object[] values) throws SQLException {
+            for (int c = 0; c < columns.size(); c++) {
+                ItemColumn column = columns.get(c);
+                column.bind(statement, c + 1, values[column.ordinal()]);
+            }
+        }
+    }
+
+    private interface RowWriter {
+        void begin() throws IOException;
+        void write(ResultSet resultSet) throws IOException, SQLException;
+        void end() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        private CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            writer.write(Arrays.stream(ItemColumn.values()).map(ItemColumn::field).collect(Collectors.joining(",")));
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(ResultSet resultSet) throws IOException, SQLException {
+            for (int i = 0; i < ALL_COLUMNS.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                String value = ALL_COLUMNS.get(i).read(resultSet, i + 1);
+                if (value != null) {
+                    writeEscaped(value);
+                }
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void end() {
+        }
+
+        private void writeEscaped(String value) throws IOException {
+            boolean needsQuotes = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            if (!needsQuotes) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+
+        private NdjsonRowWriter(Writer writer, ObjectMapper objectMapper) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            this.generator.setRootValueSeparator(new SerializedString("\n"));
+        }
+
+        @Override
+        public void begin() {
+        }
+
+        @Override
+        public void write(ResultSet resultSet) throws IOException, SQLException {
+            generator.writeStartObject();
+            for (int i = 0; i < ALL_COLUMNS.size(); i++) {
+                ItemColumn column = ALL_COLUMNS.get(i);
+                String value = column.read(resultSet, i + 1);
+                generator.writeFieldName(column.field());
+                if (value == null) {
+                    generator.writeNull();
+                } else if (column.kind() == ItemColumn.Kind.DECIMAL || column.kind() == ItemColumn.Kind.INTEGER) {
+                    generator.writeNumber(value);
+                } else if (column.kind() == ItemColumn.Kind.BOOLEAN) {
+                    generator.writeBoolean(Boolean.parseBoolean(value));
+                } else {
+                    generator.writeString(value);
+                }
+            }
+            generator.writeEndObject();
+        }
+
+        @Override
+        public void end() throws IOException {
+            generator.writeRaw('\n');
+            generator.flush();
+        }
+    }
+}
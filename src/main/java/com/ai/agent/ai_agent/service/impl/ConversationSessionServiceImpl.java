@@ -0,0 +1,196 @@
+package com.ai.agent.ai_agent.service.impl;
+
+import com.ai.agent.ai_agent.model.ConversationContext;
+import com.ai.agent.ai_agent.model.ConversationTurn;
+import com.ai.agent.ai_agent.service.ConversationSessionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded per-user conversation store. Sessions are evicted least-recently-used once
+ * {@code agent.session.max-sessions} is reached and expire after being idle. Older turns are
+ * folded into a short summary so the conversation context stays under a fixed token budget.
+ */
+@Service
+public class ConversationSessionServiceImpl implements ConversationSessionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversationSessionServiceImpl.class);
+
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final int MIN_RECENT_TURNS = 2;
+    private static final int SUMMARY_QUESTION_CHARS = 120;
+    private static final int SUMMARY_ANSWER_CHARS = 200;
+    private static final int TOOL_RESULT_CHARS = 600;
+    private static final int MAX_TOOL_RESULTS = 4;
+
+    private final Map<String, Session> sessions;
+    private final long idleTimeoutNanos;
+    private final int maxContextTokens;
+    private final Counter compactions;
+    private final Counter evictions;
+
+    public ConversationSessionServiceImpl(MeterRegistry meterRegistry,
+                                          @Value("${agent.session.max-sessions:10000}") int maxSessions,
+                                          @Value("${agent.session.idle-timeout-minutes:30}") long idleTimeoutMinutes,
+                                          @Value("${agent.session.max-context-tokens:1500}") int maxContextTokens) {
+        this.idleTimeoutNanos = TimeUnit.MINUTES.toNanos(idleTimeoutMinutes);
+        this.maxContextTokens = maxContextTokens;
+        this.compactions = meterRegistry.counter("agent.session.compactions");
+        this.evictions = meterRegistry.counter("agent.session.evictions");
+        this.sessions = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Session> eldest) {
+                if (size() > maxSessions) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        Gauge.builder("agent.session.active", this, service -> service.activeSessions())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ConversationContext getContext(String userId) {
+        if (userId == null || userId.isBlank()) {
+            return ConversationContext.EMPTY;
+        }
+        Session session = find(userId);
+        if (session == null) {
+            return new ConversationContext(userId, "", List.of(), List.of());
+        }
+        synchronized (session) {
+            return new ConversationContext(userId, session.summary.toString(),
+                    List.copyOf(session.turns), List.copyOf(session.toolResults));
+        }
+    }
+
+    @Override
+    public void recordTurn(String userId, String question, String answer) {
+        if (userId == null || userId.isBlank()) {
+            return;
+        }
+        Session session = findOrCreate(userId);
+        synchronized (session) {
+            // A single turn may take at most a quarter of the budget so that recent turns always fit.
+            int maxTurnChars = maxContextTokens * CHARS_PER_TOKEN / 4;
+            session.turns.addLast(new ConversationTurn(truncate(question, maxTurnChars), truncate(answer, maxTurnChars)));
+            compact(session);
+        }
+    }
+
+    @Override
+    public void recordToolResult(String userId, String toolName, String arguments, String result) {
+        if (userId == null || userId.isBlank()) {
+            return;
+        }
+        Session session = findOrCreate(userId);
+        synchronized (session) {
+            session.toolResults.addLast(toolName + "(" + arguments + ") -> " + truncate(result, TOOL_RESULT_CHARS));
+            while (session.toolResults.size() > MAX_TOOL_RESULTS) {
+                session.toolResults.removeFirst();
+            }
+            compact(session);
+        }
+    }
+
+    private void compact(Session session) {
+        boolean compacted = false;
+        while (tokens(session) > maxContextTokens && session.turns.size() > MIN_RECENT_TURNS) {
+            ConversationTurn oldest = session.turns.removeFirst();
+            session.summary.append("- Q: ").append(truncate(oldest.question(), SUMMARY_QUESTION_CHARS))
+                    .append(" A: ").append(truncate(oldest.answer(), SUMMARY_ANSWER_CHARS)).append('\n');
+            compacted = true;
+        }
+        while (tokens(session) > maxContextTokens && !session.toolResults.isEmpty()) {
+            session.toolResults.removeFirst();
+            compacted = true;
+        }
+        // The summary gets at most a third of the budget; the oldest summary lines go first.
+        int maxSummaryChars = maxContextTokens * CHARS_PER_TOKEN / 3;
+        while (session.summary.length() > maxSummaryChars) {
+            int firstLineEnd = session.summary.indexOf("\n");
+            session.summary.delete(0, firstLineEnd < 0 ? session.summary.length() : firstLineEnd + 1);
+            compacted = true;
+        }
+        if (compacted) {
+            compactions.increment();
+        }
+    }
+
+    private int tokens(Session session) {
+        int chars = session.summary.length();
+        for (ConversationTurn turn : session.turns) {
+            chars += turn.question().length() + turn.answer().length();
+        }
+        for (String toolResult : session.toolResults) {
+            chars += toolResult.length();
+        }
+        return chars / CHARS_PER_TOKEN;
+    }
+
+    private synchronized Session find(String userId) {
+        Session session = sessions.get(userId);
+        if (session != null && isIdle(session)) {
+            sessions.remove(userId);
+            logger.debug("Session for user {} expired", userId);
+            return null;
+        }
+        if (session != null) {
+            session.lastAccessNanos = System.nanoTime();
+        }
+        return session;
+    }
+
+    private synchronized Session findOrCreate(String userId) {
+        Session session = find(userId);
+        if (session == null) {
+            session = new Session();
+            sessions.put(userId, session);
+        }
+        return session;
+    }
+
+    private synchronized int activeSessions() {
+        Iterator<Session> iterator = sessions.values().iterator();
+        while (iterator.hasNext()) {
+            if (isIdle(iterator.next())) {
+                iterator.remove();
+            }
+        }
+        return sessions.size();
+    }
+
+    private boolean isIdle(Session session) {
+        return System.nanoTime() - session.lastAccessNanos > idleTimeoutNanos;
+    }
+
+    private static String truncate(String value, int maxChars) {
+        if (value == null) {
+            return "";
+        }
+        String singleLine = value.replaceAll("\\s+", " ").trim();
+        return singleLine.length() <= maxChars ? singleLine : singleLine.substring(0, maxChars) + "...";
+    }
+
+    private static final class Session {
+        private final Deque<ConversationTurn> turns = new ArrayDeque<>();
+        private final Deque<String> toolResults = new ArrayDeque<>();
+        private final StringBuilder summary = new StringBuilder();
+        private volatile long lastAccessNanos = System.nanoTime();
+    }
+}
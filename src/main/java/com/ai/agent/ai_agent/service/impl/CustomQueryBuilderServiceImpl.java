@@ -1,58 +1,274 @@
 package com.ai.agent.ai_agent.service.impl;
 
+import com.ai.agent.ai_agent.catalog.CatalogVersion;
+import com.ai.agent.ai_agent.dto.ItemPage;
 import com.ai.agent.ai_agent.dto.QueryParameters;
 import com.ai.agent.ai_agent.entity.ItemEntity;
 import com.ai.agent.ai_agent.service.CustomQueryBuilderService;
+import com.ai.agent.ai_agent.utils.InvalidCursorException;
+import com.ai.agent.ai_agent.utils.InvalidQueryException;
+import com.ai.agent.ai_agent.utils.KeysetCursor;
+import com.ai.agent.ai_agent.utils.QueryDigest;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
 import jakarta.persistence.criteria.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
 
+/**
+ * Criteria-built item queries with keyset pagination. Rows are ordered by the sort key and then
+ * itemId, and each page continues strictly after the last row of the previous one, so paging
+ * stays stable and cheap however deep the client goes.
+ */
 @Service
 public class CustomQueryBuilderServiceImpl implements CustomQueryBuilderService {
 
     private static final int DEFAULT_LIMIT = 10;
+    private static final int COUNT_CACHE_SIZE = 256;
     private static final Logger logger = LoggerFactory.getLogger(CustomQueryBuilderServiceImpl.class);
 
     @PersistenceContext
     private EntityManager entityManager;
 
+    private final CatalogVersion catalogVersion;
+    private final int maxPageSize;
+    private final int countCap;
+    private final Map<String, Long> countCache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > COUNT_CACHE_SIZE;
+        }
+    };
+
+    public CustomQueryBuilderServiceImpl(CatalogVersion catalogVersion,
+                                         @Value("${agent.custom-query.max-page-size:500}") int maxPageSize,
+                                         @Value("${agent.custom-query.count-cap:10000}") int countCap) {
+        this.catalogVersion = catalogVersion;
+        this.maxPageSize = maxPageSize;
+        this.countCap = countCap;
+    }
+
     @Override
-    public List<ItemEntity> runCustomQuery(QueryParameters params) {
+    public ItemPage runCustomQuery(QueryParameters params) {
         logger.info("Running custom query with params: {}", params);
         try {
+            SortKey sortKey = SortKey.from(params.getSortBy());
+            boolean descending = "desc".equalsIgnoreCase(params.getSortOrder());
+            String signature = signature(params);
+            KeysetCursor after = params.getCursor() == null || params.getCursor().isBlank()
+                    ? null : KeysetCursor.decode(params.getCursor());
+            if (after != null && (!after.signature().equals(signature)
+                    || !after.sortKey().equals(sortKey.attribute) || after.descending() != descending)) {
+                throw new InvalidCursorException("Cursor was issued for a different query");
+            }
+
             CriteriaBuilder cb = entityManager.getCriteriaBuilder();
             CriteriaQuery<ItemEntity> cq = cb.createQuery(ItemEntity.class);
             Root<ItemEntity> root = cq.from(ItemEntity.class);
 
-            List<Predicate> predicates = new ArrayList<>();
-
-            addPredicateIfNotNull(predicates, params.getMinUnitsSold(), v -> cb.greaterThanOrEqualTo(root.get("unitsSold"), v));
-            addPredicateIfNotNull(predicates, params.getMaxUnitsSold(), v -> cb.lessThanOrEqualTo(root.get("unitsSold"), v));
-            addPredicateIfNotNull(predicates, params.getMinAverageRating(), v -> cb.greaterThanOrEqualTo(root.get("averageRating"), v));
-            addPredicateIfNotNull(predicates, params.getMaxAverageRating(), v -> cb.lessThanOrEqualTo(root.get("averageRating"), v));
-            addPredicateIfNotNull(predicates, params.getMaxStock(), v -> cb.lessThanOrEqualTo(root.get("stock"), v));
-
+            List<Predicate> predicates = filters(cb, root, params);
+            if (after != null) {
+                predicates.add(after(cb, root, sortKey, descending, after));
+            }
             cq.where(predicates.toArray(new Predicate[0]));
+            cq.orderBy(descending
+                    ? List.of(cb.desc(root.get(sortKey.attribute)), cb.desc(root.get("itemId")))
+                    : List.of(cb.asc(root.get(sortKey.attribute)), cb.asc(root.get("itemId"))));
 
-            int limit = params.getLimit() != null ? params.getLimit() : DEFAULT_LIMIT;
-            return entityManager.createQuery(cq)
-                    .setMaxResults(limit)
+            int limit = Math.max(1, Math.min(maxPageSize, params.getLimit() != null ? params.getLimit() : DEFAULT_LIMIT));
+            // One extra row tells us whether there is a next page without a separate query.
+            List<ItemEntity> rows = entityManager.createQuery(cq)
+                    .setMaxResults(limit + 1)
                     .getResultList();
+
+            String nextCursor = null;
+            if (rows.size() > limit) {
+                rows = rows.subList(0, limit);
+                ItemEntity last = rows.get(limit - 1);
+                nextCursor = new KeysetCursor(signature, sortKey.attribute, descending,
+                        sortKey.valueOf(last), last.getItemId()).encode();
+            }
+
+            Long count = Boolean.TRUE.equals(params.getIncludeCount()) ? count(params, signature) : null;
+            Boolean countExact = count == null ? null : count <= countCap;
+            return new ItemPage(new ArrayList<>(rows), nextCursor, count == null ? null : Math.min(count, countCap), countExact);
+        } catch (InvalidCursorException | InvalidQueryException ex) {
+            throw ex;
         } catch (Exception ex) {
             logger.error("Error running custom query with params: {}", params, ex);
             throw new RuntimeException("Failed to run custom query", ex);
         }
     }
 
-    private <T> void addPredicateIfNotNull(List<Predicate> predicates, T value, java.util.function.Function<T, Predicate> predicateFunction) {
-        if (value != null) {
-            predicates.add(predicateFunction.apply(value));
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static List<Predicate> filters(CriteriaBuilder cb, Root<ItemEntity> root, QueryParameters params) {
+        List<Predicate> predicates = new ArrayList<>();
+        for (Filter filter : Filter.values()) {
+            Object value = filter.value.apply(params);
+            if (value == null) {
+                continue;
+            }
+            Path<Comparable> path = root.get(filter.attribute);
+            predicates.add(switch (filter.operator) {
+                case ">=" -> cb.greaterThanOrEqualTo(path, (Comparable) value);
+                case "<=" -> cb.lessThanOrEqualTo(path, (Comparable) value);
+                default -> cb.equal(path, value);
+            });
+        }
+        return predicates;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate after(CriteriaBuilder cb, Root<ItemEntity> root, SortKey sortKey,
+                                   boolean descending, KeysetCursor cursor) {
+        Path<String> itemId = root.get("itemId");
+        if (sortKey == SortKey.ITEM_ID) {
+            return descending ? cb.lessThan(itemId, cursor.lastItemId()) : cb.greaterThan(itemId, cursor.lastItemId());
+        }
+        Path<Comparable> key = root.get(sortKey.attribute);
+        Comparable value = sortKey.parse(cursor.lastValue());
+        // (key, itemId) > (value, lastItemId), spelled out because JPA has no row-value comparison.
+        return descending
+                ? cb.or(cb.lessThan(key, value), cb.and(cb.equal(key, value), cb.lessThan(itemId, cursor.lastItemId())))
+                : cb.or(cb.greaterThan(key, value), cb.and(cb.equal(key, value), cb.greaterThan(itemId, cursor.lastItemId())));
+    }
+
+    /**
+     * Counts matching rows up to {@code countCap + 1}, so the cost is bounded by the cap rather than
+     * by the size of the catalog. The rows are counted inside the database, as
+     * {@code COUNT(*)} over a {@code LIMIT}ed subquery, instead of being returned to be counted here.
+     * Results are reused for every page while the catalog is unchanged.
+     */
+    private long count(QueryParameters params, String signature) {
+        String key = signature + '@' + catalogVersion.current();
+        synchronized (countCache) {
+            Long cached = countCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM (SELECT 1 FROM items");
+        List<Object> values = new ArrayList<>();
+        for (Filter filter : Filter.values()) {
+            Object value = filter.value.apply(params);
+            if (value != null) {
+                sql.append(values.isEmpty() ? " WHERE " : " AND ").append(filter.column).append(' ')
+                        .append(filter.operator).append(" ?");
+                values.add(value);
+            }
+        }
+        sql.append(" LIMIT ?) capped");
+        values.add(countCap + 1);
+        Query query = entityManager.createNativeQuery(sql.toString());
+        for (int i = 0; i < values.size(); i++) {
+            query.setParameter(i + 1, values.get(i));
+        }
+        long count = ((Number) query.getSingleResult()).longValue();
+        synchronized (countCache) {
+            countCache.put(key, count);
+        }
+        return count;
+    }
+
+    private static String signature(QueryParameters params) {
+        QueryParameters filtersOnly = params.toBuilder()
+                .cursor(null)
+                .limit(null)
+                .includeCount(null)
+                .build();
+        return QueryDigest.of(filtersOnly);
+    }
+
+    /**
+     * Filters of a custom query, applied as criteria predicates to the page query and as SQL to the count.
+     */
+    private enum Filter {
+        MIN_UNITS_SOLD("unitsSold", "units_sold", ">=", QueryParameters::getMinUnitsSold),
+        MAX_UNITS_SOLD("unitsSold", "units_sold", "<=", QueryParameters::getMaxUnitsSold),
+        MIN_AVERAGE_RATING("averageRating", "average_rating", ">=", QueryParameters::getMinAverageRating),
+        MAX_AVERAGE_RATING("averageRating", "average_rating", "<=", QueryParameters::getMaxAverageRating),
+        MAX_STOCK("quantityInStock", "quantity_in_stock", "<=", QueryParameters::getMaxStock),
+        ONLINE_AVAILABLE("onlineAvailable", "online_available", "=", QueryParameters::getOnlineAvailable),
+        STORE_AVAILABLE("storeAvailable", "store_available", "=", QueryParameters::getStoreAvailable);
+
+        private final String attribute;
+        private final String column;
+        private final String operator;
+        private final Function<QueryParameters, Object> value;
+
+        Filter(String attribute, String column, String operator, Function<QueryParameters, Object> value) {
+            this.attribute = attribute;
+            this.column = column;
+            this.operator = operator;
+            this.value = value;
+        }
+    }
+
+    private enum SortKey {
+        ITEM_ID("itemId"),
+        UNITS_SOLD("unitsSold"),
+        RECENT_SALES_COUNT("recentSalesCount"),
+        AVERAGE_RATING("averageRating"),
+        NUMBER_OF_REVIEWS("numberOfReviews"),
+        QUANTITY_IN_STOCK("quantityInStock"),
+        STORE_PRICE("storePrice"),
+        ECOM_PRICE("ecomPrice"),
+        MSRP("msrp"),
+        DISCOUNT_PERCENT("discountPercent");
+
+        private final String attribute;
+
+        SortKey(String attribute) {
+            this.attribute = attribute;
+        }
+
+        static SortKey from(String sortBy) {
+            if (sortBy == null || sortBy.isBlank()) {
+                return ITEM_ID;
+            }
+            for (SortKey key : values()) {
+                if (key.attribute.equalsIgnoreCase(sortBy.trim())) {
+                    return key;
+                }
+            }
+            throw new InvalidQueryException("Unsupported sortBy: " + sortBy.toLowerCase(Locale.ROOT));
+        }
+
+        String valueOf(ItemEntity item) {
+            return switch (this) {
+                case ITEM_ID -> item.getItemId();
+                case UNITS_SOLD -> Integer.toString(item.getUnitsSold());
+                case RECENT_SALES_COUNT -> Integer.toString(item.getRecentSalesCount());
+                case AVERAGE_RATING -> Double.toString(item.getAverageRating());
+                case NUMBER_OF_REVIEWS -> Integer.toString(item.getNumberOfReviews());
+                case QUANTITY_IN_STOCK -> Integer.toString(item.getQuantityInStock());
+                case STORE_PRICE -> Double.toString(item.getStorePrice());
+                case ECOM_PRICE -> Double.toString(item.getEcomPrice());
+                case MSRP -> Double.toString(item.getMsrp());
+                case DISCOUNT_PERCENT -> Double.toString(item.getDiscountPercent());
+            };
+        }
+
+        Comparable<?> parse(String value) {
+            try {
+                return switch (this) {
+                    case ITEM_ID -> value;
+                    case UNITS_SOLD, RECENT_SALES_COUNT, NUMBER_OF_REVIEWS, QUANTITY_IN_STOCK -> Integer.valueOf(value);
+                    default -> Double.valueOf(value);
+                };
+            } catch (NumberFormatException ex) {
+                throw new InvalidCursorException("Malformed cursor");
+            }
         }
     }
 }
@@ -2,6 +2,7 @@ package com.ai.agent.ai_agent.service.impl;
 
 import com.ai.agent.ai_agent.dto.QueryParameters;
 import com.ai.agent.ai_agent.entity.ItemEntity;
+import com.ai.agent.ai_agent.governor.QueryGovernor;
 import com.ai.agent.ai_agent.mcp.query.metadata.QueryMetadata;
 import com.ai.agent.ai_agent.repository.ItemRepository;
 import com.ai.agent.ai_agent.service.DynamicQueryService;
@@ -18,36 +19,40 @@ public class DynamicQueryServiceImpl implements DynamicQueryService {
     private static final int DEFAULT_LIMIT = 10;
     private static final Logger logger = LoggerFactory.getLogger(DynamicQueryServiceImpl.class);
     private final ItemRepository repository;
+    private final QueryGovernor governor;
 
-    public DynamicQueryServiceImpl(ItemRepository repository) {
+    public DynamicQueryServiceImpl(ItemRepository repository, QueryGovernor governor) {
         this.repository = repository;
+        this.governor = governor;
     }
 
     @Override
     public List<ItemEntity> runDynamicQuery(String type, QueryParameters params) {
         logger.info("Running dynamic query. Type: {}, Params: {}", type, params);
         int limit = params.getLimit() != null ? params.getLimit() : DEFAULT_LIMIT;
+        PageRequest page = PageRequest.of(0, governor.fetchLimit(limit));
         try {
-            return switch (type) {
+            List<ItemEntity> items = switch (type) {
                 case "topPerformingItems" -> repository.findTopPerformingItems(
                         params.getMinUnitsSold(),
                         params.getMinAverageRating(),
-                        PageRequest.of(0, limit)
+                        page
                 );
                 case "underperformingItems" -> repository.findUnderperformingItems(
-                        params.getMaxUnitsSold(), params.getMaxAverageRating()
+                        params.getMaxUnitsSold(), params.getMaxAverageRating(), page
                 );
                 case "lowStockHighSales" -> repository.findItemsWithLowStockAndHighSales(
-                        params.getMaxStock(), params.getMinUnitsSold()
+                        params.getMaxStock(), params.getMinUnitsSold(), page
                 );
-                case "onlineOnly" -> repository.findOnlineOnlyItemsByStorePriceDesc(PageRequest.of(0, limit));
-                case "storeOnly" -> repository.findStoreOnlyItemsByStorePriceDesc(PageRequest.of(0, limit));
-                case "onlineAndStore" -> repository.findOnlineAndStoreItemsByStorePriceDesc(PageRequest.of(0, limit));
+                case "onlineOnly" -> repository.findOnlineOnlyItemsByStorePriceDesc(page);
+                case "storeOnly" -> repository.findStoreOnlyItemsByStorePriceDesc(page);
+                case "onlineAndStore" -> repository.findOnlineAndStoreItemsByStorePriceDesc(page);
                 default -> {
                     logger.error("Unknown query type: {}", type);
                     throw new IllegalArgumentException("Unknown query type: " + type);
                 }
             };
+            return governor.admitRows(type, items.size() > limit ? items.subList(0, limit) : items);
         } catch (Exception ex) {
             logger.error("Error running dynamic query. Type: {}, Params: {}", type, params, ex);
             throw new RuntimeException("Failed to run dynamic query: " + type, ex);
@@ -0,0 +1,173 @@
+package com.ai.agent.ai_agent.service.impl;
+
+import com.ai.agent.ai_agent.catalog.promo.ItemPromotionLift;
+import com.ai.agent.ai_agent.catalog.promo.PromotionImpact;
+import com.ai.agent.ai_agent.catalog.promo.PromotionIndex;
+import com.ai.agent.ai_agent.catalog.promo.PromotionLift;
+import com.ai.agent.ai_agent.catalog.promo.PromotionWindow;
+import com.ai.agent.ai_agent.entity.DailySalesEntity;
+import com.ai.agent.ai_agent.repository.DailySalesRepository;
+import com.ai.agent.ai_agent.service.PromotionAnalyticsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Promotion lift from daily sales history. Matching windows come from the interval index, and
+ * sales are only loaded for those items and dates, so cost grows with the number of matching
+ * items rather than the catalog size.
+ */
+@Service
+public class PromotionAnalyticsServiceImpl implements PromotionAnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromotionAnalyticsServiceImpl.class);
+
+    private final PromotionIndex promotionIndex;
+    private final DailySalesRepository dailySalesRepository;
+    private final int queryChunkSize;
+
+    public PromotionAnalyticsServiceImpl(PromotionIndex promotionIndex,
+                                         DailySalesRepository dailySalesRepository,
+                                         @Value("${agent.promotions.query-chunk-size:500}") int queryChunkSize) {
+        this.promotionIndex = promotionIndex;
+        this.dailySalesRepository = dailySalesRepository;
+        this.queryChunkSize = queryChunkSize;
+    }
+
+    @Override
+    public PromotionImpact analyzeImpact(String promotion, LocalDate from, LocalDate to, int comparisonDays) {
+        LocalDate today = LocalDate.now();
+        List<PromotionWindow> windows = promotionIndex.activeDuring(promotion, from, to);
+        logger.info("Found {} promotion windows for '{}' between {} and {}", windows.size(), promotion, from, to);
+        if (windows.isEmpty()) {
+            return new PromotionImpact(from, to, comparisonDays, List.of(), List.of());
+        }
+
+        Map<String, PhaseTotals> totals = new HashMap<>(windows.size() * 2);
+        LocalDate earliest = today;
+        for (PromotionWindow window : windows) {
+            totals.put(window.itemId(), new PhaseTotals(window));
+            LocalDate preStart = window.start().minusDays(comparisonDays);
+            if (preStart.isBefore(earliest)) {
+                earliest = preStart;
+            }
+        }
+
+        List<String> itemIds = new ArrayList<>(totals.keySet());
+        for (int i = 0; i < itemIds.size(); i += queryChunkSize) {
+            List<String> chunk = itemIds.subList(i, Math.min(i + queryChunkSize, itemIds.size()));
+            for (DailySalesEntity sales : dailySalesRepository.findByItemIdsBetween(chunk, earliest, today)) {
+                totals.get(sales.getItemId()).add(sales.getSalesDate(), sales.getUnitsSold(), comparisonDays);
+            }
+        }
+
+        List<ItemPromotionLift> items = new ArrayList<>(totals.size());
+        Map<String, PromotionTotals> byPromotion = new LinkedHashMap<>();
+        for (PhaseTotals itemTotals : totals.values()) {
+            ItemPromotionLift lift = itemTotals.toLift();
+            items.add(lift);
+            byPromotion.computeIfAbsent(lift.window().promotion().toLowerCase(Locale.ROOT),
+                    key -> new PromotionTotals(lift.window().promotion())).add(lift);
+        }
+        items.sort(Comparator.comparing((ItemPromotionLift lift) -> lift.lift() == null ? Double.NEGATIVE_INFINITY : lift.lift()).reversed());
+
+        List<PromotionLift> promotions = byPromotion.values().stream()
+                .map(PromotionTotals::toLift)
+                .sorted(Comparator.comparingInt(PromotionLift::items).reversed())
+                .toList();
+        return new PromotionImpact(from, to, comparisonDays, promotions, items);
+    }
+
+    private static Double lift(double baseline, double value) {
+        return baseline > 0 ? value / baseline - 1.0 : null;
+    }
+
+    /**
+     * Units and observed days per phase for one window. Days without a sales row are not
+     * counted, so windows reaching before the recorded history are averaged over the data that exists.
+     */
+    private static final class PhaseTotals {
+        private final PromotionWindow window;
+        // [0]=pre, [1]=during, [2]=post
+        private final long[] units = new long[3];
+        private final int[] days = new int[3];
+
+        private PhaseTotals(PromotionWindow window) {
+            this.window = window;
+        }
+
+        private void add(LocalDate date, int unitsSold, int comparisonDays) {
+            int phase;
+            if (date.isBefore(window.start())) {
+                if (date.isBefore(window.start().minusDays(comparisonDays))) {
+                    return;
+                }
+                phase = 0;
+            } else if (!date.isAfter(window.end())) {
+                phase = 1;
+            } else {
+                if (date.isAfter(window.end().plusDays(comparisonDays))) {
+                    return;
+                }
+                phase = 2;
+            }
+            units[phase] += unitsSold;
+            days[phase]++;
+        }
+
+        private double daily(int phase) {
+            return days[phase] == 0 ? 0 : (double) units[phase] / days[phase];
+        }
+
+        private ItemPromotionLift toLift() {
+            double pre = daily(0);
+            double during = daily(1);
+            Double post = days[2] == 0 ? null : daily(2);
+            return new ItemPromotionLift(window, pre, during, post,
+                    days[1] == 0 ? null : lift(pre, during),
+                    post == null ? null : lift(pre, post));
+        }
+    }
+
+    private static final class PromotionTotals {
+        private final String promotion;
+        private int items;
+        private double pre;
+        private double during;
+        private double post;
+        private double preWithPost;
+
+        private PromotionTotals(String promotion) {
+            this.promotion = promotion;
+        }
+
+        private void add(ItemPromotionLift lift) {
+            items++;
+            // Lift only compares items with an item-level lift: sales during the window and a baseline
+            // before it. Items without either would add to one side of the ratio only.
+            if (lift.lift() != null) {
+                pre += lift.preDaily();
+                during += lift.duringDaily();
+            }
+            // Post lift only compares items whose promotion has ended.
+            if (lift.postDaily() != null) {
+                post += lift.postDaily();
+                preWithPost += lift.preDaily();
+            }
+        }
+
+        private PromotionLift toLift() {
+            return new PromotionLift(promotion, items, pre, during, post, lift(pre, during), lift(preWithPost, post));
+        }
+    }
+}
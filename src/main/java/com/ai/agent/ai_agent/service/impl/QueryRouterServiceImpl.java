@@ -0,0 +1,216 @@
+package com.ai.agent.ai_agent.service.impl;
+
+import com.ai.agent.ai_agent.dto.QueryIntent;
+import com.ai.agent.ai_agent.dto.QueryParameters;
+import com.ai.agent.ai_agent.entity.ItemEntity;
+import com.ai.agent.ai_agent.mcp.query.metadata.QueryMetadata;
+import com.ai.agent.ai_agent.mcp.tools.InventoryTools;
+import com.ai.agent.ai_agent.mcp.tools.utils.ItemSummaryHelper;
+import com.ai.agent.ai_agent.service.DynamicQueryService;
+import com.ai.agent.ai_agent.service.QueryRouterService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Answers the queries listed by {@link DynamicQueryService#getSupportedQueries()} without a model round trip.
+ * Pattern rules give exact matches; a keyword classifier scores the rest and only confident matches are routed.
+ */
+@Service
+public class QueryRouterServiceImpl implements QueryRouterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryRouterServiceImpl.class);
+
+    private static final int MAX_LIMIT = 50;
+    private static final int DEFAULT_LOW_STOCK = 20;
+    private static final double BASELINE_SCORE = 0.5;
+    private static final double METADATA_WEIGHT = 0.3;
+
+    private static final Pattern LIMIT_PATTERN = Pattern.compile(
+            "\\b(?:top|bottom|first|best|worst|show|list)\\s+(\\d{1,3})\\b|\\b(\\d{1,3})\\s+(?:items|products|skus)\\b");
+    private static final Pattern STOCK_PATTERN = Pattern.compile(
+            "\\b(?:below|under|less than|fewer than)\\s+(\\d{1,5})\\s*(?:units|in stock)?");
+    private static final Pattern SALES_PATTERN = Pattern.compile(
+            "\\b(?:more than|over|above|at least)\\s+(\\d{1,7})\\s*(?:units sold|sales|sold)");
+    private static final Pattern ITEM_ID_PATTERN = Pattern.compile("\\bitem\\d+\\b");
+
+    // Constraints the deterministic path cannot honour; these always go to the model.
+    private static final Set<String> BLOCKERS = Set.of(
+            "category", "categories", "brand", "brands", "margin", "margins", "profit", "forecast",
+            "promotion", "promotions", "promo", "discount", "discounts", "why", "compare", "trend",
+            "trends", "revenue", "restock", "replenish", "replenishment", "aging", "cost", "explain");
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "an", "the", "of", "is", "are", "what", "which", "me", "show", "list", "give", "items",
+            "item", "products", "product", "and", "in", "for", "with", "to", "our", "we", "do", "have", "that");
+
+    private final Map<String, Pattern> rules = new LinkedHashMap<>();
+    private final Map<String, Map<String, Double>> keywordWeights = new HashMap<>();
+    private final Map<String, String> titles = new HashMap<>();
+
+    private final DynamicQueryService queryService;
+    private final InventoryTools inventoryTools;
+    private final double minConfidence;
+
+    public QueryRouterServiceImpl(DynamicQueryService queryService,
+                                  InventoryTools inventoryTools,
+                                  @Value("${agent.router.min-confidence:0.7}") double minConfidence) {
+        this.queryService = queryService;
+        this.inventoryTools = inventoryTools;
+        this.minConfidence = minConfidence;
+
+        rules.put("lowStockHighSales", Pattern.compile(
+                "\\blow(?:est)?[- ]stock\\b.*\\b(?:(?:high|strong|good)[- ]sales|selling (?:well|fast)|fast[- ]moving)\\b"));
+        rules.put("underperformingItems", Pattern.compile(
+                "\\b(?:underperform\\w*|worst(?: \\d+)?[- ](?:performing|selling)|poorly performing|bottom(?: \\d+)? (?:performing|selling|items|products))\\b"));
+        rules.put("topPerformingItems", Pattern.compile(
+                "\\b(?:(?:top|best)(?: \\d+)?[- ](?:performing|selling)|best sellers?|top sellers?)\\b"));
+        rules.put("onlineAndStore", Pattern.compile(
+                "\\b(?:both online and (?:in[- ])?stores?|online and (?:in[- ])?stores?|(?:in[- ])?stores? and online)\\b"));
+        rules.put("onlineOnly", Pattern.compile(
+                "\\b(?:online[- ]only|only (?:available |sold )?online|exclusively online)\\b"));
+        rules.put("storeOnly", Pattern.compile(
+                "\\b(?:(?:in[- ])?store[- ]only|only (?:available |sold )?in[- ]stores?|exclusively in[- ]stores?)\\b"));
+
+        keywordWeights.put("topPerformingItems", Map.of(
+                "top", 1.0, "best", 1.2, "performing", 0.8, "sellers", 1.2, "popular", 1.0, "highest", 0.6, "rated", 0.6));
+        keywordWeights.put("underperformingItems", Map.of(
+                "underperforming", 2.0, "worst", 1.5, "bottom", 1.2, "poorly", 1.2, "poor", 1.0, "lowest", 0.6, "slow", 0.8));
+        keywordWeights.put("lowStockHighSales", Map.of(
+                "low", 0.6, "stock", 0.8, "running", 0.6, "out", 0.4, "demand", 0.8, "sales", 0.4, "selling", 0.4));
+        keywordWeights.put("onlineOnly", Map.of(
+                "online", 1.2, "only", 0.6, "exclusive", 0.8, "web", 0.8, "ecommerce", 1.0));
+        keywordWeights.put("storeOnly", Map.of(
+                "store", 1.0, "stores", 1.0, "only", 0.6, "instore", 1.2, "physical", 0.8));
+        keywordWeights.put("onlineAndStore", Map.of(
+                "both", 1.2, "online", 0.6, "store", 0.6, "omnichannel", 1.5, "everywhere", 0.8));
+
+        // Fold the published query metadata into the classifier so new query types are picked up automatically.
+        for (QueryMetadata metadata : queryService.getSupportedQueries()) {
+            titles.put(metadata.type(), metadata.name());
+            Map<String, Double> weights = new HashMap<>(keywordWeights.getOrDefault(metadata.type(), Map.of()));
+            for (String token : tokenize(metadata.name() + " " + metadata.description())) {
+                weights.merge(token, METADATA_WEIGHT, Double::sum);
+            }
+            keywordWeights.put(metadata.type(), weights);
+        }
+    }
+
+    @Override
+    public Optional<QueryIntent> classify(String query) {
+        if (query == null || query.isBlank()) {
+            return Optional.empty();
+        }
+        String normalized = query.toLowerCase(Locale.ROOT).trim();
+        List<String> tokens = tokenize(normalized);
+        if (ITEM_ID_PATTERN.matcher(normalized).find() || tokens.stream().anyMatch(BLOCKERS::contains)) {
+            return Optional.empty();
+        }
+
+        String type = null;
+        double confidence = 0.0;
+        for (Map.Entry<String, Pattern> rule : rules.entrySet()) {
+            if (rule.getValue().matcher(normalized).find()) {
+                type = rule.getKey();
+                confidence = 1.0;
+                break;
+            }
+        }
+
+        if (type == null) {
+            double total = Math.exp(BASELINE_SCORE);
+            double best = Double.NEGATIVE_INFINITY;
+            for (Map.Entry<String, Map<String, Double>> entry : keywordWeights.entrySet()) {
+                double score = 0.0;
+                for (String token : tokens) {
+                    score += entry.getValue().getOrDefault(token, 0.0);
+                }
+                double weight = Math.exp(score);
+                total += weight;
+                if (score > best) {
+                    best = score;
+                    type = entry.getKey();
+                }
+            }
+            confidence = Math.exp(best) / total;
+        }
+
+        if (confidence < minConfidence) {
+            logger.debug("Query not routed (best: {}, confidence: {})", type, confidence);
+            return Optional.empty();
+        }
+        return Optional.of(new QueryIntent(type, confidence, extractParameters(normalized)));
+    }
+
+    @Override
+    public Optional<String> route(String query) {
+        return classify(query).map(intent -> {
+            logger.info("Routing query locally. Type: {}, Confidence: {}", intent.type(), intent.confidence());
+            return answer(intent);
+        });
+    }
+
+    @Override
+    public String answer(QueryIntent intent) {
+        QueryParameters params = intent.params().toBuilder().build();
+        String title = titles.getOrDefault(intent.type(), intent.type());
+        return switch (intent.type()) {
+            case "underperformingItems" -> inventoryTools.getUnderperformingItems(params.getLimit());
+            case "lowStockHighSales" -> {
+                // "Low stock" needs a cutoff; when the user gave none, the answer says which one was used.
+                // Sales are only filtered on request, the ranking by units sold covers "high sales".
+                if (params.getMaxStock() == null) {
+                    params.setMaxStock(DEFAULT_LOW_STOCK);
+                    title = title + " (stock below " + DEFAULT_LOW_STOCK + " units)";
+                }
+                List<ItemEntity> items = queryService.runDynamicQuery(intent.type(), params);
+                int limit = params.getLimit() != null ? params.getLimit() : 10;
+                yield ItemSummaryHelper.summarizeItems(title, items.subList(0, Math.min(limit, items.size())));
+            }
+            default -> {
+                if (params.getMinUnitsSold() == null) {
+                    params.setMinUnitsSold(0);
+                }
+                yield ItemSummaryHelper.summarizeItems(title, queryService.runDynamicQuery(intent.type(), params));
+            }
+        };
+    }
+
+    private QueryParameters extractParameters(String normalized) {
+        Integer limit = null;
+        Matcher limitMatcher = LIMIT_PATTERN.matcher(normalized);
+        if (limitMatcher.find()) {
+            String value = limitMatcher.group(1) != null ? limitMatcher.group(1) : limitMatcher.group(2);
+            limit = Math.max(1, Math.min(MAX_LIMIT, Integer.parseInt(value)));
+        }
+        Matcher stockMatcher = STOCK_PATTERN.matcher(normalized);
+        Integer maxStock = stockMatcher.find() ? Integer.parseInt(stockMatcher.group(1)) : null;
+        Matcher salesMatcher = SALES_PATTERN.matcher(normalized);
+        Integer minUnitsSold = salesMatcher.find() ? Integer.parseInt(salesMatcher.group(1)) : null;
+
+        return QueryParameters.builder()
+                .limit(limit)
+                .maxStock(maxStock)
+                .minUnitsSold(minUnitsSold)
+                .minAverageRating(0.0)
+                .build();
+    }
+
+    private static List<String> tokenize(String text) {
+        return Pattern.compile("[^a-z0-9]+")
+                .splitAsStream(text.toLowerCase(Locale.ROOT))
+                .filter(token -> !token.isEmpty() && !STOPWORDS.contains(token))
+                .toList();
+    }
+}
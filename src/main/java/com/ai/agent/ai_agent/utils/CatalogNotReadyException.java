@@ -0,0 +1,12 @@
+package com.ai.agent.ai_agent.utils;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class CatalogNotReadyException extends RuntimeException {
+
+    public CatalogNotReadyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,71 @@
+package com.ai.agent.ai_agent.utils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Consecutive-failure circuit breaker. Opens after {@code failureThreshold} failures in a row,
+ * rejects calls while open, then lets a single probe through; the probe's outcome closes or
+ * re-opens the circuit. Every acquired call must end in exactly one of {@link #onSuccess},
+ * {@link #onFailure} or {@link #onIgnored}.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openedAt = new AtomicLong();
+    private final AtomicBoolean probeInFlight = new AtomicBoolean();
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+    }
+
+    public boolean tryAcquire() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN && System.nanoTime() - openedAt.get() >= openDurationNanos) {
+            state.compareAndSet(State.OPEN, State.HALF_OPEN);
+        }
+        return state.get() == State.HALF_OPEN && probeInFlight.compareAndSet(false, true);
+    }
+
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        probeInFlight.set(false);
+        state.set(State.CLOSED);
+    }
+
+    /**
+     * Ends a call without judging the model, e.g. when the caller cancelled it or it never got a
+     * thread. Frees the probe slot so the next call can probe instead.
+     */
+    public void onIgnored() {
+        probeInFlight.set(false);
+    }
+
+    public void onFailure() {
+        probeInFlight.set(false);
+        if (state.get() == State.HALF_OPEN || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            openedAt.set(System.nanoTime());
+            state.set(State.OPEN);
+        }
+    }
+
+    public State getState() {
+        return state.get();
+    }
+}
@@ -0,0 +1,123 @@
+package com.ai.agent.ai_agent.utils;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Point in time by which a request must finish. A deadline can also be cancelled early (the
+ * client went away, or nobody is waiting for the result any more); it then counts as expired and
+ * runs its cancel actions, which is how in-flight JDBC statements and tool calls are stopped.
+ * Deadlines derived with {@link #min(Duration)} share the cancellation and the query budget.
+ */
+public final class Deadline {
+
+    private final long deadlineNanos;
+    private final Cancellation cancellation;
+    private final QueryBudget budget;
+
+    private Deadline(long deadlineNanos, Cancellation cancellation, QueryBudget budget) {
+        this.deadlineNanos = deadlineNanos;
+        this.cancellation = cancellation;
+        this.budget = budget;
+    }
+
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos(), new Cancellation(), null);
+    }
+
+    public long remainingMillis() {
+        if (cancellation.reason != null) {
+            return 0;
+        }
+        return Math.max(0, (deadlineNanos - System.nanoTime()) / 1_000_000);
+    }
+
+    public boolean isExpired() {
+        return cancellation.reason != null || deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    public Deadline min(Duration timeout) {
+        return new Deadline(Math.min(deadlineNanos, System.nanoTime() + timeout.toNanos()), cancellation, budget);
+    }
+
+    /**
+     * Same expiry and budget, but cancelled independently. Used for work shared between callers,
+     * which must not be cancelled just because one of them went away.
+     */
+    public Deadline detach() {
+        return new Deadline(deadlineNanos, new Cancellation(), budget);
+    }
+
+    /**
+     * Same expiry, a {@link QueryBudget#fork() fork} of the budget, and a cancellation of its own
+     * that is also triggered when this deadline is cancelled.
+     */
+    public Deadline fork() {
+        Deadline fork = new Deadline(deadlineNanos, new Cancellation(), budget == null ? null : budget.fork());
+        fork.onCancel(onCancel(() -> fork.cancel(cancelReason())));
+        return fork;
+    }
+
+    public Deadline withBudget(QueryBudget budget) {
+        return new Deadline(deadlineNanos, cancellation, budget);
+    }
+
+    public Optional<QueryBudget> budget() {
+        return Optional.ofNullable(budget);
+    }
+
+    public void cancel(String reason) {
+        cancellation.cancel(reason);
+    }
+
+    public boolean isCancelled() {
+        return cancellation.reason != null;
+    }
+
+    public String cancelReason() {
+        return cancellation.reason;
+    }
+
+    /**
+     * Runs {@code action} when this deadline is cancelled, or right away if it already was.
+     * Returns a handle that unregisters the action.
+     */
+    public Runnable onCancel(Runnable action) {
+        return cancellation.register(action);
+    }
+
+    @Override
+    public String toString() {
+        return isCancelled() ? "Deadline[cancelled=" + cancelReason() + "]" : "Deadline[remaining=" + remainingMillis() + "ms]";
+    }
+
+    private static final class Cancellation {
+        private final CopyOnWriteArrayList<Runnable> actions = new CopyOnWriteArrayList<>();
+        private volatile String reason;
+
+        private void cancel(String cancelReason) {
+            synchronized (this) {
+                if (reason != null) {
+                    return;
+                }
+                reason = cancelReason;
+            }
+            for (Runnable action : actions) {
+                action.run();
+            }
+            actions.clear();
+        }
+
+        private Runnable register(Runnable action) {
+            synchronized (this) {
+                if (reason == null) {
+                    actions.add(action);
+                    return () -> actions.remove(action);
+                }
+            }
+            action.run();
+            return () -> { };
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.ai.agent.ai_agent.utils;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+/**
+ * Carries the deadline of the current request across the agent loop. Work handed to another
+ * thread must be wrapped with {@link #wrap(Callable)} so the deadline travels with it.
+ */
+public final class DeadlineContext {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private DeadlineContext() {
+    }
+
+    public static Optional<Deadline> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    public static long remainingMillis(long fallbackMillis) {
+        Deadline deadline = CURRENT.get();
+        return deadline == null ? fallbackMillis : Math.min(fallbackMillis, deadline.remainingMillis());
+    }
+
+    public static void checkNotExpired() {
+        Deadline deadline = CURRENT.get();
+        if (deadline != null && deadline.isExpired()) {
+            throw new DeadlineExceededException("Request deadline exceeded");
+        }
+    }
+
+    public static <V> Callable<V> wrap(Callable<V> task) {
+        return wrap(CURRENT.get(), task);
+    }
+
+    public static <V> Callable<V> wrap(Deadline deadline, Callable<V> task) {
+        if (deadline == null) {
+            return task;
+        }
+        return () -> {
+            Deadline previous = CURRENT.get();
+            CURRENT.set(deadline);
+            try {
+                return task.call();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+}
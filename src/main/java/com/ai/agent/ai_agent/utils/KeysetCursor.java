@@ -0,0 +1,39 @@
+package com.ai.agent.ai_agent.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position after the last row of a keyset-paginated page: the sort value and itemId of that
+ * row, plus a signature of the query it came from. Encoded as an opaque URL-safe token.
+ */
+public record KeysetCursor(
+        String signature,
+        String sortKey,
+        boolean descending,
+        String lastValue,
+        String lastItemId
+) {
+
+    private static final String VERSION = "c1";
+
+    public String encode() {
+        String raw = String.join("|", VERSION, signature, sortKey, descending ? "d" : "a", lastValue, lastItemId);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        // itemId goes last so it may itself contain the separator.
+        String[] parts = raw.split("\\|", 6);
+        if (parts.length != 6 || !VERSION.equals(parts[0])) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        return new KeysetCursor(parts[1], parts[2], "d".equals(parts[3]), parts[4], parts[5]);
+    }
+}
@@ -0,0 +1,65 @@
+package com.ai.agent.ai_agent.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rows and result bytes one request may still consume. Shared by every thread working on the
+ * request through its {@link Deadline}.
+ */
+public final class QueryBudget {
+
+    private final long maxRows;
+    private final long maxBytes;
+    private final AtomicLong rowsUsed = new AtomicLong();
+    private final AtomicLong bytesUsed = new AtomicLong();
+
+    public QueryBudget(long maxRows, long maxBytes) {
+        this.maxRows = maxRows;
+        this.maxBytes = maxBytes;
+    }
+
+    public long remainingRows() {
+        return Math.max(0, maxRows - rowsUsed.get());
+    }
+
+    public long remainingBytes() {
+        return Math.max(0, maxBytes - bytesUsed.get());
+    }
+
+    /**
+     * Takes up to {@code requested} rows from the budget and returns how many were granted.
+     */
+    public long takeRows(long requested) {
+        return take(rowsUsed, maxRows, requested);
+    }
+
+    public long takeBytes(long requested) {
+        return take(bytesUsed, maxBytes, requested);
+    }
+
+    /**
+     * A budget holding what this one has left. Work whose result may be thrown away (a hedged
+     * model call) runs against a fork, and only the fork that is kept is {@link #charge charged} back.
+     */
+    public QueryBudget fork() {
+        return new QueryBudget(remainingRows(), remainingBytes());
+    }
+
+    /**
+     * Charges what {@code fork} used to this budget.
+     */
+    public void charge(QueryBudget fork) {
+        takeRows(fork.rowsUsed.get());
+        takeBytes(fork.bytesUsed.get());
+    }
+
+    private static long take(AtomicLong used, long max, long requested) {
+        while (true) {
+            long current = used.get();
+            long granted = Math.min(requested, Math.max(0, max - current));
+            if (granted == 0 || used.compareAndSet(current, current + granted)) {
+                return granted;
+            }
+        }
+    }
+}
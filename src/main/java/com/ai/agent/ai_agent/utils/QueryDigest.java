@@ -0,0 +1,54 @@
+package com.ai.agent.ai_agent.utils;
+
+import com.ai.agent.ai_agent.dto.QueryParameters;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/**
+ * Stable digest of {@link QueryParameters}: the first 128 bits of a SHA-256 over every field in a
+ * fixed order, each length-prefixed so that no two parameter sets share an encoding. Unlike
+ * {@code hashCode()}, it does not change between JVMs and is not open to chosen collisions.
+ */
+public final class QueryDigest {
+
+    private static final int BYTES = 16;
+
+    private QueryDigest() {
+    }
+
+    public static String of(QueryParameters params) {
+        StringBuilder canonical = new StringBuilder(128);
+        append(canonical, params.getOnlineAvailable());
+        append(canonical, params.getStoreAvailable());
+        append(canonical, params.getMinUnitsSold());
+        append(canonical, params.getMaxUnitsSold());
+        append(canonical, params.getMinAverageRating());
+        append(canonical, params.getMaxAverageRating());
+        append(canonical, params.getMaxStock());
+        append(canonical, params.getSortBy());
+        append(canonical, params.getSortOrder());
+        append(canonical, params.getLimit());
+        append(canonical, params.getCursor());
+        append(canonical, params.getIncludeCount());
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(Arrays.copyOf(hash, BYTES));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    // Null is "-", anything else its length and text, so null and "null" differ.
+    private static void append(StringBuilder canonical, Object value) {
+        if (value == null) {
+            canonical.append('-');
+            return;
+        }
+        String text = value.toString();
+        canonical.append(text.length()).append(':').append(text);
+    }
+}
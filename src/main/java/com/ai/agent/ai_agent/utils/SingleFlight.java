@@ -0,0 +1,184 @@
+package com.ai.agent.ai_agent.utils;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collapses concurrent executions of the same key into one. Every caller gets its own future;
+ * cancelling it only detaches that caller, and the shared execution is cancelled once the last
+ * caller has detached. Results and failures are delivered to all attached callers. Nothing is
+ * cached: once an execution finishes, the next call for the key runs again.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Call<V>> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public SingleFlight(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public CompletableFuture<V> execute(K key, Callable<V> task) {
+        return execute(key, task, null);
+    }
+
+    /**
+     * {@code onAbandon} runs if every caller detaches before the shared execution finishes, after
+     * which the execution is interrupted. Use it to release resources the task holds that do not
+     * react to interrupts, such as running JDBC statements.
+     */
+    public CompletableFuture<V> execute(K key, Callable<V> task, Runnable onAbandon) {
+        while (true) {
+            Call<V> created = new Call<>(onAbandon);
+            Call<V> existing = inFlight.putIfAbsent(key, created);
+            if (existing == null) {
+                executions.incrementAndGet();
+                start(key, created, task);
+                return created.newWaiter(() -> release(key, created));
+            }
+            if (existing.attach()) {
+                coalesced.incrementAndGet();
+                return existing.newWaiter(() -> release(key, existing));
+            }
+            // Every waiter of the existing call has gone away; it is being torn down.
+            inFlight.remove(key, existing);
+        }
+    }
+
+    /**
+     * Blocking variant for callers that run on a request thread. Interrupting the caller
+     * detaches it from the shared execution.
+     */
+    public V executeAndWait(K key, Callable<V> task) {
+        return executeAndWait(key, task, null);
+    }
+
+    /**
+     * Waits at most until {@code deadline}; on expiry the caller detaches and a
+     * {@link DeadlineExceededException} is thrown. Cancelling the deadline detaches the caller
+     * right away with a {@link CancellationException}.
+     */
+    public V executeAndWait(K key, Callable<V> task, Deadline deadline) {
+        return executeAndWait(key, task, deadline, null);
+    }
+
+    public V executeAndWait(K key, Callable<V> task, Deadline deadline, Runnable onAbandon) {
+        CompletableFuture<V> future = execute(key, task, onAbandon);
+        Runnable unregister = deadline == null ? () -> { } : deadline.onCancel(() -> future.cancel(true));
+        try {
+            return deadline == null ? future.get() : future.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+        } catch (CancellationException ex) {
+            throw new CancellationException("Cancelled while waiting for " + key
+                    + (deadline != null && deadline.isCancelled() ? " (" + deadline.cancelReason() + ")" : ""));
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            throw new DeadlineExceededException("Deadline exceeded while waiting for " + key);
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for " + key);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new CompletionException(cause);
+        } finally {
+            unregister.run();
+        }
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    public long executionCount() {
+        return executions.get();
+    }
+
+    public long coalescedCount() {
+        return coalesced.get();
+    }
+
+    private void start(K key, Call<V> call, Callable<V> task) {
+        call.result.whenComplete((value, error) -> inFlight.remove(key, call));
+        Runnable runnable = () -> {
+            if (call.result.isDone()) {
+                return;
+            }
+            try {
+                call.result.complete(task.call());
+            } catch (Throwable ex) {
+                call.result.completeExceptionally(ex);
+            }
+        };
+        try {
+            call.running = executor.submit(runnable);
+        } catch (RejectedExecutionException ex) {
+            runnable.run();
+        }
+    }
+
+    private void release(K key, Call<V> call) {
+        if (call.waiters.decrementAndGet() == 0 && !call.result.isDone()) {
+            inFlight.remove(key, call);
+            call.result.cancel(false);
+            if (call.onAbandon != null) {
+                call.onAbandon.run();
+            }
+            Future<?> running = call.running;
+            if (running != null) {
+                running.cancel(true);
+            }
+        }
+    }
+
+    private static final class Call<V> {
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private final AtomicInteger waiters = new AtomicInteger(1);
+        private final Runnable onAbandon;
+        private volatile Future<?> running;
+
+        private Call(Runnable onAbandon) {
+            this.onAbandon = onAbandon;
+        }
+
+        private boolean attach() {
+            return waiters.getAndUpdate(n -> n == 0 ? 0 : n + 1) > 0;
+        }
+
+        private CompletableFuture<V> newWaiter(Runnable onCancel) {
+            CompletableFuture<V> waiter = new CompletableFuture<>();
+            result.whenComplete((value, error) -> {
+                if (error == null) {
+                    waiter.complete(value);
+                } else {
+                    waiter.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error);
+                }
+            });
+            waiter.whenComplete((value, error) -> {
+                if (waiter.isCancelled()) {
+                    onCancel.run();
+                }
+            });
+            return waiter;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.ai.agent.ai_agent.catalog.history;
+
+import com.ai.agent.ai_agent.entity.ItemEntity;
+import com.ai.agent.ai_agent.event.ItemChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemChangeLogTest {
+
+    @TempDir
+    Path directory;
+
+    private ItemChangeLog open(boolean reset) {
+        return new ItemChangeLog(null, new SimpleMeterRegistry(), directory.toString(), 1 << 16, 0, 1 << 20, reset);
+    }
+
+    private static void change(ItemChangeLog log, String itemId, String category, int stock) {
+        ItemEntity item = ItemEntity.builder().itemId(itemId).category(category)
+                .storePrice(9.5).ecomPrice(9).discountPercent(5).quantityInStock(stock).build();
+        log.onItemChanged(new ItemChangedEvent(ItemChangedEvent.ChangeType.UPDATED, item));
+    }
+
+    private static void delete(ItemChangeLog log, String itemId) {
+        ItemEntity item = ItemEntity.builder().itemId(itemId).build();
+        log.onItemChanged(new ItemChangedEvent(ItemChangedEvent.ChangeType.DELETED, item));
+    }
+
+    private static List<String> itemsIn(ItemChangeLog log, String category) {
+        return log.categoryMovement(category, HistoryField.STOCK, Instant.EPOCH, Instant.now()).stream()
+                .map(ItemMovement::itemId)
+                .sorted()
+                .toList();
+    }
+
+    private static double stock(ItemChangeLog log, String itemId) {
+        return log.asOf(itemId, Instant.now()).orElseThrow().values().get(HistoryField.STOCK);
+    }
+
+    @Test
+    void recoversHistoryAndCategories() {
+        ItemChangeLog log = open(true);
+        change(log, "a", "Toys", 10);
+        change(log, "b", "Toys", 20);
+        change(log, "c", "Games", 30);
+        change(log, "b", "Games", 21);
+        log.close();
+
+        ItemChangeLog recovered = open(false);
+
+        assertEquals(3, recovered.itemCount());
+        assertEquals(List.of("a"), itemsIn(recovered, "Toys"));
+        assertEquals(List.of("b", "c"), itemsIn(recovered, "Games"));
+        assertEquals(21, stock(recovered, "b"));
+        assertEquals(2, recovered.changes("b", HistoryField.STOCK, Instant.EPOCH, Instant.now()).size());
+    }
+
+    @Test
+    void compactionFoldsHistoryBeforeTheCutoffAndDropsDeletedItems() throws InterruptedException, IOException {
+        ItemChangeLog log = open(true);
+        for (int stock = 10; stock <= 13; stock++) {
+            change(log, "a", "Toys", stock);
+        }
+        change(log, "b", "Toys", 5);
+        delete(log, "b");
+        // Retention is zero days: everything logged before the compaction is folded.
+        Thread.sleep(5);
+
+        log.compact();
+
+        assertEquals(1, log.itemCount());
+        assertTrue(log.foldedBefore().isPresent());
+        List<FieldChange> changes = log.changes("a", HistoryField.STOCK, Instant.EPOCH, Instant.now());
+        assertEquals(1, changes.size());
+        assertEquals(13, changes.get(0).value());
+        assertEquals(9.5, log.asOf("a", Instant.now()).orElseThrow().values().get(HistoryField.STORE_PRICE));
+
+        change(log, "a", "Games", 14);
+        log.close();
+        ItemChangeLog recovered = open(false);
+
+        assertEquals(1, recovered.itemCount());
+        assertEquals(14, stock(recovered, "a"));
+        assertEquals(List.of("a"), itemsIn(recovered, "Games"));
+        assertTrue(recovered.asOf("b", Instant.now()).isEmpty());
+        try (var files = Files.list(directory)) {
+            assertTrue(files.map(file -> file.getFileName().toString())
+                    .noneMatch(name -> name.startsWith("items-000000") || name.startsWith("changes-000000")));
+        }
+    }
+
+    @Test
+    void truncatesATornDictionaryEntry() throws IOException {
+        ItemChangeLog log = open(true);
+        change(log, "a", "Toys", 10);
+        log.close();
+        // An item entry cut off in the middle of its id.
+        Files.write(directory.resolve("items-000000.dict"), new byte[] {0, 0, 8, 'x', 'y'}, StandardOpenOption.APPEND);
+
+        ItemChangeLog recovered = open(false);
+        assertEquals(1, recovered.itemCount());
+        change(recovered, "b", "Toys", 20);
+        recovered.close();
+
+        ItemChangeLog reopened = open(false);
+        assertEquals(List.of("a", "b"), itemsIn(reopened, "Toys"));
+        assertEquals(20, stock(reopened, "b"));
+    }
+
+    @Test
+    void resyncKeepsChangesMadeOnTheFeedWhileItScans() {
+        int rows = ItemChangeLog.RESYNC_CHUNK * 2 + 10;
+        ItemChangeLog[] holder = new ItemChangeLog[1];
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:history-resync;DB_CLOSE_DELAY=-1")) {
+            @Override
+            public void query(String sql, RowCallbackHandler handler) {
+                super.query(sql, resultSet -> {
+                    handler.processRow(resultSet);
+                    if (resultSet.getRow() == 1) {
+                        // Committed after the scan read the row, before it reached its chunk.
+                        change(holder[0], "item-" + (rows - 1), "Toys", 999);
+                    }
+                });
+            }
+        };
+        jdbcTemplate.execute("CREATE TABLE items (item_id VARCHAR(32) PRIMARY KEY, category VARCHAR(32), "
+                + "store_price REAL, ecom_price REAL, discount_percent REAL, quantity_in_stock INT)");
+        for (int i = 0; i < rows; i++) {
+            jdbcTemplate.update("INSERT INTO items VALUES (?, 'Toys', 9.5, 9, 5, ?)", "item-" + i, i);
+        }
+        holder[0] = new ItemChangeLog(jdbcTemplate, new SimpleMeterRegistry(), directory.toString(), 1 << 16, 0, 1 << 20, true);
+
+        holder[0].resync();
+
+        assertEquals(rows, holder[0].itemCount());
+        assertEquals(5, stock(holder[0], "item-5"));
+        assertEquals(999, stock(holder[0], "item-" + (rows - 1)));
+    }
+}
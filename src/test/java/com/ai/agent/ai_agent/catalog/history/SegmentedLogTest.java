@@ -0,0 +1,97 @@
+package com.ai.agent.ai_agent.catalog.history;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class SegmentedLogTest {
+
+    private static final int SEGMENT_BYTES = SegmentedLog.RECORD_BYTES * 4;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopensEveryRecordAcrossSegments() throws IOException {
+        SegmentedLog log = SegmentedLog.create(directory, 3, SEGMENT_BYTES);
+        long previous = -1;
+        for (int i = 0; i < 10; i++) {
+            previous = log.append(1_000 + i, previous, i * 1.5, i % 3, HistoryField.values()[i % 4]);
+        }
+        log.force();
+
+        SegmentedLog reopened = SegmentedLog.open(directory, 3, SEGMENT_BYTES);
+
+        assertEquals(10, reopened.recordCount());
+        assertEquals(3, reopened.mappedBytes() / SEGMENT_BYTES);
+        for (int i = 9; i >= 0; i--) {
+            assertEquals(1_000 + i, reopened.timestamp(previous));
+            assertEquals(i * 1.5, reopened.value(previous));
+            assertEquals(i % 3, reopened.ordinal(previous));
+            assertEquals(HistoryField.values()[i % 4], reopened.field(previous));
+            previous = reopened.previous(previous);
+        }
+        assertEquals(-1, previous);
+    }
+
+    @Test
+    void endsAfterAFullLastSegment() throws IOException {
+        SegmentedLog log = SegmentedLog.create(directory, 0, SEGMENT_BYTES);
+        for (int i = 0; i < 8; i++) {
+            log.append(1_000 + i, -1, i, 0, HistoryField.STOCK);
+        }
+
+        SegmentedLog reopened = SegmentedLog.open(directory, 0, SEGMENT_BYTES);
+
+        assertEquals(8, reopened.recordCount());
+        long offset = reopened.append(2_000, -1, 42, 0, HistoryField.STOCK);
+        assertEquals(8 * SegmentedLog.RECORD_BYTES, offset);
+        assertEquals(42, reopened.value(offset));
+    }
+
+    @Test
+    void dropsATornTailRecord() throws IOException {
+        SegmentedLog log = SegmentedLog.create(directory, 0, SEGMENT_BYTES);
+        log.append(1_000, -1, 1, 0, HistoryField.STORE_PRICE);
+        long head = log.append(1_001, 0, 2, 0, HistoryField.STORE_PRICE);
+        log.force();
+        // The process stopped after writing the body of the next record but before its timestamp.
+        ByteBuffer body = ByteBuffer.allocate(SegmentedLog.RECORD_BYTES - 8);
+        body.putLong(head).putDouble(3).putInt(0).put((byte) HistoryField.STORE_PRICE.ordinal()).flip();
+        try (FileChannel channel = FileChannel.open(directory.resolve("changes-000000-000000.log"), StandardOpenOption.WRITE)) {
+            channel.write(body, 2L * SegmentedLog.RECORD_BYTES + 8);
+        }
+
+        SegmentedLog reopened = SegmentedLog.open(directory, 0, SEGMENT_BYTES);
+
+        assertEquals(2, reopened.recordCount());
+        assertEquals(2, reopened.value(head));
+        long offset = reopened.append(1_002, head, 4, 0, HistoryField.STORE_PRICE);
+        assertEquals(2L * SegmentedLog.RECORD_BYTES, offset);
+        assertEquals(4, reopened.value(offset));
+        assertEquals(head, reopened.previous(offset));
+    }
+
+    @Test
+    void deleteRemovesEverySegment() throws IOException {
+        SegmentedLog log = SegmentedLog.create(directory, 1, SEGMENT_BYTES);
+        for (int i = 0; i < 6; i++) {
+            log.append(1_000 + i, -1, i, 0, HistoryField.STOCK);
+        }
+
+        log.delete();
+
+        try (var files = Files.list(directory)) {
+            assertFalse(files.findAny().isPresent());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.ai.agent.ai_agent.catalog.promo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntervalIndexTest {
+
+    private record Interval(String name, long start, long end) {}
+
+    private static IntervalIndex<Interval> index(Interval... intervals) {
+        return IntervalIndex.build(List.of(intervals), Interval::start, Interval::end);
+    }
+
+    private static List<String> names(List<Interval> intervals) {
+        return intervals.stream().map(Interval::name).sorted().toList();
+    }
+
+    @Test
+    void boundsAreInclusive() {
+        IntervalIndex<Interval> index = index(new Interval("a", 10, 20));
+
+        assertEquals(List.of("a"), names(index.stabbing(10)));
+        assertEquals(List.of("a"), names(index.stabbing(20)));
+        assertTrue(index.stabbing(9).isEmpty());
+        assertTrue(index.stabbing(21).isEmpty());
+        assertEquals(List.of("a"), names(index.overlapping(0, 10)));
+        assertEquals(List.of("a"), names(index.overlapping(20, 30)));
+        assertTrue(index.overlapping(0, 9).isEmpty());
+        assertTrue(index.overlapping(21, 30).isEmpty());
+    }
+
+    @Test
+    void findsContainedContainingAndPartialOverlaps() {
+        IntervalIndex<Interval> index = index(
+                new Interval("before", 0, 4),
+                new Interval("left", 3, 6),
+                new Interval("inside", 6, 7),
+                new Interval("around", 1, 20),
+                new Interval("right", 8, 12),
+                new Interval("after", 11, 15),
+                new Interval("point", 5, 5));
+
+        assertEquals(List.of("around", "inside", "left", "point", "right"), names(index.overlapping(5, 9)));
+        assertEquals(List.of("around", "left", "point"), names(index.stabbing(5)));
+        assertEquals(List.of("after", "around", "right"), names(index.stabbing(11)));
+    }
+
+    @Test
+    void emptyIndexAndSinglePoint() {
+        assertTrue(index().overlapping(Long.MIN_VALUE, Long.MAX_VALUE).isEmpty());
+        assertEquals(0, index().size());
+
+        IntervalIndex<Interval> index = index(new Interval("p", 7, 7));
+        assertEquals(List.of("p"), names(index.stabbing(7)));
+        assertTrue(index.stabbing(6).isEmpty());
+        assertTrue(index.stabbing(8).isEmpty());
+    }
+
+    @Test
+    void returnsIntervalsInStartOrder() {
+        IntervalIndex<Interval> index = index(
+                new Interval("c", 30, 40), new Interval("a", 10, 50), new Interval("b", 20, 35));
+
+        List<Interval> result = index.overlapping(32, 33);
+        assertEquals(List.of("a", "b", "c"), result.stream().map(Interval::name).toList());
+    }
+
+    @Test
+    void matchesBruteForceOnRandomIntervals() {
+        Random random = new Random(42);
+        List<Interval> intervals = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            long start = random.nextInt(1000);
+            intervals.add(new Interval("i" + i, start, start + random.nextInt(60)));
+        }
+        IntervalIndex<Interval> index = IntervalIndex.build(intervals, Interval::start, Interval::end);
+
+        for (int q = 0; q < 500; q++) {
+            long from = random.nextInt(1100) - 50;
+            long to = from + random.nextInt(q % 5 == 0 ? 1 : 80);
+            List<String> expected = intervals.stream()
+                    .filter(interval -> interval.start() <= to && interval.end() >= from)
+                    .sorted(Comparator.comparing(Interval::name))
+                    .map(Interval::name)
+                    .toList();
+            assertEquals(expected, names(index.overlapping(from, to)), "overlapping(" + from + ", " + to + ")");
+        }
+    }
+}
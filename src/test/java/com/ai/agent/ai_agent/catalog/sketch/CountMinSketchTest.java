@@ -0,0 +1,108 @@
+package com.ai.agent.ai_agent.catalog.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountMinSketchTest {
+
+    private static final int DEPTH = 4;
+    private static final int WIDTH = 1024;
+
+    // Skewed like units sold per brand: a few large sellers and a long tail.
+    private static Map<String, Long> skewedCounts(int keys, long seed) {
+        Random random = new Random(seed);
+        Map<String, Long> counts = new HashMap<>();
+        for (int i = 0; i < keys; i++) {
+            counts.put("brand-" + i, (long) (100_000 / (i + 1)) + random.nextInt(50));
+        }
+        return counts;
+    }
+
+    private static CountMinSketch of(Map<String, Long> counts) {
+        CountMinSketch sketch = new CountMinSketch(DEPTH, WIDTH);
+        counts.forEach(sketch::add);
+        return sketch;
+    }
+
+    @Test
+    void countsExactlyWhileSmall() {
+        CountMinSketch sketch = new CountMinSketch(DEPTH, WIDTH);
+        sketch.add("a", 10);
+        sketch.add("b", 5);
+        sketch.add("a", 3);
+
+        assertEquals(13, sketch.estimate("a"));
+        assertEquals(5, sketch.estimate("b"));
+        assertEquals(0, sketch.estimate("c"));
+        assertEquals(18, sketch.total());
+        assertEquals(0, sketch.errorBound());
+    }
+
+    @Test
+    void neverUndercountsAndRarelyExceedsErrorBound() {
+        Map<String, Long> counts = skewedCounts(5_000, 1);
+        CountMinSketch sketch = of(counts);
+
+        assertEquals(counts.values().stream().mapToLong(Long::longValue).sum(), sketch.total());
+        long bound = sketch.errorBound();
+        int overBound = 0;
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            long estimate = sketch.estimate(entry.getKey());
+            assertTrue(estimate >= entry.getValue(), entry.getKey() + " undercounted");
+            if (estimate - entry.getValue() > bound) {
+                overBound++;
+            }
+        }
+        // The bound holds for each key with probability 1 - e^-depth, about 98%.
+        assertTrue(overBound <= counts.size() * Math.exp(-DEPTH), overBound + " keys over the bound");
+    }
+
+    @Test
+    void decrementsTakeBackEarlierCounts() {
+        Map<String, Long> counts = skewedCounts(2_000, 2);
+        CountMinSketch sketch = of(counts);
+        CountMinSketch reference = of(counts);
+        sketch.add("brand-0", 500);
+        sketch.add("brand-0", -500);
+
+        assertEquals(reference.total(), sketch.total());
+        for (String key : counts.keySet()) {
+            assertEquals(reference.estimate(key), sketch.estimate(key));
+        }
+    }
+
+    @Test
+    void mergeMatchesASketchOfBothStreams() {
+        Map<String, Long> left = skewedCounts(3_000, 3);
+        Map<String, Long> right = new HashMap<>();
+        skewedCounts(3_000, 4).forEach((key, count) -> right.put(key + "-r", count));
+        Map<String, Long> small = Map.of("brand-1", 7L, "other", 11L);
+
+        CountMinSketch merged = of(left);
+        merged.merge(of(right));
+        merged.merge(of(small));
+        CountMinSketch whole = of(left);
+        right.forEach(whole::add);
+        small.forEach(whole::add);
+
+        assertEquals(whole.total(), merged.total());
+        assertEquals(whole.errorBound(), merged.errorBound());
+        for (String key : left.keySet()) {
+            assertEquals(whole.estimate(key), merged.estimate(key));
+        }
+        assertEquals(whole.estimate("other"), merged.estimate("other"));
+    }
+
+    @Test
+    void refusesToMergeDifferentDimensions() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CountMinSketch(DEPTH, WIDTH).merge(new CountMinSketch(DEPTH, WIDTH / 2)));
+    }
+}
@@ -0,0 +1,84 @@
+package com.ai.agent.ai_agent.catalog.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+
+    private static final int PRECISION = 12;
+
+    private static HyperLogLog of(int from, int to) {
+        HyperLogLog sketch = new HyperLogLog(PRECISION);
+        for (int i = from; i < to; i++) {
+            sketch.add("brand-" + i);
+        }
+        return sketch;
+    }
+
+    // Three standard errors: the hash is fixed, so these either always pass or always fail.
+    private static void assertWithinBound(HyperLogLog sketch, long expected) {
+        double error = Math.abs(sketch.estimate() - expected) / (double) expected;
+        assertTrue(error <= 3 * sketch.relativeError(),
+                "estimate " + sketch.estimate() + " for " + expected + " is off by " + error);
+    }
+
+    @Test
+    void countsExactlyWhileSparse() {
+        HyperLogLog sketch = of(0, 100);
+        sketch.add("brand-7");
+        sketch.add("brand-42");
+
+        assertEquals(100, sketch.estimate());
+        assertEquals(0, sketch.relativeError());
+        assertTrue(sketch.retainedBytes() < 2048);
+    }
+
+    @Test
+    void estimatesStayWithinErrorBound() {
+        for (int n : new int[]{500, 5_000, 50_000, 500_000}) {
+            HyperLogLog sketch = of(0, n);
+            assertWithinBound(sketch, n);
+            assertEquals(1 << PRECISION, sketch.retainedBytes());
+        }
+    }
+
+    @Test
+    void duplicatesDoNotCount() {
+        HyperLogLog once = of(0, 20_000);
+        HyperLogLog twice = of(0, 20_000);
+        for (int i = 0; i < 20_000; i++) {
+            twice.add("brand-" + i);
+        }
+
+        assertEquals(once.estimate(), twice.estimate());
+    }
+
+    @Test
+    void mergeEstimatesTheUnion() {
+        HyperLogLog left = of(0, 60_000);
+        left.merge(of(40_000, 100_000));
+
+        assertWithinBound(left, 100_000);
+    }
+
+    @Test
+    void mergeMatchesASketchOfAllValues() {
+        HyperLogLog whole = of(0, 30_000);
+
+        HyperLogLog dense = of(0, 29_950);
+        dense.merge(of(29_950, 30_000));
+        assertEquals(whole.estimate(), dense.estimate());
+
+        HyperLogLog sparse = of(0, 50);
+        sparse.merge(of(50, 30_000));
+        assertEquals(whole.estimate(), sparse.estimate());
+    }
+
+    @Test
+    void refusesToMergeDifferentPrecision() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(10).merge(new HyperLogLog(12)));
+    }
+}
@@ -0,0 +1,103 @@
+package com.ai.agent.ai_agent.catalog.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KllSketchTest {
+
+    // rankError() is a 99% bound per query; the slack keeps a hundred queries from flaking.
+    private static final double SLACK = 1.5;
+
+    private static List<Double> shuffled(int n, long seed) {
+        List<Double> values = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            values.add((double) i);
+        }
+        Collections.shuffle(values, new Random(seed));
+        return values;
+    }
+
+    private static void assertRanksWithinBound(KllSketch sketch, int n) {
+        double bound = SLACK * sketch.rankError();
+        for (int percent = 1; percent < 100; percent++) {
+            double value = n * percent / 100.0 - 1;
+            double trueRank = (value + 1) / n;
+            double error = Math.abs(sketch.rank(value) - trueRank);
+            assertTrue(error <= bound, "rank of " + value + " off by " + error + ", bound " + bound);
+            double quantile = sketch.quantile(percent / 100.0);
+            assertTrue(Math.abs((quantile + 1) / n - percent / 100.0) <= bound, "quantile " + percent + "% was " + quantile);
+        }
+    }
+
+    @Test
+    void isExactUntilFirstCompaction() {
+        KllSketch sketch = new KllSketch();
+        for (double value : shuffled(8, 1)) {
+            sketch.update(value);
+        }
+
+        assertEquals(0, sketch.rankError());
+        assertEquals(8, sketch.count());
+        assertEquals(0, sketch.min());
+        assertEquals(7, sketch.max());
+        assertEquals(3, sketch.quantile(0.5));
+        assertEquals(0.5, sketch.rank(3));
+        assertEquals(0, sketch.rank(-1));
+        assertEquals(1, sketch.rank(7));
+    }
+
+    @Test
+    void ranksAndQuantilesStayWithinErrorBound() {
+        int n = 100_000;
+        KllSketch sketch = new KllSketch();
+        shuffled(n, 2).forEach(sketch::update);
+
+        assertEquals(n, sketch.count());
+        assertEquals(0, sketch.min());
+        assertEquals(n - 1, sketch.max());
+        assertTrue(sketch.rankError() > 0 && sketch.rankError() < 0.02);
+        assertRanksWithinBound(sketch, n);
+        // Level arrays for a few thousand values, against 800 KB for the values themselves.
+        assertTrue(sketch.retainedBytes() < 64 * 1024, "retained " + sketch.retainedBytes() + " bytes");
+    }
+
+    @Test
+    void mergedSketchesStayWithinErrorBoundOfTheUnion() {
+        int n = 100_000;
+        List<Double> values = shuffled(n, 3);
+        KllSketch merged = new KllSketch();
+        for (int part = 0; part < 4; part++) {
+            KllSketch sketch = new KllSketch();
+            values.subList(part * n / 4, (part + 1) * n / 4).forEach(sketch::update);
+            merged.merge(sketch);
+        }
+
+        assertEquals(n, merged.count());
+        assertEquals(0, merged.min());
+        assertEquals(n - 1, merged.max());
+        assertRanksWithinBound(merged, n);
+    }
+
+    @Test
+    void mergingAnEmptySketchChangesNothing() {
+        KllSketch sketch = new KllSketch();
+        sketch.update(5);
+        sketch.merge(new KllSketch());
+
+        assertEquals(1, sketch.count());
+        assertEquals(5, sketch.quantile(0.5));
+    }
+
+    @Test
+    void refusesToMergeDifferentK() {
+        assertThrows(IllegalArgumentException.class, () -> new KllSketch(100).merge(new KllSketch(200)));
+    }
+}
@@ -0,0 +1,192 @@
+package com.ai.agent.ai_agent.client.impl;
+
+import com.ai.agent.ai_agent.client.stub.StubChatModel;
+import com.ai.agent.ai_agent.client.tool.AgentToolRegistry;
+import com.ai.agent.ai_agent.client.tool.ToolSelector;
+import com.ai.agent.ai_agent.dto.QueryIntent;
+import com.ai.agent.ai_agent.dto.QueryParameters;
+import com.ai.agent.ai_agent.entity.ItemEntity;
+import com.ai.agent.ai_agent.mcp.query.metadata.QueryMetadata;
+import com.ai.agent.ai_agent.mcp.tools.DistributionTools;
+import com.ai.agent.ai_agent.mcp.tools.HistoryTools;
+import com.ai.agent.ai_agent.mcp.tools.InventoryTools;
+import com.ai.agent.ai_agent.mcp.tools.PricingTools;
+import com.ai.agent.ai_agent.model.ConversationContext;
+import com.ai.agent.ai_agent.model.ToolResult;
+import com.ai.agent.ai_agent.service.DynamicQueryService;
+import com.ai.agent.ai_agent.service.QueryRouterService;
+import com.ai.agent.ai_agent.utils.Deadline;
+import com.ai.agent.ai_agent.utils.DeadlineContext;
+import com.ai.agent.ai_agent.utils.QueryBudget;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResilientAIClientImplTest {
+
+    private static final String DEGRADED = "The assistant is running in degraded mode";
+
+    private SimpleMeterRegistry meterRegistry;
+    private ToolSelector toolSelector;
+    private ExecutorService llmExecutor;
+
+    @BeforeEach
+    void setUp() {
+        // Selection is off so every question is offered the full tool set.
+        meterRegistry = new SimpleMeterRegistry();
+        AgentToolRegistry registry = new AgentToolRegistry(new InventoryTools(null, null, null, null, null, null),
+                new PricingTools(null, null, null, null, null, null), new DistributionTools(null),
+                new HistoryTools(null, null), null, null, null, meterRegistry);
+        toolSelector = new ToolSelector(registry, meterRegistry, false, 6, 3.0, 6.0, 0.35, 2.0);
+        llmExecutor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        llmExecutor.shutdownNow();
+    }
+
+    /**
+     * Hands out the given stub models one call at a time; the last one answers every later call.
+     */
+    private static final class SequencedChatModel implements ChatModel {
+        private final List<StubChatModel> models;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private SequencedChatModel(StubChatModel... models) {
+            this.models = List.of(models);
+        }
+
+        @Override
+        public ChatOptions getDefaultOptions() {
+            return models.get(0).getDefaultOptions();
+        }
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            int call = calls.getAndIncrement();
+            return models.get(Math.min(call, models.size() - 1)).call(prompt);
+        }
+    }
+
+    /**
+     * Reads ten rows and reports a tool result before each model call, as a tool would.
+     */
+    private OpenAIClientImpl delegate(ChatModel chatModel) {
+        return new OpenAIClientImpl(toolSelector, ChatClient.create(chatModel)) {
+            @Override
+            public String query(String userInput, ConversationContext context, Consumer<ToolResult> toolResults) {
+                DeadlineContext.current().flatMap(Deadline::budget).ifPresent(budget -> budget.takeRows(10));
+                toolResults.accept(new ToolResult("topPerformingItems", "{}", Thread.currentThread().getName()));
+                return super.query(userInput, context, toolResults);
+            }
+        };
+    }
+
+    private ResilientAIClientImpl client(ChatModel chatModel, long timeoutMillis, boolean hedging, long hedgeDelayMillis,
+                                         int failureThreshold) {
+        QueryRouterService router = new QueryRouterService() {
+            @Override
+            public Optional<QueryIntent> classify(String query) {
+                return Optional.empty();
+            }
+
+            @Override
+            public Optional<String> route(String query) {
+                return Optional.empty();
+            }
+
+            @Override
+            public String answer(QueryIntent intent) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        DynamicQueryService queries = new DynamicQueryService() {
+            @Override
+            public List<ItemEntity> runDynamicQuery(String type, QueryParameters params) {
+                return List.of();
+            }
+
+            @Override
+            public List<QueryMetadata> getSupportedQueries() {
+                return List.of();
+            }
+        };
+        return new ResilientAIClientImpl(delegate(chatModel), router, queries, llmExecutor, meterRegistry,
+                timeoutMillis, 10_000, hedging, hedgeDelayMillis, failureThreshold, 60_000);
+    }
+
+    private static String ask(ResilientAIClientImpl client, Deadline deadline, List<ToolResult> toolResults)
+            throws Exception {
+        return DeadlineContext.wrap(deadline, () -> client.query("top items", ConversationContext.EMPTY, toolResults::add))
+                .call();
+    }
+
+    @Test
+    void keepsOnlyTheWinningAttemptsToolResultsAndBudget() throws Exception {
+        SequencedChatModel model = new SequencedChatModel(
+                new StubChatModel(3_000, 0, 0, 0, 0), new StubChatModel(5, 0, 0, 0, 0));
+        ResilientAIClientImpl client = client(model, 5_000, true, 50, 5);
+        QueryBudget budget = new QueryBudget(100, 10_000);
+        List<ToolResult> toolResults = Collections.synchronizedList(new ArrayList<>());
+
+        long start = System.nanoTime();
+        String answer = ask(client, Deadline.after(Duration.ofSeconds(10)).withBudget(budget), toolResults);
+
+        assertEquals("Stub answer for: top items", answer);
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2_000, "the hedge should answer first");
+        assertEquals(2, model.calls.get());
+        assertEquals(1.0, meterRegistry.counter("agent.llm.hedged").count());
+        // Both attempts read rows and reported a result, but only the hedge's are kept.
+        assertEquals(1, toolResults.size());
+        assertEquals(90, budget.remainingRows());
+    }
+
+    @Test
+    void answersInDegradedModeWhenTheModelMissesItsDeadline() throws Exception {
+        ResilientAIClientImpl client = client(new StubChatModel(2_000, 0, 0, 0, 0), 100, false, 0, 5);
+        QueryBudget budget = new QueryBudget(100, 10_000);
+        List<ToolResult> toolResults = new ArrayList<>();
+
+        String answer = ask(client, Deadline.after(Duration.ofSeconds(10)).withBudget(budget), toolResults);
+
+        assertTrue(answer.startsWith(DEGRADED), answer);
+        assertEquals(1.0, meterRegistry.counter("agent.llm.degraded", "reason", "timeout").count());
+        assertTrue(toolResults.isEmpty());
+        assertEquals(100, budget.remainingRows());
+    }
+
+    @Test
+    void opensTheCircuitAfterRepeatedFailures() throws Exception {
+        SequencedChatModel model = new SequencedChatModel(new StubChatModel(1, 0, 0, 0, 1.0));
+        ResilientAIClientImpl client = client(model, 5_000, false, 0, 2);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(ask(client, Deadline.after(Duration.ofSeconds(10)), new ArrayList<>()).startsWith(DEGRADED));
+        }
+
+        assertEquals(2, model.calls.get());
+        assertEquals(2.0, meterRegistry.counter("agent.llm.degraded", "reason", "error").count());
+        assertEquals(1.0, meterRegistry.counter("agent.llm.degraded", "reason", "circuit_open").count());
+        assertEquals(1.0, meterRegistry.get("agent.llm.circuit.state").gauge().value());
+    }
+}
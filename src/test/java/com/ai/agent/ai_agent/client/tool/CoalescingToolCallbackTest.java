@@ -0,0 +1,24 @@
+package com.ai.agent.ai_agent.client.tool;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class CoalescingToolCallbackTest {
+
+    @Test
+    void sameArgumentsShareAKeyWhateverTheirLayout() {
+        assertEquals(CoalescingToolCallback.normalize("{\"category\":\"Home\",\"limit\":5}"),
+                CoalescingToolCallback.normalize(" {\n  \"limit\" : 5,\n  \"category\" : \"Home\"\n}"));
+        assertEquals(CoalescingToolCallback.normalize("{\"filter\":{\"b\":1,\"a\":[2, 3]}}"),
+                CoalescingToolCallback.normalize("{\"filter\":{\"a\":[2,3],\"b\":1}}"));
+    }
+
+    @Test
+    void whitespaceInsideValuesKeepsArgumentsApart() {
+        assertNotEquals(CoalescingToolCallback.normalize("{\"category\":\"Home Goods\"}"),
+                CoalescingToolCallback.normalize("{\"category\":\"HomeGoods\"}"));
+        assertEquals("not json ", CoalescingToolCallback.normalize("not json "));
+    }
+}
@@ -0,0 +1,155 @@
+package com.ai.agent.ai_agent.client.tool;
+
+import com.ai.agent.ai_agent.mcp.tools.DistributionTools;
+import com.ai.agent.ai_agent.mcp.tools.HistoryTools;
+import com.ai.agent.ai_agent.mcp.tools.InventoryTools;
+import com.ai.agent.ai_agent.mcp.tools.PricingTools;
+import com.ai.agent.ai_agent.model.ConversationContext;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.metadata.EmptyUsage;
+import org.springframework.ai.tool.ToolCallback;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ToolSelectorTest {
+
+    // Sample questions and the tool each one needs.
+    private static final Map<String, String> QUESTIONS = new LinkedHashMap<>();
+
+    static {
+        QUESTIONS.put("What are the profit margins by category?", "marginAnalyzer");
+        QUESTIONS.put("Which items are running low on stock but selling fast?", "getItemsWithLowStockAndHighSales");
+        QUESTIONS.put("What was the price of ITEM00001 last Tuesday?", "itemValuesAsOf");
+        QUESTIONS.put("Show me the most expensive items available online", "topExpensiveItems");
+        QUESTIONS.put("What is the median price in Electronics?", "metricDistribution");
+        QUESTIONS.put("How many distinct brands are there in Shoes?", "distinctBrandCount");
+        QUESTIONS.put("Which brands sell the most units?", "topBrandsByUnitsSold");
+        QUESTIONS.put("Simulate a 10% price increase on Electronics", "simulatePricingScenarios");
+        QUESTIONS.put("Which items should I restock at the Austin store?", "recommendStockReplenishment");
+        QUESTIONS.put("Forecast demand for ITEM00042 over the next 30 days", "demandForecast");
+        QUESTIONS.put("How did discounts move in Industrial over the last week?", "categoryFieldMovement");
+        QUESTIONS.put("Which products are slow movers?", "inventoryAgingReport");
+        QUESTIONS.put("What items are on promotion next week?", "itemsOnPromotion");
+        QUESTIONS.put("Did the summer sale increase sales?", "analyzeDiscountPromotionImpact");
+        QUESTIONS.put("Summarize items grouped by brand", "summarizeItemsByField");
+        QUESTIONS.put("What share of Home items cost under $50?", "percentileRank");
+        QUESTIONS.put("List the worst performing products", "getUnderperformingItems");
+    }
+
+    private static final List<String> VAGUE_QUESTIONS = List.of(
+            "hello", "and for Shoes?", "Give me an overview of the business");
+
+    private AgentToolRegistry registry;
+    private SimpleMeterRegistry meterRegistry;
+    private ToolSelector selector;
+
+    @BeforeEach
+    void setUp() {
+        // Only the tool definitions are read; no tool is called.
+        meterRegistry = new SimpleMeterRegistry();
+        registry = new AgentToolRegistry(new InventoryTools(null, null, null, null, null, null),
+                new PricingTools(null, null, null, null, null, null), new DistributionTools(null),
+                new HistoryTools(null, null), null, null, null, meterRegistry);
+        selector = new ToolSelector(registry, meterRegistry, true, 6, 3.0, 6.0, 0.35, 2.0);
+    }
+
+    private static List<String> names(ToolSelection selection) {
+        return selection.callbacks().stream().map(callback -> callback.getToolDefinition().name()).toList();
+    }
+
+    private ToolCallback tool(String name) {
+        return registry.getToolCallbacks().stream()
+                .filter(callback -> callback.getToolDefinition().name().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    void offersASubsetWithTheNeededToolForEachSampleQuestion() {
+        int total = registry.getToolCallbacks().size();
+        QUESTIONS.forEach((question, tool) -> {
+            ToolSelection selection = selector.select(question, ConversationContext.EMPTY);
+
+            assertFalse(selection.fullSet(), question);
+            assertTrue(names(selection).contains(tool), question + " -> " + names(selection));
+            // Up to twice max-tools when the best score is below confident-score.
+            assertTrue(selection.callbacks().size() <= 12 && selection.callbacks().size() < total, question);
+        });
+    }
+
+    @Test
+    void offersEveryToolForVagueQuestions() {
+        for (String question : VAGUE_QUESTIONS) {
+            ToolSelection selection = selector.select(question, ConversationContext.EMPTY);
+
+            assertTrue(selection.fullSet(), question);
+            assertEquals(registry.getToolCallbacks(), selection.callbacks());
+        }
+    }
+
+    @Test
+    void learnsFromToolsCalledWhenEveryToolWasOffered() {
+        String question = "Give me an overview of the business";
+        assertTrue(selector.select(question, ConversationContext.EMPTY).fullSet());
+        for (int i = 0; i < 20; i++) {
+            ToolSelection selection = new ToolSelection(registry.getToolCallbacks(), true, List.of("overview", "business"));
+            selection.recordCall("categoryBrandPerformanceSummary");
+            selector.recordOutcome(selection, null, 1_000_000);
+        }
+
+        ToolSelection selection = selector.select(question, ConversationContext.EMPTY);
+
+        assertFalse(selection.fullSet());
+        assertEquals("categoryBrandPerformanceSummary", names(selection).get(0));
+    }
+
+    @Test
+    void doesNotLearnFromToolsCalledOutOfASubset() {
+        // A subset that wrongly left out everything but one tool: the model can only call that one.
+        ToolSelection wrong = new ToolSelection(List.of(tool("optimizePrices")), false, List.of("overview", "business"));
+        for (int i = 0; i < 20; i++) {
+            wrong.recordCall("optimizePrices");
+            selector.recordOutcome(wrong, null, 1_000_000);
+        }
+
+        assertTrue(selector.select("Give me an overview of the business", ConversationContext.EMPTY).fullSet());
+    }
+
+    @Test
+    void widensTheSubsetWhenTheBestScoreIsLow() {
+        ToolSelection confident = selector.select("Which brands sell the most units?", ConversationContext.EMPTY);
+        ToolSelection weak = selector.select("Did the summer sale increase sales?", ConversationContext.EMPTY);
+
+        assertTrue(confident.callbacks().size() <= 6);
+        assertFalse(weak.fullSet());
+        assertTrue(weak.callbacks().size() > 6 && weak.callbacks().size() <= 12, names(weak).toString());
+        assertTrue(names(weak).contains("analyzeDiscountPromotionImpact"));
+        assertEquals(1, meterRegistry.get("agent.tools.selection.widened").counter().count());
+    }
+
+    @Test
+    void recordsPromptTokensTheModelReported() {
+        ToolSelection subset = selector.select("Which brands sell the most units?", ConversationContext.EMPTY);
+        ToolSelection full = selector.select("hello", ConversationContext.EMPTY);
+
+        selector.recordOutcome(subset, new DefaultUsage(1_200, 80), 1_000_000);
+        selector.recordOutcome(subset, new DefaultUsage(1_400, 90), 1_000_000);
+        selector.recordOutcome(full, new EmptyUsage(), 1_000_000);
+
+        DistributionSummary subsetTokens = meterRegistry.get("agent.llm.prompt.tokens").tag("tools", "subset").summary();
+        assertEquals(2, subsetTokens.count());
+        assertEquals(2_600, subsetTokens.totalAmount());
+        assertNull(meterRegistry.find("agent.llm.prompt.tokens").tag("tools", "full").summary());
+    }
+}
@@ -0,0 +1,108 @@
+package com.ai.agent.ai_agent.mcp.tools.utils;
+
+import com.ai.agent.ai_agent.entity.ItemEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tool report rendering with {@link String#format}, as the tools did before, against
+ * {@link ReportWriter} and {@link RowLayout}. Build the test classes and run with the GC profiler
+ * for allocation per operation:
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main ReportWriterBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportWriterBenchmark {
+
+    private static final String ITEM_PATTERN =
+            "%d. Item Name: \"%s\", Item ID: \"%s\", SKU: \"%s\", Category: \"%s\", Units Sold: %d, Average Rating: %.1f\n";
+    private static final String MARGIN_PATTERN = "%-25s $%-11.2f $%-11.2f %-11.2f%%\n";
+    private static final RowLayout MARGIN_ROW = RowLayout.compile(MARGIN_PATTERN);
+
+    @Param({"1000"})
+    private int rows;
+
+    private List<ItemEntity> items;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        items = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            double cost = 5 + random.nextDouble() * 200;
+            items.add(ItemEntity.builder()
+                    .itemId("ITEM-" + i)
+                    .itemName("Product " + i)
+                    .sku("SKU-" + (100_000 + i))
+                    .category("Category " + random.nextInt(20))
+                    .costPrice(cost)
+                    .storePrice(cost * (1.1 + random.nextDouble()))
+                    .unitsSold(random.nextInt(5_000))
+                    .averageRating(1 + random.nextDouble() * 4)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public String summarizeItemsStringFormat() {
+        StringBuilder summary = new StringBuilder("Items:\n");
+        for (int i = 0; i < items.size(); i++) {
+            ItemEntity item = items.get(i);
+            summary.append(String.format(ITEM_PATTERN, i + 1, item.getItemName(), item.getItemId(), item.getSku(),
+                    item.getCategory(), item.getUnitsSold(), item.getAverageRating()));
+        }
+        return summary.toString();
+    }
+
+    @Benchmark
+    public String summarizeItemsReportWriter() {
+        return ItemSummaryHelper.summarizeItems("Items", items);
+    }
+
+    @Benchmark
+    public String marginRowsStringFormat() {
+        StringBuilder report = new StringBuilder();
+        for (ItemEntity item : items) {
+            double margin = (item.getStorePrice() - item.getCostPrice()) / item.getStorePrice() * 100;
+            report.append(String.format(MARGIN_PATTERN, item.getItemName(), item.getStorePrice(), item.getCostPrice(), margin));
+        }
+        return report.toString();
+    }
+
+    @Benchmark
+    public String marginRowsRowLayout() {
+        try (ReportWriter out = ReportWriter.open()) {
+            for (ItemEntity item : items) {
+                double margin = (item.getStorePrice() - item.getCostPrice()) / item.getStorePrice() * 100;
+                out.row(MARGIN_ROW)
+                        .cell(item.getItemName())
+                        .cell(item.getStorePrice())
+                        .cell(item.getCostPrice())
+                        .cell(margin)
+                        .end();
+            }
+            return out.toString();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.ai.agent.ai_agent.mcp.tools.utils;
+
+import com.ai.agent.ai_agent.mcp.tools.InventoryTools;
+import com.ai.agent.ai_agent.mcp.tools.PricingTools;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Output of the writer and of every row layout in the tools, compared with {@link String#format}
+ * on the same pattern and values, which is what the tools called before.
+ */
+class ReportWriterTest {
+
+    private static final Pattern CONVERSION = Pattern.compile("%[-+]*\\d*(?:\\.\\d+)?([sdf])");
+    private static final String[] TEXTS = {"", "a", "Widget", "Café crème — 1/2 price", "Exactly twenty-five chars",
+            "A product name that is well over forty characters long", null};
+
+    private static final double[] EDGE_VALUES = {0, -0.0, 0.5, -0.5, 1.5, 2.5, 0.125, 0.375, 2.675, 1.005, 1.115,
+            -1.005, 0.045, 0.0049999, 0.005, -0.004, 99.995, 999_999.995, 1e15, -1e15, 1e16, 1.23e20,
+            Double.MIN_VALUE, Double.MAX_VALUE, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+
+    @Test
+    void fixedMatchesFormatter() {
+        List<Double> values = new ArrayList<>();
+        for (double value : EDGE_VALUES) {
+            values.add(value);
+        }
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            values.add(randomDouble(random));
+        }
+        // Exact decimal ties at every precision, where binary rounding and Formatter can disagree.
+        for (int units = 0; units < 2_000; units++) {
+            for (int decimals = 0; decimals <= 4; decimals++) {
+                values.add((units + 0.5) / Math.pow(10, decimals));
+            }
+        }
+        for (double value : values) {
+            for (int decimals = 0; decimals <= 9; decimals++) {
+                try (ReportWriter out = ReportWriter.open()) {
+                    assertEquals(String.format("%." + decimals + "f", value), out.fixed(value, decimals).toString(),
+                            value + " to " + decimals + " decimals");
+                }
+                try (ReportWriter out = ReportWriter.open()) {
+                    assertEquals(String.format("%+." + decimals + "f", value), out.signed(value, decimals).toString(),
+                            value + " signed to " + decimals + " decimals");
+                }
+            }
+            try (ReportWriter out = ReportWriter.open()) {
+                assertEquals(String.format("$%.2f", value), out.money(value).toString());
+            }
+        }
+    }
+
+    @Test
+    void datesMatchTheirFormatters() {
+        DateTimeFormatter minutes = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        Random random = new Random(11);
+        for (int i = 0; i < 5_000; i++) {
+            LocalDate date = LocalDate.ofEpochDay(random.nextInt(800_000) - 400_000);
+            Instant time = Instant.ofEpochSecond(random.nextLong() % 10_000_000_000L);
+            ZoneId zone = ZoneId.of(i % 2 == 0 ? "UTC" : "America/St_Johns");
+            try (ReportWriter out = ReportWriter.open()) {
+                assertEquals(date.toString(), out.date(date).toString());
+            }
+            try (ReportWriter out = ReportWriter.open()) {
+                assertEquals(minutes.format(time.atZone(zone)), out.dateTime(time, zone).toString(), time + " in " + zone);
+            }
+        }
+    }
+
+    @Test
+    void everyToolLayoutMatchesStringFormat() throws IllegalAccessException {
+        List<RowLayout> layouts = new ArrayList<>();
+        for (Class<?> type : List.of(InventoryTools.class, PricingTools.class, ItemSummaryHelper.class)) {
+            for (Field field : type.getDeclaredFields()) {
+                if (field.getType() == RowLayout.class && Modifier.isStatic(field.getModifiers())) {
+                    field.setAccessible(true);
+                    layouts.add((RowLayout) field.get(null));
+                }
+            }
+        }
+        assertFalse(layouts.isEmpty());
+
+        Random random = new Random(3);
+        for (RowLayout layout : layouts) {
+            String pattern = layout.toString();
+            List<Character> conversions = new ArrayList<>();
+            Matcher matcher = CONVERSION.matcher(pattern);
+            while (matcher.find()) {
+                conversions.add(matcher.group(1).charAt(0));
+            }
+            for (int i = 0; i < 2_000; i++) {
+                Object[] values = new Object[conversions.size()];
+                try (ReportWriter out = ReportWriter.open()) {
+                    RowLayout.Row row = out.row(layout);
+                    for (int column = 0; column < values.length; column++) {
+                        switch (conversions.get(column)) {
+                            case 's' -> {
+                                if (random.nextInt(4) == 0) {
+                                    long number = random.nextInt(100_000) - 1_000;
+                                    values[column] = number;
+                                    row.cell(number);
+                                } else {
+                                    String text = TEXTS[random.nextInt(TEXTS.length)];
+                                    values[column] = text;
+                                    row.cell(text);
+                                }
+                            }
+                            case 'd' -> {
+                                long number = random.nextBoolean() ? random.nextInt(1_000) : random.nextLong();
+                                values[column] = number;
+                                row.cell(number);
+                            }
+                            default -> {
+                                double number = random.nextInt(10) == 0
+                                        ? EDGE_VALUES[random.nextInt(EDGE_VALUES.length)]
+                                        : randomDouble(random);
+                                values[column] = number;
+                                row.cell(number);
+                            }
+                        }
+                    }
+                    row.end();
+                    assertEquals(String.format(pattern, values), out.toString(), pattern);
+                }
+            }
+        }
+    }
+
+    private static double randomDouble(Random random) {
+        double magnitude = Math.pow(10, random.nextInt(12) - 4);
+        double value = random.nextDouble() * magnitude;
+        // Prices and percentages that were computed rather than typed in, as the tools see them.
+        if (random.nextBoolean()) {
+            value = Math.round(value * 100) / 100.0 * (1 + random.nextInt(3) * 0.07);
+        }
+        return random.nextInt(5) == 0 ? -value : value;
+    }
+}